@@ -19,6 +19,7 @@ package net.rrm.ehour.audit.aspect;
 import net.rrm.ehour.audit.annot.Auditable;
 import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.audit.service.AuditService;
+import net.rrm.ehour.config.ConfigurationChangeListener;
 import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.domain.Audit;
@@ -40,19 +41,25 @@ import org.springframework.stereotype.Service;
 import java.lang.annotation.Annotation;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Auditable Aspect
  */
 @Aspect
 @Service
-public class AuditAspect {
+public class AuditAspect implements ConfigurationChangeListener {
     @Autowired
     private AuditService auditService;
 
     @Autowired
     private ConfigurationService configurationService;
 
+    /**
+     * Audit type of the configuration, loaded once and replaced whenever the configuration is changed
+     */
+    private final AtomicReference<AuditType> auditType = new AtomicReference<>();
+
     @Pointcut("execution(public * net.rrm.ehour.*.service.*Service*.get*(..)) && " +
             "!@annotation(net.rrm.ehour.audit.annot.Auditable) && " +
             "!@annotation(net.rrm.ehour.audit.annot.NonAuditable)")
@@ -150,6 +157,23 @@ public class AuditAspect {
         return returnObject;
     }
 
+    @Override
+    public void configurationChanged(EhourConfig config) {
+        auditType.set(config.getAuditType());
+    }
+
+    private AuditType getAuditType() {
+        AuditType type = auditType.get();
+
+        if (type == null) {
+            // only fill in the blank, an audit type published while loading is newer
+            auditType.compareAndSet(null, configurationService.getConfiguration().getAuditType());
+            type = auditType.get();
+        }
+
+        return type;
+    }
+
     /**
      * Is audit type enabled
      *
@@ -157,18 +181,18 @@ public class AuditAspect {
      * @return
      */
     private boolean isAuditEnabled(AuditActionType actionType) {
-        EhourConfig config = configurationService.getConfiguration();
+        AuditType type = getAuditType();
 
-        if (config.getAuditType() == AuditType.NONE) {
+        if (type == AuditType.NONE) {
             return false;
         }
 
-        if (config.getAuditType() == AuditType.WRITE &&
-                actionType.getAuditType() == config.getAuditType()) {
+        if (type == AuditType.WRITE &&
+                actionType.getAuditType() == type) {
             return true;
         }
 
-        return config.getAuditType() == AuditType.ALL;
+        return type == AuditType.ALL;
 
     }
 
@@ -276,5 +300,6 @@ public class AuditAspect {
      */
     public void setConfigurationService(ConfigurationService configurationService) {
         this.configurationService = configurationService;
+        this.auditType.set(null);
     }
 }
@@ -48,6 +48,11 @@ public class MockAuditImpl implements AuditService, MockAudit
         return null;
     }
 
+    @Override
+    public List<Audit> findAuditsAfter(AuditReportRequest request, Audit after, Integer max) {
+        return null;
+    }
+
     @NonAuditable
 	public List<Audit> findAudits(AuditReportRequest request)
 	{
@@ -58,6 +63,11 @@ public class MockAuditImpl implements AuditService, MockAudit
 	{
 		return null;
 	}
+	@NonAuditable
+	public Number getAuditCount(AuditReportRequest request, Integer limit)
+	{
+		return null;
+	}
 	public int getCalled()
 	{
 		return called;
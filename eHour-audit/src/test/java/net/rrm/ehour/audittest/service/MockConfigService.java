@@ -56,6 +56,11 @@ public class MockConfigService implements ConfigurationService
 		
 	}
 
+	@Override
+	public void publishConfiguration()
+	{
+	}
+
 	/* (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.config.service.ConfigurationService#getExcelLogo()
 	 */
@@ -10,4 +10,9 @@ import java.util.Map;
  */
 public interface BackupRowProcessor extends Serializable {
     List<Map<String, Object>> processRows(List<Map<String, Object>> rows);
+
+    /**
+     * Process a single row, used when rows are streamed rather than loaded as a list
+     */
+    Map<String, Object> processRow(Map<String, Object> row);
 }
@@ -0,0 +1,180 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Locked days of a date range as a bitset over days since the epoch, bit i is the first day + i.
+ * Days are in the default timezone, the time of a date is ignored
+ */
+public class LockedDays implements Serializable {
+    private static final long serialVersionUID = -2170725390871587422L;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    public static final LockedDays NONE = new LockedDays(0, new BitSet());
+
+    private final int firstDay;
+    private final BitSet days;
+
+    /**
+     * @param firstDay days since the epoch of bit 0
+     * @param days     locked days, not copied
+     */
+    public LockedDays(int firstDay, BitSet days) {
+        this.firstDay = firstDay;
+        this.days = days;
+    }
+
+    public boolean isLocked(Date date) {
+        return isLocked(toEpochDay(date));
+    }
+
+    public boolean isLocked(int epochDay) {
+        int bit = epochDay - firstDay;
+
+        return bit >= 0 && days.get(bit);
+    }
+
+    /**
+     * Is every day from start to end inclusive locked
+     */
+    public boolean isAllLocked(Date start, Date end) {
+        int from = toEpochDay(start) - firstDay;
+        int to = toEpochDay(end) - firstDay;
+
+        return from >= 0 && from <= to && days.nextClearBit(from) > to;
+    }
+
+    /**
+     * Is any day from start to end inclusive locked
+     */
+    public boolean isAnyLocked(Date start, Date end) {
+        int from = Math.max(0, toEpochDay(start) - firstDay);
+        int to = toEpochDay(end) - firstDay;
+
+        int locked = days.nextSetBit(from);
+
+        return locked >= 0 && locked <= to;
+    }
+
+    public boolean isEmpty() {
+        return days.isEmpty();
+    }
+
+    /**
+     * @return the locked days, at the start of the day
+     */
+    public List<Date> toDates() {
+        List<Date> dates = new ArrayList<>(days.cardinality());
+
+        for (int bit = days.nextSetBit(0); bit >= 0; bit = days.nextSetBit(bit + 1)) {
+            dates.add(fromEpochDay(firstDay + bit));
+        }
+
+        return dates;
+    }
+
+    public static LockedDays fromDates(List<Date> dates) {
+        if (dates.isEmpty()) {
+            return NONE;
+        }
+
+        int firstDay = Integer.MAX_VALUE;
+
+        for (Date date : dates) {
+            firstDay = Math.min(firstDay, toEpochDay(date));
+        }
+
+        BitSet days = new BitSet();
+
+        for (Date date : dates) {
+            days.set(toEpochDay(date) - firstDay);
+        }
+
+        return new LockedDays(firstDay, days);
+    }
+
+    /**
+     * Days since 1970-01-01 of the date's day in the default timezone
+     */
+    public static int toEpochDay(Date date) {
+        long millis = date.getTime();
+        long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+        long day = localMillis / MILLIS_PER_DAY;
+
+        return (int) (localMillis < 0 && localMillis % MILLIS_PER_DAY != 0 ? day - 1 : day);
+    }
+
+    /**
+     * Start of the day in the default timezone
+     */
+    public static Date fromEpochDay(int epochDay) {
+        Calendar calendar = new GregorianCalendar(1970, Calendar.JANUARY, 1);
+        calendar.add(Calendar.DAY_OF_MONTH, epochDay);
+
+        return calendar.getTime();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof LockedDays)) {
+            return false;
+        }
+
+        LockedDays other = (LockedDays) o;
+
+        if (isEmpty() || other.isEmpty()) {
+            return isEmpty() && other.isEmpty();
+        }
+
+        return normalizedFirstDay() == other.normalizedFirstDay() && normalizedDays().equals(other.normalizedDays());
+    }
+
+    @Override
+    public int hashCode() {
+        return isEmpty() ? 0 : 31 * normalizedFirstDay() + normalizedDays().hashCode();
+    }
+
+    /**
+     * First locked day, so the same days with a different first day compare equal
+     */
+    private int normalizedFirstDay() {
+        return firstDay + days.nextSetBit(0);
+    }
+
+    private BitSet normalizedDays() {
+        return days.get(days.nextSetBit(0), days.length());
+    }
+
+    @Override
+    public String toString() {
+        return "LockedDays" + toDates();
+    }
+}
@@ -16,8 +16,8 @@
 
 package net.rrm.ehour.timesheet.dto;
 
-import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.TimesheetComment;
 import net.rrm.ehour.domain.TimesheetEntry;
@@ -45,7 +45,7 @@ public class WeekOverview implements Serializable {
     private List<ProjectAssignment> projectAssignments;
     private DateRange weekRange;
     private User user;
-    private List<Date> lockedDays;
+    private LockedDays lockedDays;
 
     public WeekOverview(List<TimesheetEntry> timesheetEntries, List<ProjectAssignment> projectAssignments) {
         this.timesheetEntries = timesheetEntries;
@@ -53,15 +53,15 @@ public class WeekOverview implements Serializable {
 
         assignmentMap = mergeUnbookedAssignments(createAssignmentMap());
         weekRange = new DateRange(new Date(), new Date());
-        lockedDays = Lists.newArrayList();
+        lockedDays = LockedDays.NONE;
     }
 
-    public WeekOverview(List<TimesheetEntry> timesheetEntries, TimesheetComment comment, List<ProjectAssignment> projectAssignments, DateRange weekRange, User user, List<Date> lockedDates) {
+    public WeekOverview(List<TimesheetEntry> timesheetEntries, TimesheetComment comment, List<ProjectAssignment> projectAssignments, DateRange weekRange, User user, LockedDays lockedDays) {
         this(timesheetEntries, projectAssignments);
         this.comment = comment;
         this.weekRange = weekRange;
         this.user = user;
-        this.lockedDays = lockedDates;
+        this.lockedDays = lockedDays;
     }
 
     public Map<ProjectAssignment, Map<String, TimesheetEntry>> getAssignmentMap() {
@@ -119,7 +119,7 @@ public class WeekOverview implements Serializable {
         return user;
     }
 
-    public List<Date> getLockedDays() {
+    public LockedDays getLockedDays() {
         return lockedDays;
     }
 }
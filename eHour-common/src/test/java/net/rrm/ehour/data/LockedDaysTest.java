@@ -0,0 +1,71 @@
+package net.rrm.ehour.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.*;
+
+public class LockedDaysTest {
+    @Test
+    public void shouldIgnoreTimeOfDay() {
+        LockedDays lockedDays = LockedDays.fromDates(Arrays.asList(date(2015, 3, 0)));
+
+        assertTrue(lockedDays.isLocked(date(2015, 3, 0)));
+        assertTrue(lockedDays.isLocked(date(2015, 3, 23)));
+        assertFalse(lockedDays.isLocked(date(2015, 2, 23)));
+        assertFalse(lockedDays.isLocked(date(2015, 4, 0)));
+    }
+
+    @Test
+    public void shouldCheckRanges() {
+        BitSet days = new BitSet();
+        days.set(2, 5);
+        LockedDays lockedDays = new LockedDays(LockedDays.toEpochDay(date(2015, 1, 0)), days);
+
+        assertTrue(lockedDays.isAllLocked(date(2015, 3, 0), date(2015, 5, 0)));
+        assertFalse(lockedDays.isAllLocked(date(2015, 2, 0), date(2015, 5, 0)));
+        assertFalse(lockedDays.isAllLocked(date(2014, 31, 0), date(2015, 2, 0)));
+
+        assertTrue(lockedDays.isAnyLocked(date(2014, 1, 0), date(2015, 3, 0)));
+        assertFalse(lockedDays.isAnyLocked(date(2015, 6, 0), date(2015, 10, 0)));
+        assertFalse(LockedDays.NONE.isAnyLocked(date(2015, 1, 0), date(2015, 10, 0)));
+    }
+
+    @Test
+    public void shouldConvertToDatesAtStartOfDay() {
+        LockedDays lockedDays = LockedDays.fromDates(Arrays.asList(date(2015, 4, 15), date(2015, 2, 8)));
+
+        assertEquals(Arrays.asList(date(2015, 2, 0), date(2015, 4, 0)), lockedDays.toDates());
+    }
+
+    @Test
+    public void shouldBeEqualForTheSameDaysFromADifferentFirstDay() {
+        BitSet days = new BitSet();
+        days.set(2, 5);
+        LockedDays lockedDays = new LockedDays(10, days);
+
+        BitSet shifted = new BitSet();
+        shifted.set(0, 3);
+        LockedDays sameDays = new LockedDays(12, shifted);
+
+        assertEquals(lockedDays, sameDays);
+        assertEquals(lockedDays.hashCode(), sameDays.hashCode());
+        assertFalse(lockedDays.equals(new LockedDays(11, shifted)));
+        assertEquals(LockedDays.NONE, new LockedDays(10, new BitSet()));
+    }
+
+    @Test
+    public void shouldCountDaysSinceTheEpochBeforeAndAfter() {
+        assertEquals(0, LockedDays.toEpochDay(new GregorianCalendar(1970, 0, 1, 23, 0).getTime()));
+        assertEquals(-1, LockedDays.toEpochDay(new GregorianCalendar(1969, 11, 31, 1, 0).getTime()));
+        assertEquals(date(2015, 3, 0), LockedDays.fromEpochDay(LockedDays.toEpochDay(date(2015, 3, 12))));
+    }
+
+    private static Date date(int year, int dayOfJanuary, int hour) {
+        return new GregorianCalendar(year, 0, dayOfJanuary, hour, 0).getTime();
+    }
+}
@@ -39,7 +39,7 @@ CREATE TABLE AUDIT (
                     CHARACTER SET latin1 NOT NULL,
   AUDIT_ACTION_TYPE VARCHAR(32),
   PRIMARY KEY (AUDIT_ID),
-  KEY IDX_AUDIT_DATE (AUDIT_DATE),
+  KEY IDX_AUDIT_DATE (AUDIT_DATE, AUDIT_ID),
   KEY IDX_AUDIT_USER (USER_FULLNAME),
   KEY IDX_AUDIT_ACTION_TYPE (AUDIT_ACTION_TYPE)
 )
@@ -68,7 +68,7 @@ INSERT INTO CONFIGURATION
 VALUES ('initialized', 'false'), ('completeDayHours', '8'), ('showTurnOver', 'true'), ('localeLanguage', 'en'),
   ('currency', 'en-US'), ('localeCountry', 'en-US'), ('availableTranslations', 'en,nl,fr,it'),
   ('mailFrom', 'noreply@localhost.net'), ('smtpPort', '25'), ('mailSmtp', '127.0.0.1'), ('demoMode', 'false'),
-  ('version', '1.4.2');
+  ('version', '1.4.3');
 INSERT INTO CONFIGURATION (CONFIG_KEY, CONFIG_VALUE) VALUES ('reminderEnabled', 'false');
 INSERT INTO CONFIGURATION (CONFIG_KEY, CONFIG_VALUE) VALUES ('reminderBody',
                                                              'Hello $name,\r\n\r\nThis is an automated message.\r\n\r\nOur records show that you have not posted your weekly hours online. Please be sure to post your hours by 5:30PM Friday.\r\n\r\nThank You,\r\n\r\neHour');
@@ -0,0 +1,3 @@
+ALTER TABLE AUDIT DROP INDEX IDX_AUDIT_DATE, ADD INDEX IDX_AUDIT_DATE (AUDIT_DATE, AUDIT_ID);
+
+UPDATE CONFIGURATION SET CONFIG_VALUE = '1.4.3' WHERE CONFIG_KEY = 'version';
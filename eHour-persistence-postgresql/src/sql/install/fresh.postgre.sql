@@ -11,7 +11,7 @@ CREATE TABLE AUDIT (
 	AUDIT_ACTION_TYPE TEXT,
     PRIMARY KEY  (AUDIT_ID)
 );
-CREATE INDEX IDX_AUDIT_DATE ON audit(AUDIT_DATE);
+CREATE INDEX IDX_AUDIT_DATE ON audit(AUDIT_DATE, AUDIT_ID);
 CREATE INDEX IDX_AUDIT_USER ON audit(USER_FULLNAME);
 CREATE INDEX IDX_AUDIT_ACTION_TYPE ON audit(AUDIT_ACTION_TYPE);
 --
@@ -34,7 +34,7 @@ INSERT INTO CONFIGURATION VALUES
 ('showTurnOver','true'), ('localeLanguage','en'), ('currency','en-US'),
 ('localeCountry','en-US'), ('availableTranslations','en,nl,fr,it'),
 ('mailFrom','noreply@localhost.net'), ('smtpPort','25'),
-('mailSmtp','127.0.0.1'), ('demoMode','false'), ('version', '1.4.2');
+('mailSmtp','127.0.0.1'), ('demoMode','false'), ('version', '1.4.3');
 INSERT INTO CONFIGURATION (CONFIG_KEY, CONFIG_VALUE) VALUES('reminderEnabled', 'false');
 INSERT INTO CONFIGURATION (CONFIG_KEY, CONFIG_VALUE) VALUES('reminderBody', 'Hello $name,\r\n\r\nThis is an automated message.\r\n\r\nOur records show that you have not posted your weekly hours online. Please be sure to post your hours by 5:30PM Friday.\r\n\r\nThank You,\r\n\r\neHour');
 INSERT INTO CONFIGURATION (CONFIG_KEY, CONFIG_VALUE) VALUES('reminderTime', '0 30 17 * * FRI');
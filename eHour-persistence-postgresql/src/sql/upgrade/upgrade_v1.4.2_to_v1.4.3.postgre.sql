@@ -0,0 +1,4 @@
+DROP INDEX IDX_AUDIT_DATE;
+CREATE INDEX IDX_AUDIT_DATE ON audit(AUDIT_DATE, AUDIT_ID);
+
+UPDATE CONFIGURATION SET CONFIG_VALUE = '1.4.3' WHERE CONFIG_KEY = 'version';
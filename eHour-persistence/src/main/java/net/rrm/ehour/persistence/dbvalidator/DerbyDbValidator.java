@@ -17,6 +17,7 @@
 package net.rrm.ehour.persistence.dbvalidator;
 
 import net.rrm.ehour.config.ConfigurationItem;
+import net.rrm.ehour.persistence.derby.PooledDerbyDataSource;
 import org.apache.commons.beanutils.DynaBean;
 import org.apache.ddlutils.DdlUtilsException;
 import org.apache.ddlutils.Platform;
@@ -56,7 +57,7 @@ public class DerbyDbValidator {
 
     public DerbyDbValidator(String requiredDbVersion, DataSource dataSource) {
         this.requiredDbVersion = requiredDbVersion;
-        this.dataSource = (EmbeddedDataSource) dataSource;
+        this.dataSource = PooledDerbyDataSource.unwrapEmbedded(dataSource);
     }
 
     public DdlType checkDatabaseState() {
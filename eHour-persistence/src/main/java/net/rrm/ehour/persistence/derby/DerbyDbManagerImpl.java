@@ -19,7 +19,6 @@ package net.rrm.ehour.persistence.derby;
 
 import javax.sql.DataSource;
 
-import org.apache.derby.jdbc.EmbeddedDataSource;
 import org.apache.log4j.Logger;
 import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,7 +48,7 @@ public class DerbyDbManagerImpl implements ApplicationListener<ContextClosedEven
         DataSource source = SessionFactoryUtils.getDataSource(sessionFactory);
 
         if (source != null) {
-            ((EmbeddedDataSource) source).setShutdownDatabase("shutdown");
+            PooledDerbyDataSource.shutdownDatabase(source);
         }
     }
 }
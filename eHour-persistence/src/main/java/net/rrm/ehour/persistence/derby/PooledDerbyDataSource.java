@@ -0,0 +1,121 @@
+package net.rrm.ehour.persistence.derby;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang.StringUtils;
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.apache.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * HikariCP pool on top of the embedded Derby database, configured with the ehour.derby.* settings from ehour.properties:
+ * <ul>
+ * <li>pool.maximumPoolSize and pool.minimumIdle size the pool</li>
+ * <li>pageCacheSize and statementCacheSize size the Derby page cache and compiled statement cache. They apply to the
+ * whole Derby engine and are not overridden when already passed as system properties</li>
+ * <li>logDevice places the transaction log of a newly created database on another disk</li>
+ * </ul>
+ * The pool is registered as an MBean named ehour-derby. It isn't managed by Spring, close it with shutdownDatabase.
+ */
+public class PooledDerbyDataSource extends HikariDataSource {
+    public static final String PROPERTY_PREFIX = "ehour.derby.";
+
+    private static final Logger LOGGER = Logger.getLogger(PooledDerbyDataSource.class);
+
+    private static final String DATABASE_SHUT_DOWN = "08006";
+
+    private final EmbeddedDataSource embeddedDataSource;
+
+    public PooledDerbyDataSource(EmbeddedDataSource embeddedDataSource, Properties settings) {
+        this.embeddedDataSource = embeddedDataSource;
+
+        setDataSource(embeddedDataSource);
+        setPoolName("ehour-derby");
+        setMaximumPoolSize(Integer.parseInt(getSetting(settings, "pool.maximumPoolSize", "10")));
+        setMinimumIdle(Integer.parseInt(getSetting(settings, "pool.minimumIdle", "2")));
+        setConnectionTestQuery("VALUES 1");
+        setRegisterMbeans(true);
+    }
+
+    /**
+     * Embedded data source for the database, created on first connect
+     */
+    public static EmbeddedDataSource createEmbeddedDataSource(String databaseName, Properties settings) {
+        EmbeddedDataSource dataSource = new EmbeddedDataSource();
+        dataSource.setDatabaseName(databaseName);
+        dataSource.setCreateDatabase("create");
+
+        String logDevice = getSetting(settings, "logDevice", null);
+
+        if (StringUtils.isNotBlank(logDevice)) {
+            String derbyHome = System.getProperty("derby.system.home", ".");
+
+            if (new File(derbyHome, databaseName).exists()) {
+                LOGGER.info("Derby database already exists, its log stays where it is instead of moving to " + logDevice);
+            } else {
+                dataSource.setConnectionAttributes("logDevice=" + logDevice);
+            }
+        }
+
+        return dataSource;
+    }
+
+    /**
+     * Apply the engine wide settings, before Derby boots
+     */
+    public static void applyEngineSettings(Properties settings) {
+        setSystemPropertyIfAbsent("derby.storage.pageCacheSize", getSetting(settings, "pageCacheSize", "4000"));
+        setSystemPropertyIfAbsent("derby.language.statementCacheSize", getSetting(settings, "statementCacheSize", "500"));
+    }
+
+    /**
+     * @return the embedded Derby data source, either the given one or the one below the pool
+     */
+    public static EmbeddedDataSource unwrapEmbedded(DataSource dataSource) {
+        if (dataSource instanceof PooledDerbyDataSource) {
+            return ((PooledDerbyDataSource) dataSource).getEmbeddedDataSource();
+        }
+
+        return (EmbeddedDataSource) dataSource;
+    }
+
+    /**
+     * Close the pool, if any, and shut down the embedded database below it so it doesn't need recovery on the next boot
+     */
+    public static void shutdownDatabase(DataSource dataSource) {
+        if (dataSource instanceof PooledDerbyDataSource) {
+            ((PooledDerbyDataSource) dataSource).close();
+        }
+
+        EmbeddedDataSource embeddedDataSource = unwrapEmbedded(dataSource);
+        embeddedDataSource.setShutdownDatabase("shutdown");
+
+        try {
+            embeddedDataSource.getConnection().close();
+            LOGGER.warn("Derby database did not shut down");
+        } catch (SQLException e) {
+            // Derby signals a successful shutdown with an exception
+            if (!DATABASE_SHUT_DOWN.equals(e.getSQLState())) {
+                LOGGER.warn("Failed to shut down Derby database", e);
+            }
+        }
+    }
+
+    public EmbeddedDataSource getEmbeddedDataSource() {
+        return embeddedDataSource;
+    }
+
+    private static String getSetting(Properties settings, String name, String defaultValue) {
+        String value = settings.getProperty(PROPERTY_PREFIX + name);
+        return StringUtils.isBlank(value) ? defaultValue : value.trim();
+    }
+
+    private static void setSystemPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
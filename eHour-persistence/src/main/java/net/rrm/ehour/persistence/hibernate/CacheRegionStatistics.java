@@ -0,0 +1,67 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import java.io.Serializable;
+
+/**
+ * Usage of a second-level cache region since startup
+ */
+public class CacheRegionStatistics implements Serializable {
+    private static final long serialVersionUID = -2305412853470612785L;
+
+    private final String regionName;
+    private final long elementCount;
+    private final long maxEntries;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+
+    public CacheRegionStatistics(String regionName, long elementCount, long maxEntries, long hitCount, long missCount, long putCount, long evictionCount) {
+        this.regionName = regionName;
+        this.elementCount = elementCount;
+        this.maxEntries = maxEntries;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * @return 0 for unbounded regions, -1 when unknown
+     */
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return hits as a percentage of all lookups, 0 when the region wasn't used yet
+     */
+    public int getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (int) (hitCount * 100 / lookups);
+    }
+}
@@ -0,0 +1,168 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.Status;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
+import net.sf.ehcache.event.CacheManagerEventListener;
+import org.apache.log4j.Logger;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.ehcache.EhCacheRegionFactory;
+import org.hibernate.cfg.Settings;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EhCache region factory applying the region settings from ehour.properties to the caches started from
+ * hibernate-ehcache.xml. Settings are named ehour.cache.[region].[setting], for example
+ * ehour.cache.query.User.maxEntries=1000. Supported settings are maxEntries, timeToLiveSeconds, timeToIdleSeconds
+ * and eternal. Unknown regions are created from the default cache.
+ * <p/>
+ * Evictions are counted per region as Hibernate's statistics only keep track of hits, misses and puts.
+ */
+public class ConfigurableEhCacheRegionFactory extends EhCacheRegionFactory {
+    public static final String REGION_PROPERTY_PREFIX = "ehour.cache.";
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigurableEhCacheRegionFactory.class);
+
+    private final ConcurrentMap<String, AtomicLong> evictions = new ConcurrentHashMap<>();
+
+    public ConfigurableEhCacheRegionFactory() {
+    }
+
+    public ConfigurableEhCacheRegionFactory(Properties properties) {
+        super(properties);
+    }
+
+    @Override
+    public void start(Settings settings, Properties properties) throws CacheException {
+        boolean started = manager != null;
+
+        super.start(settings, properties);
+
+        if (started) {
+            return;
+        }
+
+        if (properties != null) {
+            applyRegionSettings(manager, properties);
+        }
+
+        for (String cacheName : manager.getCacheNames()) {
+            countEvictions(cacheName);
+        }
+
+        // regions without configuration are added by Hibernate on first use
+        manager.getCacheManagerEventListenerRegistry().registerListener(new CacheManagerEventListener() {
+            @Override
+            public void init() {
+            }
+
+            @Override
+            public Status getStatus() {
+                return Status.STATUS_ALIVE;
+            }
+
+            @Override
+            public void dispose() {
+            }
+
+            @Override
+            public void notifyCacheAdded(String cacheName) {
+                countEvictions(cacheName);
+            }
+
+            @Override
+            public void notifyCacheRemoved(String cacheName) {
+                evictions.remove(cacheName);
+            }
+        });
+    }
+
+    /**
+     * @return the number of elements evicted from the region since startup
+     */
+    public long getEvictionCount(String regionName) {
+        AtomicLong count = evictions.get(regionName);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return maximum number of elements kept in memory for the region, 0 for unbounded and -1 when it doesn't exist
+     */
+    public long getMaxEntries(String regionName) {
+        Ehcache cache = manager == null ? null : manager.getEhcache(regionName);
+        return cache == null ? -1 : cache.getCacheConfiguration().getMaxEntriesLocalHeap();
+    }
+
+    private void countEvictions(String cacheName) {
+        Ehcache cache = manager.getEhcache(cacheName);
+        final AtomicLong count = new AtomicLong();
+
+        if (cache != null && evictions.putIfAbsent(cacheName, count) == null) {
+            cache.getCacheEventNotificationService().registerListener(new CacheEventListenerAdapter() {
+                @Override
+                public void notifyElementEvicted(Ehcache cache, Element element) {
+                    count.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    static void applyRegionSettings(CacheManager manager, Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(REGION_PROPERTY_PREFIX)) {
+                continue;
+            }
+
+            String regionAndSetting = key.substring(REGION_PROPERTY_PREFIX.length());
+            int lastDot = regionAndSetting.lastIndexOf('.');
+
+            if (lastDot <= 0) {
+                LOGGER.warn("Ignoring cache setting " + key + ", expected ehour.cache.[region].[setting]");
+                continue;
+            }
+
+            String region = regionAndSetting.substring(0, lastDot);
+            String setting = regionAndSetting.substring(lastDot + 1);
+            String value = properties.getProperty(key).trim();
+
+            try {
+                applyRegionSetting(getOrAddCache(manager, region).getCacheConfiguration(), setting, value);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Ignoring cache setting " + key + "=" + value + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static Ehcache getOrAddCache(CacheManager manager, String region) {
+        // a new cache takes the settings of the default cache
+        manager.addCacheIfAbsent(region);
+
+        return manager.getEhcache(region);
+    }
+
+    private static void applyRegionSetting(CacheConfiguration cacheConfiguration, String setting, String value) {
+        switch (setting) {
+            case "maxEntries":
+                cacheConfiguration.setMaxEntriesLocalHeap(Long.parseLong(value));
+                break;
+            case "timeToLiveSeconds":
+                cacheConfiguration.setTimeToLiveSeconds(Long.parseLong(value));
+                break;
+            case "timeToIdleSeconds":
+                cacheConfiguration.setTimeToIdleSeconds(Long.parseLong(value));
+                break;
+            case "eternal":
+                cacheConfiguration.setEternal(Boolean.parseBoolean(value));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown setting " + setting);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stamp of the data in the database, increased whenever data is written through Hibernate. Results derived from the
+ * data, like reports, can be cached under the stamp they were computed with and are no longer used once it moves on.
+ * <p/>
+ * The stamp is kept in this JVM only: writes by other nodes sharing the database or made outside of Hibernate don't
+ * move it.
+ */
+public final class DataVersion {
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private DataVersion() {
+    }
+
+    public static long current() {
+        return VERSION.get();
+    }
+
+    public static long increment() {
+        return VERSION.incrementAndGet();
+    }
+}
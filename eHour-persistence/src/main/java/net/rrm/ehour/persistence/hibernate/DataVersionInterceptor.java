@@ -0,0 +1,67 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import com.google.common.collect.ImmutableSet;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Increases the {@link DataVersion} for every insert, update or delete Hibernate prepares and again when the
+ * transaction that wrote completes, so results computed from data that was not committed yet are not used afterwards.
+ * Bulk HQL and native statements are covered as well. Writes to the audit and mail log tables don't change any
+ * reported data and are ignored.
+ */
+public class DataVersionInterceptor extends EmptyInterceptor {
+    private static final long serialVersionUID = 2712419567935318815L;
+
+    private static final Set<String> IGNORED_TABLES = ImmutableSet.of("AUDIT", "MAIL_LOG");
+
+    private static final ThreadLocal<Boolean> WRITTEN = new ThreadLocal<>();
+
+    @Override
+    public String onPrepareStatement(String sql) {
+        String table = writtenTable(sql);
+
+        if (table != null && !IGNORED_TABLES.contains(table)) {
+            WRITTEN.set(Boolean.TRUE);
+            DataVersion.increment();
+        }
+
+        return sql;
+    }
+
+    @Override
+    public void afterTransactionCompletion(Transaction tx) {
+        if (WRITTEN.get() != null) {
+            WRITTEN.remove();
+            DataVersion.increment();
+        }
+    }
+
+    /**
+     * @return the upper cased table an insert, update or delete statement writes to, null for other statements
+     */
+    static String writtenTable(String sql) {
+        String[] tokens = sql.trim().split("[\\s(]+", 4);
+
+        if (tokens.length < 2) {
+            return null;
+        }
+
+        String keyword = tokens[0].toLowerCase(Locale.ENGLISH);
+        String table;
+
+        if ("update".equals(keyword)) {
+            table = tokens[1];
+        } else if (("insert".equals(keyword) && "into".equalsIgnoreCase(tokens[1])) ||
+                ("delete".equals(keyword) && "from".equalsIgnoreCase(tokens[1]))) {
+            table = tokens.length > 2 ? tokens[2] : null;
+        } else {
+            return null;
+        }
+
+        return table == null ? null : table.toUpperCase(Locale.ENGLISH);
+    }
+}
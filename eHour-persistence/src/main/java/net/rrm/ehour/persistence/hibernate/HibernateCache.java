@@ -1,6 +1,14 @@
 package net.rrm.ehour.persistence.hibernate;
 
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class HibernateCache {
     private HibernateCache() {
@@ -9,4 +17,38 @@ public class HibernateCache {
     public static void clearHibernateCache(SessionFactory sf) {
         sf.getCache().evictAllRegions();
     }
+
+    /**
+     * Statistics of all entity, collection and query cache regions, ordered by region name
+     */
+    public static List<CacheRegionStatistics> getRegionStatistics(SessionFactory sf) {
+        Statistics statistics = sf.getStatistics();
+
+        RegionFactory regionFactory = ((SessionFactoryImplementor) sf).getSettings().getRegionFactory();
+        ConfigurableEhCacheRegionFactory ehCacheRegionFactory = regionFactory instanceof ConfigurableEhCacheRegionFactory ? (ConfigurableEhCacheRegionFactory) regionFactory : null;
+
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+
+        List<CacheRegionStatistics> regionStatistics = new ArrayList<>(regionNames.length);
+
+        for (String regionName : regionNames) {
+            SecondLevelCacheStatistics cacheStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+
+            if (cacheStatistics != null) {
+                long maxEntries = ehCacheRegionFactory == null ? -1 : ehCacheRegionFactory.getMaxEntries(regionName);
+                long evictions = ehCacheRegionFactory == null ? 0 : ehCacheRegionFactory.getEvictionCount(regionName);
+
+                regionStatistics.add(new CacheRegionStatistics(regionName,
+                        cacheStatistics.getElementCountInMemory(),
+                        maxEntries,
+                        cacheStatistics.getHitCount(),
+                        cacheStatistics.getMissCount(),
+                        cacheStatistics.getPutCount(),
+                        evictions));
+            }
+        }
+
+        return regionStatistics;
+    }
 }
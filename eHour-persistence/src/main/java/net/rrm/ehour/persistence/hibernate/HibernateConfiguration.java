@@ -4,25 +4,27 @@ import com.google.common.collect.Lists;
 import net.rrm.ehour.appconfig.EhourHomeUtil;
 import net.rrm.ehour.persistence.database.Database;
 import net.rrm.ehour.persistence.database.DatabaseConfig;
-import org.apache.derby.jdbc.EmbeddedConnectionPoolDataSource;
+import net.rrm.ehour.persistence.derby.PooledDerbyDataSource;
 import org.apache.log4j.Logger;
 import org.hibernate.SessionFactory;
-import org.hibernate.cache.ehcache.EhCacheRegionFactory;
 import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.orm.hibernate4.HibernateTransactionManager;
 import org.springframework.orm.hibernate4.LocalSessionFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.Properties;
 
@@ -45,19 +47,21 @@ public class HibernateConfiguration {
         Properties configProperties = EhourHomeUtil.loadDatabaseProperties(databaseName);
         LOGGER.info("Using database type: " + databaseName);
 
+        Properties ehourProperties = loadEhourProperties();
+
         LocalSessionFactoryBean sessionFactoryBean = new LocalSessionFactoryBean();
 
         if (databaseConfig.databaseType == Database.DERBY) {
-            EmbeddedConnectionPoolDataSource dataSource = createDerbyDataSource();
-            sessionFactoryBean.setDataSource(dataSource);
+            sessionFactoryBean.setDataSource(createDerbyDataSource(ehourProperties));
         }
 
         List<Resource> mappingResources = getMappingResources(configProperties);
         sessionFactoryBean.setMappingLocations(mappingResources.toArray(new Resource[mappingResources.size()]));
 
         sessionFactoryBean.setPackagesToScan(getPackagesToScan());
+        sessionFactoryBean.setEntityInterceptor(new DataVersionInterceptor());
 
-        Properties hibernateProperties = getHibernateProperties(configProperties, databaseConfig);
+        Properties hibernateProperties = getHibernateProperties(configProperties, ehourProperties, databaseConfig);
         sessionFactoryBean.setHibernateProperties(hibernateProperties);
 
         beforeFinalizingSessionFactoryBean(sessionFactoryBean);
@@ -67,28 +71,26 @@ public class HibernateConfiguration {
         return sessionFactoryBean.getObject();
     }
 
-    private EmbeddedConnectionPoolDataSource createDerbyDataSource() throws SQLException {
-        if (isInTestMode()) {
-            EmbeddedConnectionPoolDataSource dataSource = new EmbeddedConnectionPoolDataSource();
-            dataSource.setDatabaseName("memory:ehourDb");
+    private DataSource createDerbyDataSource(Properties ehourProperties) {
+        PooledDerbyDataSource.applyEngineSettings(ehourProperties);
 
-            return dataSource;
-        } else {
-            EmbeddedConnectionPoolDataSource dataSource = new EmbeddedConnectionPoolDataSource();
-            dataSource.setDatabaseName("ehourDb");
-            return dataSource;
-        }
+        String databaseName = isInTestMode() ? "memory:ehourDb" : "ehourDb";
+
+        return new PooledDerbyDataSource(PooledDerbyDataSource.createEmbeddedDataSource(databaseName, ehourProperties), ehourProperties);
     }
 
-    private Properties getHibernateProperties(Properties configProperties, DatabaseConfig databaseConfig) {
+    private Properties getHibernateProperties(Properties configProperties, Properties ehourProperties, DatabaseConfig databaseConfig) {
         Properties hibernateProperties = new Properties();
 
         hibernateProperties.setProperty(AvailableSettings.DIALECT, (String) configProperties.get("hibernate.dialect"));
         hibernateProperties.setProperty(AvailableSettings.SHOW_SQL, "false");
         hibernateProperties.setProperty("net.sf.ehcache.configurationResourceName", "hibernate-ehcache.xml");
-        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, EhCacheRegionFactory.class.getName());
+        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigurableEhCacheRegionFactory.class.getName());
         hibernateProperties.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
         hibernateProperties.setProperty(AvailableSettings.USE_QUERY_CACHE, "true");
+        // needed for the cache usage under Admin > System info, off by default as every session pays for it
+        hibernateProperties.setProperty(AvailableSettings.GENERATE_STATISTICS, ehourProperties.getProperty("ehour.hibernate.statistics", "false"));
+        hibernateProperties.putAll(getCacheRegionProperties(ehourProperties));
 
         addConnectionProvider(hibernateProperties, databaseConfig);
 
@@ -99,6 +101,8 @@ public class HibernateConfiguration {
             hibernateProperties.setProperty(AvailableSettings.PASS, databaseConfig.password);
         }
         hibernateProperties.setProperty(AvailableSettings.AUTOCOMMIT, "false");
+        hibernateProperties.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, configProperties.getProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50"));
+        hibernateProperties.setProperty(AvailableSettings.ORDER_INSERTS, "true");
         hibernateProperties.setProperty("dataSource.cachePrepStmts", "true");
         hibernateProperties.setProperty("dataSource.prepStmtCacheSize", "250");
         hibernateProperties.setProperty("dataSource.prepStmtCacheSqlLimit", "2048");
@@ -113,6 +117,40 @@ public class HibernateConfiguration {
     }
 
 
+    /**
+     * The ehour.cache.* settings from ehour.properties, applied by the ConfigurableEhCacheRegionFactory
+     */
+    private Properties getCacheRegionProperties(Properties ehourProperties) {
+        Properties regionProperties = new Properties();
+
+        for (String key : ehourProperties.stringPropertyNames()) {
+            if (key.startsWith(ConfigurableEhCacheRegionFactory.REGION_PROPERTY_PREFIX)) {
+                regionProperties.setProperty(key, ehourProperties.getProperty(key));
+            }
+        }
+
+        return regionProperties;
+    }
+
+    /**
+     * The ehour.properties in EHOUR_HOME, empty when there is none
+     */
+    private Properties loadEhourProperties() {
+        if (EhourHomeUtil.isEhourHomeDefined()) {
+            File file = EhourHomeUtil.getEhourPropertiesFile();
+
+            if (file.exists()) {
+                try {
+                    return PropertiesLoaderUtils.loadProperties(new FileSystemResource(file));
+                } catch (IOException e) {
+                    LOGGER.warn("Could not read cache and database settings from " + file + ", using the defaults", e);
+                }
+            }
+        }
+
+        return new Properties();
+    }
+
     protected void addConnectionProvider(Properties hibernateProperties, DatabaseConfig databaseConfig) {
         if (databaseConfig.databaseType != Database.DERBY) {
             hibernateProperties.setProperty(AvailableSettings.CONNECTION_PROVIDER, HikariConnectionProvider.class.getCanonicalName());
@@ -17,8 +17,29 @@ trait AuditDao extends GenericDao[Number, Audit] {
    */
   def findAudits(request: AuditReportRequest, offset: Int, max: Int): util.List[Audit]
 
+  /**
+   * Find the audits following the given audit in (date, auditId) order, from the first one when after is null.
+   * Unlike an offset, the position is found through the index on (date, auditId) however deep the page is
+   */
+  def findAuditsAfter(request: AuditReportRequest, after: Audit, max: Int): util.List[Audit]
+
   /**
    * Count audits for request
    */
   def count(request: AuditReportRequest): Number
+
+  /**
+   * Count audits for request, stopping at limit
+   */
+  def count(request: AuditReportRequest, limit: Int): Number
+
+  /**
+   * Insert the audits in JDBC batches. With an identity id (Derby, MySQL) the ids aren't set on the audits
+   */
+  def persistAll(audits: util.List[Audit])
+
+  /**
+   * Delete the audits with a single statement
+   */
+  def deleteAll(audits: util.List[Audit])
 }
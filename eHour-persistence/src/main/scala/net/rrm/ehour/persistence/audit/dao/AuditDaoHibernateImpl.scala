@@ -16,7 +16,7 @@ class AuditDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Number, Audi
 
   override def findAudits(request: AuditReportRequest): util.List[Audit] = {
     val criteria = buildCriteria(request)
-    criteria.addOrder(Order.asc("date"))
+    addKeyOrder(criteria)
 
     ExponentialBackoffRetryPolicy.retry(criteria.list.asInstanceOf[util.List[Audit]])
   }
@@ -25,7 +25,24 @@ class AuditDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Number, Audi
     val criteria: Criteria = buildCriteria(request)
     criteria.setFirstResult(offset)
     criteria.setMaxResults(max)
-    criteria.addOrder(Order.asc("date"))
+    addKeyOrder(criteria)
+
+    ExponentialBackoffRetryPolicy.retry(criteria.list.asInstanceOf[util.List[Audit]])
+  }
+
+  override def findAuditsAfter(request: AuditReportRequest, after: Audit, max: Int): util.List[Audit] = {
+    val criteria = buildCriteria(request)
+
+    if (after != null) {
+      // the plain lower bound on date lets the database range scan the index, the disjunction alone may not
+      criteria.add(Restrictions.ge("date", after.getDate))
+      criteria.add(Restrictions.or(
+        Restrictions.gt("date", after.getDate),
+        Restrictions.and(Restrictions.eq("date", after.getDate), Restrictions.gt("auditId", after.getAuditId))))
+    }
+
+    criteria.setMaxResults(max)
+    addKeyOrder(criteria)
 
     ExponentialBackoffRetryPolicy.retry(criteria.list.asInstanceOf[util.List[Audit]])
   }
@@ -37,6 +54,39 @@ class AuditDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Number, Audi
     ExponentialBackoffRetryPolicy.retry(criteria.uniqueResult).asInstanceOf[Number]
   }
 
+  override def count(request: AuditReportRequest, limit: Int): Number = {
+    // only the audit at the limit is sent back, when there is one the count reaches the limit
+    val atLimit = buildCriteria(request)
+    atLimit.setProjection(Projections.id)
+    atLimit.setFirstResult(limit - 1)
+    atLimit.setMaxResults(1)
+
+    if (ExponentialBackoffRetryPolicy.retry(atLimit.list).isEmpty) count(request) else Int.box(limit)
+  }
+
+  override def persistAll(audits: util.List[Audit]) {
+    import scala.collection.JavaConversions._
+
+    persistAll(audits.toSeq)
+  }
+
+  override def deleteAll(audits: util.List[Audit]) {
+    import scala.collection.JavaConversions._
+
+    if (!audits.isEmpty) {
+      val ids: util.List[Integer] = audits.map(_.getAuditId)
+
+      ExponentialBackoffRetryPolicy retry getSession.createQuery("DELETE FROM Audit WHERE auditId IN (:ids)")
+        .setParameterList("ids", ids)
+        .executeUpdate()
+    }
+  }
+
+  private def addKeyOrder(criteria: Criteria) {
+    criteria.addOrder(Order.asc("date"))
+    criteria.addOrder(Order.asc("auditId"))
+  }
+
   private def buildCriteria(request: AuditReportRequest): Criteria = {
     val criteria = getSession.createCriteria(classOf[Audit])
     if (!StringUtils.isBlank(request.getAction)) {
@@ -59,4 +109,3 @@ class AuditDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Number, Audi
     criteria
   }
 }
-
@@ -4,6 +4,14 @@ import java.util
 
 trait BackupDao {
   def findAll(table: String): util.List[util.Map[String, Object]]
-}
 
+  /**
+   * Stream all rows of a table to the handler through a forward-only cursor, one row at a time.
+   * Rows are not retained after the handler returns so memory use is independent of the table size.
+   */
+  def streamAll(table: String, handler: BackupRowHandler)
+}
 
+trait BackupRowHandler {
+  def handleRow(row: util.Map[String, Object])
+}
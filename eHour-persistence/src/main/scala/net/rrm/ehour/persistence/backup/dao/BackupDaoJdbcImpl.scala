@@ -1,8 +1,10 @@
 package net.rrm.ehour.persistence.backup.dao
 
+import java.sql.{Connection, ResultSet}
 import java.util
 
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoHibernate4Impl
+import org.hibernate.jdbc.Work
 import org.hibernate.transform.Transformers
 import org.springframework.stereotype.Repository
 
@@ -16,4 +18,46 @@ class BackupDaoJdbcImpl extends AbstractAnnotationDaoHibernate4Impl with BackupD
         .asInstanceOf[util.List[util.Map[String, Object]]]
   }
 
+  override def streamAll(table: String, handler: BackupRowHandler) {
+    getSession.doWork(new Work {
+      override def execute(connection: Connection) {
+        val statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+
+        try {
+          statement.setFetchSize(BackupDaoJdbcImpl.fetchSize(connection))
+          val resultSet = statement.executeQuery("SELECT * FROM " + table)
+
+          try {
+            val metaData = resultSet.getMetaData
+            val columns = (1 to metaData.getColumnCount).map(metaData.getColumnLabel)
+
+            while (resultSet.next()) {
+              val row = new util.LinkedHashMap[String, Object](columns.size)
+
+              for ((column, index) <- columns.zipWithIndex) {
+                row.put(column, resultSet.getObject(index + 1))
+              }
+
+              handler.handleRow(row)
+            }
+          } finally {
+            resultSet.close()
+          }
+        } finally {
+          statement.close()
+        }
+      }
+    })
+  }
+}
+
+object BackupDaoJdbcImpl {
+  final val FetchSize = 500
+
+  /**
+   * MySQL's driver ignores a positive fetch size and buffers the whole result set, it only streams row by row
+   * with Integer.MIN_VALUE on a forward-only, read-only statement
+   */
+  private[dao] def fetchSize(connection: Connection): Int =
+    if (connection.getMetaData.getDatabaseProductName.toLowerCase.contains("mysql")) Integer.MIN_VALUE else FetchSize
 }
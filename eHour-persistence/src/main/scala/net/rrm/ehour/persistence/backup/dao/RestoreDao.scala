@@ -10,6 +10,11 @@ trait RestoreDao {
 
   def find[T, PK <: Serializable](primaryKey: PK, obj: Class[T]): T
 
+  /**
+   * Reference to an already stored entity without loading it, only good for setting associations
+   */
+  def getReference[T, PK <: Serializable](primaryKey: PK, obj: Class[T]): T
+
   def flush()
 
   def delete[T](obj: Class[T])
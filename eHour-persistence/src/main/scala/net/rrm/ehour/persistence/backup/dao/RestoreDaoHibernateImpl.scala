@@ -24,6 +24,8 @@ class RestoreDaoHibernateImpl extends AbstractAnnotationDaoHibernate4Impl with R
 
   override def find[T, PK <: Serializable](primaryKey: PK, obj: Class[T]): T = getSession.get(obj, primaryKey).asInstanceOf[T]
 
+  override def getReference[T, PK <: Serializable](primaryKey: PK, obj: Class[T]): T = getSession.load(obj, primaryKey).asInstanceOf[T]
+
   override def flush() {
     val session: Session = getSession
     session.flush()
@@ -5,6 +5,9 @@ import java.{io, util}
 import net.rrm.ehour.domain.DomainObject
 import net.rrm.ehour.persistence.retry.ExponentialBackoffRetryPolicy
 import org.hibernate.Criteria
+import org.hibernate.engine.spi.{SessionFactoryImplementor, SessionImplementor}
+import org.hibernate.id.PostInsertIdentifierGenerator
+import org.hibernate.persister.entity.AbstractEntityPersister
 import org.springframework.stereotype.Repository
 import org.springframework.transaction.annotation.Transactional
 
@@ -45,4 +48,68 @@ abstract class AbstractGenericDaoHibernateImpl[PK <: io.Serializable, T <: Domai
 
   @Transactional
   override def merge(domobj: T): T = ExponentialBackoffRetryPolicy retry getSession.merge(domobj).asInstanceOf[T]
+
+  /**
+   * Insert the entities in JDBC batches of hibernate.jdbc.batch_size. Hibernate doesn't batch inserts of an identity id
+   * (Derby, MySQL), those entities are inserted with a plain JDBC batch leaving the id to the database and don't get
+   * their id set. Entities with a sequence id are persisted through the session and flushed every batch.
+   * No retry in here, a failed statement leaves the surrounding transaction unusable
+   */
+  protected def persistAll(entities: Seq[T]) {
+    val factory = sessionFactory.asInstanceOf[SessionFactoryImplementor]
+    val persister = factory.getEntityPersister(entityType.getName).asInstanceOf[AbstractEntityPersister]
+    val batchSize = math.max(1, factory.getSettings.getJdbcBatchSize)
+
+    if (persister.getIdentifierGenerator.isInstanceOf[PostInsertIdentifierGenerator]) {
+      insertWithoutId(persister, entities, batchSize)
+    } else {
+      val session = getSession
+
+      for (group <- entities.grouped(batchSize)) {
+        group.foreach(session.persist(_))
+        session.flush()
+        group.foreach(session.evict(_))
+      }
+    }
+  }
+
+  private def insertWithoutId(persister: AbstractEntityPersister, entities: Seq[T], batchSize: Int) {
+    val factory = persister.getFactory
+    val session = getSession.asInstanceOf[SessionImplementor]
+    val types = persister.getPropertyTypes
+    val insertable = persister.getPropertyInsertability
+    val properties = types.indices.filter(i => insertable(i) && types(i).getColumnSpan(factory) > 0)
+    val columns = properties.flatMap(persister.getPropertyColumnNames(_))
+
+    val sql = "INSERT INTO %s (%s) VALUES (%s)".format(persister.getTableName, columns.mkString(", "), columns.map(_ => "?").mkString(", "))
+
+    // prepared through the session so the interceptor sees the statement and it's released with the session
+    val jdbcCoordinator = session.getTransactionCoordinator.getJdbcCoordinator
+    val statement = jdbcCoordinator.getStatementPreparer.prepareStatement(sql)
+
+    try {
+      for (group <- entities.grouped(batchSize)) {
+        for (entity <- group) {
+          val values = persister.getPropertyValues(entity)
+          var index = 1
+
+          for (property <- properties) {
+            types(property).nullSafeSet(statement, values(property), index, session)
+            index += types(property).getColumnSpan(factory)
+          }
+
+          statement.addBatch()
+        }
+
+        statement.executeBatch()
+      }
+    } finally {
+      jdbcCoordinator.release(statement)
+    }
+
+    // cached queries on the table don't see rows inserted outside of the session otherwise
+    if (factory.getUpdateTimestampsCache != null) {
+      factory.getUpdateTimestampsCache.invalidate(persister.getQuerySpaces, session)
+    }
+  }
 }
\ No newline at end of file
@@ -11,6 +11,16 @@ sealed trait FindByNamed {
 
   import scala.collection.JavaConversions._
   def exec[A](queryName: String, paramNames: List[String], paramValues: List[AnyRef], cachingRegion: Option[String]): util.List[A] = {
+    val chunks = ParameterListChunks.split(paramValues)
+
+    // concatenated chunks lose the ORDER BY, ordered queries bind the whole list instead
+    if (chunks.size > 1 && ParameterListChunks.isOrdered(getSession.getNamedQuery(queryName).getQueryString))
+      execChunk[A](queryName, paramNames, paramValues, cachingRegion)
+    else
+      ParameterListChunks.merge(chunks.map(execChunk[A](queryName, paramNames, _, cachingRegion)))
+  }
+
+  private def execChunk[A](queryName: String, paramNames: List[String], paramValues: List[AnyRef], cachingRegion: Option[String]): util.List[A] = {
     val query = getSession.getNamedQuery(queryName)
 
     paramNames.zip(paramValues).foreach { case (name, value) =>
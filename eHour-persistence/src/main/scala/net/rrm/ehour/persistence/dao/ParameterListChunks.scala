@@ -0,0 +1,40 @@
+package net.rrm.ehour.persistence.dao
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+ * Splits oversized IN-list parameters so a query never binds more than MaxListSize values per list.
+ *
+ * Every combination of chunks is executed as a separate query, which is only correct for queries whose rows
+ * each match a single value of the list (filtering on users, projects, assignments...). Ordering is preserved
+ * within a chunk, not across chunks, so ordered queries must either not be split or merge their chunks on the order.
+ */
+object ParameterListChunks {
+  final val MaxListSize = 500
+
+  private val OrderBy = """(?i)\border\s+by\b""".r
+
+  def isOrdered(queryString: String): Boolean = OrderBy.findFirstIn(queryString).isDefined
+
+  def split(paramValues: List[AnyRef], maxListSize: Int = MaxListSize): List[List[AnyRef]] =
+    paramValues.foldRight(List(List[AnyRef]())) { (value, tails) =>
+      for (chunk <- chunk(value, maxListSize); tail <- tails) yield chunk :: tail
+    }
+
+  def merge[A](results: List[util.List[A]]): util.List[A] = results match {
+    case single :: Nil => single
+    case _ =>
+      val merged = new util.ArrayList[A]()
+      results.foreach(merged.addAll(_))
+      merged
+  }
+
+  private def chunk(value: AnyRef, maxListSize: Int): List[AnyRef] = value match {
+    case c: util.Collection[_] if c.size > maxListSize =>
+      c.asInstanceOf[util.Collection[AnyRef]].toList.grouped(maxListSize).map(g => new util.ArrayList[AnyRef](g)).toList
+    case s: Seq[_] if s.size > maxListSize => s.grouped(maxListSize).toList
+    case _ => List(value)
+  }
+}
@@ -3,10 +3,21 @@ package net.rrm.ehour.persistence.mail.dao
 import net.rrm.ehour.domain.MailLog
 import net.rrm.ehour.persistence.dao.{AbstractGenericDaoHibernateImpl, GenericDao}
 import org.springframework.stereotype.Repository
+import org.springframework.transaction.annotation.Transactional
 trait MailLogDao extends GenericDao[Integer, MailLog] {
   def find(event: String): List[MailLog]
 
   def find(mailTo: String, event: String): List[MailLog]
+
+  /**
+   * Find the mail logs of any of the events
+   */
+  def findOnEvents(events: Seq[String]): List[MailLog]
+
+  /**
+   * Insert the mail logs in JDBC batches. With an identity id (Derby, MySQL) the ids aren't set on the mail logs
+   */
+  def insertAll(mailLogs: Seq[MailLog])
 }
 
 @Repository
@@ -15,4 +26,12 @@ class MailLogDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Integer, M
   override def find(event: String):List[MailLog] = findByNamedQuery("MailLog.findOnEvent", "event", event).toList
 
   override def find(mailTo: String, event: String):List[MailLog] = findByNamedQuery("MailLog.findOnEventAndMailTo", List("event", "mailTo"), List(event, mailTo)).toList
+
+  override def findOnEvents(events: Seq[String]): List[MailLog] =
+    if (events.isEmpty) List() else findByNamedQuery("MailLog.findOnEvents", "events", events).toList
+
+  @Transactional
+  override def insertAll(mailLogs: Seq[MailLog]) {
+    persistAll(mailLogs)
+  }
 }
\ No newline at end of file
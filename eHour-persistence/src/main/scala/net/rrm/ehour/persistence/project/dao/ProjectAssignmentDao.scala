@@ -25,6 +25,11 @@ trait ProjectAssignmentDao extends GenericDao[Integer, ProjectAssignment] {
    */
   def findActiveProjectAssignmentsForUser(userId: Integer, range: DateRange): util.List[ProjectAssignment]
 
+  /**
+   * Find (active) project assignments in date range of all active users with the given role
+   */
+  def findActiveProjectAssignmentsForRole(role: UserRole, range: DateRange): util.List[ProjectAssignment]
+
   /**
    * Find all projects for user in date range
    */
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Repository
 @Repository("projectAssignmentDao")
 class ProjectAssignmentDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Integer, ProjectAssignment](classOf[ProjectAssignment]) with ProjectAssignmentDao {
   private final val CacheRegion = Some("query.ProjectAssignment")
+  private final val AssignmentTypeCacheRegion = "query.ProjectAssignmentType"
 
   override def findActiveProjectAssignmentsForUser(userId: Integer, range: DateRange): util.List[ProjectAssignment] = {
     val keys = List("dateStart", "dateEnd", "userId")
@@ -22,6 +23,12 @@ class ProjectAssignmentDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[
     findByNamedQuery("ProjectAssignment.findActiveProjectAssignmentsForUserInRange", keys, params, CacheRegion)
   }
 
+  override def findActiveProjectAssignmentsForRole(role: UserRole, range: DateRange): util.List[ProjectAssignment] = {
+    val keys = List("dateStart", "dateEnd", "role")
+    val params = List(range.getDateStart, range.getDateEnd, role)
+    findByNamedQuery("ProjectAssignment.findActiveProjectAssignmentsForRoleInRange", keys, params)
+  }
+
   override def findAllProjectAssignmentsForUser(userId: Integer, range: DateRange): util.List[ProjectAssignment] = {
     val keys = List("dateStart", "dateEnd", "userId")
     val params = List(range.getDateStart, range.getDateEnd, userId)
@@ -59,8 +66,13 @@ class ProjectAssignmentDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[
     ExponentialBackoffRetryPolicy retry crit.list.asInstanceOf[util.List[ProjectAssignment]]
   }
 
-  override def findProjectAssignmentTypes(): util.List[ProjectAssignmentType] =
-    ExponentialBackoffRetryPolicy retry getSession.createCriteria(classOf[ProjectAssignmentType]).list.asInstanceOf[util.List[ProjectAssignmentType]]
+  override def findProjectAssignmentTypes(): util.List[ProjectAssignmentType] = {
+    val criteria = getSession.createCriteria(classOf[ProjectAssignmentType])
+    criteria.setCacheable(true)
+    criteria.setCacheRegion(AssignmentTypeCacheRegion)
+
+    ExponentialBackoffRetryPolicy retry criteria.list.asInstanceOf[util.List[ProjectAssignmentType]]
+  }
 
   override def findProjectAssignmentsForCustomer(customer: Customer, range: DateRange): util.List[ProjectAssignment] = {
     val keys = List("dateStart", "dateEnd", "customer")
@@ -30,4 +30,16 @@ trait DetailedReportDao {
    * Get hours per day
    */
   def getHoursPerDay(dateRange: DateRange): util.List[FlatReportElement]
+
+  /**
+   * Stream the hours per day, ordered on date and assignment like the entry's primary key, to the handler. Rows
+   * are fetched a page at a time continuing after the last date and assignment seen, so the full result is never
+   * held in memory.
+   * Filtered on users and/or projects unless the lists are empty
+   */
+  def streamHoursPerDay(userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange, handler: FlatReportElementHandler)
+}
+
+trait FlatReportElementHandler {
+  def handleElement(element: FlatReportElement)
 }
@@ -16,63 +16,143 @@
 package net.rrm.ehour.persistence.report.dao
 
 import java.util
+import java.util.Date
 
 import net.rrm.ehour.data.DateRange
-import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoHibernate4Impl
+import net.rrm.ehour.persistence.dao.{AbstractAnnotationDaoHibernate4Impl, ParameterListChunks}
 import net.rrm.ehour.persistence.retry.ExponentialBackoffRetryPolicy
 import net.rrm.ehour.report.reports.element.FlatReportElement
+import org.hibernate.Query
 import org.hibernate.transform.Transformers
 import org.springframework.stereotype.Repository
 
+import scala.annotation.tailrec
+import scala.collection.JavaConversions._
+
 /**
  * PerMonth DAO impl using sql-queries
  */
 @Repository("detailedReportDao")
 class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHibernate4Impl with DetailedReportDao {
-  override def getHoursPerDayForAssignment(assignmentIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] = {
+  override def getHoursPerDayForAssignment(assignmentIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] =
+    listChunked(List(assignmentIds)) { case List(assignmentIdChunk) =>
+      this.getSession.getNamedQuery("Report.getHoursPerDayForAssignment")
+        .setDate("dateStart", dateRange.getDateStart)
+        .setDate("dateEnd", dateRange.getDateEnd)
+        .setParameterList("assignmentId", assignmentIdChunk)
+        .setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
+    }
+
+  override def getHoursPerDayForUsers(userIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] =
+    listChunked(List(userIds)) { case List(userIdChunk) =>
+      createNamedQuery("Report.getHoursPerDayForUsers", userIdChunk, util.Collections.emptyList(), dateRange)
+    }
+
+  override def getHoursPerDayForProjects(projectIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] =
+    listChunked(List(projectIds)) { case List(projectIdChunk) =>
+      createNamedQuery("Report.getHoursPerDayForProjects", util.Collections.emptyList(), projectIdChunk, dateRange)
+    }
+
+  override def getHoursPerDayForProjectsAndUsers(projectIds: util.List[Integer], userIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] =
+    listChunked(List(userIds, projectIds)) { case List(userIdChunk, projectIdChunk) =>
+      createNamedQuery("Report.getHoursPerDayForProjectsAndUsers", userIdChunk, projectIdChunk, dateRange)
+    }
+
+  override def getHoursPerDay(dateRange: DateRange): util.List[FlatReportElement] = {
     val session = this.getSession
-    val query = session.getNamedQuery("Report.getHoursPerDayForAssignment")
+    val query = session.getNamedQuery("Report.getHoursPerDay")
       .setDate("dateStart", dateRange.getDateStart)
       .setDate("dateEnd", dateRange.getDateEnd)
-      .setParameterList("assignmentId", assignmentIds)
       .setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
     ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
   }
 
-  override def getHoursPerDayForUsers(userIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] = {
-    val session = this.getSession
-    val query = session.getNamedQuery("Report.getHoursPerDayForUsers").setDate("dateStart", dateRange.getDateStart).setDate("dateEnd", dateRange.getDateEnd).setParameterList("userIds", userIds).setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
-    ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
+  private def listChunked(paramLists: List[util.List[Integer]])(createQuery: List[util.List[Integer]] => Query): util.List[FlatReportElement] = {
+    val results = for (chunk <- ParameterListChunks.split(paramLists)) yield {
+      val query = createQuery(chunk.asInstanceOf[List[util.List[Integer]]])
+      ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
+    }
+
+    ParameterListChunks.merge(results)
   }
 
-  override def getHoursPerDayForProjects(projectIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] = {
-    val session = this.getSession
-    val query = session.getNamedQuery("Report.getHoursPerDayForProjects")
-      .setDate("dateStart", dateRange.getDateStart)
-      .setDate("dateEnd", dateRange.getDateEnd)
-      .setParameterList("projectIds", projectIds)
-      .setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
-    ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
+  override def streamHoursPerDay(userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange, handler: FlatReportElementHandler) {
+    streamHoursPerDay(userIds, projectIds, dateRange, handler, DetailedReportDaoHibernateImpl.PageSize)
   }
 
-  override def getHoursPerDayForProjectsAndUsers(projectIds: util.List[Integer], userIds: util.List[Integer], dateRange: DateRange): util.List[FlatReportElement] = {
-    val session = this.getSession
-    val query = session.getNamedQuery("Report.getHoursPerDayForProjectsAndUsers")
-      .setDate("dateStart", dateRange.getDateStart)
-      .setDate("dateEnd", dateRange.getDateEnd)
-      .setParameterList("projectIds", projectIds)
-      .setParameterList("userIds", userIds)
-      .setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
-    ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
+  /**
+   * Rows are streamed in entry date/assignment order, the primary key order. With more users or projects than
+   * fit in one IN-list every chunk is asked for its next page and the pages are merged on the key, so the order
+   * holds across chunks.
+   */
+  private[dao] def streamHoursPerDay(userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange, handler: FlatReportElementHandler, pageSize: Int) {
+    val chunks = ParameterListChunks.split(List(userIds, projectIds)).map {
+      case List(userIdChunk, projectIdChunk) => (userIdChunk.asInstanceOf[util.List[Integer]], projectIdChunk.asInstanceOf[util.List[Integer]])
+    }
+
+    @tailrec
+    def streamPage(lastEntryDate: Date, lastAssignmentId: Integer) {
+      val chunkPages = for ((userIdChunk, projectIdChunk) <- chunks) yield {
+        val query = createPageQuery(userIdChunk, projectIdChunk, dateRange, lastEntryDate, lastAssignmentId)
+          .setMaxResults(pageSize)
+
+        (ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]).toList
+      }
+
+      val page = chunkPages match {
+        case single :: Nil => single
+        case _ => chunkPages.flatten.sortWith(DetailedReportDaoHibernateImpl.beforeOnKey).take(pageSize)
+      }
+
+      for (element <- page) {
+        handler.handleElement(element)
+      }
+
+      if (page.size == pageSize) {
+        val last = page.last
+        streamPage(last.getDayDate, last.getAssignmentId)
+      }
+    }
+
+    streamPage(dateRange.getDateStart, -1)
   }
 
-  override def getHoursPerDay(dateRange: DateRange): util.List[FlatReportElement] = {
-    val session = this.getSession
-    val query = session.getNamedQuery("Report.getHoursPerDay")
+  /**
+   * Entries after the (entry date, assignment id) key, in that order
+   */
+  private def createPageQuery(userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange, lastEntryDate: Date, lastAssignmentId: Integer): Query =
+    createFilteredQuery("Page", userIds, projectIds, dateRange)
+      .setDate("lastEntryDate", lastEntryDate)
+      .setInteger("lastAssignmentId", lastAssignmentId)
+
+  private def createFilteredQuery(querySuffix: String, userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange): Query = {
+    val queryName = (userIds.isEmpty, projectIds.isEmpty) match {
+      case (true, true) => "Report.getHoursPerDay"
+      case (false, true) => "Report.getHoursPerDayForUsers"
+      case (true, false) => "Report.getHoursPerDayForProjects"
+      case (false, false) => "Report.getHoursPerDayForProjectsAndUsers"
+    }
+
+    createNamedQuery(queryName + querySuffix, userIds, projectIds, dateRange)
+  }
+
+  private def createNamedQuery(queryName: String, userIds: util.List[Integer], projectIds: util.List[Integer], dateRange: DateRange): Query = {
+    val query = this.getSession.getNamedQuery(queryName)
       .setDate("dateStart", dateRange.getDateStart)
       .setDate("dateEnd", dateRange.getDateEnd)
-      .setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
-    ExponentialBackoffRetryPolicy retry query.list.asInstanceOf[util.List[FlatReportElement]]
+
+    if (!userIds.isEmpty) query.setParameterList("userIds", userIds)
+    if (!projectIds.isEmpty) query.setParameterList("projectIds", projectIds)
+
+    query.setResultTransformer(Transformers.aliasToBean(classOf[FlatReportElement]))
   }
 }
 
+object DetailedReportDaoHibernateImpl {
+  val PageSize = 1000
+
+  private def beforeOnKey(a: FlatReportElement, b: FlatReportElement): Boolean = {
+    val compared = a.getDayDate.compareTo(b.getDayDate)
+    compared < 0 || (compared == 0 && a.getAssignmentId < b.getAssignmentId)
+  }
+}
@@ -0,0 +1,98 @@
+package net.rrm.ehour.persistence.retry
+
+import java.util.concurrent.ThreadLocalRandom
+
+import org.apache.log4j.Logger
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Retries transient failures a limited number of times within a total time budget.
+ *
+ * Inside a transaction nothing is retried: after a failed statement the Hibernate session is in an undefined state
+ * and the connection can't be given back to the pool until the transaction ends, so the error is thrown right away
+ * and the transaction is rolled back. Outside a transaction the connection is released after every statement and
+ * the operation is attempted again after a short, jittered backoff.
+ *
+ * Errors that are not transient are never retried. Transient failures feed the circuit breaker, which rejects
+ * calls while the database is unavailable.
+ */
+class BoundedRetryPolicy(maxAttempts: Int = 3,
+                         initialBackoffMillis: Long = 50,
+                         budgetMillis: Long = 500,
+                         classifier: ErrorClassifier = TransientErrorClassifier,
+                         val breaker: CircuitBreaker = new CircuitBreaker(10, 10000),
+                         val metrics: RetryMetrics = new RetryMetrics,
+                         inTransaction: () => Boolean = () => TransactionSynchronizationManager.isActualTransactionActive,
+                         clock: () => Long = () => System.currentTimeMillis(),
+                         sleep: Long => Unit = millis => Thread.sleep(millis)) extends RetryPolicy {
+  private final val Log = Logger.getLogger(classOf[BoundedRetryPolicy])
+
+  override def retry[T](op: => T, attemptLimit: Int): T = {
+    metrics.calls.incrementAndGet()
+
+    val attempts = Math.max(1, Math.min(maxAttempts, attemptLimit))
+    val deadline = clock() + budgetMillis
+
+    def attempt(n: Int): T = {
+      if (!breaker.allowRequest()) {
+        metrics.shortCircuited.incrementAndGet()
+        throw new CircuitOpenException("Database unavailable, not attempting query")
+      }
+
+      try {
+        val result = op
+        breaker.recordSuccess()
+
+        if (n > 1) {
+          metrics.recovered.incrementAndGet()
+        }
+
+        result
+      } catch {
+        case e: RuntimeException if classifier.isTransient(e) =>
+          breaker.recordFailure()
+
+          val backoff = backoffFor(n)
+
+          if (n >= attempts || inTransaction() || clock() + backoff > deadline) {
+            metrics.givenUp.incrementAndGet()
+            Log.warn(s"Attempt $n: query failed with transient error, not retrying: ${e.getMessage}")
+            throw e
+          }
+
+          metrics.retries.incrementAndGet()
+          Log.warn(s"Attempt $n: query failed with transient error, retrying in $backoff ms: ${e.getMessage}")
+
+          try {
+            sleep(backoff)
+          } catch {
+            case ie: InterruptedException =>
+              Thread.currentThread().interrupt()
+              throw e
+          }
+
+          attempt(n + 1)
+
+        case e: RuntimeException =>
+          // the database answered, so it is available
+          breaker.recordSuccess()
+          metrics.nonTransient.incrementAndGet()
+          throw e
+
+        case t: Throwable =>
+          // says nothing about the database, but a trial call must not keep the circuit half open
+          breaker.releaseTrial()
+          throw t
+      }
+    }
+
+    attempt(1)
+  }
+
+  override def statistics: RetryStatistics = metrics.snapshot(breaker.currentState)
+
+  private def backoffFor(attempt: Int): Long = {
+    val ceiling = initialBackoffMillis << Math.min(attempt - 1, 16)
+    ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1)
+  }
+}
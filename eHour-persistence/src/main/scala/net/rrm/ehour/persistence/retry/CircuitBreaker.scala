@@ -0,0 +1,76 @@
+package net.rrm.ehour.persistence.retry
+
+import java.util.concurrent.atomic.{AtomicInteger, AtomicLong, AtomicReference}
+
+import org.apache.log4j.Logger
+import org.hibernate.HibernateException
+
+object CircuitState extends Enumeration {
+  val Closed, Open, HalfOpen = Value
+}
+
+/**
+ * Stops calling the database after a number of consecutive transient failures so request threads fail immediately
+ * instead of piling up on a database that is down. After openMillis a single trial call is let through; when it
+ * succeeds the circuit closes again, when it fails the circuit stays open for another openMillis. A trial call that
+ * doesn't report back within openMillis is given up on and the next call becomes the trial.
+ *
+ * A failureThreshold of 0 or less disables the breaker.
+ */
+class CircuitBreaker(failureThreshold: Int, openMillis: Long, clock: () => Long = () => System.currentTimeMillis()) {
+  private final val Log = Logger.getLogger(classOf[CircuitBreaker])
+
+  private val state = new AtomicReference(CircuitState.Closed)
+  private val consecutiveFailures = new AtomicInteger()
+  private val openedAt = new AtomicLong()
+
+  /**
+   * @return true when the call may go ahead
+   */
+  def allowRequest(): Boolean = state.get match {
+    case CircuitState.Closed => true
+    case CircuitState.Open => startTrial() && state.compareAndSet(CircuitState.Open, CircuitState.HalfOpen)
+    case CircuitState.HalfOpen => startTrial() // only when the running trial call is overdue
+  }
+
+  /**
+   * The trial call ended without telling whether the database is available, let the next call be the trial.
+   */
+  def releaseTrial() {
+    if (state.compareAndSet(CircuitState.HalfOpen, CircuitState.Open)) {
+      openedAt.set(clock() - openMillis)
+    }
+  }
+
+  def recordSuccess() {
+    consecutiveFailures.set(0)
+
+    if (state.get == CircuitState.HalfOpen && state.compareAndSet(CircuitState.HalfOpen, CircuitState.Closed)) {
+      Log.info("Database calls succeed again, closing circuit")
+    }
+  }
+
+  def recordFailure() {
+    if (failureThreshold > 0) {
+      val failures = consecutiveFailures.incrementAndGet()
+
+      if (state.compareAndSet(CircuitState.HalfOpen, CircuitState.Open) ||
+        (failures >= failureThreshold && state.compareAndSet(CircuitState.Closed, CircuitState.Open))) {
+        openedAt.set(clock())
+        Log.warn(s"$failures consecutive transient database failures, failing database calls for the next $openMillis ms")
+      }
+    }
+  }
+
+  def currentState: CircuitState.Value = state.get
+
+  // openedAt doubles as the start of the trial call, only the thread moving it forward may make the call
+  private def startTrial(): Boolean = {
+    val since = openedAt.get
+    val now = clock()
+
+    now - since >= openMillis && openedAt.compareAndSet(since, now)
+  }
+}
+
+class CircuitOpenException(message: String) extends HibernateException(message)
@@ -0,0 +1,43 @@
+package net.rrm.ehour.persistence.retry
+
+import java.sql.{SQLException, SQLRecoverableException, SQLTransientException}
+
+import org.hibernate.exception.{JDBCConnectionException, LockAcquisitionException}
+import org.hibernate.{JDBCException, PessimisticLockException, QueryTimeoutException}
+
+import scala.annotation.tailrec
+
+trait ErrorClassifier {
+  /**
+   * @return true when the same operation may succeed when attempted again, e.g. a dropped connection or a deadlock
+   */
+  def isTransient(e: Throwable): Boolean
+}
+
+/**
+ * Connection failures, lock conflicts and timeouts are transient. Constraint violations, SQL grammar and data errors
+ * fail the same way every time and are not.
+ */
+object TransientErrorClassifier extends ErrorClassifier {
+  // 08: connection exception, 40: transaction rollback (deadlocks, serialization failures, Derby lock timeouts)
+  private final val TransientSqlStateClasses = Set("08", "40")
+
+  override def isTransient(e: Throwable): Boolean = {
+    @tailrec
+    def check(t: Throwable, depth: Int): Boolean = t match {
+      case null => false
+      case _ if depth > 10 => false
+      case _: JDBCConnectionException | _: LockAcquisitionException | _: PessimisticLockException | _: QueryTimeoutException => true
+      case _: SQLTransientException | _: SQLRecoverableException => true
+      case jdbc: JDBCException if isTransientSqlState(jdbc.getSQLState) => true
+      case sql: SQLException if isTransientSqlState(sql.getSQLState) => true
+      case sql: SQLException if sql.getNextException != null && (sql.getNextException ne sql.getCause) => check(sql.getNextException, depth + 1)
+      case _ if t.getCause eq t => false
+      case _ => check(t.getCause, depth + 1)
+    }
+
+    check(e, 0)
+  }
+
+  private def isTransientSqlState(sqlState: String) = sqlState != null && sqlState.length >= 2 && TransientSqlStateClasses.contains(sqlState.substring(0, 2))
+}
@@ -0,0 +1,28 @@
+package net.rrm.ehour.persistence.retry
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters kept by the retry policy since startup
+ */
+class RetryMetrics {
+  val calls = new AtomicLong()
+  val retries = new AtomicLong()
+  val recovered = new AtomicLong()
+  val givenUp = new AtomicLong()
+  val nonTransient = new AtomicLong()
+  val shortCircuited = new AtomicLong()
+
+  def snapshot(circuit: CircuitState.Value) = RetryStatistics(calls.get, retries.get, recovered.get, givenUp.get, nonTransient.get, shortCircuited.get, circuit.toString)
+}
+
+/**
+ * @param calls operations run through the policy
+ * @param retries attempts after a transient failure
+ * @param recovered operations that succeeded after one or more retries
+ * @param givenUp operations that failed with a transient error and were not retried (anymore)
+ * @param nonTransient operations that failed with an error retrying won't fix
+ * @param shortCircuited operations rejected without calling the database because the circuit was open
+ * @param circuit state of the circuit breaker
+ */
+case class RetryStatistics(calls: Long, retries: Long, recovered: Long, givenUp: Long, nonTransient: Long, shortCircuited: Long, circuit: String)
@@ -0,0 +1,11 @@
+package net.rrm.ehour.persistence.retry
+
+trait RetryPolicy {
+  /**
+   * Run the operation, retrying it when it fails in a way the policy considers worth another attempt
+   * @param maxAttempts upper bound on the attempts for this operation, the policy may allow fewer
+   */
+  def retry[T](op: => T, maxAttempts: Int): T
+
+  def statistics: RetryStatistics
+}
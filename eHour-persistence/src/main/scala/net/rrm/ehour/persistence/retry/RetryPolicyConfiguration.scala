@@ -0,0 +1,37 @@
+package net.rrm.ehour.persistence.retry
+
+import org.apache.log4j.Logger
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.context.annotation.{Bean, Configuration}
+
+@Configuration
+class RetryPolicyConfiguration {
+  private final val Log = Logger.getLogger(classOf[RetryPolicyConfiguration])
+
+  @Value("${ehour.db.retry.maxAttempts:3}")
+  var maxAttempts: Int = _
+
+  @Value("${ehour.db.retry.initialBackoffMillis:50}")
+  var initialBackoffMillis: Long = _
+
+  @Value("${ehour.db.retry.budgetMillis:500}")
+  var budgetMillis: Long = _
+
+  @Value("${ehour.db.circuit.failureThreshold:10}")
+  var failureThreshold: Int = _
+
+  @Value("${ehour.db.circuit.openMillis:10000}")
+  var openMillis: Long = _
+
+  @Bean
+  def retryPolicy: RetryPolicy = {
+    val policy = new BoundedRetryPolicy(maxAttempts = maxAttempts,
+      initialBackoffMillis = initialBackoffMillis,
+      budgetMillis = budgetMillis,
+      breaker = new CircuitBreaker(failureThreshold, openMillis))
+
+    Log.info(s"Retrying transient database errors outside transactions up to $maxAttempts attempts within $budgetMillis ms")
+    ExponentialBackoffRetryPolicy.install(policy)
+    policy
+  }
+}
@@ -40,6 +40,11 @@ trait TimesheetDao extends GenericDao[TimesheetEntryId, TimesheetEntry] {
    */
   def getBookedHoursperDayInRange(userId: Integer, dateRange: DateRange): util.List[BookedDay]
 
+  /**
+   * Get the ids of the users who booked at least the minimum hours within the date range
+   */
+  def getUserIdsWithMinimumHoursInRange(minimumHours: Float, dateRange: DateRange): util.List[Integer]
+
   /**
    * Get latest timesheet entry for assignment
    */
@@ -5,7 +5,7 @@ import java.util.Date
 
 import net.rrm.ehour.data.DateRange
 import net.rrm.ehour.domain.{ProjectAssignment, TimesheetEntry, TimesheetEntryId}
-import net.rrm.ehour.persistence.dao.AbstractGenericDaoHibernateImpl
+import net.rrm.ehour.persistence.dao.{AbstractGenericDaoHibernateImpl, ParameterListChunks}
 import net.rrm.ehour.persistence.retry.ExponentialBackoffRetryPolicy
 import net.rrm.ehour.timesheet.dto.BookedDay
 import org.springframework.stereotype.Repository
@@ -36,16 +36,23 @@ class TimesheetDaoHibernateImpl extends AbstractGenericDaoHibernateImpl[Timeshee
     findByNamedQuery(hql, keys, params).asInstanceOf[util.List[T]]
   }
 
+  override def getUserIdsWithMinimumHoursInRange(minimumHours: Float, dateRange: DateRange): util.List[Integer] = {
+    val keys = List("dateStart", "dateEnd", "minimumHours")
+    val params = List(dateRange.getDateStart, dateRange.getDateEnd, java.lang.Double.valueOf(minimumHours))
+    findByNamedQuery("Timesheet.getUserIdsWithMinimumHoursInRange", keys, params).asInstanceOf[util.List[Integer]]
+  }
+
   override def getLatestTimesheetEntryForAssignment(assignmentId: Integer): TimesheetEntry = {
     val results = findByNamedQuery("Timesheet.getLatestEntryForAssignmentId", "assignmentId", assignmentId)
     if (results.size > 0) results.get(0) else null
   }
 
-  override def deleteTimesheetEntries(assignmentIds: util.List[Integer]): Int = {
-    val query = getSession.getNamedQuery("Timesheet.deleteOnAssignmentIds")
-    query.setParameterList("assignmentIds", assignmentIds)
-    ExponentialBackoffRetryPolicy retry query.executeUpdate
-  }
+  override def deleteTimesheetEntries(assignmentIds: util.List[Integer]): Int =
+    ParameterListChunks.split(List(assignmentIds)).map { case List(assignmentIdChunk) =>
+      val query = getSession.getNamedQuery("Timesheet.deleteOnAssignmentIds")
+      query.setParameterList("assignmentIds", assignmentIdChunk.asInstanceOf[util.Collection[_]])
+      ExponentialBackoffRetryPolicy retry query.executeUpdate
+    }.sum
 
   override def getTimesheetEntriesAfter(assignment: ProjectAssignment, date: Date): util.List[TimesheetEntry] = {
     val keys = List("date", "assignment")
@@ -3,12 +3,14 @@ package net.rrm.ehour.persistence.audit.dao;
 import net.rrm.ehour.data.AuditReportRequest;
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.domain.AuditActionType;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
 import net.rrm.ehour.util.DateUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.List;
@@ -47,6 +49,32 @@ public class AuditDaoHibernateImplTest extends AbstractAnnotationDaoTest {
         assertEquals(79, res.get(9).getAuditId().intValue());
     }
 
+    @Test
+    public void shouldFindFirstPageByKey() {
+        List<Audit> res = auditDAO.findAuditsAfter(request, null, 10);
+
+        assertEquals(10, res.size());
+        assertEquals(60, res.get(0).getAuditId().intValue());
+    }
+
+    @Test
+    public void shouldFindPageAfterAuditWithSameDate() {
+        List<Audit> firstPage = auditDAO.findAuditsAfter(request, null, 4);
+        assertEquals(63, firstPage.get(3).getAuditId().intValue());
+
+        List<Audit> res = auditDAO.findAuditsAfter(request, firstPage.get(3), 20);
+
+        assertEquals(20, res.size());
+        assertEquals(64, res.get(0).getAuditId().intValue());
+        assertEquals(auditDAO.findAudits(request, 4, 20), res);
+    }
+
+    @Test
+    public void shouldCountUpToLimit() {
+        assertEquals(10, auditDAO.count(request, 10).intValue());
+        assertEquals(40, auditDAO.count(request, 100).intValue());
+    }
+
     @Test
     public void shouldCouldAllCount() {
         Number count = auditDAO.count(request);
@@ -61,4 +89,27 @@ public class AuditDaoHibernateImplTest extends AbstractAnnotationDaoTest {
         assertEquals(40, all.size());
     }
 
+    @Test
+    public void shouldDeleteAll() {
+        List<Audit> oldest = auditDAO.findAuditsAfter(request, null, 15);
+
+        auditDAO.deleteAll(oldest);
+
+        assertEquals(25, auditDAO.count(request).intValue());
+        assertEquals(75, auditDAO.findAuditsAfter(request, null, 1).get(0).getAuditId().intValue());
+    }
+
+    @Test
+    public void shouldPersistAllInOneBatch() {
+        Calendar cal = new GregorianCalendar(2008, Calendar.NOVEMBER, 15);
+
+        List<Audit> audits = Arrays.asList(
+                new Audit().setDate(cal.getTime()).setAction("batch").setSuccess(Boolean.TRUE).setAuditActionType(AuditActionType.READ),
+                new Audit().setDate(cal.getTime()).setAction("batch").setSuccess(Boolean.FALSE).setAuditActionType(AuditActionType.UPDATE));
+
+        auditDAO.persistAll(audits);
+
+        request.setAction("batch");
+        assertEquals(2, auditDAO.count(request).intValue());
+    }
 }
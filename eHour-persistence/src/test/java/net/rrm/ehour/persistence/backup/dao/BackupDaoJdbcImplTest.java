@@ -4,6 +4,7 @@ import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +26,20 @@ public class BackupDaoJdbcImplTest extends AbstractAnnotationDaoTest {
         assertEquals(12, list.size());
     }
 
+    @Test
+    public void shouldStreamAllTimesheetEntries() {
+        final List<Map<String, Object>> rows = new ArrayList<>();
+
+        exportDao.streamAll("TIMESHEET_ENTRY", new BackupRowHandler() {
+            @Override
+            public void handleRow(Map<String, Object> row) {
+                rows.add(row);
+            }
+        });
+
+        assertEquals(12, rows.size());
+    }
+
     @Autowired
     private BackupDao exportDao;
 }
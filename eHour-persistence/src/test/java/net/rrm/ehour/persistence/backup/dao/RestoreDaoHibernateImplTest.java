@@ -7,6 +7,7 @@ import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -32,6 +33,13 @@ public class RestoreDaoHibernateImplTest extends AbstractAnnotationDaoTest {
         assertNotNull(user);
     }
 
+    @Test
+    public void shouldGetReference() {
+        User user = importDao.getReference(3, User.class);
+
+        assertEquals(Integer.valueOf(3), user.getUserId());
+    }
+
     @Test
     public void shouldDelete() {
         importDao.delete(User.class);
@@ -0,0 +1,125 @@
+package net.rrm.ehour.persistence.derby;
+
+import net.rrm.ehour.config.PersistenceConfig;
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.TimesheetEntry;
+import net.rrm.ehour.domain.TimesheetEntryId;
+import net.rrm.ehour.persistence.dbvalidator.DerbyDbValidator;
+import net.rrm.ehour.persistence.hibernate.DataVersionInterceptor;
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.dataset.xml.FlatXmlDataSetBuilder;
+import org.dbunit.operation.DatabaseOperation;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.orm.hibernate4.HibernateTransactionManager;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the timesheet save throughput of the bare embedded Derby data source with the pooled one, each saving
+ * a timesheet entry through Hibernate in its own transaction from 4 threads, as the timesheet DAO does. The database
+ * is on disk in a temp directory so the log writes count. Run with the main method, it's not part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class PooledDerbyDataSourceBenchmark {
+    private static final long FIRST_DAY = Date.valueOf("2100-01-01").getTime() + TimeUnit.HOURS.toMillis(12);
+
+    @Param({"embedded", "pooled"})
+    public String dataSourceType;
+
+    private final AtomicInteger day = new AtomicInteger();
+
+    private EmbeddedDataSource embeddedDataSource;
+    private DataSource dataSource;
+    private SessionFactory sessionFactory;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws Exception {
+        File derbyHome = Files.createTempDirectory("ehour-derby-benchmark").toFile();
+        System.setProperty("derby.system.home", derbyHome.getAbsolutePath());
+
+        Properties settings = new Properties();
+        PooledDerbyDataSource.applyEngineSettings(settings);
+
+        embeddedDataSource = PooledDerbyDataSource.createEmbeddedDataSource("ehourDb", settings);
+        new DerbyDbValidator(PersistenceConfig.DB_VERSION, embeddedDataSource).checkDatabaseState();
+        insertAssignments();
+
+        dataSource = "pooled".equals(dataSourceType) ? new PooledDerbyDataSource(embeddedDataSource, settings) : embeddedDataSource;
+
+        sessionFactory = new LocalSessionFactoryBuilder(dataSource)
+                .scanPackages("net.rrm.ehour.domain")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.DerbyTenSevenDialect")
+                .setProperty(AvailableSettings.AUTOCOMMIT, "false")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .setInterceptor(new DataVersionInterceptor())
+                .buildSessionFactory();
+
+        transactionTemplate = new TransactionTemplate(new HibernateTransactionManager(sessionFactory));
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+
+        PooledDerbyDataSource.shutdownDatabase(dataSource);
+    }
+
+    @Benchmark
+    public TimesheetEntry saveTimesheetEntry() {
+        final long entryDate = FIRST_DAY + TimeUnit.DAYS.toMillis(day.getAndIncrement());
+
+        return transactionTemplate.execute(new TransactionCallback<TimesheetEntry>() {
+            @Override
+            public TimesheetEntry doInTransaction(TransactionStatus status) {
+                Session session = sessionFactory.getCurrentSession();
+
+                ProjectAssignment assignment = (ProjectAssignment) session.load(ProjectAssignment.class, 1);
+                TimesheetEntry entry = new TimesheetEntry(new TimesheetEntryId(new Date(entryDate), assignment), 8f);
+                entry.setUpdateDate(new java.util.Date());
+
+                session.saveOrUpdate(entry);
+                return entry;
+            }
+        });
+    }
+
+    private void insertAssignments() throws Exception {
+        try (Connection connection = embeddedDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            DatabaseOperation.CLEAN_INSERT.execute(new DatabaseConnection(connection),
+                    new FlatXmlDataSetBuilder().build(new File("src/test/resources/datasets/dataset-timesheet.xml")));
+
+            connection.commit();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PooledDerbyDataSourceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
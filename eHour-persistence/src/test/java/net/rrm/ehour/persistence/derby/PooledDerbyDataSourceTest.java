@@ -0,0 +1,54 @@
+package net.rrm.ehour.persistence.derby;
+
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class PooledDerbyDataSourceTest {
+    @Test
+    public void shouldConfigurePoolFromSettings() {
+        Properties settings = new Properties();
+        settings.setProperty("ehour.derby.pool.maximumPoolSize", "4");
+        settings.setProperty("ehour.derby.pool.minimumIdle", " 1 ");
+
+        PooledDerbyDataSource dataSource = new PooledDerbyDataSource(new EmbeddedDataSource(), settings);
+
+        assertEquals(4, dataSource.getMaximumPoolSize());
+        assertEquals(1, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    public void shouldUnwrapEmbeddedDataSource() {
+        EmbeddedDataSource embedded = new EmbeddedDataSource();
+
+        assertSame(embedded, PooledDerbyDataSource.unwrapEmbedded(new PooledDerbyDataSource(embedded, new Properties())));
+        assertSame(embedded, PooledDerbyDataSource.unwrapEmbedded(embedded));
+    }
+
+    @Test
+    public void shouldCloseThePoolAndShutDownTheDatabase() throws SQLException {
+        EmbeddedDataSource embedded = PooledDerbyDataSource.createEmbeddedDataSource("memory:shutdownDb", new Properties());
+        PooledDerbyDataSource dataSource = new PooledDerbyDataSource(embedded, new Properties());
+        dataSource.getConnection().close();
+
+        PooledDerbyDataSource.shutdownDatabase(dataSource);
+
+        assertTrue(dataSource.isClosed());
+        assertEquals("shutdown", embedded.getShutdownDatabase());
+    }
+
+    @Test
+    public void shouldPlaceLogOfNewDatabase() {
+        Properties settings = new Properties();
+        settings.setProperty("ehour.derby.logDevice", "/var/log/ehour");
+
+        EmbeddedDataSource dataSource = PooledDerbyDataSource.createEmbeddedDataSource("memory:newDb", settings);
+
+        assertEquals("logDevice=/var/log/ehour", dataSource.getConnectionAttributes());
+        assertEquals("create", dataSource.getCreateDatabase());
+    }
+}
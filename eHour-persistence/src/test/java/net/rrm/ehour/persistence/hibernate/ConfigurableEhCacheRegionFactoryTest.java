@@ -0,0 +1,66 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.config.ConfigurationFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ConfigurableEhCacheRegionFactoryTest {
+    private CacheManager manager;
+
+    @Before
+    public void setUp() {
+        Configuration configuration = ConfigurationFactory.parseConfiguration(getClass().getResource("/hibernate-ehcache.xml"));
+        configuration.setName("regionFactoryTest");
+        manager = new CacheManager(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    public void shouldOverrideConfiguredRegion() {
+        Properties properties = new Properties();
+        properties.setProperty("ehour.cache.query.User.maxEntries", "1000");
+        properties.setProperty("ehour.cache.query.User.timeToLiveSeconds", "60");
+
+        ConfigurableEhCacheRegionFactory.applyRegionSettings(manager, properties);
+
+        CacheConfiguration userRegion = manager.getEhcache("query.User").getCacheConfiguration();
+        assertEquals(1000, userRegion.getMaxEntriesLocalHeap());
+        assertEquals(60, userRegion.getTimeToLiveSeconds());
+    }
+
+    @Test
+    public void shouldAddUnknownRegionFromDefaults() {
+        Properties properties = new Properties();
+        properties.setProperty("ehour.cache.net.rrm.ehour.domain.Customer.maxEntries", "250");
+
+        ConfigurableEhCacheRegionFactory.applyRegionSettings(manager, properties);
+
+        CacheConfiguration customerRegion = manager.getEhcache("net.rrm.ehour.domain.Customer").getCacheConfiguration();
+                assertEquals(250, customerRegion.getMaxEntriesLocalHeap());
+        assertEquals(manager.getConfiguration().getDefaultCacheConfiguration().getTimeToLiveSeconds(), customerRegion.getTimeToLiveSeconds());
+    }
+
+    @Test
+    public void shouldIgnoreInvalidSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("ehour.cache.query.User.maxEntries", "lots");
+        properties.setProperty("ehour.cache.query.User.color", "blue");
+        properties.setProperty("ehour.database", "derby");
+
+        ConfigurableEhCacheRegionFactory.applyRegionSettings(manager, properties);
+
+        assertEquals(100, manager.getEhcache("query.User").getCacheConfiguration().getMaxEntriesLocalHeap());
+    }
+}
@@ -0,0 +1,48 @@
+package net.rrm.ehour.persistence.hibernate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DataVersionInterceptorTest {
+    private final DataVersionInterceptor interceptor = new DataVersionInterceptor();
+
+    @Test
+    public void shouldFindWrittenTable() {
+        assertEquals("TIMESHEET_ENTRY", DataVersionInterceptor.writtenTable("insert into TIMESHEET_ENTRY (ENTRY_DATE, HOURS) values (?, ?)"));
+        assertEquals("TIMESHEET_ENTRY", DataVersionInterceptor.writtenTable("insert into timesheet_entry(ENTRY_DATE) values (?)"));
+        assertEquals("PROJECT", DataVersionInterceptor.writtenTable("update PROJECT set NAME=? where PROJECT_ID=?"));
+        assertEquals("TIMESHEET_COMMENT", DataVersionInterceptor.writtenTable(" delete from TIMESHEET_COMMENT where USER_ID=?"));
+    }
+
+    @Test
+    public void shouldNotFindTableForQueries() {
+        assertNull(DataVersionInterceptor.writtenTable("select * from PROJECT"));
+        assertNull(DataVersionInterceptor.writtenTable("update"));
+    }
+
+    @Test
+    public void shouldIncreaseVersionOnWriteAndCompletion() {
+        long version = DataVersion.current();
+
+        interceptor.onPrepareStatement("update USERS set ACTIVE=? where USER_ID=?");
+        assertEquals(version + 1, DataVersion.current());
+
+        interceptor.afterTransactionCompletion(null);
+        assertEquals(version + 2, DataVersion.current());
+
+        interceptor.afterTransactionCompletion(null);
+        assertEquals(version + 2, DataVersion.current());
+    }
+
+    @Test
+    public void shouldIgnoreReadsAndAudits() {
+        long version = DataVersion.current();
+
+        interceptor.onPrepareStatement("select * from USERS");
+        interceptor.onPrepareStatement("insert into AUDIT (AUDIT_ID) values (?)");
+        interceptor.afterTransactionCompletion(null);
+
+        assertEquals(version, DataVersion.current());
+    }
+}
@@ -4,8 +4,12 @@ import net.rrm.ehour.domain.MailLog;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import scala.collection.JavaConversions;
 import scala.collection.immutable.List;
 
+import java.util.Arrays;
+import java.util.Date;
+
 import static org.junit.Assert.assertEquals;
 
 public class MailLogDaoHibernateImplTest extends AbstractAnnotationDaoTest {
@@ -27,4 +31,29 @@ public class MailLogDaoHibernateImplTest extends AbstractAnnotationDaoTest {
         List<MailLog> xs = mailLogDao.find("thies@aa.net", "DD");
         assertEquals(1, xs.size());
     }
+
+    @Test
+    public void shouldFindMailLogOnEvents() {
+        List<MailLog> xs = mailLogDao.findOnEvents(JavaConversions.asScalaBuffer(Arrays.asList("CC", "DD", "EE")));
+        assertEquals(2, xs.size());
+    }
+
+    @Test
+    public void shouldInsertAllMailLogs() {
+        MailLog first = new MailLog();
+        first.setMailTo("a@ehour.nl");
+        first.setMailEvent("EE");
+        first.setSuccess(true);
+        first.setTimestamp(new Date());
+
+        MailLog second = new MailLog();
+        second.setMailTo("b@ehour.nl");
+        second.setMailEvent("EE");
+        second.setSuccess(false);
+        second.setTimestamp(new Date());
+
+        mailLogDao.insertAll(JavaConversions.asScalaBuffer(Arrays.asList(first, second)));
+
+        assertEquals(2, mailLogDao.find("EE").size());
+    }
 }
@@ -85,6 +85,18 @@ public class ProjectAssignmentDaoHibernateImplTest extends AbstractAnnotationDao
         assertEquals(5, results.size());
     }
 
+    @Test
+    public void shouldFindActiveProjectAssignmentsForRoleInRange() {
+        DateRange range = new DateRange(new Date(2006 - 1900, Calendar.OCTOBER, 24), new Date(2007 - 1900, Calendar.JANUARY, 10));
+
+        List<ProjectAssignment> consultantAssignments = projectAssignmentDAO.findActiveProjectAssignmentsForRole(UserRole.USER, range);
+        assertEquals(6, consultantAssignments.size());
+
+        List<ProjectAssignment> adminAssignments = projectAssignmentDAO.findActiveProjectAssignmentsForRole(UserRole.ADMIN, range);
+        assertEquals(1, adminAssignments.size());
+        assertEquals(8, adminAssignments.get(0).getAssignmentId().intValue());
+    }
+
     @Test
     public void shouldFindAllProjectAssignmentsForUserInRange() {
         DateRange range = new DateRange(new Date(2006 - 1900, Calendar.OCTOBER, 24), new Date(2007 - 1900, Calendar.JANUARY, 10));
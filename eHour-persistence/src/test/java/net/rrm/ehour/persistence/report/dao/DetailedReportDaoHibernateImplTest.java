@@ -18,8 +18,11 @@ package net.rrm.ehour.persistence.report.dao;
 
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
+import net.rrm.ehour.persistence.dao.ParameterListChunks;
 import net.rrm.ehour.report.reports.element.FlatReportElement;
 import org.junit.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
@@ -28,6 +31,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings({"deprecation"})
 public class DetailedReportDaoHibernateImplTest extends AbstractAnnotationDaoTest {
@@ -51,6 +55,21 @@ public class DetailedReportDaoHibernateImplTest extends AbstractAnnotationDaoTes
         assertNotNull(results.get(0).getProjectId());
     }
 
+    @Test
+    public void shouldGetHoursPerDayForUsersInChunks() {
+        DateRange dateRange = new DateRange(new Date(2006 - 1900, 5 - 1, 1), new Date(2008 - 1900, 1, 3));
+        List<Integer> userIds = new ArrayList<>();
+
+        for (int userId = 1; userId <= ParameterListChunks.MaxListSize() * 2 + 1; userId++) {
+            userIds.add(userId);
+        }
+
+        List<FlatReportElement> chunked = detailedReportDao.getHoursPerDayForUsers(userIds, dateRange);
+        List<FlatReportElement> unfiltered = detailedReportDao.getHoursPerDay(dateRange);
+
+        assertEquals(unfiltered.size(), chunked.size());
+    }
+
     @Test
     public void shouldGetHoursPerDayForProjects() {
         DateRange dateRange = new DateRange(new Date(2006 - 1900, 5 - 1, 1), // deprecated? hmm ;)
@@ -90,4 +109,68 @@ public class DetailedReportDaoHibernateImplTest extends AbstractAnnotationDaoTes
 
         assertEquals(12, results.size());
     }
+
+    @Test
+    public void shouldStreamHoursPerDayInDateAndAssignmentOrder() {
+        DateRange dateRange = new DateRange(new Date(2006 - 1900, 5 - 1, 1),
+                new Date(2008 - 1900, 1, 3));
+
+        CollectingHandler handler = new CollectingHandler();
+        detailedReportDao.streamHoursPerDay(new ArrayList<Integer>(), new ArrayList<Integer>(), dateRange, handler);
+
+        assertEquals(12, handler.elements.size());
+        assertOrderedOnDateAndAssignment(handler.elements);
+    }
+
+    @Test
+    public void shouldStreamHoursPerDayForUsersOverMultiplePages() throws Exception {
+        DateRange dateRange = new DateRange(new Date(2006 - 1900, 5 - 1, 1),
+                new Date(2008 - 1900, 1, 3));
+        List<Integer> userIds = new ArrayList<>();
+        userIds.add(1);
+
+        CollectingHandler handler = new CollectingHandler();
+        unproxiedDao().streamHoursPerDay(userIds, new ArrayList<Integer>(), dateRange, handler, 3);
+
+        assertEquals(10, handler.elements.size());
+        assertEquals(totalHours(detailedReportDao.getHoursPerDayForUsers(userIds, dateRange)), totalHours(handler.elements), 0.001f);
+        assertOrderedOnDateAndAssignment(handler.elements);
+    }
+
+    private DetailedReportDaoHibernateImpl unproxiedDao() throws Exception {
+        if (AopUtils.isAopProxy(detailedReportDao)) {
+            return (DetailedReportDaoHibernateImpl) ((Advised) detailedReportDao).getTargetSource().getTarget();
+        } else {
+            return (DetailedReportDaoHibernateImpl) detailedReportDao;
+        }
+    }
+
+    private void assertOrderedOnDateAndAssignment(List<FlatReportElement> elements) {
+        for (int i = 1; i < elements.size(); i++) {
+            FlatReportElement previous = elements.get(i - 1);
+            FlatReportElement current = elements.get(i);
+
+            int compared = previous.getDayDate().compareTo(current.getDayDate());
+            assertTrue(compared < 0 || (compared == 0 && previous.getAssignmentId() < current.getAssignmentId()));
+        }
+    }
+
+    private static class CollectingHandler implements FlatReportElementHandler {
+        private final List<FlatReportElement> elements = new ArrayList<>();
+
+        @Override
+        public void handleElement(FlatReportElement element) {
+            elements.add(element);
+        }
+    }
+
+    private float totalHours(List<FlatReportElement> elements) {
+        float total = 0;
+
+        for (FlatReportElement element : elements) {
+            total += element.getTotalHours().floatValue();
+        }
+
+        return total;
+    }
 }
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author thies (Thies Edeling - thies@te-con.nl)
@@ -70,6 +71,16 @@ public class TimesheetDaoHibernateImplTest extends AbstractAnnotationDaoTest {
         assertEquals(-1, results.get(2).getHours().floatValue(), 0.01);
     }
 
+    @Test
+    public void shouldGetUserIdsWithMinimumHoursInRange() {
+        Calendar dateStart = new GregorianCalendar(2006, Calendar.OCTOBER, 1);
+        Calendar dateEnd = new GregorianCalendar(2006, Calendar.NOVEMBER, 1);
+        DateRange dateRange = new DateRange(dateStart.getTime(), dateEnd.getTime());
+
+        assertEquals(Arrays.asList(1), timesheetDAO.getUserIdsWithMinimumHoursInRange(1, dateRange));
+        assertTrue(timesheetDAO.getUserIdsWithMinimumHoursInRange(10000, dateRange).isEmpty());
+    }
+
     @Test
     public void shouldGetTimesheetEntriesBefore() {
         List<TimesheetEntry> res = timesheetDAO.getTimesheetEntriesBefore(new ProjectAssignment(1), new Date(2006 - 1900, Calendar.OCTOBER, 3));
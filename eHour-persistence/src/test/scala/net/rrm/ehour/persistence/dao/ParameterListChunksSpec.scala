@@ -0,0 +1,51 @@
+package net.rrm.ehour.persistence.dao
+
+import java.util
+
+import net.rrm.ehour.AbstractSpec
+
+import scala.collection.JavaConversions._
+
+class ParameterListChunksSpec extends AbstractSpec {
+  "Parameter List Chunks" should {
+    "leave small parameter lists alone" in {
+      val ids: util.List[Integer] = util.Arrays.asList(1, 2, 3)
+
+      val chunks = ParameterListChunks.split(List("name", ids), 3)
+
+      chunks should have size 1
+      chunks.head(1) should be theSameInstanceAs ids
+    }
+
+    "split oversized collections" in {
+      val ids: util.List[Integer] = util.Arrays.asList(1, 2, 3, 4, 5)
+
+      val chunks = ParameterListChunks.split(List("name", ids), 2)
+
+      chunks.map(_.head) should be (List("name", "name", "name"))
+      chunks.map(_(1).asInstanceOf[util.List[Integer]].toList) should be (List(List(1, 2), List(3, 4), List(5)))
+    }
+
+    "combine the chunks of every oversized list" in {
+      val userIds: util.List[Integer] = util.Arrays.asList(1, 2, 3)
+      val projectIds: util.List[Integer] = util.Arrays.asList(10, 20, 30)
+
+      val chunks = ParameterListChunks.split(List(userIds, projectIds), 2)
+
+      chunks should have size 4
+      chunks.flatMap(c => for (u <- c.head.asInstanceOf[util.List[Integer]]; p <- c(1).asInstanceOf[util.List[Integer]]) yield (u.intValue, p.intValue)) should have size 9
+    }
+
+    "recognize ordered queries" in {
+      ParameterListChunks.isOrdered("SELECT u FROM User u\n  ORDER  BY u.lastName") should be (true)
+      ParameterListChunks.isOrdered("select u from User u where u.orderByName = :name") should be (false)
+      ParameterListChunks.isOrdered("SELECT u FROM User u WHERE u.userId IN (:userIds)") should be (false)
+    }
+
+    "merge the results of all chunks" in {
+      val merged = ParameterListChunks.merge(List(util.Arrays.asList(1, 2), util.Arrays.asList(3)))
+
+      merged.toList should be (List(1, 2, 3))
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package net.rrm.ehour.persistence.retry
+
+import java.sql.SQLException
+
+import net.rrm.ehour.AbstractSpec
+import org.hibernate.exception.{ConstraintViolationException, JDBCConnectionException, LockAcquisitionException}
+
+class BoundedRetryPolicySpec extends AbstractSpec {
+  var now = 0L
+  var sleeps = List[Long]()
+  var transactionActive = false
+
+  override protected def beforeEach() {
+    now = 0L
+    sleeps = List()
+    transactionActive = false
+  }
+
+  def policy(maxAttempts: Int = 3, budgetMillis: Long = 500, breaker: CircuitBreaker = new CircuitBreaker(10, 10000)) =
+    new BoundedRetryPolicy(maxAttempts = maxAttempts,
+      initialBackoffMillis = 50,
+      budgetMillis = budgetMillis,
+      breaker = breaker,
+      inTransaction = () => transactionActive,
+      clock = () => now,
+      sleep = millis => {
+        sleeps = sleeps :+ millis
+        now = now + millis
+      })
+
+  def connectionLost = new JDBCConnectionException("fail", new SQLException("down", "08001"))
+
+  def failing(times: Int, error: => RuntimeException) = {
+    var attempts = 0
+
+    def op(): String = {
+      attempts = attempts + 1
+
+      if (attempts <= times) throw error else "ok"
+    }
+
+    (() => op(), () => attempts)
+  }
+
+  "Bounded Retry Policy" should {
+    "retry transient errors with a jittered, growing backoff" in {
+      val subject = policy()
+      val (op, attempts) = failing(2, connectionLost)
+
+      subject.retry(op(), 5) should be("ok")
+
+      attempts() should be(3)
+      sleeps should have size 2
+      sleeps(0) should (be >= 25L and be <= 50L)
+      sleeps(1) should (be >= 50L and be <= 100L)
+
+      val stats = subject.statistics
+      stats.retries should be(2)
+      stats.recovered should be(1)
+    }
+
+    "not retry constraint violations" in {
+      val subject = policy()
+      val (op, attempts) = failing(1, new ConstraintViolationException("dup", new SQLException("dup", "23505"), "PK"))
+
+      intercept[ConstraintViolationException] {
+        subject.retry(op(), 5)
+      }
+
+      attempts() should be(1)
+      sleeps should be('empty)
+      subject.statistics.nonTransient should be(1)
+    }
+
+    "fail fast inside a transaction" in {
+      transactionActive = true
+      val subject = policy()
+      val (op, attempts) = failing(1, new LockAcquisitionException("deadlock", new SQLException("deadlock", "40001")))
+
+      intercept[LockAcquisitionException] {
+        subject.retry(op(), 5)
+      }
+
+      attempts() should be(1)
+      sleeps should be('empty)
+      subject.statistics.givenUp should be(1)
+    }
+
+    "stop retrying when the budget is spent" in {
+      val subject = policy(maxAttempts = 10, budgetMillis = 120)
+      val (op, attempts) = failing(10, connectionLost)
+
+      intercept[JDBCConnectionException] {
+        subject.retry(op(), 10)
+      }
+
+      sleeps.sum should be <= 120L
+      attempts() should be < 10
+    }
+
+    "stop retrying after the maximum number of attempts asked for by the caller" in {
+      val subject = policy(maxAttempts = 5, budgetMillis = 100000)
+      val (op, attempts) = failing(10, connectionLost)
+
+      intercept[JDBCConnectionException] {
+        subject.retry(op(), 2)
+      }
+
+      attempts() should be(2)
+    }
+
+    "reject calls while the circuit is open and let a trial call through after the open period" in {
+      val breaker = new CircuitBreaker(2, 1000, () => now)
+      val subject = policy(maxAttempts = 1, breaker = breaker)
+
+      for (i <- 1 to 2) {
+        intercept[JDBCConnectionException] {
+          subject.retry(throw connectionLost, 1)
+        }
+      }
+
+      breaker.currentState should be(CircuitState.Open)
+
+      var called = false
+      intercept[CircuitOpenException] {
+        subject.retry({ called = true; "ok" }, 1)
+      }
+
+      called should be(false)
+      subject.statistics.shortCircuited should be(1)
+
+      now = now + 1000
+
+      subject.retry("ok", 1) should be("ok")
+      breaker.currentState should be(CircuitState.Closed)
+    }
+
+    "reopen the circuit when the trial call fails" in {
+      val breaker = new CircuitBreaker(1, 1000, () => now)
+      val subject = policy(maxAttempts = 1, breaker = breaker)
+
+      intercept[JDBCConnectionException] {
+        subject.retry(throw connectionLost, 1)
+      }
+
+      now = now + 1000
+
+      intercept[JDBCConnectionException] {
+        subject.retry(throw connectionLost, 1)
+      }
+
+      breaker.currentState should be(CircuitState.Open)
+      breaker.allowRequest() should be(false)
+    }
+
+    "let the next call be the trial when the trial call throws an error" in {
+      val breaker = new CircuitBreaker(1, 1000, () => now)
+      val subject = policy(maxAttempts = 1, breaker = breaker)
+
+      intercept[JDBCConnectionException] {
+        subject.retry(throw connectionLost, 1)
+      }
+
+      now = now + 1000
+
+      intercept[StackOverflowError] {
+        subject.retry(throw new StackOverflowError(), 1)
+      }
+
+      breaker.currentState should be(CircuitState.Open)
+      subject.retry("ok", 1) should be("ok")
+      breaker.currentState should be(CircuitState.Closed)
+    }
+
+    "give up on a trial call that doesn't report back within the open period" in {
+      val breaker = new CircuitBreaker(1, 1000, () => now)
+      breaker.recordFailure()
+
+      now = now + 1000
+      breaker.allowRequest() should be(true)
+      breaker.allowRequest() should be(false)
+
+      now = now + 999
+      breaker.allowRequest() should be(false)
+
+      now = now + 1
+      breaker.allowRequest() should be(true)
+      breaker.allowRequest() should be(false)
+    }
+  }
+
+  "Transient Error Classifier" should {
+    "classify connection, lock and rollback errors as transient" in {
+      TransientErrorClassifier.isTransient(connectionLost) should be(true)
+      TransientErrorClassifier.isTransient(new RuntimeException(new SQLException("deadlock", "40001"))) should be(true)
+      TransientErrorClassifier.isTransient(new RuntimeException(new java.sql.SQLTransientConnectionException("gone"))) should be(true)
+    }
+
+    "classify data and constraint errors as not transient" in {
+      TransientErrorClassifier.isTransient(new ConstraintViolationException("dup", new SQLException("dup", "23505"), "PK")) should be(false)
+      TransientErrorClassifier.isTransient(new IllegalArgumentException("bad")) should be(false)
+    }
+  }
+}
@@ -1,7 +1,10 @@
 package net.rrm.ehour.persistence.retry
 
+import java.sql.SQLException
+
 import net.rrm.ehour.AbstractSpec
 import org.hibernate.HibernateException
+import org.hibernate.exception.JDBCConnectionException
 
 class ExponentialBackoffRetryPolicySpec extends AbstractSpec {
   "Exponential Backoff Retry Policy" should {
@@ -19,7 +22,7 @@ class ExponentialBackoffRetryPolicySpec extends AbstractSpec {
           true
         } else {
           attempts = attempts + 1
-          throw new HibernateException("fail")
+          throw new JDBCConnectionException("fail", new SQLException("down", "08001"))
         }
       }
 
@@ -27,8 +30,23 @@ class ExponentialBackoffRetryPolicySpec extends AbstractSpec {
       attempts should be (1)
     }
 
+    "not retry non-transient errors" in {
+      var attempts = 0
+
+      def fail() = {
+        attempts = attempts + 1
+        throw new HibernateException("fail")
+      }
+
+      intercept[HibernateException] {
+        ExponentialBackoffRetryPolicy.retry(fail)
+      }
+
+      attempts should be (1)
+    }
+
     "fail after 2 times" in {
-      def success() = throw new HibernateException("fail")
+      def success() = throw new JDBCConnectionException("fail", new SQLException("down", "08001"))
 
       try {
         ExponentialBackoffRetryPolicy.retry(success, 2)
@@ -0,0 +1,419 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audit.service;
+
+import com.google.common.base.Charsets;
+import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.data.AuditReportRequest;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.domain.AuditActionType;
+import net.rrm.ehour.domain.User;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audits moved out of the AUDIT table by the AuditRetentionJob. They're stored as gzipped, tab separated files
+ * partitioned per day: yyyy-MM/audit-yyyy-MM-dd.tsv.gz in the archive directory. Every archived batch is appended
+ * as a separate gzip member, GZIPInputStream reads the members as one stream. A batch whose delete failed is
+ * archived again by the next run, so an auditId appearing twice in a day's file is only read once.
+ * The archive is disabled when there's no directory configured and no EHOUR_HOME to put it in.
+ */
+@Service
+public class AuditArchive {
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".tsv.gz";
+    private static final String NULL = "\\N";
+
+    private static final Comparator<Audit> KEY_ORDER = new Comparator<Audit>() {
+        @Override
+        public int compare(Audit a, Audit b) {
+            return compareKeys(a, b);
+        }
+    };
+
+    private final File directory;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AuditArchive(@Value("${ehour.audit.archive.dir:}") String directory) {
+        this(StringUtils.isNotBlank(directory) ? new File(directory) : defaultDirectory());
+    }
+
+    AuditArchive(File directory) {
+        this.directory = directory;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Append the audits to their day's file, synced to disk before returning
+     */
+    public synchronized void archive(List<Audit> audits) throws IOException {
+        Map<String, List<Audit>> perDay = new TreeMap<>();
+
+        for (Audit audit : audits) {
+            String day = dayFormat().format(audit.getDate());
+
+            if (!perDay.containsKey(day)) {
+                perDay.put(day, new ArrayList<Audit>());
+            }
+
+            perDay.get(day).add(audit);
+        }
+
+        for (Map.Entry<String, List<Audit>> entry : perDay.entrySet()) {
+            append(fileFor(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Bumped after audits were deleted from the AUDIT table by the AuditRetentionJob, the oldest live audit
+     * may have changed
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    void auditsDeleted() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Archived audits matching the request that follow after and precede before in (date, auditId) order,
+     * up to max audits. Null keys leave that side open, max 0 returns them all
+     */
+    public List<Audit> findAudits(AuditReportRequest request, Audit after, Audit before, int max) throws IOException {
+        return findAudits(request, after, before, 0, max);
+    }
+
+    /**
+     * Archived audits matching the request that precede before in (date, auditId) order, skipping the first offset
+     * and up to max audits. Only one day's matches are held at a time
+     */
+    public List<Audit> findAudits(AuditReportRequest request, Audit before, int offset, int max) throws IOException {
+        return findAudits(request, null, before, offset, max);
+    }
+
+    /**
+     * Number of archived audits matching the request that precede before in (date, auditId) order, counting no
+     * further than limit. The audits are read one line at a time and not held, limit 0 counts them all
+     */
+    public int countAudits(AuditReportRequest request, Audit before, int limit) throws IOException {
+        int count = 0;
+
+        for (File file : filesFor(request, null)) {
+            Set<Integer> dayAuditIds = new HashSet<>();
+
+            try (BufferedReader reader = open(file)) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+
+                    Audit audit = parse(line);
+
+                    if (isFound(request, audit, null, before) && dayAuditIds.add(audit.getAuditId())) {
+                        count++;
+
+                        if (limit > 0 && count == limit) {
+                            return count;
+                        }
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private List<Audit> findAudits(AuditReportRequest request, Audit after, Audit before, int offset, int max) throws IOException {
+        List<Audit> found = new ArrayList<>();
+        int skip = offset;
+
+        for (File file : filesFor(request, after)) {
+            List<Audit> dayAudits = new ArrayList<>();
+            Set<Integer> dayAuditIds = new HashSet<>();
+
+            for (Audit audit : read(file)) {
+                if (isFound(request, audit, after, before) && dayAuditIds.add(audit.getAuditId())) {
+                    dayAudits.add(audit);
+                }
+            }
+
+            if (skip >= dayAudits.size()) {
+                skip -= dayAudits.size();
+                continue;
+            }
+
+            Collections.sort(dayAudits, KEY_ORDER);
+
+            for (Audit audit : dayAudits.subList(skip, dayAudits.size())) {
+                if (max > 0 && found.size() == max) {
+                    return found;
+                }
+
+                found.add(audit);
+            }
+
+            skip = 0;
+        }
+
+        return found;
+    }
+
+    private boolean isFound(AuditReportRequest request, Audit audit, Audit after, Audit before) {
+        return matches(request, audit)
+                && (after == null || compareKeys(audit, after) > 0)
+                && (before == null || compareKeys(audit, before) < 0);
+    }
+
+    static int compareKeys(Audit a, Audit b) {
+        int byDate = a.getDate().compareTo(b.getDate());
+
+        return byDate != 0 ? byDate : a.getAuditId().compareTo(b.getAuditId());
+    }
+
+    private void append(File file, List<Audit> audits) throws IOException {
+        file.getParentFile().mkdirs();
+
+        try (FileOutputStream fileStream = new FileOutputStream(file, true)) {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(new BufferedOutputStream(fileStream));
+            Writer writer = new OutputStreamWriter(gzipStream, Charsets.UTF_8);
+
+            for (Audit audit : audits) {
+                writer.write(format(audit));
+                writer.write('\n');
+            }
+
+            writer.flush();
+            gzipStream.finish();
+            gzipStream.flush();
+            fileStream.getFD().sync();
+        }
+    }
+
+    private List<Audit> read(File file) throws IOException {
+        List<Audit> audits = new ArrayList<>();
+
+        try (BufferedReader reader = open(file)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    audits.add(parse(line));
+                }
+            }
+        }
+
+        return audits;
+    }
+
+    private static BufferedReader open(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), Charsets.UTF_8));
+    }
+
+    /**
+     * Day files within the request's range and not before the after key's day, oldest first
+     */
+    private List<File> filesFor(AuditReportRequest request, Audit after) {
+        List<File> files = new ArrayList<>();
+
+        if (!isEnabled()) {
+            return files;
+        }
+
+        DateRange range = request.getReportRange();
+        SimpleDateFormat dayFormat = dayFormat();
+
+        String firstDay = request.isInfiniteStartDate() || range == null || range.getDateStart() == null ? null : dayFormat.format(range.getDateStart());
+        String lastDay = request.isInfiniteEndDate() || range == null || range.getDateEnd() == null ? null : dayFormat.format(range.getDateEnd());
+
+        if (after != null) {
+            String afterDay = dayFormat.format(after.getDate());
+            firstDay = firstDay == null || afterDay.compareTo(firstDay) > 0 ? afterDay : firstDay;
+        }
+
+        File[] months = directory.listFiles();
+
+        if (months == null) {
+            return files;
+        }
+
+        for (File month : months) {
+            File[] days = month.listFiles();
+
+            if (days == null) {
+                continue;
+            }
+
+            for (File file : days) {
+                String name = file.getName();
+
+                if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) {
+                    String day = name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length());
+
+                    if ((firstDay == null || day.compareTo(firstDay) >= 0) && (lastDay == null || day.compareTo(lastDay) <= 0)) {
+                        files.add(file);
+                    }
+                }
+            }
+        }
+
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+
+        return files;
+    }
+
+    private File fileFor(String day) {
+        return new File(new File(directory, day.substring(0, 7)), FILE_PREFIX + day + FILE_SUFFIX);
+    }
+
+    /**
+     * Same filtering as the AuditDao
+     */
+    private boolean matches(AuditReportRequest request, Audit audit) {
+        DateRange range = request.getReportRange();
+
+        if (!request.isInfiniteStartDate() && range != null && range.getDateStart() != null && audit.getDate().before(range.getDateStart())) {
+            return false;
+        }
+
+        if (!request.isInfiniteEndDate() && range != null && range.getDateEnd() != null && audit.getDate().after(range.getDateEnd())) {
+            return false;
+        }
+
+        return contains(audit.getAction(), request.getAction()) && contains(audit.getUserFullName(), request.getName());
+    }
+
+    private static boolean contains(String value, String filter) {
+        return StringUtils.isBlank(filter) || (value != null && value.toLowerCase().contains(filter.toLowerCase()));
+    }
+
+    private static String format(Audit audit) {
+        return StringUtils.join(new String[]{
+                String.valueOf(audit.getAuditId()),
+                audit.getUser() == null ? NULL : String.valueOf(audit.getUser().getUserId()),
+                String.valueOf(audit.getDate().getTime()),
+                audit.getSuccess() == null || audit.getSuccess() ? "Y" : "N",
+                audit.getAuditActionType() == null ? NULL : audit.getAuditActionType().name(),
+                escape(audit.getUserFullName()),
+                escape(audit.getPage()),
+                escape(audit.getAction()),
+                escape(audit.getParameters())}, '\t');
+    }
+
+    private static Audit parse(String line) {
+        String[] fields = line.split("\t", -1);
+
+        Audit audit = new Audit()
+                .setDate(new Date(Long.parseLong(fields[2])))
+                .setSuccess("Y".equals(fields[3]))
+                .setUserFullName(unescape(fields[5]))
+                .setPage(unescape(fields[6]))
+                .setAction(unescape(fields[7]))
+                .setParameters(unescape(fields[8]));
+
+        audit.setAuditId(Integer.valueOf(fields[0]));
+
+        if (!NULL.equals(fields[1])) {
+            audit.setUser(new User(Integer.valueOf(fields[1])));
+        }
+
+        if (!NULL.equals(fields[4])) {
+            audit.setAuditActionType(AuditActionType.valueOf(fields[4]));
+        }
+
+        return audit;
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        StringBuilder escaped = new StringBuilder(value.length());
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (NULL.equals(value)) {
+            return null;
+        }
+
+        StringBuilder unescaped = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+
+        return unescaped.toString();
+    }
+
+    private static SimpleDateFormat dayFormat() {
+        return new SimpleDateFormat("yyyy-MM-dd");
+    }
+
+    private static File defaultDirectory() {
+        return EhourHomeUtil.isEhourHomeDefined() ? new File(EhourHomeUtil.getEhourHome(), "audit-archive") : null;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.data.AuditReportRequest;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves audits past their retention from the AUDIT table into the AuditArchive, oldest first. Audits are kept for
+ * ehour.audit.retention.maxAgeDays days and up to ehour.audit.retention.maxRows rows, 0 disables a limit.
+ * Every batch is archived and then deleted in its own transaction so the table is never locked for long.
+ * Without an archive nothing is deleted, audits without a date have no day to be archived in and stay in the table.
+ */
+@Service
+public class AuditRetentionJob {
+    private static final Logger LOGGER = Logger.getLogger(AuditRetentionJob.class);
+
+    private final AuditDao auditDao;
+    private final AuditArchive auditArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAgeDays;
+    private final int maxRows;
+    private final int batchSize;
+
+    @Autowired
+    public AuditRetentionJob(AuditDao auditDao,
+                             AuditArchive auditArchive,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${ehour.audit.retention.maxAgeDays:0}") int maxAgeDays,
+                             @Value("${ehour.audit.retention.maxRows:0}") int maxRows,
+                             @Value("${ehour.audit.retention.batchSize:1000}") int batchSize) {
+        this(auditDao, auditArchive, createTransactionTemplate(transactionManager), maxAgeDays, maxRows, batchSize);
+    }
+
+    AuditRetentionJob(AuditDao auditDao, AuditArchive auditArchive, TransactionTemplate transactionTemplate, int maxAgeDays, int maxRows, int batchSize) {
+        this.auditDao = auditDao;
+        this.auditArchive = auditArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAgeDays = maxAgeDays;
+        this.maxRows = maxRows;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(cron = "${ehour.audit.retention.cron:0 30 2 * * *}")
+    public void scheduledApplyRetention() {
+        try {
+            applyRetention();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to archive audits", e);
+        }
+    }
+
+    /**
+     * @return the number of audits archived
+     */
+    public int applyRetention() {
+        if ((maxAgeDays <= 0 && maxRows <= 0) || !auditArchive.isEnabled()) {
+            return 0;
+        }
+
+        Date cutoff = maxAgeDays > 0 ? new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays)) : null;
+        int excess = maxRows > 0 ? Math.max(0, auditDao.count(allAudits()).intValue() - maxRows) : 0;
+        int archived = 0;
+
+        while (true) {
+            int batch = archiveBatch(cutoff, excess);
+
+            if (batch > 0) {
+                auditArchive.auditsDeleted();
+            }
+
+            archived += batch;
+            excess = Math.max(0, excess - batch);
+
+            if (batch < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            LOGGER.info("Archived " + archived + " audits");
+        }
+
+        return archived;
+    }
+
+    private int archiveBatch(final Date cutoff, final int excess) {
+        return execute(new TransactionCallback<Integer>() {
+            @Override
+            public Integer doInTransaction(TransactionStatus status) {
+                List<Audit> oldest = auditDao.findAuditsAfter(allAudits(), null, batchSize);
+                List<Audit> expired = new ArrayList<>();
+
+                for (Audit audit : oldest) {
+                    if (audit.getDate() == null) {
+                        continue;
+                    }
+
+                    if (expired.size() < excess || (cutoff != null && audit.getDate().before(cutoff))) {
+                        expired.add(audit);
+                    } else {
+                        break;
+                    }
+                }
+
+                if (!expired.isEmpty()) {
+                    try {
+                        auditArchive.archive(expired);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to write audit archive, keeping the audits", e);
+                    }
+
+                    auditDao.deleteAll(expired);
+                }
+
+                return expired.size();
+            }
+        });
+    }
+
+    private int execute(TransactionCallback<Integer> callback) {
+        if (transactionTemplate == null) {
+            return callback.doInTransaction(null);
+        } else {
+            return transactionTemplate.execute(callback);
+        }
+    }
+
+    private static AuditReportRequest allAudits() {
+        AuditReportRequest request = new AuditReportRequest();
+        request.setInfiniteStartDate(true);
+        request.setInfiniteEndDate(true);
+        return request;
+    }
+
+    private static TransactionTemplate createTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
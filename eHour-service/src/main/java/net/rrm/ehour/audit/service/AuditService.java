@@ -39,6 +39,15 @@ public interface AuditService
 	 * @return
 	 */
 	List<Audit> findAudits(AuditReportRequest request, Integer offset, Integer max);
+
+	/**
+	 * Get audit report page following the given audit in (date, auditId) order
+	 * @param request
+	 * @param after the last audit of the previous page, null for the first page
+	 * @param max
+	 * @return
+	 */
+	List<Audit> findAuditsAfter(AuditReportRequest request, Audit after, Integer max);
 	
 	/**
 	 * Get audit report ignoring any offset or max
@@ -53,4 +62,12 @@ public interface AuditService
 	 * @return
 	 */
 	Number getAuditCount(AuditReportRequest request);
+
+	/**
+	 * get audit count, counting no further than limit
+	 * @param request
+	 * @param limit
+	 * @return
+	 */
+	Number getAuditCount(AuditReportRequest request, Integer limit);
 }
@@ -20,43 +20,100 @@ import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.data.AuditReportRequest;
 import net.rrm.ehour.domain.Audit;
 import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Audits older than the oldest audit in the AUDIT table are read from the AuditArchive, they come first in
+ * (date, auditId) order. The oldest live audit is cached until the AuditRetentionJob deletes audits from the table,
+ * the cache is local to this JVM.
+ *
  * @author thies
  */
 @Service("auditService")
 public class AuditServiceImpl implements AuditService {
+    private static final Logger LOGGER = Logger.getLogger(AuditServiceImpl.class);
+
     private AuditDao auditDAO;
+    private AuditWriter auditWriter;
+    private AuditArchive auditArchive;
+    private volatile OldestLiveAudit oldestLiveAudit;
 
     @Autowired
-    public AuditServiceImpl(AuditDao auditDao) {
+    public AuditServiceImpl(AuditDao auditDao, AuditWriter auditWriter, AuditArchive auditArchive) {
         this.auditDAO = auditDao;
+        this.auditWriter = auditWriter;
+        this.auditArchive = auditArchive;
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /**
+     * Audits are queued and written in batches by the audit writer, in their own transaction
+     */
     @NonAuditable
     public void doAudit(final Audit audit) {
-        auditDAO.persist(audit);
+        auditWriter.write(audit);
     }
 
     @Override
     @NonAuditable
     @Transactional(readOnly = true)
     public List<Audit> findAudits(AuditReportRequest request, Integer offset, Integer max) {
-        return auditDAO.findAudits(request, offset, max);
+        if (!auditArchive.isEnabled()) {
+            return auditDAO.findAudits(request, offset, max);
+        }
+
+        Audit oldestLive = findOldestLiveAudit();
+        int archivedCount = countArchivedAudits(request, oldestLive, offset + 1);
+
+        if (offset >= archivedCount) {
+            return auditDAO.findAudits(request, offset - archivedCount, max);
+        }
+
+        List<Audit> audits = findArchivedAudits(request, oldestLive, offset, max);
+
+        if (audits.size() < max) {
+            audits.addAll(auditDAO.findAudits(request, 0, max - audits.size()));
+        }
+
+        return audits;
+    }
+
+    @Override
+    @NonAuditable
+    @Transactional(readOnly = true)
+    public List<Audit> findAuditsAfter(AuditReportRequest request, Audit after, Integer max) {
+        if (!auditArchive.isEnabled()) {
+            return auditDAO.findAuditsAfter(request, after, max);
+        }
+
+        Audit oldestLive = findOldestLiveAudit();
+
+        if (after != null && oldestLive != null && AuditArchive.compareKeys(after, oldestLive) >= 0) {
+            return auditDAO.findAuditsAfter(request, after, max);
+        }
+
+        List<Audit> audits = findArchivedAudits(request, after, oldestLive, max);
+
+        if (audits.size() < max) {
+            audits.addAll(auditDAO.findAuditsAfter(request, null, max - audits.size()));
+        }
+
+        return audits;
     }
 
     @Override
     @NonAuditable
     @Transactional(readOnly = true)
     public List<Audit> findAudits(AuditReportRequest request) {
-        return auditDAO.findAudits(request);
+        List<Audit> audits = auditArchive.isEnabled() ? findArchivedAudits(request, findOldestLiveAudit(), 0, 0) : new ArrayList<Audit>();
+        audits.addAll(auditDAO.findAudits(request));
+        return audits;
     }
 
     @NonAuditable
@@ -64,6 +121,81 @@ public class AuditServiceImpl implements AuditService {
     public Number getAuditCount(AuditReportRequest request) {
         Number number = auditDAO.count(request);
 
-        return (number == null) ? 0 : number;
+        return ((number == null) ? 0 : number.intValue()) + countArchivedAudits(request, 0);
+    }
+
+    @Override
+    @NonAuditable
+    @Transactional(readOnly = true)
+    public Number getAuditCount(AuditReportRequest request, Integer limit) {
+        int count = auditDAO.count(request, limit).intValue();
+
+        return count < limit ? count + countArchivedAudits(request, limit - count) : count;
+    }
+
+    private int countArchivedAudits(AuditReportRequest request, int limit) {
+        return auditArchive.isEnabled() ? countArchivedAudits(request, findOldestLiveAudit(), limit) : 0;
+    }
+
+    private int countArchivedAudits(AuditReportRequest request, Audit oldestLive, int limit) {
+        try {
+            return auditArchive.countAudits(request, oldestLive, limit);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the audit archive, only counting the audits in the database", e);
+            return 0;
+        }
+    }
+
+    private List<Audit> findArchivedAudits(AuditReportRequest request, Audit oldestLive, int offset, int max) {
+        try {
+            return auditArchive.findAudits(request, oldestLive, offset, max);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the audit archive, only reporting the audits in the database", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Archived audits before the oldest live one, an audit still in the table after a failed delete is only read once
+     */
+    private List<Audit> findArchivedAudits(AuditReportRequest request, Audit after, Audit oldestLive, int max) {
+        try {
+            return auditArchive.findAudits(request, after, oldestLive, max);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the audit archive, only reporting the audits in the database", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private Audit findOldestLiveAudit() {
+        long generation = auditArchive.getGeneration();
+        OldestLiveAudit cached = oldestLiveAudit;
+
+        if (cached == null || cached.generation != generation) {
+            cached = new OldestLiveAudit(generation, queryOldestLiveAudit());
+            oldestLiveAudit = cached;
+        }
+
+        return cached.audit;
+    }
+
+    private Audit queryOldestLiveAudit() {
+        AuditReportRequest all = new AuditReportRequest();
+        all.setInfiniteStartDate(true);
+        all.setInfiniteEndDate(true);
+
+        List<Audit> oldest = auditDAO.findAuditsAfter(all, null, 1);
+
+        return oldest.isEmpty() ? null : oldest.get(0);
+    }
+
+    private static final class OldestLiveAudit {
+        private final long generation;
+        private final Audit audit;
+
+        private OldestLiveAudit(long generation, Audit audit) {
+            this.generation = generation;
+            this.audit = audit;
+        }
     }
 }
@@ -0,0 +1,222 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audits in the background. Audits are queued in a bounded, lock-free queue and a single writer
+ * thread inserts them in JDBC batches. When the queue is full the calling thread writes its audit itself,
+ * slowing producers down rather than dropping audits. A failed batch is written again one audit at a time so
+ * a single bad audit doesn't take the others down with it. Queued audits are written on shutdown.
+ */
+@Service
+public class AuditWriter {
+    private static final Logger LOGGER = Logger.getLogger(AuditWriter.class);
+
+    private final AuditDao auditDao;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Queue<Audit> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object flushLock = new Object();
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    @Autowired
+    public AuditWriter(AuditDao auditDao,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${ehour.audit.queueSize:10000}") int capacity,
+                       @Value("${ehour.audit.batchSize:100}") int batchSize,
+                       @Value("${ehour.audit.flushIntervalMillis:1000}") long flushIntervalMillis) {
+        this(auditDao, createTransactionTemplate(transactionManager), capacity, batchSize, flushIntervalMillis);
+    }
+
+    AuditWriter(AuditDao auditDao, TransactionTemplate transactionTemplate, int capacity, int batchSize, long flushIntervalMillis) {
+        this.auditDao = auditDao;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running) {
+                    if (queued.get() < batchSize) {
+                        LockSupport.parkNanos(this, flushIntervalNanos);
+                    }
+
+                    flush();
+                }
+            }
+        }, "audit-writer");
+
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Queue the audit for writing, or write it in the calling thread when the queue is full or the writer is stopped
+     */
+    public void write(Audit audit) {
+        if (!running || !reserveSlot()) {
+            persist(Collections.singletonList(audit));
+            return;
+        }
+
+        queue.offer(audit);
+
+        if (!running) {
+            // shut down while queueing, the final drain may have missed it
+            flush();
+        } else if (queued.get() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Write all queued audits
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Audit> batch = new ArrayList<>(batchSize);
+            Audit audit;
+
+            while ((audit = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(audit);
+
+                if (batch.size() == batchSize) {
+                    persist(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                persist(batch);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+
+        Thread thread = writerThread;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = queued.get();
+
+            if (current >= capacity) {
+                return false;
+            }
+
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void persist(List<Audit> audits) {
+        try {
+            persistInTransaction(audits);
+        } catch (RuntimeException e) {
+            if (audits.size() == 1) {
+                LOGGER.error("Failed to write audit record " + audits.get(0), e);
+                return;
+            }
+
+            LOGGER.warn("Failed to write " + audits.size() + " audit records in one batch, writing them one by one", e);
+
+            for (Audit audit : audits) {
+                // the id the failed batch assigned was rolled back with it
+                audit.setAuditId(null);
+
+                try {
+                    persistInTransaction(Collections.singletonList(audit));
+                } catch (RuntimeException auditException) {
+                    LOGGER.error("Failed to write audit record " + audit, auditException);
+                }
+            }
+        }
+    }
+
+    private void persistInTransaction(final List<Audit> audits) {
+        if (transactionTemplate == null) {
+            auditDao.persistAll(audits);
+        } else {
+            transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+                @Override
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    auditDao.persistAll(audits);
+                }
+            });
+        }
+    }
+
+    private static TransactionTemplate createTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
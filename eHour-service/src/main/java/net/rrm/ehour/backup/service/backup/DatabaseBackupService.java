@@ -1,5 +1,7 @@
 package net.rrm.ehour.backup.service.backup;
 
+import java.io.OutputStream;
+
 /**
  * Service which exports the whole database to XML
  *
@@ -10,4 +12,10 @@ public interface DatabaseBackupService {
      * Export the database to an XML formatted backup fi le
      */
     byte[] exportDatabase();
+
+    /**
+     * Export the database straight to the output stream. Rows are streamed per table
+     * so memory use stays flat regardless of the database size
+     */
+    void exportDatabase(OutputStream outputStream);
 }
@@ -9,10 +9,12 @@ import net.rrm.ehour.config.EhourConfigStub;
 import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.domain.Configuration;
 import net.rrm.ehour.persistence.backup.dao.BackupDao;
+import net.rrm.ehour.persistence.backup.dao.BackupRowHandler;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -43,9 +45,23 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public synchronized byte[] exportDatabase() {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
+        try {
+            exportDatabase(outputStream);
+
+            return outputStream.toByteArray();
+        } catch (IllegalStateException e) {
+            LOGGER.error(e);
+            return new byte[0];
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void exportDatabase(OutputStream outputStream) {
         XMLStreamWriter writer = null;
 
         try {
@@ -53,10 +69,9 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
 
             exportDatabase(writer);
 
-            return outputStream.toByteArray();
+            writer.flush();
         } catch (XMLStreamException e) {
-            LOGGER.error(e);
-            return new byte[0];
+            throw new IllegalStateException("Failed to export database", e);
         } finally {
             if (writer != null) {
                 try {
@@ -118,33 +133,35 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
         writer.writeEndElement();
     }
 
-    private void backupJoinTables(XMLStreamWriter writer) throws XMLStreamException {
+    private void backupJoinTables(final XMLStreamWriter writer) throws XMLStreamException {
         List<BackupJoinTable> joinTables = backupConfig.joinTables();
 
-        for (BackupJoinTable joinTable : joinTables) {
+        for (final BackupJoinTable joinTable : joinTables) {
             String container = joinTable.getContainer();
             writer.writeStartElement(container);
 
-            String tableName = joinTable.getTableName();
-            List<Map<String, Object>> rows = backupDao.findAll(tableName);
+            final String tableName = joinTable.getTableName();
 
-            for (Map<String, Object> row : rows) {
-                Map<String, Object> uppercaseRowMap = Maps.newHashMap();
+            backupDao.streamAll(tableName, new XmlRowHandler() {
+                @Override
+                protected void writeRow(Map<String, Object> row) throws XMLStreamException {
+                    Map<String, Object> uppercaseRowMap = Maps.newHashMap();
 
-                for (Entry<String, Object> s : row.entrySet()) {
-                    uppercaseRowMap.put(s.getKey().toUpperCase(), s.getValue());
-                }
+                    for (Entry<String, Object> s : row.entrySet()) {
+                        uppercaseRowMap.put(s.getKey().toUpperCase(), s.getValue());
+                    }
 
-                writer.writeStartElement(tableName);
+                    writer.writeStartElement(tableName);
 
-                Object source = uppercaseRowMap.get(joinTable.getAttributeSource().toUpperCase());
-                Object target = uppercaseRowMap.get(joinTable.getAttributeTarget().toUpperCase());
+                    Object source = uppercaseRowMap.get(joinTable.getAttributeSource().toUpperCase());
+                    Object target = uppercaseRowMap.get(joinTable.getAttributeTarget().toUpperCase());
 
-                writer.writeAttribute(joinTable.getAttributeSource().toUpperCase(), source.toString());
-                writer.writeAttribute(joinTable.getAttributeTarget().toUpperCase(), target.toString());
+                    writer.writeAttribute(joinTable.getAttributeSource().toUpperCase(), source.toString());
+                    writer.writeAttribute(joinTable.getAttributeTarget().toUpperCase(), target.toString());
 
-                writer.writeEndElement();
-            }
+                    writer.writeEndElement();
+                }
+            });
 
             writer.writeEndElement();
         }
@@ -156,33 +173,50 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
         }
     }
 
-    private void backupType(BackupEntityType entity, XMLStreamWriter writer) throws XMLStreamException {
+    private void backupType(final BackupEntityType entity, final XMLStreamWriter writer) throws XMLStreamException {
         writer.writeStartElement(entity.getParentName());
 
         if (entity.getDomainObjectClass() != null) {
             writer.writeAttribute("CLASS", entity.getDomainObjectClass().getName());
         }
 
-        List<Map<String, Object>> rows = backupDao.findAll(entity.name());
-
-        if (entity.getProcessor() != null) {
-            rows = entity.getProcessor().processRows(rows);
-        }
+        backupDao.streamAll(entity.name(), new XmlRowHandler() {
+            @Override
+            protected void writeRow(Map<String, Object> rowMap) throws XMLStreamException {
+                if (entity.getProcessor() != null) {
+                    rowMap = entity.getProcessor().processRow(rowMap);
+                }
 
-        for (Map<String, Object> rowMap : rows) {
-            writer.writeStartElement(entity.name());
+                writer.writeStartElement(entity.name());
 
-            for (Entry<String, Object> columns : rowMap.entrySet()) {
-                if (StringUtils.isNotBlank(columns.getKey()) && columns.getValue() != null) {
-                    writer.writeStartElement(columns.getKey());
-                    writer.writeCharacters(columns.getValue().toString());
-                    writer.writeEndElement();
+                for (Entry<String, Object> columns : rowMap.entrySet()) {
+                    if (StringUtils.isNotBlank(columns.getKey()) && columns.getValue() != null) {
+                        writer.writeStartElement(columns.getKey());
+                        writer.writeCharacters(columns.getValue().toString());
+                        writer.writeEndElement();
+                    }
                 }
+
+                writer.writeEndElement();
             }
+        });
 
-            writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes streamed rows to the XML writer, the DAO callback can't throw checked exceptions
+     */
+    private abstract static class XmlRowHandler implements BackupRowHandler {
+        @Override
+        public void handleRow(Map<String, Object> row) {
+            try {
+                writeRow(row);
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Failed to write row", e);
+            }
         }
 
-        writer.writeEndElement();
+        protected abstract void writeRow(Map<String, Object> row) throws XMLStreamException;
     }
 }
@@ -41,6 +41,8 @@ public class EntityParser {
 
     private PrimaryKeyCache keyCache;
     private final BackupConfig backupConfig;
+    private final int batchSize;
+    private int pendingInBatch;
 
     static {
         transformerMap.put(Integer.class, new IntegerTransformer());
@@ -50,10 +52,19 @@ public class EntityParser {
     }
 
     public EntityParser(XMLEventReader reader, EntityParserDao parserDao, PrimaryKeyCache keyCache, BackupConfig backupConfig) {
+        this(reader, parserDao, keyCache, backupConfig, 0);
+    }
+
+    /**
+     * @param batchSize when larger than 0 the parser runs in bulk mode: the session is flushed and cleared
+     *                  every batchSize entities and the parsed entities are not retained in the returned list
+     */
+    public EntityParser(XMLEventReader reader, EntityParserDao parserDao, PrimaryKeyCache keyCache, BackupConfig backupConfig, int batchSize) {
         this.parserDao = parserDao;
         this.reader = reader;
         this.keyCache = keyCache;
         this.backupConfig = backupConfig;
+        this.batchSize = batchSize;
     }
 
     public <PK extends Serializable, T extends DomainObject<PK, ?>> List<T> parse(Class<T> clazz, JoinTables joinTables, ParseSession status) throws IllegalAccessException, InstantiationException, XMLStreamException, ImportException {
@@ -68,6 +79,7 @@ public class EntityParser {
      */
     private <PK extends Serializable, T extends DomainObject<PK, ?>> List<T> parseDomainObjects(Class<T> clazz, FieldMap fieldMap, JoinTables joinTables, ParseSession status) throws XMLStreamException, IllegalAccessException, InstantiationException, ImportException {
         List<T> domainObjects = new ArrayList<>();
+        BackupEntityType backupEntityType = backupConfig.entityForClass(clazz);
 
         while (reader.hasNext()) {
             XMLEvent event = reader.nextTag();
@@ -75,18 +87,46 @@ public class EntityParser {
             if (event.isStartElement()) {
                 T domainObject = parseAndPersistDomainObject(clazz, fieldMap, joinTables);
 
-                domainObjects.add(domainObject);
+                if (isBulkMode()) {
+                    flushWhenBatchIsFull();
+                } else {
+                    domainObjects.add(domainObject);
+                }
 
-                BackupEntityType backupEntityType = backupConfig.entityForClass(clazz);
                 status.addInsertion(backupEntityType);
             } else if (event.isEndElement()) {
                 break;
             }
         }
 
+        if (isBulkMode()) {
+            flushBatch();
+        }
+
         return domainObjects;
     }
 
+    private boolean isBulkMode() {
+        return batchSize > 0;
+    }
+
+    private void flushWhenBatchIsFull() {
+        if (++pendingInBatch >= batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Sends the pending inserts as JDBC batches and detaches them from the session so
+     * the persistence context doesn't grow with the size of the backup
+     */
+    private void flushBatch() {
+        if (pendingInBatch > 0) {
+            parserDao.flush();
+            pendingInBatch = 0;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <PK extends Serializable, T extends DomainObject<PK, ?>> T parseAndPersistDomainObject(Class<T> clazz, FieldMap fieldMap, JoinTables joinTables) throws XMLStreamException, IllegalAccessException, InstantiationException, ImportException {
         T targetObject = clazz.newInstance();
@@ -186,7 +226,8 @@ public class EntityParser {
                             fkTransformedId = fkId;
                         }
 
-                        Serializable fk = parserDao.find(fkTransformedId, fkType);
+                        // only the id ends up in the join table, a proxy saves a select per row
+                        Serializable fk = parserDao.getReference(fkTransformedId, fkType);
 
                         Collection o = (Collection) field.get(targetEntity);
                         o.add(fk);
@@ -25,4 +25,14 @@ public class EntityParserDaoPersistImpl implements EntityParserDao {
     public <T extends Serializable> T find(Serializable primaryKey, Class<T> type) {
         return restoreDao.find(primaryKey, type);
     }
+
+    @Override
+    public <T extends Serializable> T getReference(Serializable primaryKey, Class<T> type) {
+        return restoreDao.getReference(primaryKey, type);
+    }
+
+    @Override
+    public void flush() {
+        restoreDao.flush();
+    }
 }
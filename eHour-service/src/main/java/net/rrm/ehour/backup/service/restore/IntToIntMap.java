@@ -0,0 +1,107 @@
+package net.rrm.ehour.backup.service.restore;
+
+/**
+ * Open addressing int to int map with linear probing. Keys and values are kept in
+ * primitive arrays so no Integer boxes are created for the remapped keys.
+ * <p/>
+ * Not thread safe
+ */
+class IntToIntMap {
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    IntToIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IntToIntMap(int expectedSize) {
+        allocate(tableSizeFor((int) (expectedSize / LOAD_FACTOR) + 1));
+    }
+
+    void put(int key, int value) {
+        int slot = findSlot(key);
+
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+
+        values[slot] = value;
+
+        if (size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    boolean containsKey(int key) {
+        return used[findSlot(key)];
+    }
+
+    /**
+     * @return the value for the key or the missingValue when the key isn't present
+     */
+    int get(int key, int missingValue) {
+        int slot = findSlot(key);
+        return used[slot] ? values[slot] : missingValue;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = findSlot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        return Math.max(size, 2);
+    }
+}
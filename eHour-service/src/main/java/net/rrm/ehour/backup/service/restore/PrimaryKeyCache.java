@@ -5,36 +5,70 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * Maps the primary keys found in the backup to the keys generated when the entity was restored.
+ * Generated Integer keys, by far the most common case, are kept in a primitive map per entity class;
+ * composite and String keys fall back to a regular map.
+ *
  * @author thies (Thies Edeling - thies@te-con.nl)
  *         Created on: 11/20/10 - 1:21 AM
  */
 public class PrimaryKeyCache {
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    Map<Class<?>, IntToIntMap> intKeyMap = new HashMap<>();
     Map<Class<?>, Map<Serializable, Serializable>> keyMap = new HashMap<>();
 
     public void putKey(Class<?> domainObjectClass, Serializable oldKey, Serializable newKey) {
-        Map<Serializable, Serializable> oldNewKeyMap;
+        if (isIntMappable(oldKey, newKey)) {
+            IntToIntMap oldNewKeyMap = intKeyMap.get(domainObjectClass);
+
+            if (oldNewKeyMap == null) {
+                oldNewKeyMap = new IntToIntMap();
+                intKeyMap.put(domainObjectClass, oldNewKeyMap);
+            }
 
-        if (keyMap.containsKey(domainObjectClass)) {
-            oldNewKeyMap = keyMap.get(domainObjectClass);
+            oldNewKeyMap.put((Integer) oldKey, (Integer) newKey);
         } else {
-            oldNewKeyMap = new HashMap<>();
-        }
+            Map<Serializable, Serializable> oldNewKeyMap = keyMap.get(domainObjectClass);
 
-        oldNewKeyMap.put(oldKey, newKey);
+            if (oldNewKeyMap == null) {
+                oldNewKeyMap = new HashMap<>();
+                keyMap.put(domainObjectClass, oldNewKeyMap);
+            }
 
-        keyMap.put(domainObjectClass, oldNewKeyMap);
+            oldNewKeyMap.put(oldKey, newKey);
+        }
     }
 
     public Serializable getKey(Class<?> domainObjectClass, Serializable oldKey) {
-        if (keyMap.containsKey(domainObjectClass)) {
-            return keyMap.get(domainObjectClass).get(oldKey);
+        if (oldKey instanceof Integer) {
+            IntToIntMap oldNewKeyMap = intKeyMap.get(domainObjectClass);
+
+            if (oldNewKeyMap != null) {
+                int newKey = oldNewKeyMap.get((Integer) oldKey, MISSING);
 
+                if (newKey != MISSING) {
+                    return newKey;
+                }
+            }
         }
 
-        return null;
+        Map<Serializable, Serializable> oldNewKeyMap = keyMap.get(domainObjectClass);
+        return oldNewKeyMap != null ? oldNewKeyMap.get(oldKey) : null;
     }
 
     public boolean isEmpty() {
-        return keyMap.isEmpty();
+        return intKeyMap.isEmpty() && keyMap.isEmpty();
+    }
+
+    int size(Class<?> domainObjectClass) {
+        IntToIntMap intKeys = intKeyMap.get(domainObjectClass);
+        Map<Serializable, Serializable> keys = keyMap.get(domainObjectClass);
+
+        return (intKeys != null ? intKeys.size() : 0) + (keys != null ? keys.size() : 0);
+    }
+
+    private boolean isIntMappable(Serializable oldKey, Serializable newKey) {
+        return oldKey instanceof Integer && newKey instanceof Integer && (Integer) newKey != MISSING;
     }
 }
@@ -5,10 +5,13 @@ import net.rrm.ehour.backup.domain.ImportException;
 import net.rrm.ehour.backup.domain.ParseSession;
 import net.rrm.ehour.backup.service.DatabaseTruncater;
 import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.persistence.config.dao.ConfigurationDao;
 import net.rrm.ehour.persistence.hibernate.HibernateCache;
+import net.rrm.ehour.project.status.AssignmentBookedHoursCache;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -24,6 +27,8 @@ import javax.xml.stream.XMLEventReader;
 public class RestoreServiceImpl implements RestoreService {
     private static final Logger LOG = Logger.getLogger(RestoreServiceImpl.class);
 
+    static final int DEFAULT_BATCH_SIZE = 500;
+
     private ConfigurationDao configurationDao;
 
     private ConfigurationParserDao configurationParserDao;
@@ -38,6 +43,13 @@ public class RestoreServiceImpl implements RestoreService {
 
     private EhourConfig ehourConfig;
 
+    private AssignmentBookedHoursCache bookedHoursCache;
+
+    private ConfigurationService configurationService;
+
+    @Value("${ehour.restore.batchSize:500}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
     @Autowired
     public RestoreServiceImpl(ConfigurationDao configurationDao,
                               ConfigurationParserDao configurationParserDao,
@@ -45,7 +57,9 @@ public class RestoreServiceImpl implements RestoreService {
                               DatabaseTruncater databaseTruncater,
                               EhourConfig ehourConfig,
                               BackupConfig backupConfig,
-                              TaskExecutor taskExecutor) {
+                              TaskExecutor taskExecutor,
+                              AssignmentBookedHoursCache bookedHoursCache,
+                              ConfigurationService configurationService) {
         this.configurationDao = configurationDao;
         this.configurationParserDao = configurationParserDao;
         this.entityParserDao = entityParserDao;
@@ -53,6 +67,8 @@ public class RestoreServiceImpl implements RestoreService {
         this.ehourConfig = ehourConfig;
         this.backupConfig = backupConfig;
         this.taskExecutor = taskExecutor;
+        this.bookedHoursCache = bookedHoursCache;
+        this.configurationService = configurationService;
     }
 
     @Override
@@ -73,9 +89,13 @@ public class RestoreServiceImpl implements RestoreService {
                         .setXmlReader(xmlEventReader)
                         .setSkipValidation(true)
                         .setBackupConfig(backupConfig)
+                        .setBatchSize(batchSize)
                         .build();
 
                 parser.parseXml(session, xmlEventReader);
+
+                bookedHoursCache.evictAll();
+                configurationService.publishConfiguration();
             }
         } catch (Exception e) {
             session.setGlobalError(true);
@@ -96,4 +116,8 @@ public class RestoreServiceImpl implements RestoreService {
     public void setDatabaseTruncater(DatabaseTruncater databaseTruncater) {
         this.databaseTruncater = databaseTruncater;
     }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
 }
@@ -18,6 +18,7 @@ public class XmlParserBuilder {
     private EntityParserDao entityParserDao;
     private boolean skipValidation = false;
     private BackupConfig backupConfig;
+    private int batchSize = 0;
 
     public XmlParser build() throws XMLStreamException {
         Assert.notNull(xmlReader);
@@ -28,7 +29,7 @@ public class XmlParserBuilder {
         PrimaryKeyCache keyCache = new PrimaryKeyCache();
 
         JoinTableParser joinTableParser = new JoinTableParser(xmlReader, backupConfig);
-        EntityParser parser = new EntityParser(xmlReader, entityParserDao, keyCache, backupConfig);
+        EntityParser parser = new EntityParser(xmlReader, entityParserDao, keyCache, backupConfig, batchSize);
 
         EntityTableParser entityTableParser = new EntityTableParser(xmlReader, parser);
 
@@ -67,4 +68,12 @@ public class XmlParserBuilder {
         this.backupConfig = backupConfig;
         return this;
     }
+
+    /**
+     * Restore in bulk mode, flushing and clearing the session every batchSize entities. 0 disables bulk mode
+     */
+    public XmlParserBuilder setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
 }
@@ -0,0 +1,11 @@
+package net.rrm.ehour.config;
+
+/**
+ * Beans implementing this interface are notified after a changed configuration is committed
+ */
+public interface ConfigurationChangeListener {
+    /**
+     * @param config snapshot of the configuration as it is persisted
+     */
+    void configurationChanged(EhourConfig config);
+}
@@ -6,14 +6,18 @@ import java.io.Serializable;
 import java.util.Locale;
 import java.util.TimeZone;
 
-public class EhourConfigCache implements EhourConfig, Serializable {
+/**
+ * Immutable copy of the configuration, shared by all sessions and services through {@link SharedEhourConfig}
+ */
+public final class EhourConfigSnapshot implements EhourConfig, Serializable {
+    private static final long serialVersionUID = 2518620457193726130L;
 
     private final EhourConfigStub cache;
     private final TimeZone timezone;
     private final String currencySymbol;
     private final String currencyCode;
 
-    public EhourConfigCache(EhourConfig config) {
+    public EhourConfigSnapshot(EhourConfig config) {
 
         cache = new EhourConfigStub();
 
@@ -28,7 +32,8 @@ public class EhourConfigCache implements EhourConfig, Serializable {
         currencySymbol = config.getCurrencySymbol();
         currencyCode = config.getCurrencyCode();
 
-        cache.setAvailableTranslations(config.getAvailableTranslations());
+        String[] translations = config.getAvailableTranslations();
+        cache.setAvailableTranslations(translations == null ? null : translations.clone());
         cache.setMailFrom(config.getMailFrom());
         cache.setMailSmtp(config.getMailSmtp());
         cache.setSmtpPort(config.getSmtpPort());
@@ -100,7 +105,8 @@ public class EhourConfigCache implements EhourConfig, Serializable {
 
     @Override
     public String[] getAvailableTranslations() {
-        return cache.getAvailableTranslations();
+        String[] translations = cache.getAvailableTranslations();
+        return translations == null ? null : translations.clone();
     }
 
     @Override
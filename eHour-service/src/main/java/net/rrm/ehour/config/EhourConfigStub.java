@@ -305,4 +305,37 @@ public class EhourConfigStub implements EhourConfig, Serializable {
     public void setVersion(String version) {
         this.version = version;
     }
+
+    public EhourConfigStub copy() {
+        EhourConfigStub copy = new EhourConfigStub();
+
+        copy.availableTranslations = availableTranslations == null ? null : availableTranslations.clone();
+        copy.completeDayHours = completeDayHours;
+        copy.currency = currency;
+        copy.localeLanguage = localeLanguage;
+        copy.localeFormatting = localeFormatting;
+        copy.timeZone = timeZone;
+        copy.showTurnover = showTurnover;
+        copy.mailFrom = mailFrom;
+        copy.mailSmtp = mailSmtp;
+        copy.demoMode = demoMode;
+        copy.dontForceLanguage = dontForceLanguage;
+        copy.initialized = initialized;
+        copy.smtpUsername = smtpUsername;
+        copy.smtpPassword = smtpPassword;
+        copy.smtpPort = smtpPort;
+        copy.firstDayOfWeek = firstDayOfWeek;
+        copy.auditType = auditType;
+        copy.version = version;
+        copy.pmPrivilege = pmPrivilege;
+        copy.splitAdminRole = splitAdminRole;
+        copy.reminderEnabled = reminderEnabled;
+        copy.reminderMinimalHours = reminderMinimalHours;
+        copy.reminderTime = reminderTime;
+        copy.reminderSubject = reminderSubject;
+        copy.reminderBody = reminderBody;
+        copy.reminderCC = reminderCC;
+
+        return copy;
+    }
 }
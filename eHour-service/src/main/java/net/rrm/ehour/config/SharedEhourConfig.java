@@ -0,0 +1,183 @@
+package net.rrm.ehour.config;
+
+import net.rrm.ehour.domain.AuditType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The configuration as seen by sessions and services. Reads go to an immutable snapshot which is loaded
+ * from the database once and replaced whenever the configuration is persisted.
+ */
+@Service("sharedEhourConfig")
+@Primary
+public class SharedEhourConfig implements EhourConfig, ConfigurationChangeListener {
+    private final EhourConfig source;
+    private final AtomicReference<EhourConfigSnapshot> snapshot = new AtomicReference<>();
+
+    @Autowired
+    public SharedEhourConfig(@Qualifier("eHourConfig") EhourConfig source) {
+        this.source = source;
+    }
+
+    public EhourConfigSnapshot getSnapshot() {
+        EhourConfigSnapshot current = snapshot.get();
+
+        if (current == null) {
+            snapshot.compareAndSet(null, new EhourConfigSnapshot(source));
+            current = snapshot.get();
+        }
+
+        return current;
+    }
+
+    @Override
+    public void configurationChanged(EhourConfig config) {
+        snapshot.set(config instanceof EhourConfigSnapshot ? (EhourConfigSnapshot) config : new EhourConfigSnapshot(config));
+    }
+
+    @Override
+    public float getCompleteDayHours() {
+        return getSnapshot().getCompleteDayHours();
+    }
+
+    @Override
+    public boolean isShowTurnover() {
+        return getSnapshot().isShowTurnover();
+    }
+
+    @Override
+    public String getTimeZone() {
+        return getSnapshot().getTimeZone();
+    }
+
+    @Override
+    public TimeZone getTzAsTimeZone() {
+        return getSnapshot().getTzAsTimeZone();
+    }
+
+    @Override
+    public Locale getFormattingLocale() {
+        return getSnapshot().getFormattingLocale();
+    }
+
+    @Override
+    public Locale getLanguageLocale() {
+        return getSnapshot().getLanguageLocale();
+    }
+
+    @Override
+    public Locale getCurrency() {
+        return getSnapshot().getCurrency();
+    }
+
+    @Override
+    public String getCurrencySymbol() {
+        return getSnapshot().getCurrencySymbol();
+    }
+
+    @Override
+    public String getCurrencyCode() {
+        return getSnapshot().getCurrencyCode();
+    }
+
+    @Override
+    public String[] getAvailableTranslations() {
+        return getSnapshot().getAvailableTranslations();
+    }
+
+    @Override
+    public String getMailFrom() {
+        return getSnapshot().getMailFrom();
+    }
+
+    @Override
+    public String getMailSmtp() {
+        return getSnapshot().getMailSmtp();
+    }
+
+    @Override
+    public String getSmtpUsername() {
+        return getSnapshot().getSmtpUsername();
+    }
+
+    @Override
+    public String getSmtpPassword() {
+        return getSnapshot().getSmtpPassword();
+    }
+
+    @Override
+    public String getSmtpPort() {
+        return getSnapshot().getSmtpPort();
+    }
+
+    @Override
+    public boolean isInDemoMode() {
+        return getSnapshot().isInDemoMode();
+    }
+
+    @Override
+    public boolean isDontForceLanguage() {
+        return getSnapshot().isDontForceLanguage();
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return getSnapshot().isInitialized();
+    }
+
+    @Override
+    public int getFirstDayOfWeek() {
+        return getSnapshot().getFirstDayOfWeek();
+    }
+
+    @Override
+    public AuditType getAuditType() {
+        return getSnapshot().getAuditType();
+    }
+
+    @Override
+    public PmPrivilege getPmPrivilege() {
+        return getSnapshot().getPmPrivilege();
+    }
+
+    @Override
+    public boolean isSplitAdminRole() {
+        return getSnapshot().isSplitAdminRole();
+    }
+
+    @Override
+    public boolean isReminderEnabled() {
+        return getSnapshot().isReminderEnabled();
+    }
+
+    @Override
+    public String getReminderTime() {
+        return getSnapshot().getReminderTime();
+    }
+
+    @Override
+    public String getReminderSubject() {
+        return getSnapshot().getReminderSubject();
+    }
+
+    @Override
+    public String getReminderBody() {
+        return getSnapshot().getReminderBody();
+    }
+
+    @Override
+    public int getReminderMinimalHours() {
+        return getSnapshot().getReminderMinimalHours();
+    }
+
+    @Override
+    public String getReminderCC() {
+        return getSnapshot().getReminderCC();
+    }
+}
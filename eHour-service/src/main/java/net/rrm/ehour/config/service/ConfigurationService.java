@@ -31,7 +31,7 @@ import java.util.List;
 @NonAuditable
 public interface ConfigurationService {
     /**
-     * Get all configuration items
+     * Get all configuration items, a copy of the configuration shared by the application
      *
      * @return
      */
@@ -51,6 +51,12 @@ public interface ConfigurationService {
      */
     void persistConfiguration(EhourConfig config);
 
+    /**
+     * Reload the configuration from the database and publish it once the current transaction commits,
+     * for changes that don't go through persistConfiguration such as a database restore
+     */
+    void publishConfiguration();
+
     /**
      * Get configured logo for excel reports
      *
@@ -30,13 +30,19 @@ import net.rrm.ehour.persistence.value.ImageLogo;
 import net.rrm.ehour.user.service.UserService;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Configuration service
@@ -59,6 +65,14 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     @Autowired
     private UserService userService;
 
+    @Autowired(required = false)
+    private ApplicationContext applicationContext;
+
+    /**
+     * Configuration as last loaded or published, replaced after every commit that changes it
+     */
+    private final AtomicReference<EhourConfigStub> configuration = new AtomicReference<>();
+
     private static final Logger LOGGER = Logger.getLogger(ConfigurationServiceImpl.class);
 
     @Transactional
@@ -155,9 +169,30 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         return bytes;
     }
 
+    /**
+     * @return a copy of the shared configuration, free to modify
+     */
     @Transactional
     @NonAuditable
     public EhourConfigStub getConfiguration() {
+        EhourConfigStub current = configuration.get();
+
+        if (current == null) {
+            // a configuration published meanwhile is newer than the one just loaded
+            configuration.compareAndSet(null, loadConfiguration());
+            current = configuration.get();
+        }
+
+        return current.copy();
+    }
+
+    @Override
+    @Transactional
+    public void publishConfiguration() {
+        publishAfterCommit(loadConfiguration());
+    }
+
+    private EhourConfigStub loadConfiguration() {
         List<Configuration> configs = configDao.findAll();
         EhourConfigStub config = new EhourConfigStub();
 
@@ -265,6 +300,43 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         persistConfig(ConfigurationItem.REMINDER_TIME.getDbField(), config.getReminderTime());
 
         persistConfig(ConfigurationItem.TIMEZONE.getDbField(), config.getTimeZone());
+
+        publishAfterCommit(loadConfiguration());
+    }
+
+    /**
+     * Notify the listeners once the transaction is committed so they never see a configuration that's rolled back
+     */
+    private void publishAfterCommit(final EhourConfigStub config) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    publish(config);
+                }
+            });
+        } else {
+            publish(config);
+        }
+    }
+
+    private void publish(EhourConfigStub config) {
+        configuration.set(config);
+
+        EhourConfigSnapshot snapshot = new EhourConfigSnapshot(config);
+
+        for (ConfigurationChangeListener listener : getListeners()) {
+            listener.configurationChanged(snapshot);
+        }
+    }
+
+    // looked up when publishing as most listeners depend on services which depend on this one
+    private Collection<ConfigurationChangeListener> getListeners() {
+        if (applicationContext == null) {
+            return Collections.emptyList();
+        }
+
+        return applicationContext.getBeansOfType(ConfigurationChangeListener.class).values();
     }
 
     private AuditType getAuditType(EhourConfig config) {
@@ -310,4 +382,8 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     public void setTranslationDiscovery(TranslationDiscovery translationDiscovery) {
         this.translationDiscovery = translationDiscovery;
     }
+
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
 }
@@ -21,6 +21,7 @@ import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.ProjectAssignmentType;
 import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserRole;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 
 import java.util.List;
@@ -39,6 +40,15 @@ public interface ProjectAssignmentService {
      */
     List<ProjectAssignment> getProjectAssignmentsForUser(Integer userId, DateRange dateRange);
 
+    /**
+     * Get active projects in date range of all active users with the given role
+     *
+     * @param role
+     * @param dateRange
+     * @return
+     */
+    List<ProjectAssignment> getProjectAssignmentsForRole(UserRole role, DateRange dateRange);
+
     /**
      * Get projects for user
      *
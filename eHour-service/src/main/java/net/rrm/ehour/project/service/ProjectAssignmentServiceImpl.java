@@ -23,9 +23,11 @@ import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.ProjectAssignmentType;
 import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserRole;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
+import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.reports.util.ReportUtil;
@@ -54,13 +56,22 @@ public class ProjectAssignmentServiceImpl implements ProjectAssignmentService {
     @Override
     @Transactional(readOnly = true)
     public List<ProjectAssignment> getProjectAssignmentsForUser(Integer userId, DateRange dateRange) {
-        List<ProjectAssignment> assignments;
+        return filterBookableAssignments(projectAssignmentDAO.findActiveProjectAssignmentsForUser(userId, dateRange), dateRange);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProjectAssignment> getProjectAssignmentsForRole(UserRole role, DateRange dateRange) {
+        return filterBookableAssignments(projectAssignmentDAO.findActiveProjectAssignmentsForRole(role, dateRange), dateRange);
+    }
+
+    private List<ProjectAssignment> filterBookableAssignments(List<ProjectAssignment> assignments, DateRange dateRange) {
         List<ProjectAssignment> validAssignments = new ArrayList<>();
 
-        assignments = projectAssignmentDAO.findActiveProjectAssignmentsForUser(userId, dateRange);
+        Map<Integer, ProjectAssignmentStatus> statusses = projectAssignmentStatusService.getAssignmentStatuses(assignments, dateRange);
 
         for (ProjectAssignment assignment : assignments) {
-            if (projectAssignmentStatusService.getAssignmentStatus(assignment, dateRange).isAssignmentBookable()) {
+            if (statusses.get(assignment.getAssignmentId()).isAssignmentBookable()) {
                 validAssignments.add(assignment);
             }
         }
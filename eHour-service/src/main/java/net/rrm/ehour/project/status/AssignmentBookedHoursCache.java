@@ -0,0 +1,464 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.project.status;
+
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.util.DomainUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Running total of the hours booked per assignment so budget checks don't have to sum the
+ * assignment's full timesheet history on every save.
+ * <p/>
+ * Totals are seeded lazily from the database. Writes made inside a transaction are kept as pending
+ * deltas that are visible to that transaction only and folded into the shared totals after commit;
+ * a rollback simply discards them. Seeds are read in their own read-only transaction so a
+ * repeatable read snapshot of a long running caller can't put an outdated total in the cache.
+ * <p/>
+ * The totals are local to this JVM and only see bookings made through it, so this assumes a single
+ * eHour node per database.
+ */
+@Service
+public class AssignmentBookedHoursCache {
+    private static final double ZERO_TOLERANCE = 0.0001;
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<Integer, BookedHours> bookedHours = new ConcurrentHashMap<>();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final ReportAggregatedDao reportAggregatedDao;
+    private final TransactionTemplate seedTransactionTemplate;
+
+    @Autowired
+    public AssignmentBookedHoursCache(ReportAggregatedDao reportAggregatedDao, PlatformTransactionManager transactionManager) {
+        this(reportAggregatedDao, createSeedTransactionTemplate(transactionManager));
+    }
+
+    /**
+     * Seeds in whatever transaction is active
+     */
+    AssignmentBookedHoursCache(ReportAggregatedDao reportAggregatedDao) {
+        this(reportAggregatedDao, (TransactionTemplate) null);
+    }
+
+    AssignmentBookedHoursCache(ReportAggregatedDao reportAggregatedDao, TransactionTemplate seedTransactionTemplate) {
+        this.reportAggregatedDao = reportAggregatedDao;
+        this.seedTransactionTemplate = seedTransactionTemplate;
+
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Get the hours booked on the assignment, including uncommitted changes of the current transaction
+     *
+     * @param assignment
+     * @return aggregate or null when no hours were booked on the assignment
+     */
+    public AssignmentAggregateReportElement getAggregate(ProjectAssignment assignment) {
+        return getAggregates(Collections.singletonList(assignment)).get(assignment.getAssignmentId());
+    }
+
+    /**
+     * Get the hours booked on each of the assignments. Totals which aren't known yet are fetched with
+     * a single grouped query.
+     *
+     * @param assignments
+     * @return aggregate per assignment id, null value when no hours were booked on the assignment
+     */
+    public Map<Integer, AssignmentAggregateReportElement> getAggregates(Collection<ProjectAssignment> assignments) {
+        PendingBookings pendingBookings = getPendingBookings(false);
+
+        Map<Integer, AssignmentAggregateReportElement> aggregates = new HashMap<>();
+        Map<ProjectAssignment, Seed> unknownAssignments = new LinkedHashMap<>();
+
+        for (ProjectAssignment assignment : assignments) {
+            Integer assignmentId = assignment.getAssignmentId();
+            if (assignmentId == null) {
+                unknownAssignments.put(assignment, null);
+                continue;
+            }
+
+            BookedHours pending = pendingBookings != null ? pendingBookings.get(assignmentId) : null;
+            BookedHours shared = bookedHours.get(assignmentId);
+
+            if (shared == null) {
+                // own writes are already flushed so the database total includes them, don't cache it as it's uncommitted
+                unknownAssignments.put(assignment, pending == null ? new Seed(assignmentId) : null);
+                continue;
+            }
+
+            double hours = shared.getHours();
+            boolean empty = shared.isEmpty();
+
+            if (pending != null) {
+                hours += pending.getHours();
+                empty = false;
+
+                if (pending.isEntriesRemoved() && Math.abs(hours) < ZERO_TOLERANCE) {
+                    // might not have any entries left, let the database decide
+                    unknownAssignments.put(assignment, null);
+                    continue;
+                }
+            }
+
+            aggregates.put(assignmentId, empty ? null : new AssignmentAggregateReportElement(assignment, (float) hours));
+        }
+
+        if (!unknownAssignments.isEmpty()) {
+            List<ProjectAssignment> seededAssignments = new ArrayList<>();
+            List<ProjectAssignment> ownAssignments = new ArrayList<>();
+
+            for (Map.Entry<ProjectAssignment, Seed> entry : unknownAssignments.entrySet()) {
+                (entry.getValue() != null ? seededAssignments : ownAssignments).add(entry.getKey());
+            }
+
+            Map<Integer, AssignmentAggregateReportElement> fetchedAggregates = fetchAggregates(ownAssignments);
+            fetchedAggregates.putAll(fetchCommittedAggregates(seededAssignments));
+
+            for (Map.Entry<ProjectAssignment, Seed> entry : unknownAssignments.entrySet()) {
+                ProjectAssignment assignment = entry.getKey();
+                AssignmentAggregateReportElement aggregate = fetchedAggregates.get(assignment.getAssignmentId());
+
+                if (entry.getValue() != null) {
+                    entry.getValue().complete(aggregate);
+
+                    // read in another session, hand out the caller's assignment instead
+                    if (aggregate != null) {
+                        aggregate = new AssignmentAggregateReportElement(assignment, aggregate.getHours());
+                    }
+                }
+
+                aggregates.put(assignment.getAssignmentId(), aggregate);
+            }
+        }
+
+        return aggregates;
+    }
+
+    /**
+     * Register a change in booked hours for the assignment. When called within a transaction the change
+     * is applied to the shared totals after commit.
+     *
+     * @param assignment
+     * @param hoursDelta   difference in hours between the new and the previous entry
+     * @param entryRemoved whether an entry was deleted
+     */
+    public void adjust(ProjectAssignment assignment, float hoursDelta, boolean entryRemoved) {
+        PendingBookings pendingBookings = getPendingBookings(true);
+
+        if (pendingBookings != null) {
+            pendingBookings.add(assignment.getAssignmentId(), hoursDelta, entryRemoved);
+        } else {
+            apply(assignment.getAssignmentId(), hoursDelta, entryRemoved);
+        }
+    }
+
+    /**
+     * Forget the totals of the assignments, they are reloaded on the next request. Within a transaction
+     * they're evicted again on completion so no total is seeded from data that is about to change.
+     *
+     * @param assignmentIds
+     */
+    public void evict(final Collection<Integer> assignmentIds) {
+        final List<Integer> evictedIds = new ArrayList<>(assignmentIds);
+
+        evictNow(evictedIds);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(evictedIds);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        evictAllNow();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAllNow();
+                }
+            });
+        }
+    }
+
+    private void evictAllNow() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.modifications++;
+            }
+        }
+
+        bookedHours.clear();
+    }
+
+    private void evictNow(Iterable<Integer> assignmentIds) {
+        for (Integer assignmentId : assignmentIds) {
+            Stripe stripe = stripeFor(assignmentId);
+
+            synchronized (stripe) {
+                bookedHours.remove(assignmentId);
+                stripe.modifications++;
+            }
+        }
+    }
+
+    private Map<Integer, AssignmentAggregateReportElement> fetchCommittedAggregates(final Collection<ProjectAssignment> assignments) {
+        if (seedTransactionTemplate == null || assignments.isEmpty()) {
+            return fetchAggregates(assignments);
+        }
+
+        return seedTransactionTemplate.execute(new TransactionCallback<Map<Integer, AssignmentAggregateReportElement>>() {
+            @Override
+            public Map<Integer, AssignmentAggregateReportElement> doInTransaction(TransactionStatus status) {
+                return fetchAggregates(assignments);
+            }
+        });
+    }
+
+    private Map<Integer, AssignmentAggregateReportElement> fetchAggregates(Collection<ProjectAssignment> assignments) {
+        Map<Integer, AssignmentAggregateReportElement> aggregates = new HashMap<>();
+
+        if (assignments.isEmpty()) {
+            return aggregates;
+        } else if (assignments.size() == 1) {
+            ProjectAssignment assignment = assignments.iterator().next();
+            aggregates.put(assignment.getAssignmentId(), reportAggregatedDao.getCumulatedHoursForAssignment(assignment));
+        } else {
+            List<AssignmentAggregateReportElement> fetched = reportAggregatedDao.getCumulatedHoursPerAssignmentForAssignments(DomainUtil.getIdsFromDomainObjects(assignments));
+
+            for (AssignmentAggregateReportElement aggregate : fetched) {
+                aggregates.put(aggregate.getProjectAssignment().getAssignmentId(), aggregate);
+            }
+        }
+
+        return aggregates;
+    }
+
+    private void apply(Integer assignmentId, double hoursDelta, boolean entriesRemoved) {
+        if (assignmentId == null) {
+            return;
+        }
+
+        Stripe stripe = stripeFor(assignmentId);
+
+        synchronized (stripe) {
+            BookedHours shared = bookedHours.get(assignmentId);
+
+            if (shared != null) {
+                shared.add(hoursDelta, entriesRemoved);
+                shared.setEmpty(false);
+
+                if (entriesRemoved && Math.abs(shared.getHours()) < ZERO_TOLERANCE) {
+                    bookedHours.remove(assignmentId);
+                }
+            }
+
+            stripe.modifications++;
+        }
+    }
+
+    private Stripe stripeFor(Integer assignmentId) {
+        return stripes[(assignmentId == null ? 0 : assignmentId & 0x7fffffff) % STRIPES];
+    }
+
+    private static TransactionTemplate createSeedTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private PendingBookings getPendingBookings(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBookings && ((PendingBookings) synchronization).isFor(this)) {
+                return (PendingBookings) synchronization;
+            }
+        }
+
+        if (create) {
+            PendingBookings pendingBookings = new PendingBookings();
+            TransactionSynchronizationManager.registerSynchronization(pendingBookings);
+            return pendingBookings;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Seeds the shared total with a value read from the database, unless a commit on the same stripe
+     * overlapped with the read as that total might or might not include the commit.
+     */
+    private final class Seed {
+        private final Integer assignmentId;
+        private final Stripe stripe;
+        private final long modificationsBeforeSeed;
+        private final boolean cacheable;
+
+        Seed(Integer assignmentId) {
+            this.assignmentId = assignmentId;
+            this.stripe = stripeFor(assignmentId);
+
+            synchronized (stripe) {
+                modificationsBeforeSeed = stripe.modifications;
+                cacheable = stripe.commitsInProgress == 0;
+            }
+        }
+
+        void complete(AssignmentAggregateReportElement aggregate) {
+            if (!cacheable) {
+                return;
+            }
+
+            BookedHours seeded = new BookedHours();
+            seeded.add(aggregate == null || aggregate.getHours() == null ? 0 : aggregate.getHours().doubleValue(), false);
+            seeded.setEmpty(aggregate == null);
+
+            synchronized (stripe) {
+                if (stripe.commitsInProgress == 0 && stripe.modifications == modificationsBeforeSeed) {
+                    bookedHours.putIfAbsent(assignmentId, seeded);
+                }
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private int commitsInProgress;
+        private long modifications;
+    }
+
+    private static final class BookedHours {
+        private double hours;
+        private boolean entriesRemoved;
+        private boolean empty;
+
+        synchronized void add(double hoursDelta, boolean entryRemoved) {
+            hours += hoursDelta;
+            entriesRemoved |= entryRemoved;
+        }
+
+        synchronized double getHours() {
+            return hours;
+        }
+
+        synchronized boolean isEntriesRemoved() {
+            return entriesRemoved;
+        }
+
+        synchronized boolean isEmpty() {
+            return empty;
+        }
+
+        synchronized void setEmpty(boolean empty) {
+            this.empty = empty;
+        }
+    }
+
+    /**
+     * Changes made in the current transaction. Synchronizations are suspended along with their transaction
+     * so a REQUIRES_NEW transaction gets its own set.
+     */
+    private final class PendingBookings extends TransactionSynchronizationAdapter {
+        private final Map<Integer, BookedHours> pending = new HashMap<>();
+        private boolean committing;
+
+        boolean isFor(AssignmentBookedHoursCache cache) {
+            return cache == AssignmentBookedHoursCache.this;
+        }
+
+        BookedHours get(Integer assignmentId) {
+            return pending.get(assignmentId);
+        }
+
+        void add(Integer assignmentId, float hoursDelta, boolean entryRemoved) {
+            BookedHours hours = pending.get(assignmentId);
+
+            if (hours == null) {
+                hours = new BookedHours();
+                pending.put(assignmentId, hours);
+            }
+
+            hours.add(hoursDelta, entryRemoved);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (Integer assignmentId : pending.keySet()) {
+                Stripe stripe = stripeFor(assignmentId);
+
+                synchronized (stripe) {
+                    stripe.commitsInProgress++;
+                }
+            }
+
+            committing = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            for (Map.Entry<Integer, BookedHours> entry : pending.entrySet()) {
+                Integer assignmentId = entry.getKey();
+
+                if (status == STATUS_COMMITTED) {
+                    apply(assignmentId, entry.getValue().getHours(), entry.getValue().isEntriesRemoved());
+                } else if (status == STATUS_UNKNOWN) {
+                    evictNow(Collections.singletonList(assignmentId));
+                }
+
+                if (committing) {
+                    Stripe stripe = stripeFor(assignmentId);
+
+                    synchronized (stripe) {
+                        stripe.commitsInProgress--;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,9 @@ package net.rrm.ehour.project.status;
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.ProjectAssignment;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Status service
  */
@@ -33,4 +36,11 @@ public interface ProjectAssignmentStatusService {
      * Get assignment status for a period
      */
     ProjectAssignmentStatus getAssignmentStatus(ProjectAssignment assignment, DateRange period);
+
+    /**
+     * Get the status of each assignment for a period, hours booked are fetched in one go
+     *
+     * @return status per assignment id
+     */
+    Map<Integer, ProjectAssignmentStatus> getAssignmentStatuses(Collection<ProjectAssignment> assignments, DateRange period);
 }
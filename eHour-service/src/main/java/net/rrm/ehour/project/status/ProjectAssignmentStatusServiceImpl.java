@@ -27,7 +27,10 @@ import net.rrm.ehour.util.EhourConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Time allotted util class
@@ -39,6 +42,8 @@ public class ProjectAssignmentStatusServiceImpl implements ProjectAssignmentStat
 	private	ReportAggregatedDao	reportAggregatedDAO;
 	@Autowired
 	private TimesheetDao		timesheetDAO;
+	@Autowired
+	private AssignmentBookedHoursCache bookedHoursCache;
 
 	/*
 	 * (non-Javadoc)
@@ -66,15 +71,40 @@ public class ProjectAssignmentStatusServiceImpl implements ProjectAssignmentStat
 		return status;
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.project.status.ProjectAssignmentStatusService#getAssignmentStatuses(java.util.Collection, net.rrm.ehour.data.DateRange)
+	 */
+	public Map<Integer, ProjectAssignmentStatus> getAssignmentStatuses(Collection<ProjectAssignment> assignments, DateRange period)
+	{
+		Map<Integer, AssignmentAggregateReportElement> aggregates = bookedHoursCache.getAggregates(assignments);
+		Map<Integer, ProjectAssignmentStatus> statusses = new HashMap<>();
+
+		for (ProjectAssignment assignment : assignments)
+		{
+			ProjectAssignmentStatus status = getAllottedStatus(assignment, aggregates.get(assignment.getAssignmentId()));
+
+			addDeadlineStatusBasedOnDate(assignment, status, period);
+
+			statusses.put(assignment.getAssignmentId(), status);
+		}
+
+		return statusses;
+	}
+
 	/**
 	 * Get status for allotted assignments
 	 * @param assignment
 	 * @return
 	 */
 	private ProjectAssignmentStatus getAllottedStatus(ProjectAssignment assignment)
+	{
+		return getAllottedStatus(assignment, bookedHoursCache.getAggregate(assignment));
+	}
+
+	private ProjectAssignmentStatus getAllottedStatus(ProjectAssignment assignment, AssignmentAggregateReportElement aggregate)
 	{
 		ProjectAssignmentStatus	status = new ProjectAssignmentStatus();
-		AssignmentAggregateReportElement aggregate = reportAggregatedDAO.getCumulatedHoursForAssignment(assignment);
 		status.setAggregate(aggregate);
 
 		addStatusForAssignmentType(assignment, status);
@@ -245,6 +275,14 @@ public class ProjectAssignmentStatusServiceImpl implements ProjectAssignmentStat
 		this.reportAggregatedDAO = reportAggregatedDAO;
 	}
 
+	/**
+	 * @param bookedHoursCache the bookedHoursCache to set
+	 */
+	public void setBookedHoursCache(AssignmentBookedHoursCache bookedHoursCache)
+	{
+		this.bookedHoursCache = bookedHoursCache;
+	}
+
 	/**
 	 * @param timesheetDAO the timesheetDAO to set
 	 */
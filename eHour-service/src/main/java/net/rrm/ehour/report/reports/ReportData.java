@@ -16,14 +16,13 @@
 
 package net.rrm.ehour.report.reports;
 
-import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.criteria.UserSelectedCriteria;
 import net.rrm.ehour.report.reports.element.ReportElement;
 
 import java.io.Serializable;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -33,17 +32,17 @@ import java.util.List;
 public class ReportData implements Serializable {
     private static final long serialVersionUID = -6344570520998830487L;
 
-    private List<Date> lockedDays;
+    private LockedDays lockedDays;
     private List<? extends ReportElement> reportElements;
     private DateRange reportRange;
     private final UserSelectedCriteria criteria;
     private final ReportCriteria reportCriteria;
 
     public ReportData(List<? extends ReportElement> reportElements, DateRange reportRange, UserSelectedCriteria criteria) {
-        this(Lists.<Date>newArrayList(), reportElements, reportRange, criteria);
+        this(LockedDays.NONE, reportElements, reportRange, criteria);
     }
 
-    public ReportData(List<Date> lockedDays, List<? extends ReportElement> reportElements, DateRange reportRange, UserSelectedCriteria criteria) {
+    public ReportData(LockedDays lockedDays, List<? extends ReportElement> reportElements, DateRange reportRange, UserSelectedCriteria criteria) {
         this.lockedDays = lockedDays;
         this.reportElements = reportElements;
         this.reportRange = reportRange;
@@ -56,7 +55,7 @@ public class ReportData implements Serializable {
     }
 
     @SuppressWarnings("UnusedDeclaration")
-    public List<Date> getLockedDays() {
+    public LockedDays getLockedDays() {
         return lockedDays;
     }
 
@@ -17,7 +17,9 @@
 package net.rrm.ehour.report.service;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
@@ -28,12 +30,12 @@ import net.rrm.ehour.report.criteria.UserSelectedCriteria;
 import net.rrm.ehour.report.reports.ReportData;
 import net.rrm.ehour.report.reports.element.ProjectStructuredReportElement;
 import net.rrm.ehour.timesheet.service.TimesheetLockService;
-import net.rrm.ehour.timesheet.service.TimesheetLockService$;
-import org.joda.time.Interval;
-import scala.collection.Seq;
 
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Abstract report service provides utility methods for dealing
@@ -45,39 +47,65 @@ public abstract class AbstractReportServiceImpl<RE extends ProjectStructuredRepo
     private TimesheetLockService lockService;
     protected ReportAggregatedDao reportAggregatedDao;
     private ReportCriteriaService reportCriteriaService;
+    private ReportQueryExecutor queryExecutor;
 
 
     AbstractReportServiceImpl() {
     }
 
-    protected AbstractReportServiceImpl(ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, ReportAggregatedDao reportAggregatedDao) {
+    protected AbstractReportServiceImpl(ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, ReportAggregatedDao reportAggregatedDao, ReportQueryExecutor queryExecutor) {
         this.reportCriteriaService = reportCriteriaService;
         this.projectDao = projectDao;
         this.lockService = lockService;
         this.reportAggregatedDao = reportAggregatedDao;
+        this.queryExecutor = queryExecutor;
     }
 
+    /**
+     * The locked dates and the PM's projects are fetched concurrently with resolving the criteria and the report query
+     */
     ReportData getReportData(ReportCriteria reportCriteria) {
-        UserSelectedCriteria userSelectedCriteria = reportCriteria.getUserSelectedCriteria();
+        final UserSelectedCriteria userSelectedCriteria = reportCriteria.getUserSelectedCriteria();
 
-        DateRange reportRange = reportCriteria.getReportRange();
+        final DateRange reportRange = reportCriteria.getReportRange();
 
-        Seq<Interval> lockedDatesAsIntervals = lockService.findLockedDatesInRange(reportRange.getDateStart(), reportRange.getDateEnd());
-        List<Date> lockedDates = TimesheetLockService$.MODULE$.intervalToJavaDates(lockedDatesAsIntervals);
+        Future<LockedDays> lockedDaysQuery = queryExecutor.submit(new Callable<LockedDays>() {
+            @Override
+            public LockedDays call() {
+                return findLockedDays(reportRange);
+            }
+        });
 
-        List<RE> allReportElements = generateReport(userSelectedCriteria, lockedDates, reportRange);
+        Future<Set<Integer>> allowedProjectIdsQuery = null;
 
         if (userSelectedCriteria.isForPm()) {
-            List<ProjectStructuredReportElement> elem = evictNonPmReportElements(userSelectedCriteria, allReportElements);
-            return new ReportData(lockedDates, elem, reportRange, userSelectedCriteria);
+            allowedProjectIdsQuery = queryExecutor.submit(new Callable<Set<Integer>>() {
+                @Override
+                public Set<Integer> call() {
+                    return fetchAllowedProjectIds(userSelectedCriteria);
+                }
+            });
+        }
+
+        UsersAndProjects usersAndProjects = criteriaToUsersAndProjects(userSelectedCriteria);
+
+        LockedDays lockedDays = ReportQueryExecutor.join(lockedDaysQuery);
+
+        List<RE> allReportElements = getReportElements(usersAndProjects.getUsers(),
+                usersAndProjects.getProjects(),
+                lockedDays,
+                reportRange,
+                userSelectedCriteria.isShowZeroBookings());
+
+        if (allowedProjectIdsQuery != null) {
+            List<ProjectStructuredReportElement> elem = evictNonPmReportElements(ReportQueryExecutor.join(allowedProjectIdsQuery), allReportElements);
+            return new ReportData(lockedDays, elem, reportRange, userSelectedCriteria);
         } else {
-            return new ReportData(lockedDates, allReportElements, reportRange, userSelectedCriteria);
+            return new ReportData(lockedDays, allReportElements, reportRange, userSelectedCriteria);
         }
     }
 
-    private List<ProjectStructuredReportElement> evictNonPmReportElements(UserSelectedCriteria userSelectedCriteria, List<RE> allReportElements) {
-        List<Integer> projectIds = fetchAllowedProjectIds(userSelectedCriteria);
-
+    private List<ProjectStructuredReportElement> evictNonPmReportElements(Set<Integer> projectIds, List<RE> allReportElements) {
         List<ProjectStructuredReportElement> allowedElements = Lists.newArrayList();
 
         for (ProjectStructuredReportElement reportElement : allReportElements) {
@@ -88,10 +116,21 @@ public abstract class AbstractReportServiceImpl<RE extends ProjectStructuredRepo
         return allowedElements;
     }
 
-    private List<Integer> fetchAllowedProjectIds(UserSelectedCriteria userSelectedCriteria) {
+    protected UsersAndProjects criteriaToUsersAndProjects(UserSelectedCriteria userSelectedCriteria) {
+        return reportCriteriaService.criteriaToUsersAndProjects(userSelectedCriteria);
+    }
+
+    protected LockedDays findLockedDays(DateRange reportRange) {
+        return lockService.findLockedDays(reportRange.getDateStart(), reportRange.getDateEnd());
+    }
+
+    /**
+     * Ids of the active projects the PM manages
+     */
+    protected Set<Integer> fetchAllowedProjectIds(UserSelectedCriteria userSelectedCriteria) {
         List<Project> allowedProjects = projectDao.findActiveProjectsWhereUserIsPM(userSelectedCriteria.getPm());
 
-        List<Integer> projectIds = Lists.newArrayList();
+        Set<Integer> projectIds = Sets.newHashSet();
 
         for (Project allowedProject : allowedProjects) {
             projectIds.add(allowedProject.getProjectId());
@@ -99,36 +138,40 @@ public abstract class AbstractReportServiceImpl<RE extends ProjectStructuredRepo
         return projectIds;
     }
 
-
-    private List<RE> generateReport(UserSelectedCriteria userSelectedCriteria, List<Date> lockedDates, DateRange reportRange) {
-        UsersAndProjects usersAndProjects = reportCriteriaService.criteriaToUsersAndProjects(userSelectedCriteria);
-
-        return getReportElements(usersAndProjects.getUsers(),
-                usersAndProjects.getProjects(),
-                lockedDates,
-                reportRange,
-                userSelectedCriteria.isShowZeroBookings());
-    }
-
     /**
      * Get the actual data
      */
     protected abstract List<RE> getReportElements(List<User> users,
                                                   List<Project> projects,
-                                                  List<Date> lockedDates,
+                                                  LockedDays lockedDays,
                                                   DateRange reportRange,
                                                   boolean showZeroBookings);
 
 
 
+    /**
+     * Start looking up the assignments without bookings so it can run while the report's main query executes
+     */
+    protected Future<List<ProjectAssignment>> queryAssignmentsWithoutBookings(final DateRange reportRange, final List<Integer> userIds, final List<Integer> projectIds) {
+        return queryExecutor.submit(new Callable<List<ProjectAssignment>>() {
+            @Override
+            public List<ProjectAssignment> call() {
+                return getAssignmentsWithoutBookings(reportRange, userIds, projectIds);
+            }
+        });
+    }
+
     protected List<ProjectAssignment> getAssignmentsWithoutBookings(DateRange reportRange, List<Integer> userIds, List<Integer> projectIds) {
         List<ProjectAssignment> assignmentsWithoutBookings = reportAggregatedDao.getAssignmentsWithoutBookings(reportRange);
 
         List<ProjectAssignment> filteredAssignmentsWithoutBookings = Lists.newArrayList();
 
+        Set<Integer> userIdFilter = toSet(userIds);
+        Set<Integer> projectIdFilter = toSet(projectIds);
+
         for (ProjectAssignment assignmentsWithoutBooking : assignmentsWithoutBookings) {
-            boolean passedUserFilter = isEmpty(userIds) || userIds.contains(assignmentsWithoutBooking.getUser().getUserId());
-            boolean passedProjectFilter = isEmpty(projectIds) || projectIds.contains(assignmentsWithoutBooking.getProject().getProjectId());
+            boolean passedUserFilter = isEmpty(userIdFilter) || userIdFilter.contains(assignmentsWithoutBooking.getUser().getUserId());
+            boolean passedProjectFilter = isEmpty(projectIdFilter) || projectIdFilter.contains(assignmentsWithoutBooking.getProject().getProjectId());
 
             if (passedUserFilter && passedProjectFilter) {
                 filteredAssignmentsWithoutBookings.add(assignmentsWithoutBooking);
@@ -137,7 +180,11 @@ public abstract class AbstractReportServiceImpl<RE extends ProjectStructuredRepo
         return filteredAssignmentsWithoutBookings;
     }
 
-    private boolean isEmpty(List<?> list) {
-        return list == null || list.isEmpty();
+    private Set<Integer> toSet(List<Integer> ids) {
+        return ids == null ? null : Sets.newHashSet(ids);
+    }
+
+    private boolean isEmpty(Collection<?> collection) {
+        return collection == null || collection.isEmpty();
     }
 }
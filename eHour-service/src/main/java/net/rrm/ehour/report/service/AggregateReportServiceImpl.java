@@ -18,6 +18,7 @@ package net.rrm.ehour.report.service;
 
 import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
@@ -35,6 +36,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * Provides reporting services on timesheets.
@@ -52,8 +54,8 @@ public class AggregateReportServiceImpl extends AbstractReportServiceImpl<Assign
     }
 
     @Autowired
-    public AggregateReportServiceImpl(ProjectAssignmentService projectAssignmentService, ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, ReportAggregatedDao reportAggregatedDAO) {
-        super(reportCriteriaService, projectDao, lockService, reportAggregatedDAO);
+    public AggregateReportServiceImpl(ProjectAssignmentService projectAssignmentService, ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, ReportAggregatedDao reportAggregatedDAO, ReportQueryExecutor queryExecutor) {
+        super(reportCriteriaService, projectDao, lockService, reportAggregatedDAO, queryExecutor);
         this.reportAggregatedDAO = reportAggregatedDAO;
         this.projectAssignmentService = projectAssignmentService;
     }
@@ -80,24 +82,27 @@ public class AggregateReportServiceImpl extends AbstractReportServiceImpl<Assign
     }
 
     @Override
-    protected List<AssignmentAggregateReportElement> getReportElements(List<User> users, List<Project> projects, List<Date> lockedDates, DateRange reportRange, boolean showZeroBookings) {
+    protected List<AssignmentAggregateReportElement> getReportElements(List<User> users, List<Project> projects, LockedDays lockedDays, DateRange reportRange, boolean showZeroBookings) {
+        Future<List<ProjectAssignment>> assignmentsWithoutBookingsQuery = null;
+
+        if (showZeroBookings) {
+            assignmentsWithoutBookingsQuery = queryAssignmentsWithoutBookings(reportRange, DomainUtil.getIdsFromDomainObjects(users), DomainUtil.getIdsFromDomainObjects(projects));
+        }
+
         List<AssignmentAggregateReportElement> aggregates = findAggregates(users, projects, reportRange);
 
-        List<AssignmentAggregateReportElement> noBookings = findAssignmentsWithoutBookings(users, projects, reportRange, showZeroBookings);
+        List<AssignmentAggregateReportElement> noBookings = findAssignmentsWithoutBookings(assignmentsWithoutBookingsQuery);
 
         noBookings.addAll(aggregates);
 
         return noBookings;
     }
 
-    private List<AssignmentAggregateReportElement> findAssignmentsWithoutBookings(List<User> users, List<Project> projects, DateRange reportRange, boolean showZeroBookings) {
+    private List<AssignmentAggregateReportElement> findAssignmentsWithoutBookings(Future<List<ProjectAssignment>> assignmentsWithoutBookingsQuery) {
         List<AssignmentAggregateReportElement> elements = Lists.newArrayList();
 
-        if (showZeroBookings) {
-            List<Integer> userIds = DomainUtil.getIdsFromDomainObjects(users);
-            List<Integer> projectIds = DomainUtil.getIdsFromDomainObjects(projects);
-
-            List<ProjectAssignment> filterAssignmentsWithoutBookings = getAssignmentsWithoutBookings(reportRange, userIds, projectIds);
+        if (assignmentsWithoutBookingsQuery != null) {
+            List<ProjectAssignment> filterAssignmentsWithoutBookings = ReportQueryExecutor.join(assignmentsWithoutBookingsQuery);
 
             for (ProjectAssignment filterAssignmentsWithoutBooking : filterAssignmentsWithoutBookings) {
                 elements.add(new AssignmentAggregateReportElement(filterAssignmentsWithoutBooking));
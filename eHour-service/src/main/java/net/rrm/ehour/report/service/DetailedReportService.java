@@ -16,6 +16,7 @@
 
 package net.rrm.ehour.report.service;
 
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.reports.ReportData;
 
@@ -28,4 +29,10 @@ public interface DetailedReportService {
      * Get report data for customer
      */
     ReportData getDetailedReportData(ReportCriteria criteria);
+
+    /**
+     * Stream the hours per day to the handler without holding the report in memory. Assignments without
+     * bookings come first when zero bookings are shown, followed by the bookings in date and assignment order
+     */
+    void streamDetailedReportData(ReportCriteria criteria, FlatReportElementHandler handler);
 }
@@ -18,13 +18,16 @@ package net.rrm.ehour.report.service;
 
 import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.persistence.report.dao.DetailedReportDao;
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
 import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.criteria.UserSelectedCriteria;
 import net.rrm.ehour.report.reports.ReportData;
 import net.rrm.ehour.report.reports.element.FlatReportElement;
 import net.rrm.ehour.report.reports.element.FlatReportElementBuilder;
@@ -36,6 +39,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * Report service for detailed reports implementation
@@ -48,8 +53,8 @@ public class DetailedReportServiceImpl extends AbstractReportServiceImpl<FlatRep
     }
 
     @Autowired
-    public DetailedReportServiceImpl(ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, DetailedReportDao detailedReportDao, ReportAggregatedDao reportAggregatedDAO) {
-        super(reportCriteriaService, projectDao, lockService, reportAggregatedDAO);
+    public DetailedReportServiceImpl(ReportCriteriaService reportCriteriaService, ProjectDao projectDao, TimesheetLockService lockService, DetailedReportDao detailedReportDao, ReportAggregatedDao reportAggregatedDAO, ReportQueryExecutor queryExecutor) {
+        super(reportCriteriaService, projectDao, lockService, reportAggregatedDAO, queryExecutor);
         this.detailedReportDao = detailedReportDao;
     }
 
@@ -57,24 +62,61 @@ public class DetailedReportServiceImpl extends AbstractReportServiceImpl<FlatRep
         return getReportData(reportCriteria);
     }
 
+    @Override
+    public void streamDetailedReportData(ReportCriteria reportCriteria, final FlatReportElementHandler handler) {
+        UserSelectedCriteria userSelectedCriteria = reportCriteria.getUserSelectedCriteria();
+        DateRange reportRange = reportCriteria.getReportRange();
+
+        UsersAndProjects usersAndProjects = criteriaToUsersAndProjects(userSelectedCriteria);
+        List<Integer> userIds = DomainUtil.getIdsFromDomainObjects(usersAndProjects.getUsers());
+        List<Integer> projectIds = DomainUtil.getIdsFromDomainObjects(usersAndProjects.getProjects());
+
+        final LockedDays lockedDays = findLockedDays(reportRange);
+        final Set<Integer> allowedProjectIds = userSelectedCriteria.isForPm() ? fetchAllowedProjectIds(userSelectedCriteria) : null;
+
+        if (userSelectedCriteria.isShowZeroBookings()) {
+            List<ProjectAssignment> assignmentsWithoutBookings = getAssignmentsWithoutBookings(reportRange, userIds, projectIds);
+
+            for (FlatReportElement element : getReportElementsForAssignmentsWithoutBookings(assignmentsWithoutBookings)) {
+                if (allowedProjectIds == null || allowedProjectIds.contains(element.getProjectId())) {
+                    handler.handleElement(element);
+                }
+            }
+        }
+
+        detailedReportDao.streamHoursPerDay(userIds, projectIds, reportRange, new FlatReportElementHandler() {
+            @Override
+            public void handleElement(FlatReportElement element) {
+                if (allowedProjectIds == null || allowedProjectIds.contains(element.getProjectId())) {
+                    Date date = element.getDayDate();
+                    element.setLockableDate(new LockableDate(date, lockedDays.isLocked(date)));
+
+                    handler.handleElement(element);
+                }
+            }
+        });
+    }
+
     @Override
     protected List<FlatReportElement> getReportElements(List<User> users,
                                                         List<Project> projects,
-                                                        List<Date> lockedDates,
+                                                        LockedDays lockedDays,
                                                         DateRange reportRange,
                                                         boolean showZeroBookings) {
         List<Integer> userIds = DomainUtil.getIdsFromDomainObjects(users);
         List<Integer> projectIds = DomainUtil.getIdsFromDomainObjects(projects);
 
+        Future<List<ProjectAssignment>> assignmentsWithoutBookingsQuery = showZeroBookings ? queryAssignmentsWithoutBookings(reportRange, userIds, projectIds) : null;
+
         List<FlatReportElement> elements = getElements(userIds, projectIds, reportRange);
 
         for (FlatReportElement element : elements) {
             Date date = element.getDayDate();
-            element.setLockableDate(new LockableDate(date, lockedDates.contains(date)));
+            element.setLockableDate(new LockableDate(date, lockedDays.isLocked(date)));
         }
 
-        if (showZeroBookings) {
-            List<FlatReportElement> reportElementsForAssignmentsWithoutBookings = getReportElementsForAssignmentsWithoutBookings(reportRange, userIds, projectIds);
+        if (assignmentsWithoutBookingsQuery != null) {
+            List<FlatReportElement> reportElementsForAssignmentsWithoutBookings = getReportElementsForAssignmentsWithoutBookings(ReportQueryExecutor.join(assignmentsWithoutBookingsQuery));
 
             reportElementsForAssignmentsWithoutBookings.addAll(elements);
 
@@ -84,9 +126,7 @@ public class DetailedReportServiceImpl extends AbstractReportServiceImpl<FlatRep
         }
     }
 
-    private List<FlatReportElement> getReportElementsForAssignmentsWithoutBookings(DateRange reportRange, List<Integer> userIds, List<Integer> projectIds) {
-        List<ProjectAssignment> assignments = getAssignmentsWithoutBookings(reportRange, userIds, projectIds);
-
+    private List<FlatReportElement> getReportElementsForAssignmentsWithoutBookings(List<ProjectAssignment> assignments) {
         List<FlatReportElement> elements = Lists.newArrayList();
 
         for (ProjectAssignment assignment : assignments) {
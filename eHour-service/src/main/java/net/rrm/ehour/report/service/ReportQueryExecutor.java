@@ -0,0 +1,120 @@
+package net.rrm.ehour.report.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+
+/**
+ * Runs the independent queries of a report concurrently, each in its own read-only transaction.
+ * With ehour.report.queryThreads set to 0 the queries run one after another in the calling thread.
+ */
+@Service
+public class ReportQueryExecutor {
+    private static final int QUEUE_SIZE_PER_THREAD = 16;
+
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Runs every query in the calling thread, in whatever transaction is active
+     */
+    ReportQueryExecutor() {
+        this(null, null);
+    }
+
+    @Autowired
+    public ReportQueryExecutor(PlatformTransactionManager transactionManager,
+                               @Value("${ehour.report.queryThreads:3}") int threads) {
+        this(createExecutor(threads), createReadOnlyTransactionTemplate(transactionManager));
+    }
+
+    ReportQueryExecutor(ExecutorService executor, TransactionTemplate transactionTemplate) {
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public <T> Future<T> submit(final Callable<T> query) {
+        FutureTask<T> task = new FutureTask<>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return transactionTemplate == null ? query.call() : transactionTemplate.execute(new TransactionCallback<T>() {
+                    @Override
+                    public T doInTransaction(TransactionStatus status) {
+                        try {
+                            return query.call();
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+        });
+
+        if (executor == null) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+
+        return task;
+    }
+
+    /**
+     * Wait for a submitted query, rethrowing its failure in the calling thread
+     */
+    public static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for report query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        if (threads <= 0) {
+            return null;
+        }
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("report-query-%d").setDaemon(true).build();
+
+        // a full queue makes the submitting request thread run the query itself instead of piling up
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(threads * QUEUE_SIZE_PER_THREAD),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static TransactionTemplate createReadOnlyTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
@@ -17,6 +17,7 @@
 package net.rrm.ehour.timesheet.service;
 
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.TimesheetComment;
 import net.rrm.ehour.domain.TimesheetEntry;
@@ -25,7 +26,6 @@ import net.rrm.ehour.exception.OverBudgetException;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 
 import java.util.Collection;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -48,6 +48,6 @@ public interface IPersistTimesheet {
     void validateAndPersist(ProjectAssignment assignment,
                             List<TimesheetEntry> entries,
                             DateRange weekRange,
-                            List<Date> dates) throws OverBudgetException;
+                            LockedDays lockedDays) throws OverBudgetException;
 
 }
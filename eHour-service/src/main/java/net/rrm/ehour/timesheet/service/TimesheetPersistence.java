@@ -19,6 +19,7 @@ package net.rrm.ehour.timesheet.service;
 import com.google.common.collect.Lists;
 import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.TimesheetComment;
 import net.rrm.ehour.domain.TimesheetEntry;
@@ -27,19 +28,18 @@ import net.rrm.ehour.exception.OverBudgetException;
 import net.rrm.ehour.mail.service.ProjectManagerNotifierService;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
+import net.rrm.ehour.project.status.AssignmentBookedHoursCache;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
 import net.rrm.ehour.util.DomainUtil;
 import net.rrm.ehour.util.EhourConstants;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
-import org.joda.time.Interval;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import scala.collection.Seq;
 
 import java.util.*;
 
@@ -52,6 +52,7 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
     private ProjectAssignmentStatusService projectAssignmentStatusService;
     private ProjectManagerNotifierService projectManagerNotifierService;
     private TimesheetLockService timesheetLockService;
+    private AssignmentBookedHoursCache bookedHoursCache;
     private ApplicationContext context;
 
     @Autowired
@@ -60,12 +61,14 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
                                 ProjectAssignmentStatusService projectAssignmentStatusService,
                                 ProjectManagerNotifierService projectManagerNotifierService,
                                 TimesheetLockService timesheetLockService,
+                                AssignmentBookedHoursCache bookedHoursCache,
                                 ApplicationContext context) {
         this.timesheetDAO = timesheetDAO;
         this.timesheetCommentDAO = timesheetCommentDAO;
         this.projectAssignmentStatusService = projectAssignmentStatusService;
         this.projectManagerNotifierService = projectManagerNotifierService;
         this.timesheetLockService = timesheetLockService;
+        this.bookedHoursCache = bookedHoursCache;
         this.context = context;
     }
 
@@ -74,7 +77,9 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
         timesheetCommentDAO.deleteCommentsForUser(user.getUserId());
 
         if (user.getProjectAssignments() != null && !user.getProjectAssignments().isEmpty()) {
-            timesheetDAO.deleteTimesheetEntries(DomainUtil.getIdsFromDomainObjects(user.getProjectAssignments()));
+            List<Integer> assignmentIds = DomainUtil.getIdsFromDomainObjects(user.getProjectAssignments());
+            timesheetDAO.deleteTimesheetEntries(assignmentIds);
+            bookedHoursCache.evict(assignmentIds);
         }
     }
 
@@ -88,12 +93,11 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
 
         List<ProjectAssignmentStatus> errorStatusses = new ArrayList<>();
 
-        Seq<Interval> lockedDatesInRange = timesheetLockService.findLockedDatesInRange(weekRange.getDateStart(), weekRange.getDateEnd(), forUser);
-        List<Date> lockedDates = TimesheetLockService$.MODULE$.intervalToJavaDates(lockedDatesInRange);
+        LockedDays lockedDays = timesheetLockService.findLockedDays(weekRange.getDateStart(), weekRange.getDateEnd(), forUser);
 
         for (Map.Entry<ProjectAssignment, List<TimesheetEntry>> entry : timesheetRows.entrySet()) {
             try {
-                getTimesheetPersister().validateAndPersist(entry.getKey(), entry.getValue(), weekRange, lockedDates);
+                getTimesheetPersister().validateAndPersist(entry.getKey(), entry.getValue(), weekRange, lockedDays);
             } catch (OverBudgetException e) {
                 errorStatusses.add(e.getStatus());
             }
@@ -103,7 +107,7 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
         // - the whole week is not locked
         // - comment is an update
         // - or the comment is empty
-        boolean wholeWeekLocked = TimesheetLockService$.MODULE$.isRangeLocked(weekRange.getDateStart(), weekRange.getDateEnd(), lockedDatesInRange);
+        boolean wholeWeekLocked = lockedDays.isAllLocked(weekRange.getDateStart(), weekRange.getDateEnd());
 
         if (!wholeWeekLocked &&
                 (!comment.getNewComment() || StringUtils.isNotBlank(comment.getComment()))) {
@@ -140,13 +144,13 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
     public void validateAndPersist(ProjectAssignment assignment,
                                    List<TimesheetEntry> entries,
                                    DateRange weekRange,
-                                   List<Date> lockedDates) throws OverBudgetException {
+                                   LockedDays lockedDays) throws OverBudgetException {
         ProjectAssignmentStatus beforeStatus = projectAssignmentStatusService.getAssignmentStatus(assignment);
 
         boolean checkAfterStatus = beforeStatus.isValid();
 
         try {
-            persistEntries(assignment, entries, weekRange, !beforeStatus.isValid(), lockedDates);
+            persistEntries(assignment, entries, weekRange, !beforeStatus.isValid(), lockedDays);
         } catch (OverBudgetException obe) {
             // make sure it's retrown by checking the after status
             checkAfterStatus = true;
@@ -161,7 +165,7 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
         }
     }
 
-    private void persistEntries(ProjectAssignment assignment, List<TimesheetEntry> entries, DateRange weekRange, boolean onlyLessThanExisting, List<Date> lockedDates) throws OverBudgetException {
+    private void persistEntries(ProjectAssignment assignment, List<TimesheetEntry> entries, DateRange weekRange, boolean onlyLessThanExisting, LockedDays lockedDays) throws OverBudgetException {
         List<TimesheetEntry> previousEntries = Lists.newArrayList(timesheetDAO.getTimesheetEntriesInRange(assignment, weekRange));
 
         for (TimesheetEntry entry : entries) {
@@ -171,7 +175,7 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
                 continue;
             }
 
-            if (lockedDates.contains(entry.getEntryId().getEntryDate())) {
+            if (lockedDays.isLocked(entry.getEntryId().getEntryDate())) {
                 LOGGER.error("Date is locked but still trying to update " + entry);
                 previousEntries.remove(entry);
                 continue;
@@ -190,6 +194,7 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
         for (TimesheetEntry entry : previousEntries) {
             LOGGER.info("Removing old entry " + entry.toString());
             timesheetDAO.delete(entry);
+            bookedHoursCache.adjust(entry.getEntryId().getProjectAssignment(), -hoursOf(entry), true);
         }
     }
 
@@ -202,11 +207,20 @@ public class TimesheetPersistence implements IPersistTimesheet, IDeleteTimesheet
 
         newEntry.setUpdateDate(new Date());
 
+        // merge copies the new state onto the managed existing entry
+        float hoursDelta = hoursOf(newEntry) - hoursOf(existingEntry);
+
         if (existingEntry != null) {
             timesheetDAO.merge(newEntry);
         } else {
             timesheetDAO.persist(newEntry);
         }
+
+        bookedHoursCache.adjust(newEntry.getEntryId().getProjectAssignment(), hoursDelta, false);
+    }
+
+    private float hoursOf(TimesheetEntry entry) {
+        return entry == null || entry.getHours() == null ? 0 : entry.getHours();
     }
 
     private TimesheetEntry getEntry(List<TimesheetEntry> entries, TimesheetEntry entry) {
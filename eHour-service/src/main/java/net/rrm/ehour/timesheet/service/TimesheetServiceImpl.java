@@ -19,6 +19,7 @@ package net.rrm.ehour.timesheet.service;
 import com.google.common.collect.Lists;
 import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
@@ -31,11 +32,9 @@ import net.rrm.ehour.timesheet.dto.TimesheetOverview;
 import net.rrm.ehour.timesheet.dto.UserProjectStatus;
 import net.rrm.ehour.timesheet.dto.WeekOverview;
 import net.rrm.ehour.util.DateUtil;
-import org.joda.time.Interval;
 import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import scala.collection.Seq;
 
 import java.util.*;
 
@@ -213,9 +212,8 @@ public class TimesheetServiceImpl implements IOverviewTimesheet {
         TimesheetComment comment = timesheetCommentDAO.findById(new TimesheetCommentId(user.getUserId(), range.getDateStart()));
         List<ProjectAssignment> assignments = projectAssignmentService.getProjectAssignmentsForUser(user.getUserId(), range);
 
-        Seq<Interval> lockedDatesAsIntervals = timesheetLockService.findLockedDatesInRange(range.getDateStart(), range.getDateEnd(), user);
-        List<Date> lockedDates = TimesheetLockService$.MODULE$.intervalToJavaDates(lockedDatesAsIntervals);
+        LockedDays lockedDays = timesheetLockService.findLockedDays(range.getDateStart(), range.getDateEnd(), user);
 
-        return new WeekOverview(timesheetEntries, comment, assignments, range, user, lockedDates);
+        return new WeekOverview(timesheetEntries, comment, assignments, range, user, lockedDays);
     }
 }
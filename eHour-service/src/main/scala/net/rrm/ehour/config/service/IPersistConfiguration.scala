@@ -2,7 +2,6 @@ package net.rrm.ehour.config.service
 
 import net.rrm.ehour.config.EhourConfig
 import net.rrm.ehour.domain.UserRole
-import net.rrm.ehour.reminder.IScheduleReminders
 import net.rrm.ehour.user.service.UserService
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
@@ -16,15 +15,12 @@ trait IPersistConfiguration {
 
 @Service("configurationPersistence")
 class ConfigurationPersistence @Autowired()(configurationService: ConfigurationService,
-                                            userService: UserService,
-                                            reminderScheduler: IScheduleReminders) extends IPersistConfiguration {
+                                            userService: UserService) extends IPersistConfiguration {
 
   @Transactional
   override def persistAndCleanUp(config: EhourConfig, newManagerRole: UserRole) {
     configurationService.persistConfiguration(config)
 
-    reminderScheduler.rescheduleReminders(config)
-
     val withManagerRole = config.isSplitAdminRole
 
     if (!withManagerRole) {
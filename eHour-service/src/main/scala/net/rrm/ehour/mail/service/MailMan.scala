@@ -1,6 +1,7 @@
 package net.rrm.ehour.mail.service
 
 import java.util.Properties
+import javax.mail.MessagingException
 
 import net.rrm.ehour.appconfig.EhourSystemConfig
 import net.rrm.ehour.config.EhourConfig
@@ -9,8 +10,8 @@ import org.apache.commons.lang.StringUtils
 import org.apache.log4j.Logger
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.core.task.TaskExecutor
-import org.springframework.mail.javamail.JavaMailSenderImpl
-import org.springframework.mail.{MailException, MailSender, SimpleMailMessage}
+import org.springframework.mail.javamail.{JavaMailSenderImpl, MimeMailMessage}
+import org.springframework.mail.{MailException, SimpleMailMessage}
 import org.springframework.stereotype.Service
 
 case class Mail(to: User, cc: String = "", subject: String, body: String)
@@ -29,6 +30,11 @@ trait MailMan {
 
   def deliver(mail: Mail, postDeliverCallBack: CallBack = (_, _) => {}, config: EhourConfig = ehourConfig)
 
+  /**
+   * Deliver all mails in one go, the callback is invoked per batch of sent mails
+   */
+  def deliverBatch(mails: Seq[Mail], postDeliverCallBack: BatchCallBack = _ => {}, config: EhourConfig = ehourConfig)
+
   def isMailEnabled = systemConfig.isEnableMail
 }
 
@@ -52,17 +58,16 @@ class MailManSmtpImpl extends MailMan {
     taskExecutor.execute(mailTask)
   }
 
+  override def deliverBatch(mails: Seq[Mail], postDeliverCallBack: BatchCallBack = _ => {}, config: EhourConfig = ehourConfig) {
+    if (mails.nonEmpty) {
+      taskExecutor.execute(new BatchMailTask(mails, postDeliverCallBack, config))
+    }
+  }
+
   private class MailTask(mail: Mail, postDeliverCallBack: CallBack, config: EhourConfig) extends Runnable {
 
     override def run() {
-      val msg = new SimpleMailMessage
-      msg.setText(mail.body)
-      msg.setSubject(mail.subject)
-      msg.setFrom(config.getMailFrom)
-
-      if (StringUtils.isNotBlank(mail.cc))
-        msg.setCc(mail.cc.split(","))
-      msg.setTo(mail.to.getEmail)
+      val msg = createMessage(mail, config)
 
       try {
         val mailSender = createMailSender(config)
@@ -84,35 +89,104 @@ class MailManSmtpImpl extends MailMan {
           postDeliverCallBack(mail, false)
       }
     }
+  }
 
-    private def createMailSender(config: EhourConfig): MailSender = {
-      val mailSender = new JavaMailSenderImpl
-      mailSender.setHost(config.getMailSmtp)
+  /**
+   * Sends all mails over a single SMTP connection, reporting back per batch
+   */
+  private class BatchMailTask(mails: Seq[Mail], postDeliverCallBack: BatchCallBack, config: EhourConfig) extends Runnable {
+    override def run() {
+      if (systemConfig.isEnableMail) {
+        val mailSender = createMailSender(config)
+        val transport = mailSender.getSession.getTransport(mailSender.getProtocol)
 
-      if (StringUtils.isNotBlank(config.getSmtpPort)) {
         try {
-          val port = config.getSmtpPort.toInt
-          mailSender.setPort(port)
+          var connectFailed = false
+
+          def send(mail: Mail): Boolean = {
+            try {
+              if (!transport.isConnected && !connectFailed) {
+                connectFailed = true
+                transport.connect(mailSender.getHost, mailSender.getPort, mailSender.getUsername, mailSender.getPassword)
+                connectFailed = false
+              }
+
+              if (connectFailed) {
+                false
+              } else {
+                val mimeMessage = mailSender.createMimeMessage()
+                createMessage(mail, config).copyTo(new MimeMailMessage(mimeMessage))
+                mimeMessage.saveChanges()
+
+                transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients)
+                LOGGER.info(s"Mail sent to ${mail.to.getEmail}: ${mail.subject} ")
+                true
+              }
+            } catch {
+              case me: MessagingException =>
+                LOGGER.error(s"Failed to send mail to ${mail.to.getEmail}: ${me.getMessage}")
+                false
+            }
+          }
+
+          for (batch <- mails.grouped(MailManSmtpImpl.BatchSize)) {
+            postDeliverCallBack(batch.map(mail => (mail, send(mail))))
+          }
+        } finally {
+          if (transport.isConnected) {
+            transport.close()
+          }
         }
-        catch {
-          case nfe: NumberFormatException =>
-            LOGGER.error("Using default port 25, couldn't parse configured port " + config.getSmtpPort)
+      } else {
+        LOGGER.info(s"Mail is disabled, otherwise I would be sending ${mails.size} emails")
+
+        for (batch <- mails.grouped(MailManSmtpImpl.BatchSize)) {
+          postDeliverCallBack(batch.map(mail => (mail, false)))
         }
       }
+    }
+  }
 
-      if (StringUtils.isNotBlank(config.getSmtpUsername) && StringUtils.isNotBlank(config.getSmtpPassword)) {
-        val prop = new Properties
-        prop.put("mail.smtp.auth", "true")
+  private def createMessage(mail: Mail, config: EhourConfig): SimpleMailMessage = {
+    val msg = new SimpleMailMessage
+    msg.setText(mail.body)
+    msg.setSubject(mail.subject)
+    msg.setFrom(config.getMailFrom)
 
-        mailSender.setJavaMailProperties(prop)
-        mailSender.setUsername(config.getSmtpUsername)
-        mailSender.setPassword(config.getSmtpPassword)
+    if (StringUtils.isNotBlank(mail.cc))
+      msg.setCc(mail.cc.split(","))
+    msg.setTo(mail.to.getEmail)
+    msg
+  }
+
+  private def createMailSender(config: EhourConfig): JavaMailSenderImpl = {
+    val mailSender = new JavaMailSenderImpl
+    mailSender.setHost(config.getMailSmtp)
+
+    if (StringUtils.isNotBlank(config.getSmtpPort)) {
+      try {
+        val port = config.getSmtpPort.toInt
+        mailSender.setPort(port)
+      }
+      catch {
+        case nfe: NumberFormatException =>
+          LOGGER.error("Using default port 25, couldn't parse configured port " + config.getSmtpPort)
       }
+    }
 
-      mailSender
+    if (StringUtils.isNotBlank(config.getSmtpUsername) && StringUtils.isNotBlank(config.getSmtpPassword)) {
+      val prop = new Properties
+      prop.put("mail.smtp.auth", "true")
+
+      mailSender.setJavaMailProperties(prop)
+      mailSender.setUsername(config.getSmtpUsername)
+      mailSender.setPassword(config.getSmtpPassword)
     }
-  }
 
+    mailSender
+  }
 }
 
-
+object MailManSmtpImpl {
+  final val BatchSize = 50
+}
@@ -2,4 +2,6 @@ package net.rrm.ehour.mail
 
 package object service {
   type CallBack = (Mail, Boolean) => Unit
+
+  type BatchCallBack = Seq[(Mail, Boolean)] => Unit
 }
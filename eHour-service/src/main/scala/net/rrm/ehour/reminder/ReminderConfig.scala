@@ -3,7 +3,7 @@ package net.rrm.ehour.reminder
 import javax.annotation.PostConstruct
 
 import com.google.common.collect.Lists
-import net.rrm.ehour.config.EhourConfig
+import net.rrm.ehour.config.{ConfigurationChangeListener, EhourConfig}
 import org.apache.commons.lang.StringUtils
 import org.apache.log4j.Logger
 import org.springframework.beans.factory.annotation.Autowired
@@ -30,13 +30,17 @@ class ReminderConfig {
 }
 
 @Service
-class IScheduleReminders @Autowired()(taskRegistrar: ScheduledTaskRegistrar, config: EhourConfig, reminderService: ReminderService) {
+class IScheduleReminders @Autowired()(taskRegistrar: ScheduledTaskRegistrar, config: EhourConfig, reminderService: ReminderService) extends ConfigurationChangeListener {
   private final val Log = Logger.getLogger(classOf[IScheduleReminders])
 
   @PostConstruct
   def scheduleReminders() {
     rescheduleReminders(config)
   }
+
+  override def configurationChanged(changedConfig: EhourConfig) {
+    rescheduleReminders(changedConfig)
+  }
   
   def rescheduleReminders(reminderConfig: EhourConfig) {
     if (reminderConfig.isReminderEnabled) {
@@ -51,7 +55,7 @@ class IScheduleReminders @Autowired()(taskRegistrar: ScheduledTaskRegistrar, con
       if (StringUtils.isBlank(reminderTime)) {
         Log.warn("Reminder mails are enabled but reminder time is not configured.")
       } else {
-        val zone = config.getTzAsTimeZone
+        val zone = reminderConfig.getTzAsTimeZone
 
         Log.info(s"Reminder mails are enabled, running at $reminderTime (${zone.getDisplayName}).")
 
@@ -10,7 +10,6 @@ import net.rrm.ehour.persistence.mail.dao.MailLogDao
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao
 import net.rrm.ehour.project.service.ProjectAssignmentService
 import net.rrm.ehour.timesheet.service.TimesheetLockService
-import net.rrm.ehour.user.service.UserService
 import net.rrm.ehour.util.JodaDateUtil
 import org.apache.commons.lang.StringUtils
 import org.apache.log4j.Logger
@@ -20,8 +19,6 @@ import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 
-import scala.collection.mutable
-
 @Service
 class ReminderService @Autowired()(config: EhourConfig, userFinder: IFindUsersWithoutSufficientHours, mailMan: MailMan, mailLogDao: MailLogDao) {
   private final val LOGGER = Logger.getLogger(classOf[ReminderService])
@@ -40,37 +37,46 @@ class ReminderService @Autowired()(config: EhourConfig, userFinder: IFindUsersWi
       s"Reminder for $startFormatted-$endFormatted not $minimumHours hours"
     }
 
-    def hasMailBeenSent(mailTo: String, mailEvent: String) = mailLogDao.find(mailTo, mailEvent).size > 0
-
     if (config.isReminderEnabled) {
       val usersToRemind = userFinder.findUsersWithoutSufficientHours(minimumHours, config.getCompleteDayHours)
 
       LOGGER.info(s"Mail reminder job running, will remind ${usersToRemind.size} users.")
 
-      for (user <- usersToRemind) {
-        val mailEvent = s"${user.getUserId}:${determineMailEvent()}"
+      val reminderEvent = determineMailEvent()
+      def mailEventFor(user: User) = s"${user.getUserId}:$reminderEvent"
 
-        val callback: CallBack = (mail, success) => {
-          val mailLog = new MailLog
-          mailLog.setTimestamp(new Date)
-          mailLog.setSuccess(success)
-          mailLog.setMailTo(mail.to.getEmail)
-          mailLog.setMailEvent(mailEvent)
-          mailLogDao.persist(mailLog)
-        }
+      val sentMails = mailLogDao.findOnEvents(usersToRemind.map(mailEventFor)).map(l => (l.getMailTo, l.getMailEvent)).toSet
+
+      def hasMailBeenSent(mailTo: String, mailEvent: String) = sentMails.contains((mailTo, mailEvent))
+
+      val mails = usersToRemind.filter(user => {
+        val mailEvent = mailEventFor(user)
 
         if (StringUtils.isBlank(user.getEmail)) {
           LOGGER.warn(s"Trying to send reminder mail to ${user.getFullName} but no email address is entered.")
+          false
         } else if (hasMailBeenSent(user.getEmail, mailEvent)) {
           LOGGER.info(s"Mail to ${user.getFullName} (${user.getEmail}) about $mailEvent was already sent.")
+          false
         } else {
-          val body = enrichMailBody(user)
-
-          val mail = Mail(user, config.getReminderCC, config.getReminderSubject, body)
+          true
+        }
+      }).map(user => Mail(user, config.getReminderCC, config.getReminderSubject, enrichMailBody(user)))
 
-          mailMan.deliver(mail = mail, postDeliverCallBack = callback)
+      val callback: BatchCallBack = deliveries => {
+        val mailLogs = for ((mail, success) <- deliveries) yield {
+          val mailLog = new MailLog
+          mailLog.setTimestamp(new Date)
+          mailLog.setSuccess(success)
+          mailLog.setMailTo(mail.to.getEmail)
+          mailLog.setMailEvent(mailEventFor(mail.to))
+          mailLog
         }
+
+        mailLogDao.insertAll(mailLogs)
       }
+
+      mailMan.deliverBatch(mails = mails, postDeliverCallBack = callback)
     }
   }
 
@@ -86,33 +92,25 @@ class ReminderService @Autowired()(config: EhourConfig, userFinder: IFindUsersWi
 }
 
 @Service
-class IFindUsersWithoutSufficientHours @Autowired()(userService: UserService,
-                                                    timesheetDao: TimesheetDao,
+class IFindUsersWithoutSufficientHours @Autowired()(timesheetDao: TimesheetDao,
                                                     projectAssignmentService: ProjectAssignmentService,
                                                     lockService: TimesheetLockService
                                                      ) {
-  @Transactional
+  @Transactional(readOnly = true)
   def findUsersWithoutSufficientHours(minimumHours: Int, workHoursPerDay: Float): List[User] = {
 
     val reminderEndDate = new LocalDate()
     val reminderStartDate = reminderEndDate.minusWeeks(1).plusDays(1)
+    val reminderRange = new DateRange(reminderStartDate.toDate, reminderEndDate.toDate)
 
     val correctedMinimumHours = subtractLockedDaysFromMinimumHours(minimumHours, workHoursPerDay, reminderStartDate, reminderEndDate)
 
     val activeUsers = findActiveUsersWithAssignments(reminderStartDate, reminderEndDate)
 
-    val timesheetEntriesInRange = timesheetDao.getTimesheetEntriesInRange(new DateRange(reminderStartDate.toDate, reminderEndDate.toDate))
-
     import scala.collection.JavaConversions._
-    val entriesByUser: Map[User, mutable.Buffer[TimesheetEntry]] = timesheetEntriesInRange groupBy (_.getEntryId.getProjectAssignment.getUser)
-    val entriesByActiveUsers = entriesByUser.filterKeys(activeUsers.contains)
-    val hoursPerUser: Map[User, Float] = entriesByActiveUsers.map(f => (f._1, f._2.foldLeft(0f)(_ + _.getHours))).toMap
-
-    val userNotMeetingMinimalHours: Map[User, Float] = hoursPerUser.filter(p => p._2 < correctedMinimumHours)
-
-    val usersWithoutAnyHours: Set[User] = activeUsers.toSet.diff(entriesByUser.keySet)
+    val usersMeetingMinimalHours = timesheetDao.getUserIdsWithMinimumHoursInRange(correctedMinimumHours, reminderRange).toSet
 
-    usersWithoutAnyHours.toList ++ userNotMeetingMinimalHours.keySet.toList
+    activeUsers.filterNot(u => usersMeetingMinimalHours.contains(u.getUserId))
   }
 
   // for every locked day in the range, subtract the work hours per day from the minimum hours
@@ -141,17 +139,18 @@ class IFindUsersWithoutSufficientHours @Autowired()(userService: UserService,
       joinedWeekDays.foldLeft(0)(_ + _) == reminderWeekDays.foldLeft(0)(_ + _)
     }
 
-    val activeUsers = userService.getUsers(UserRole.USER).toList
+    // all bookable assignments of every active user in one go rather than a lookup per user
+    val assignments = projectAssignmentService.getProjectAssignmentsForRole(UserRole.USER, new DateRange(reminderStartDate.toDate, reminderEndDate.toDate)).toList
 
-    activeUsers.filter(u => {
-      val assignments = projectAssignmentService.getProjectAssignmentsForUser(u.getUserId, new DateRange(reminderStartDate.toDate, reminderEndDate.toDate))
+    val assignmentsPerUser = assignments.groupBy(_.getUser)
 
-      val assignmentDates = assignments.toList.map(a => {
+    assignmentsPerUser.filter { case (_, userAssignments) =>
+      val assignmentDates = userAssignments.map(a => {
         val s = if (a.getDateStart == null) reminderStartDate else new LocalDate(a.getDateStart)
         val e = if (a.getDateEnd == null) reminderEndDate else new LocalDate(a.getDateEnd)
         (s,e)
       })
       coversReminderDays(assignmentDates)
-    })
+    }.keys.toList
   }
 }
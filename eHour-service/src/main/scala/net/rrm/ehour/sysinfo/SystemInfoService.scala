@@ -1,15 +1,34 @@
 package net.rrm.ehour.sysinfo
 
+import java.util
+
+import net.rrm.ehour.persistence.hibernate.{CacheRegionStatistics, HibernateCache}
+import net.rrm.ehour.persistence.retry.{ExponentialBackoffRetryPolicy, RetryStatistics}
+import org.hibernate.SessionFactory
 import org.springframework.beans.factory.annotation.{Value, Autowired}
 import org.springframework.stereotype.Service
 
 trait SystemInfoService {
   def info: SystemInfo
+
+  /**
+   * Hit, miss and eviction counts of the second-level cache regions
+   */
+  def cacheStatistics: util.List[CacheRegionStatistics]
+
+  /**
+   * Retry and circuit breaker counters of the database calls
+   */
+  def retryStatistics: RetryStatistics
 }
 
 @Service
-class SystemInfoServiceImpl @Autowired()(@Value("${ehour.database}") databaseName: String, @Value("${ehour.database.url:none}") databaseUrl: String, @Value("${ehour.database.driver:none}") jdbcDriver: String) extends SystemInfoService {
+class SystemInfoServiceImpl @Autowired()(@Value("${ehour.database}") databaseName: String, @Value("${ehour.database.url:none}") databaseUrl: String, @Value("${ehour.database.driver:none}") jdbcDriver: String, sessionFactory: SessionFactory) extends SystemInfoService {
   def info: SystemInfo = SystemInfo(databaseName, databaseUrl, jdbcDriver)
+
+  override def cacheStatistics: util.List[CacheRegionStatistics] = HibernateCache.getRegionStatistics(sessionFactory)
+
+  override def retryStatistics: RetryStatistics = ExponentialBackoffRetryPolicy.statistics
 }
 
 case class SystemInfo(databaseName: String, databaseUrl: String, jdbcDriver: String)
@@ -0,0 +1,83 @@
+package net.rrm.ehour.timesheet.service
+
+import java.util.Date
+import java.{util => ju}
+
+import net.rrm.ehour.data.LockedDays
+import net.rrm.ehour.domain.{TimesheetLock, User}
+import org.joda.time.{Days, LocalDate}
+
+import scala.collection.convert.WrapAsScala
+
+/**
+ * Immutable interval tree of all timesheet locks, in days since the epoch. The locks are sorted on their start day
+ * and form an implicit balanced tree in which every node is the middle lock of its range, augmented with the latest
+ * end day below it. A lookup only descends into subtrees that can overlap the requested days.
+ */
+private[service] class TimesheetLockIndex private(starts: Array[Int], ends: Array[Int], excludedUsers: Array[Array[User]]) {
+  private val maxEnds = new Array[Int](starts.length)
+
+  computeMaxEnds(0, starts.length)
+
+  /**
+   * Locked days from start to end inclusive, bit i is day start + i. Locks the user is excluded from are skipped,
+   * a null user gets all locks
+   */
+  def lockedDays(start: Int, end: Int, user: User): ju.BitSet = {
+    val days = new ju.BitSet(math.max(0, end - start + 1))
+    collect(0, starts.length, start, end, user, days)
+    days
+  }
+
+  private def collect(lo: Int, hi: Int, start: Int, end: Int, user: User, days: ju.BitSet) {
+    if (lo < hi) {
+      val mid = (lo + hi) >>> 1
+
+      if (maxEnds(mid) >= start) {
+        collect(lo, mid, start, end, user, days)
+
+        if (starts(mid) <= end) {
+          if (ends(mid) >= start && !isExcluded(mid, user)) {
+            days.set(math.max(starts(mid), start) - start, math.min(ends(mid), end) - start + 1)
+          }
+
+          collect(mid + 1, hi, start, end, user, days)
+        }
+      }
+    }
+  }
+
+  private def computeMaxEnds(lo: Int, hi: Int): Int =
+    if (lo >= hi) Int.MinValue
+    else {
+      val mid = (lo + hi) >>> 1
+      maxEnds(mid) = math.max(ends(mid), math.max(computeMaxEnds(lo, mid), computeMaxEnds(mid + 1, hi)))
+      maxEnds(mid)
+    }
+
+  private def isExcluded(lock: Int, user: User) = user != null && excludedUsers(lock).exists(TimesheetLockIndex.isSameUser(_, user))
+}
+
+private[service] object TimesheetLockIndex {
+  private val Epoch = new LocalDate(1970, 1, 1)
+
+  def apply(locks: ju.List[TimesheetLock]): TimesheetLockIndex = {
+    val sorted = WrapAsScala.collectionAsScalaIterable(locks).toArray.sortBy(l => epochDay(l.getDateStart))
+
+    new TimesheetLockIndex(sorted.map(l => epochDay(l.getDateStart)),
+      sorted.map(l => epochDay(l.getDateEnd)),
+      sorted.map(l => if (l.getExcludedUsers == null) Array[User]() else WrapAsScala.collectionAsScalaIterable(l.getExcludedUsers).toArray))
+  }
+
+  def epochDay(date: Date): Int = LockedDays.toEpochDay(date)
+
+  def epochDay(date: LocalDate): Int = Days.daysBetween(Epoch, date).getDays
+
+  def fromEpochDay(day: Int): LocalDate = Epoch.plusDays(day)
+
+  /**
+   * Users are compared on id as the index outlives the sessions they were loaded in
+   */
+  private def isSameUser(a: User, b: User) =
+    if (a.getUserId != null && b.getUserId != null) a.getUserId == b.getUserId else a == b
+}
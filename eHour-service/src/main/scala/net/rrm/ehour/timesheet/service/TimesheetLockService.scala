@@ -1,11 +1,12 @@
 package net.rrm.ehour.timesheet.service
 
 import java.util.Date
+import java.util.concurrent.atomic.AtomicLong
 import java.{util => ju}
 
 import com.github.nscala_time.time.Imports._
 import com.google.common.collect.Lists
-import net.rrm.ehour.data.DateRange
+import net.rrm.ehour.data.{DateRange, LockedDays}
 import net.rrm.ehour.domain.{Project, TimesheetEntry, TimesheetLock, User}
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao
 import net.rrm.ehour.persistence.timesheetlock.dao.TimesheetLockDao
@@ -17,6 +18,8 @@ import org.joda.time.Days
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support._
+import org.springframework.transaction.{PlatformTransactionManager, TransactionDefinition, TransactionStatus}
 
 import scala.language.implicitConversions
 
@@ -35,6 +38,10 @@ trait TimesheetLockService {
 
   def findLockedDatesInRange(startDate: Date, endDate: Date, user: User): Seq[Interval]
 
+  def findLockedDays(startDate: Date, endDate: Date): LockedDays
+
+  def findLockedDays(startDate: Date, endDate: Date, user: User): LockedDays
+
   def isRangeLocked(startDate: Date, endDate: Date, user: User): Boolean
 
   def findAffectedUsers(startDate: Date, endDate: Date, excludedUsers: Seq[User]): Seq[AffectedUser]
@@ -42,27 +49,36 @@ trait TimesheetLockService {
 
 object TimesheetLockService {
   def timesheetLockToLockedTimesheetList(xs: ju.List[TimesheetLock]): List[TimesheetLock] = toScala(xs)
+}
 
-  def intervalToJavaDates(xs: Seq[Interval]): ju.List[Date] = {
-    def inc(d: DateTime, i: Interval, l: List[Date]): List[Date] =
-      if (d.isBefore(i.getEnd) || d.isEqual(i.getEnd))
-        inc(d.plusDays(1), i, d.toDate :: l)
-      else
-        l.reverse
+/**
+ * Locked dates are looked up in an in-memory TimesheetLockIndex of all locks, built on first use. The index is
+ * replaced rather than modified: creating, updating or deleting a lock drops it, both right away and once the
+ * transaction completed.
+ *
+ * The index is built in its own read-only transaction so a long running caller's snapshot can't put outdated
+ * locks in it. A transaction that changed locks reads its own uncommitted locks instead, without keeping the index.
+ *
+ * The index is local to this JVM and only sees locks changed through it, so this assumes a single eHour node
+ * per database.
+ */
+@Service("timesheetLockService")
+class TimesheetLockServiceSpringImpl private[service](lockDao: TimesheetLockDao,
+                                                     timesheetDao: TimesheetDao,
+                                                     lockIndexTransactionTemplate: TransactionTemplate) extends TimesheetLockService {
 
-    toJava(xs.map(i => inc(i.start, i, Nil)).flatten)
-  }
+  @Autowired
+  def this(lockDao: TimesheetLockDao, timesheetDao: TimesheetDao, transactionManager: PlatformTransactionManager) =
+    this(lockDao, timesheetDao, TimesheetLockServiceSpringImpl.createLockIndexTransactionTemplate(transactionManager))
 
-  def isRangeLocked(startDate: Date, endDate: Date, lockedDates: Seq[Interval]): Boolean = {
-    val s = new DateTime(startDate).withTimeAtStartOfDay()
-    val e = new DateTime(endDate).withTimeAtStartOfDay()
-    lockedDates.size == 1 && lockedDates(0).getStart.withTimeAtStartOfDay().compareTo(s) == 0 && lockedDates(0).getEnd.withTimeAtStartOfDay().compareTo(e) == 0
-  }
+  /**
+   * Builds the index in whatever transaction is active
+   */
+  def this(lockDao: TimesheetLockDao, timesheetDao: TimesheetDao) = this(lockDao, timesheetDao, null: TransactionTemplate)
 
-}
+  private val lockVersion = new AtomicLong()
 
-@Service("timesheetLockService")
-class TimesheetLockServiceSpringImpl @Autowired()(lockDao: TimesheetLockDao, timesheetDao: TimesheetDao) extends TimesheetLockService {
+  @volatile private var lockIndex: (Long, TimesheetLockIndex) = _
 
   @Transactional
   override def createNew(optionalName: Option[String] = None, startDate: Date, endDate: Date, excludedUsers: ju.List[User] = Lists.newArrayList()): TimesheetLock = {
@@ -72,6 +88,7 @@ class TimesheetLockServiceSpringImpl @Autowired()(lockDao: TimesheetLockDao, tim
     }
 
     lockDao.persist(lock)
+    invalidateLockIndex()
 
     lock
   }
@@ -79,12 +96,73 @@ class TimesheetLockServiceSpringImpl @Autowired()(lockDao: TimesheetLockDao, tim
   @Transactional
   override def updateExisting(id: Int, startDate: Date, endDate: Date, name: String, excludedUsers: ju.List[User]): TimesheetLock = {
     val lock = new TimesheetLock(id, startDate, endDate, name, excludedUsers)
-    lockDao.persist(lock)
+    val persisted = lockDao.persist(lock)
+    invalidateLockIndex()
+    persisted
   }
 
   @Transactional
   def deleteLock(id: Int) {
     lockDao.deleteOnId(id)
+    invalidateLockIndex()
+  }
+
+  private def invalidateLockIndex() {
+    lockVersion.incrementAndGet()
+
+    if (TransactionSynchronizationManager.isSynchronizationActive && !isLockChangedInTransaction) {
+      TransactionSynchronizationManager.registerSynchronization(new LockChange)
+    }
+  }
+
+  private def isLockChangedInTransaction: Boolean =
+    TransactionSynchronizationManager.isSynchronizationActive &&
+      toScala(TransactionSynchronizationManager.getSynchronizations).exists {
+        case change: TimesheetLockServiceSpringImpl#LockChange => change.isFor(this)
+        case _ => false
+      }
+
+  private def currentLockIndex: TimesheetLockIndex = {
+    val version = lockVersion.get
+    val current = lockIndex
+
+    if (isLockChangedInTransaction) {
+      TimesheetLockIndex(lockDao.findAll())
+    } else if (current != null && current._1 == version) {
+      current._2
+    } else {
+      val index = buildLockIndex
+
+      // only kept when no lock changed while building it
+      synchronized {
+        if (lockVersion.get == version) {
+          lockIndex = (version, index)
+        }
+      }
+
+      index
+    }
+  }
+
+  private def buildLockIndex: TimesheetLockIndex =
+    if (lockIndexTransactionTemplate == null) {
+      TimesheetLockIndex(lockDao.findAll())
+    } else {
+      lockIndexTransactionTemplate.execute(new TransactionCallback[TimesheetLockIndex] {
+        override def doInTransaction(status: TransactionStatus): TimesheetLockIndex = TimesheetLockIndex(lockDao.findAll())
+      })
+    }
+
+  /**
+   * Registered once by a transaction changing locks, drops the index again once it completed.
+   * Synchronizations are suspended along with their transaction so a REQUIRES_NEW transaction doesn't see it
+   */
+  private class LockChange extends TransactionSynchronizationAdapter {
+    def isFor(service: TimesheetLockServiceSpringImpl): Boolean = service eq TimesheetLockServiceSpringImpl.this
+
+    override def afterCompletion(status: Int) {
+      lockVersion.incrementAndGet()
+    }
   }
 
   private[service] def determineName(startDate: Date, endDate: Date): String = {
@@ -108,63 +186,45 @@ class TimesheetLockServiceSpringImpl @Autowired()(lockDao: TimesheetLockDao, tim
   }
 
   override def findLockedDatesInRange(startDate: Date, endDate: Date): Seq[Interval] =
-    mergeDatesToInterval(startDate, endDate, lockDao.findMatchingLock(startDate, endDate))
-
-  import scala.collection.JavaConversions._
+    findLockedDatesInRange(startDate, endDate, null)
 
   override def findLockedDatesInRange(startDate: Date, endDate: Date, user: User): Seq[Interval] = {
-    val locks = lockDao.findMatchingLock(startDate, endDate)
-
-    val filteredLocks = locks.filterNot(_.getExcludedUsers.contains(user))
+    val start = TimesheetLockIndex.epochDay(startDate)
+    val lockedDays = currentLockIndex.lockedDays(start, TimesheetLockIndex.epochDay(endDate), user)
 
-    mergeDatesToInterval(startDate, endDate, filteredLocks)
+    toIntervals(start, lockedDays)
   }
 
+  override def findLockedDays(startDate: Date, endDate: Date): LockedDays =
+    findLockedDays(startDate, endDate, null)
 
-  override def isRangeLocked(startDate: Date, endDate: Date, user: User): Boolean =
-    TimesheetLockService.isRangeLocked(startDate, endDate, findLockedDatesInRange(startDate, endDate, user))
-
-
-
-  import scala.collection.JavaConversions._
-
-  private def mergeDatesToInterval(startDate: Date, endDate: Date, dates: ju.List[TimesheetLock]): Seq[Interval] = {
-    implicit def dateToDateTime(d: Date): DateTime = LocalDate.fromDateFields(d).toDateTimeAtStartOfDay
+  override def findLockedDays(startDate: Date, endDate: Date, user: User): LockedDays = {
+    val start = TimesheetLockIndex.epochDay(startDate)
 
-    def overlapsAtEdges(i: Interval, r: Interval) = {
-      def isOverlappingAtStart = r.start equals i.end
-      def overlapsAtStart = if (isOverlappingAtStart) Some(new Interval(r.start, r.start)) else None
-
-      def isOverlappingAtEnd = r.end equals i.start
-      def overlapsAtEnd = if (isOverlappingAtEnd) Some(new Interval(r.end, r.end)) else None
-
-      overlapsAtStart orElse overlapsAtEnd
-    }
+    new LockedDays(start, currentLockIndex.lockedDays(start, TimesheetLockIndex.epochDay(endDate), user))
+  }
 
-    val lockIntervals = dates.map(l => new Interval(l.getDateStart, l.getDateEnd)).toList
+  override def isRangeLocked(startDate: Date, endDate: Date, user: User): Boolean =
+    findLockedDays(startDate, endDate, user).isAllLocked(startDate, endDate)
 
-    val requestedInterval = new Interval(startDate, endDate)
-    def intervalsThatOverlap = lockIntervals.map(i => requestedInterval overlap i match {
-      case o: Interval => Some(o)
-      case null => overlapsAtEdges(i, requestedInterval)
-    }).flatten
 
-    val overlaps = intervalsThatOverlap
 
-    def mergeIntervals(current: Interval, stack: Seq[Interval], merged: Seq[Interval]): Seq[Interval] = {
-      stack match {
-        case (x :: xs) if x.overlaps(current) || x.abuts(current) => mergeIntervals(new Interval(current.start, x.end), xs, merged)
-        case (x :: xs) => mergeIntervals(x, xs, current +: merged)
-        case Nil => current +: merged
-      }
+  /**
+   * Every run of locked days as an interval from its first to its last day
+   */
+  private def toIntervals(start: Int, lockedDays: ju.BitSet): Seq[Interval] = {
+    def runs(from: Int): List[Interval] = lockedDays.nextSetBit(from) match {
+      case -1 => Nil
+      case first =>
+        val last = lockedDays.nextClearBit(first) - 1
+        new Interval(dayToDateTime(start + first), dayToDateTime(start + last)) :: runs(last + 1)
     }
 
-    (overlaps.sortWith(_.start isBefore _.start) match {
-      case (x :: xs) => mergeIntervals(x, xs, Seq())
-      case (xs) => xs
-    }).reverse
+    runs(0)
   }
 
+  private def dayToDateTime(day: Int): DateTime = TimesheetLockIndex.fromEpochDay(day).toDateTimeAtStartOfDay
+
   def findAffectedUsers(startDate: Date, endDate: Date, excludedUsers: Seq[User]): Seq[AffectedUser] = {
     val xs = toScala(timesheetDao.getTimesheetEntriesInRange(new DateRange(startDate, endDate)))
 
@@ -185,6 +245,15 @@ class TimesheetLockServiceSpringImpl @Autowired()(lockDao: TimesheetLockDao, tim
   }
 }
 
+object TimesheetLockServiceSpringImpl {
+  private def createLockIndexTransactionTemplate(transactionManager: PlatformTransactionManager): TransactionTemplate = {
+    val template = new TransactionTemplate(transactionManager)
+    template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+    template.setReadOnly(true)
+    template
+  }
+}
+
 case class AffectedUser(user: User = null, projects: Map[Project, Float] = Map()) {
   def getJavaProjects = toJava(projects.toList)
 
@@ -0,0 +1,129 @@
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.data.AuditReportRequest;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.domain.AuditActionType;
+import net.rrm.ehour.domain.User;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AuditArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AuditArchive archive;
+    private AuditReportRequest all;
+
+    @Before
+    public void setUp() {
+        archive = new AuditArchive(folder.getRoot());
+
+        all = new AuditReportRequest();
+        all.setInfiniteStartDate(true);
+        all.setInfiniteEndDate(true);
+    }
+
+    @Test
+    public void shouldPartitionPerDay() throws Exception {
+        archive.archive(Arrays.asList(audit(1, 2015, 10), audit(2, 2015, 11)));
+
+        assertTrue(new File(folder.getRoot(), "2015-01/audit-2015-01-10.tsv.gz").exists());
+        assertTrue(new File(folder.getRoot(), "2015-01/audit-2015-01-11.tsv.gz").exists());
+    }
+
+    @Test
+    public void shouldReadAppendedBatchesInKeyOrder() throws Exception {
+        archive.archive(Arrays.asList(audit(1, 2015, 10), audit(3, 2015, 11)));
+        archive.archive(Arrays.asList(audit(2, 2015, 10)));
+
+        List<Audit> audits = archive.findAudits(all, null, null, 0);
+
+        assertEquals(3, audits.size());
+        assertEquals(1, audits.get(0).getAuditId().intValue());
+        assertEquals(2, audits.get(1).getAuditId().intValue());
+        assertEquals(3, audits.get(2).getAuditId().intValue());
+    }
+
+    @Test
+    public void shouldKeepFieldsWithSeparators() throws Exception {
+        Audit audit = audit(1, 2015, 10)
+                .setParameters("0:a\tb\n1:c\\d")
+                .setUser(new User(5))
+                .setAuditActionType(AuditActionType.UPDATE)
+                .setSuccess(Boolean.FALSE)
+                .setPage(null);
+
+        archive.archive(Arrays.asList(audit));
+
+        Audit read = archive.findAudits(all, null, null, 0).get(0);
+
+        assertEquals("0:a\tb\n1:c\\d", read.getParameters());
+        assertEquals(5, read.getUser().getUserId().intValue());
+        assertEquals(AuditActionType.UPDATE, read.getAuditActionType());
+        assertFalse(read.getSuccess());
+        assertNull(read.getPage());
+        assertEquals(audit.getDate(), read.getDate());
+    }
+
+    @Test
+    public void shouldFilterOnRequestAndKeys() throws Exception {
+        archive.archive(Arrays.asList(audit(1, 2015, 10), audit(2, 2015, 11).setAction("getUsers"), audit(3, 2015, 12), audit(4, 2015, 20)));
+
+        AuditReportRequest request = new AuditReportRequest();
+        request.setReportRange(new DateRange(date(2015, 11), date(2015, 12)));
+        assertEquals(2, archive.findAudits(request, null, null, 0).size());
+
+        request.setAction("USERS");
+        assertEquals(2, archive.findAudits(request, null, null, 0).get(0).getAuditId().intValue());
+
+        List<Audit> page = archive.findAudits(all, audit(1, 2015, 10), audit(4, 2015, 20), 0);
+        assertEquals(2, page.size());
+        assertEquals(2, page.get(0).getAuditId().intValue());
+
+        assertEquals(1, archive.findAudits(all, null, null, 1).size());
+    }
+
+    @Test
+    public void shouldCountUpToTheLimitAndPageByOffset() throws Exception {
+        archive.archive(Arrays.asList(audit(1, 2015, 10), audit(3, 2015, 11), audit(4, 2015, 12)));
+        archive.archive(Arrays.asList(audit(2, 2015, 10)));
+
+        assertEquals(4, archive.countAudits(all, null, 0));
+        assertEquals(2, archive.countAudits(all, null, 2));
+        assertEquals(2, archive.countAudits(all, audit(3, 2015, 11), 0));
+
+        List<Audit> page = archive.findAudits(all, null, 1, 2);
+        assertEquals(2, page.size());
+        assertEquals(2, page.get(0).getAuditId().intValue());
+        assertEquals(3, page.get(1).getAuditId().intValue());
+
+        assertEquals(4, archive.findAudits(all, null, 3, 0).get(0).getAuditId().intValue());
+        assertTrue(archive.findAudits(all, audit(4, 2015, 12), 3, 0).isEmpty());
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutDirectory() throws Exception {
+        assertFalse(new AuditArchive((File) null).isEnabled());
+        assertTrue(new AuditArchive((File) null).findAudits(all, null, null, 0).isEmpty());
+    }
+
+    static Audit audit(int id, int year, int day) {
+        Audit audit = new Audit().setDate(date(year, day)).setAction("action" + id).setUserFullName("Edeling, Thies");
+        audit.setAuditId(id);
+        return audit;
+    }
+
+    private static java.util.Date date(int year, int day) {
+        return new GregorianCalendar(year, 0, day, 12, 0).getTime();
+    }
+}
@@ -0,0 +1,130 @@
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.data.AuditReportRequest;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class AuditRetentionJobTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private AuditDao auditDao;
+
+    private AuditArchive archive;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        archive = new AuditArchive(folder.getRoot());
+    }
+
+    @Test
+    public void shouldArchiveAndDeleteExpiredAudits() {
+        Audit expired = audit(1, 400);
+        Audit recent = audit(2, 10);
+
+        when(auditDao.findAuditsAfter(any(AuditReportRequest.class), any(Audit.class), anyInt())).thenReturn(Arrays.asList(expired, recent));
+
+        int archived = new AuditRetentionJob(auditDao, archive, null, 365, 0, 10).applyRetention();
+
+        assertEquals(1, archived);
+        verify(auditDao).deleteAll(Collections.singletonList(expired));
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void shouldArchiveRowsBeyondMaxInBatches() {
+        when(auditDao.count(any(AuditReportRequest.class))).thenReturn(5);
+        when(auditDao.findAuditsAfter(any(AuditReportRequest.class), any(Audit.class), anyInt()))
+                .thenReturn(Arrays.asList(audit(1, 5), audit(2, 4)), Arrays.asList(audit(3, 3), audit(4, 2)));
+
+        int archived = new AuditRetentionJob(auditDao, archive, null, 0, 2, 2).applyRetention();
+
+        assertEquals(3, archived);
+
+        ArgumentCaptor<List> deleted = ArgumentCaptor.forClass(List.class);
+        verify(auditDao, times(2)).deleteAll(deleted.capture());
+        assertEquals(2, deleted.getAllValues().get(0).size());
+        assertEquals(1, deleted.getAllValues().get(1).size());
+    }
+
+    @Test
+    public void shouldKeepAuditsWithoutDateAndBumpTheArchiveGeneration() {
+        Audit undated = audit(1, 0).setDate(null);
+        Audit expired = audit(2, 400);
+
+        when(auditDao.findAuditsAfter(any(AuditReportRequest.class), any(Audit.class), anyInt())).thenReturn(Arrays.asList(undated, expired));
+
+        int archived = new AuditRetentionJob(auditDao, archive, null, 365, 0, 10).applyRetention();
+
+        assertEquals(1, archived);
+        verify(auditDao).deleteAll(Collections.singletonList(expired));
+        assertEquals(1, archive.getGeneration());
+    }
+
+    @Test
+    public void shouldReadAuditsArchivedAgainAfterAFailedDeleteOnce() throws Exception {
+        Audit expired = audit(1, 400);
+
+        when(auditDao.findAuditsAfter(any(AuditReportRequest.class), any(Audit.class), anyInt())).thenReturn(Arrays.asList(expired));
+        doThrow(new IllegalStateException("lock timeout")).doNothing().when(auditDao).deleteAll(anyList());
+
+        AuditRetentionJob job = new AuditRetentionJob(auditDao, archive, null, 365, 0, 10);
+
+        try {
+            job.applyRetention();
+            fail("delete should have failed");
+        } catch (IllegalStateException e) {
+            // audits stay in the table but are in the archive already
+        }
+
+        assertEquals(1, job.applyRetention());
+
+        assertEquals(1, archive.countAudits(allAudits(), null, 0));
+        assertEquals(1, archive.findAudits(allAudits(), null, null, 0).size());
+    }
+
+    @Test
+    public void shouldKeepAuditsWithoutArchive() {
+        int archived = new AuditRetentionJob(auditDao, new AuditArchive((File) null), null, 1, 1, 10).applyRetention();
+
+        assertEquals(0, archived);
+        verifyZeroInteractions(auditDao);
+    }
+
+    private static AuditReportRequest allAudits() {
+        AuditReportRequest request = new AuditReportRequest();
+        request.setInfiniteStartDate(true);
+        request.setInfiniteEndDate(true);
+        return request;
+    }
+
+    private Audit audit(int id, int daysAgo) {
+        Audit audit = new Audit().setDate(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)));
+        audit.setAuditId(id);
+        return audit;
+    }
+}
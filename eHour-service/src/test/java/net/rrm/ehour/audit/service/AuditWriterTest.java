@@ -0,0 +1,112 @@
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class AuditWriterTest {
+    @Mock
+    private AuditDao auditDao;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void shouldWriteQueuedAuditsInBatchesOnShutdown() {
+        AuditWriter writer = new AuditWriter(auditDao, null, 100, 2, 60000);
+        writer.start();
+
+        for (int i = 0; i < 5; i++) {
+            writer.write(new Audit().setAction("action" + i));
+        }
+
+        writer.shutdown();
+
+        List<List<Audit>> batches = capturedBatches();
+
+        int written = 0;
+
+        for (List<Audit> batch : batches) {
+            assertTrue(batch.size() <= 2);
+            written += batch.size();
+        }
+
+        assertEquals(5, written);
+    }
+
+    @Test
+    public void shouldWriteInCallingThreadWhenQueueIsFull() {
+        AuditWriter writer = new AuditWriter(auditDao, null, 0, 10, 60000);
+        writer.start();
+
+        Audit audit = new Audit().setAction("action");
+        writer.write(audit);
+
+        List<List<Audit>> batches = capturedBatches();
+        assertEquals(1, batches.size());
+        assertEquals(audit, batches.get(0).get(0));
+
+        writer.shutdown();
+    }
+
+    @Test
+    public void shouldWriteInCallingThreadWhenStopped() {
+        AuditWriter writer = new AuditWriter(auditDao, null, 100, 10, 60000);
+
+        writer.write(new Audit().setAction("action"));
+
+        assertEquals(1, capturedBatches().size());
+    }
+
+    @Test
+    public void shouldKeepWritingAfterFailedBatch() {
+        AuditWriter writer = new AuditWriter(auditDao, null, 0, 10, 60000);
+
+        doThrow(new IllegalStateException("db down")).doNothing().when(auditDao).persistAll(anyListOf(Audit.class));
+
+        writer.write(new Audit().setAction("action1"));
+        writer.write(new Audit().setAction("action2"));
+
+        assertEquals(2, capturedBatches().size());
+    }
+
+    @Test
+    public void shouldWriteFailedBatchOneByOne() {
+        AuditWriter writer = new AuditWriter(auditDao, null, 100, 3, 60000);
+
+        Audit bad = new Audit().setAction("bad");
+        Audit good = new Audit().setAction("good");
+
+        doThrow(new IllegalStateException("constraint violation")).when(auditDao).persistAll(Arrays.asList(bad, good));
+        doThrow(new IllegalStateException("constraint violation")).when(auditDao).persistAll(Collections.singletonList(bad));
+
+        writer.start();
+        writer.write(bad);
+        writer.write(good);
+        writer.shutdown();
+
+        verify(auditDao).persistAll(Collections.singletonList(good));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Audit>> capturedBatches() {
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditDao, atLeastOnce()).persistAll(captor.capture());
+
+        return (List<List<Audit>>) (List) captor.getAllValues();
+    }
+}
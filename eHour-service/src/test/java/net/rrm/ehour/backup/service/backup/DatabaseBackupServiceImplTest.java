@@ -8,17 +8,24 @@ import net.rrm.ehour.config.EhourConfigStub;
 import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.domain.Configuration;
 import net.rrm.ehour.persistence.backup.dao.BackupDao;
+import net.rrm.ehour.persistence.backup.dao.BackupRowHandler;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -47,8 +54,7 @@ public class DatabaseBackupServiceImplTest {
         map.put("ENTRY_DATE", new Date());
         map.put("COMMENT", "\uC3BC and \uC3B6 and <&> für");
 
-        List<Map<String, Object>> rows = Lists.newArrayList(map);
-        when(exportDao.findAll("TIMESHEET_ENTRY")).thenReturn(rows);
+        streamRows("TIMESHEET_ENTRY", map);
 
         EhourConfigStub configuration = new EhourConfigStub();
         configuration.setVersion("0.9");
@@ -66,5 +72,40 @@ public class DatabaseBackupServiceImplTest {
         assertThat(xml, containsString("CONFIG"));
 
         assertTrue(xml.startsWith("<?xml version="));
+        assertThat(xml, containsString("<ASSIGNMENT_ID>1</ASSIGNMENT_ID>"));
+    }
+
+    @Test
+    public void shouldStreamXmlToOutputStream() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("USER_ID", 1);
+        map.put("ROLE", "ROLE_ADMIN");
+
+        streamRows("USER_TO_USERROLE", map);
+
+        EhourConfigStub configuration = new EhourConfigStub();
+        configuration.setVersion("0.9");
+        when(configurationService.getConfiguration()).thenReturn(configuration);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportDatabase(outputStream);
+        String xml = new String(outputStream.toByteArray());
+
+        assertTrue(xml.startsWith("<?xml version="));
+        assertThat(xml, containsString("ROLE=\"ROLE_ADMIN\""));
+        assertThat(xml, containsString("</EHOUR>"));
+    }
+
+    private void streamRows(String table, final Map<String, Object> row) {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                BackupRowHandler handler = (BackupRowHandler) invocation.getArguments()[1];
+
+                handler.handleRow(row);
+
+                return null;
+            }
+        }).when(exportDao).streamAll(eq(table), any(BackupRowHandler.class));
     }
 }
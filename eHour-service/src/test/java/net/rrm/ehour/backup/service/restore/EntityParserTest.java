@@ -18,7 +18,6 @@ import javax.xml.stream.XMLStreamException;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -45,6 +44,10 @@ public class EntityParserTest {
     }
 
     private EntityParser createParser(String xmlData, DomainObject<Integer, ?> returnOnFind, Integer onFind) throws XMLStreamException {
+        return createParser(xmlData, returnOnFind, onFind, 0);
+    }
+
+    private EntityParser createParser(String xmlData, DomainObject<Integer, ?> returnOnFind, Integer onFind, int batchSize) throws XMLStreamException {
         XMLInputFactory inputFactory = XMLInputFactory.newInstance();
         XMLEventReader eventReader = inputFactory.createXMLEventReader(new StringReader(xmlData));
 
@@ -53,7 +56,7 @@ public class EntityParserTest {
 
         daoValidator = (EntityParserDaoTestValidator) (returnOnFind == null ? new EntityParserDaoValidatorImpl() : new EntityParserDaoTestValidator(returnOnFind, onFind));
 
-        return new EntityParser(eventReader, daoValidator, keyCache, backupConfig);
+        return new EntityParser(eventReader, daoValidator, keyCache, backupConfig, batchSize);
     }
 
     @Test
@@ -74,6 +77,19 @@ public class EntityParserTest {
         assertEquals(2, daoValidator.getTotalPersistCount());
     }
 
+    @Test
+    public void shouldFlushEveryBatchInBulkMode() throws XMLStreamException, InstantiationException, IllegalAccessException, ImportException {
+        EntityParser parser = createParser("<TIMESHEET_ENTRIES CLASS=\"net.rrm.ehour.domain.TimesheetEntry\">\n<TIMESHEET_ENTRY>\n<ASSIGNMENT_ID>1</ASSIGNMENT_ID>\n<ENTRY_DATE>2007-03-26</ENTRY_DATE>\n<HOURS>8.0</HOURS>\n  </TIMESHEET_ENTRY>\n  <TIMESHEET_ENTRY>\n   <ASSIGNMENT_ID>1</ASSIGNMENT_ID>\n   <ENTRY_DATE>2007-03-27</ENTRY_DATE>\n   <HOURS>4.0</HOURS>\n  </TIMESHEET_ENTRY>\n  <TIMESHEET_ENTRY>\n   <ASSIGNMENT_ID>1</ASSIGNMENT_ID>\n   <ENTRY_DATE>2007-03-28</ENTRY_DATE>\n   <HOURS>2.0</HOURS>\n  </TIMESHEET_ENTRY>\n  </TIMESHEET_ENTRIES>\n", ProjectAssignmentObjectMother.createProjectAssignment(1), 1, 2);
+
+        keyCache.putKey(ProjectAssignment.class, 1, 1);
+
+        List<TimesheetEntry> result = parser.parse(TimesheetEntry.class, new JoinTables(), status);
+
+        assertTrue(result.isEmpty());
+        assertEquals(3, daoValidator.getTotalPersistCount());
+        assertEquals(2, daoValidator.flushCount);
+    }
+
     @Test
     public void shouldParseUserAndStoreNewKeyInCacheMap() throws XMLStreamException, InstantiationException, IllegalAccessException, ImportException {
         UserDepartment department = UserDepartmentObjectMother.createUserDepartment();
@@ -97,8 +113,7 @@ public class EntityParserTest {
         PrimaryKeyCache keyCache = parser.getKeyCache();
         assertFalse(keyCache.isEmpty());
 
-        Map<Serializable, Serializable> map = keyCache.keyMap.get(User.class);
-        assertEquals(2, map.entrySet().size());
+        assertEquals(2, keyCache.size(User.class));
     }
 
     @Test
@@ -165,7 +180,13 @@ public class EntityParserTest {
             }
         }
 
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+
         private T returnObject;
         private Serializable primaryKey;
+        private int flushCount;
     }
 }
@@ -0,0 +1,86 @@
+package net.rrm.ehour.backup.service.restore;
+
+import net.rrm.ehour.domain.TimesheetEntry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive key remapping of the PrimaryKeyCache with the boxed map it replaced
+ * for a million restored keys. Run with the main method, it's not part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrimaryKeyCacheBenchmark {
+    private static final int KEYS = 1000000;
+
+    private PrimaryKeyCache primaryKeyCache;
+    private Map<Class<?>, Map<Serializable, Serializable>> boxedCache;
+
+    @Setup
+    public void setUp() {
+        primaryKeyCache = fillPrimaryKeyCache();
+        boxedCache = fillBoxedCache();
+    }
+
+    @Benchmark
+    public PrimaryKeyCache putPrimitive() {
+        return fillPrimaryKeyCache();
+    }
+
+    @Benchmark
+    public Map<Class<?>, Map<Serializable, Serializable>> putBoxed() {
+        return fillBoxedCache();
+    }
+
+    @Benchmark
+    public void getPrimitive(Blackhole blackhole) {
+        for (int i = 0; i < KEYS; i++) {
+            blackhole.consume(primaryKeyCache.getKey(TimesheetEntry.class, i));
+        }
+    }
+
+    @Benchmark
+    public void getBoxed(Blackhole blackhole) {
+        for (int i = 0; i < KEYS; i++) {
+            blackhole.consume(boxedCache.get(TimesheetEntry.class).get(i));
+        }
+    }
+
+    private PrimaryKeyCache fillPrimaryKeyCache() {
+        PrimaryKeyCache cache = new PrimaryKeyCache();
+
+        for (int i = 0; i < KEYS; i++) {
+            cache.putKey(TimesheetEntry.class, i, KEYS + i);
+        }
+
+        return cache;
+    }
+
+    private Map<Class<?>, Map<Serializable, Serializable>> fillBoxedCache() {
+        Map<Class<?>, Map<Serializable, Serializable>> cache = new HashMap<>();
+        Map<Serializable, Serializable> keys = new HashMap<>();
+        cache.put(TimesheetEntry.class, keys);
+
+        for (int i = 0; i < KEYS; i++) {
+            keys.put(i, KEYS + i);
+        }
+
+        return cache;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PrimaryKeyCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
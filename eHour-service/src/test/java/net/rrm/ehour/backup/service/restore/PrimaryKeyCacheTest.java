@@ -0,0 +1,68 @@
+package net.rrm.ehour.backup.service.restore;
+
+import net.rrm.ehour.domain.TimesheetComment;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserRole;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PrimaryKeyCacheTest {
+    private PrimaryKeyCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new PrimaryKeyCache();
+    }
+
+    @Test
+    public void shouldMapIntegerKeys() {
+        cache.putKey(User.class, 1, 10);
+        cache.putKey(User.class, 2, 20);
+
+        assertEquals(10, cache.getKey(User.class, 1));
+        assertEquals(20, cache.getKey(User.class, 2));
+        assertNull(cache.getKey(User.class, 3));
+        assertNull(cache.getKey(UserRole.class, 1));
+        assertEquals(2, cache.size(User.class));
+    }
+
+    @Test
+    public void shouldFallbackForStringKeys() {
+        cache.putKey(UserRole.class, "ROLE_ADMIN", "ROLE_ADMIN_NEW");
+
+        assertEquals("ROLE_ADMIN_NEW", cache.getKey(UserRole.class, "ROLE_ADMIN"));
+        assertEquals(1, cache.size(UserRole.class));
+    }
+
+    @Test
+    public void shouldFallbackWhenNewKeyIsNull() {
+        cache.putKey(TimesheetComment.class, 1, null);
+
+        assertNull(cache.getKey(TimesheetComment.class, 1));
+        assertFalse(cache.isEmpty());
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() {
+        for (int i = -50000; i < 50000; i++) {
+            cache.putKey(User.class, i, i * 3);
+        }
+
+        assertEquals(100000, cache.size(User.class));
+
+        for (int i = -50000; i < 50000; i++) {
+            assertEquals(i * 3, cache.getKey(User.class, i));
+        }
+    }
+
+    @Test
+    public void shouldOverwriteExistingKey() {
+        cache.putKey(User.class, 1, 10);
+        cache.putKey(User.class, 1, 11);
+
+        assertEquals(11, cache.getKey(User.class, 1));
+        assertEquals(1, cache.size(User.class));
+    }
+}
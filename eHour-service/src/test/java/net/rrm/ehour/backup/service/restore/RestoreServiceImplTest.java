@@ -6,8 +6,10 @@ import net.rrm.ehour.backup.domain.ImportException;
 import net.rrm.ehour.backup.domain.ParseSession;
 import net.rrm.ehour.backup.service.DatabaseTruncater;
 import net.rrm.ehour.config.EhourConfigStub;
+import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.persistence.config.dao.ConfigurationDao;
+import net.rrm.ehour.project.status.AssignmentBookedHoursCache;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +46,12 @@ public class RestoreServiceImplTest {
     @Mock
     private TaskExecutor taskExecutor;
 
+    @Mock
+    private AssignmentBookedHoursCache bookedHoursCache;
+
+    @Mock
+    private ConfigurationService configurationService;
+
     private BackupConfig backupConfig;
 
     private UserRoleParserDaoValidatorImpl userRoleParserDao;
@@ -59,7 +67,7 @@ public class RestoreServiceImplTest {
         backupConfig = new EhourBackupConfig();
 
         configStub = new EhourConfigStub();
-        restoreService = new RestoreServiceImpl(configurationDao, configurationParserDao, entityParserDao, truncater, configStub, backupConfig, taskExecutor);
+        restoreService = new RestoreServiceImpl(configurationDao, configurationParserDao, entityParserDao, truncater, configStub, backupConfig, taskExecutor, bookedHoursCache, configurationService);
         restoreService.setConfigurationDao(configurationDao);
         restoreService.setDatabaseTruncater(truncater);
 
@@ -118,6 +126,7 @@ public class RestoreServiceImplTest {
         assertFalse(destFile.exists());
 
         verify(entityParserDao, times(10)).persist(any(DomainObject.class));
+        verify(configurationService).publishConfiguration();
     }
 
     @Test
@@ -0,0 +1,41 @@
+package net.rrm.ehour.config;
+
+import net.rrm.ehour.domain.AuditType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+public class SharedEhourConfigTest {
+    @Test
+    public void shouldLoadSnapshotOnceFromSource() {
+        EhourConfigStub source = spy(new EhourConfigStub());
+        source.setAuditType(AuditType.ALL);
+
+        SharedEhourConfig config = new SharedEhourConfig(source);
+
+        assertEquals(AuditType.ALL, config.getAuditType());
+        assertEquals(AuditType.ALL, config.getAuditType());
+        assertSame(config.getSnapshot(), config.getSnapshot());
+
+        verify(source, times(1)).getAuditType();
+    }
+
+    @Test
+    public void shouldReplaceSnapshotWhenConfigurationChanged() {
+        EhourConfigStub source = new EhourConfigStub();
+        source.setMailSmtp("old");
+
+        SharedEhourConfig config = new SharedEhourConfig(source);
+        assertEquals("old", config.getMailSmtp());
+
+        EhourConfigStub changed = new EhourConfigStub();
+        changed.setMailSmtp("new");
+        config.configurationChanged(changed);
+
+        changed.setMailSmtp("mutated afterwards");
+
+        assertEquals("new", config.getMailSmtp());
+    }
+}
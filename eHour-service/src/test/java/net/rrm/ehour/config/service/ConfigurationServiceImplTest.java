@@ -2,6 +2,9 @@ package net.rrm.ehour.config.service;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
 import net.rrm.ehour.appconfig.EhourSystemConfig;
+import net.rrm.ehour.config.ConfigurationChangeListener;
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.config.EhourConfigSnapshot;
 import net.rrm.ehour.config.EhourConfigStub;
 import net.rrm.ehour.config.LocaleUtil;
 import net.rrm.ehour.config.TranslationDiscovery;
@@ -15,10 +18,13 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.isIn;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -83,6 +89,28 @@ public class ConfigurationServiceImplTest {
         assertTrue(configuration.isSplitAdminRole());
     }
 
+    @Test
+    public void shouldServeCopiesOfTheLoadedConfiguration() {
+        when(configDAO.findAll()).thenReturn(Arrays.asList(new Configuration("mailSmtp", "localhost")));
+
+        EhourConfigStub first = configurationService.getConfiguration();
+        first.setMailSmtp("changed");
+
+        assertEquals("localhost", configurationService.getConfiguration().getMailSmtp());
+        verify(configDAO, times(1)).findAll();
+    }
+
+    @Test
+    public void shouldServeThePublishedConfiguration() {
+        when(configDAO.findAll()).thenReturn(Arrays.asList(new Configuration("mailSmtp", "localhost")));
+        configurationService.getConfiguration();
+
+        when(configDAO.findAll()).thenReturn(Arrays.asList(new Configuration("mailSmtp", "restored")));
+        configurationService.publishConfiguration();
+
+        assertEquals("restored", configurationService.getConfiguration().getMailSmtp());
+    }
+
     @Test
     public void shouldPersistConfiguration() {
         EhourConfigStub stub = new EhourConfigStub();
@@ -106,6 +134,24 @@ public class ConfigurationServiceImplTest {
         assertThat(new Configuration("mailSmtp", "ee"), isIn(configurations));
     }
 
+    @Test
+    public void shouldPublishPersistedConfigurationToListeners() {
+        ApplicationContext context = mock(ApplicationContext.class);
+        ConfigurationChangeListener listener = mock(ConfigurationChangeListener.class);
+        when(context.getBeansOfType(ConfigurationChangeListener.class)).thenReturn(Collections.singletonMap("listener", listener));
+        configurationService.setApplicationContext(context);
+
+        when(configDAO.findAll()).thenReturn(Arrays.asList(new Configuration("mailSmtp", "ee")));
+
+        configurationService.persistConfiguration(new EhourConfigStub());
+
+        ArgumentCaptor<EhourConfig> configCapture = ArgumentCaptor.forClass(EhourConfig.class);
+        verify(listener).configurationChanged(configCapture.capture());
+
+        assertThat(configCapture.getValue(), instanceOf(EhourConfigSnapshot.class));
+        assertEquals("ee", configCapture.getValue().getMailSmtp());
+    }
+
     @Test
     public void shouldGetDefaultLogo() {
         ImageLogo logo = configurationService.getExcelLogo();
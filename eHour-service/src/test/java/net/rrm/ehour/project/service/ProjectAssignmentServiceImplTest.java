@@ -17,13 +17,17 @@
 package net.rrm.ehour.project.service;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.ProjectAssignmentObjectMother;
 import net.rrm.ehour.domain.ProjectObjectMother;
+import net.rrm.ehour.domain.UserRole;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
+import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import org.junit.Before;
@@ -35,9 +39,11 @@ import org.mockito.runners.MockitoJUnitRunner;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ProjectAssignmentServiceImplTest {
@@ -91,4 +97,57 @@ public class ProjectAssignmentServiceImplTest {
         assertTrue(assignments.get(0).isDeletable());
         assertFalse(assignments.get(1).isDeletable());
     }
+
+    @Test
+    public void should_only_return_bookable_assignments_for_user() {
+        DateRange range = new DateRange();
+
+        ProjectAssignment bookable = ProjectAssignmentObjectMother.createProjectAssignment(1);
+        ProjectAssignment overBudget = ProjectAssignmentObjectMother.createProjectAssignment(2);
+        List<ProjectAssignment> assignments = Arrays.asList(bookable, overBudget);
+
+        when(projectAssignmentDAO.findActiveProjectAssignmentsForUser(1, range)).thenReturn(assignments);
+
+        ProjectAssignmentStatus bookableStatus = new ProjectAssignmentStatus();
+        bookableStatus.addStatus(ProjectAssignmentStatus.Status.IN_ALLOTTED);
+
+        ProjectAssignmentStatus overBudgetStatus = new ProjectAssignmentStatus();
+        overBudgetStatus.addStatus(ProjectAssignmentStatus.Status.OVER_ALLOTTED);
+
+        Map<Integer, ProjectAssignmentStatus> statusses = Maps.newHashMap();
+        statusses.put(1, bookableStatus);
+        statusses.put(2, overBudgetStatus);
+        when(statusService.getAssignmentStatuses(assignments, range)).thenReturn(statusses);
+
+        List<ProjectAssignment> result = projectAssignmentService.getProjectAssignmentsForUser(1, range);
+
+        assertEquals(Arrays.asList(bookable), result);
+        verify(statusService, never()).getAssignmentStatus(any(ProjectAssignment.class), any(DateRange.class));
+    }
+
+    @Test
+    public void should_only_return_bookable_assignments_for_role() {
+        DateRange range = new DateRange();
+
+        ProjectAssignment bookable = ProjectAssignmentObjectMother.createProjectAssignment(1);
+        ProjectAssignment overBudget = ProjectAssignmentObjectMother.createProjectAssignment(2);
+        List<ProjectAssignment> assignments = Arrays.asList(bookable, overBudget);
+
+        when(projectAssignmentDAO.findActiveProjectAssignmentsForRole(UserRole.USER, range)).thenReturn(assignments);
+
+        ProjectAssignmentStatus bookableStatus = new ProjectAssignmentStatus();
+        bookableStatus.addStatus(ProjectAssignmentStatus.Status.IN_ALLOTTED);
+
+        ProjectAssignmentStatus overBudgetStatus = new ProjectAssignmentStatus();
+        overBudgetStatus.addStatus(ProjectAssignmentStatus.Status.OVER_ALLOTTED);
+
+        Map<Integer, ProjectAssignmentStatus> statusses = Maps.newHashMap();
+        statusses.put(1, bookableStatus);
+        statusses.put(2, overBudgetStatus);
+        when(statusService.getAssignmentStatuses(assignments, range)).thenReturn(statusses);
+
+        List<ProjectAssignment> result = projectAssignmentService.getProjectAssignmentsForRole(UserRole.USER, range);
+
+        assertEquals(Arrays.asList(bookable), result);
+    }
 }
@@ -0,0 +1,141 @@
+package net.rrm.ehour.project.status;
+
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.ProjectAssignmentObjectMother;
+import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AssignmentBookedHoursCacheTest {
+    @Mock
+    private ReportAggregatedDao reportAggregatedDao;
+
+    private AssignmentBookedHoursCache cache;
+
+    private ProjectAssignment assignment;
+
+    @Before
+    public void setUp() {
+        cache = new AssignmentBookedHoursCache(reportAggregatedDao);
+        assignment = ProjectAssignmentObjectMother.createProjectAssignment(1);
+
+        when(reportAggregatedDao.getCumulatedHoursForAssignment(assignment)).thenReturn(new AssignmentAggregateReportElement(assignment, 10f));
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void should_seed_from_database_once() {
+        cache.getAggregate(assignment);
+        AssignmentAggregateReportElement aggregate = cache.getAggregate(assignment);
+
+        assertEquals(10f, aggregate.getHours().floatValue(), 0.001f);
+        verify(reportAggregatedDao, times(1)).getCumulatedHoursForAssignment(assignment);
+    }
+
+    @Test
+    public void should_seed_in_a_new_read_only_transaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any(TransactionDefinition.class))).thenReturn(new SimpleTransactionStatus());
+        cache = new AssignmentBookedHoursCache(reportAggregatedDao, transactionManager);
+
+        AssignmentAggregateReportElement aggregate = cache.getAggregate(assignment);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(10f, aggregate.getHours().floatValue(), 0.001f);
+    }
+
+    @Test
+    public void should_return_null_when_nothing_is_booked() {
+        when(reportAggregatedDao.getCumulatedHoursForAssignment(assignment)).thenReturn(null);
+
+        cache.getAggregate(assignment);
+
+        assertNull(cache.getAggregate(assignment));
+    }
+
+    @Test
+    public void should_apply_adjustment_outside_transaction() {
+        cache.getAggregate(assignment);
+
+        cache.adjust(assignment, 4f, false);
+
+        assertEquals(14f, cache.getAggregate(assignment).getHours().floatValue(), 0.001f);
+        verify(reportAggregatedDao, times(1)).getCumulatedHoursForAssignment(assignment);
+    }
+
+    @Test
+    public void should_only_share_adjustments_after_commit() {
+        cache.getAggregate(assignment);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.adjust(assignment, -2f, false);
+
+        assertEquals(8f, cache.getAggregate(assignment).getHours().floatValue(), 0.001f);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(8f, cache.getAggregate(assignment).getHours().floatValue(), 0.001f);
+    }
+
+    @Test
+    public void should_discard_adjustments_on_rollback() {
+        cache.getAggregate(assignment);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.adjust(assignment, 5f, false);
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10f, cache.getAggregate(assignment).getHours().floatValue(), 0.001f);
+    }
+
+    @Test
+    public void should_reload_after_evict() {
+        cache.getAggregate(assignment);
+
+        cache.evict(Arrays.asList(assignment.getAssignmentId()));
+        cache.getAggregate(assignment);
+
+        verify(reportAggregatedDao, times(2)).getCumulatedHoursForAssignment(assignment);
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.beforeCommit(false);
+            }
+
+            synchronization.afterCompletion(status);
+        }
+
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -16,6 +16,7 @@
 
 package net.rrm.ehour.project.status;
 
+import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.ProjectAssignmentObjectMother;
 import net.rrm.ehour.domain.ProjectAssignmentType;
@@ -31,8 +32,8 @@ import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
 
 public class ProjectAssignmentStatusServiceTest
 {
@@ -49,6 +50,7 @@ public class ProjectAssignmentStatusServiceTest
 		timesheetDAO = mock(TimesheetDao.class);
 		util.setTimesheetDAO(timesheetDAO);
 		util.setReportAggregatedDAO(raDAO);
+		util.setBookedHoursCache(new AssignmentBookedHoursCache(raDAO));
 	}
 
 	@Test
@@ -228,4 +230,28 @@ public class ProjectAssignmentStatusServiceTest
 		assertTrue(status.getStatusses().contains(ProjectAssignmentStatus.Status.RUNNING));
 		assertEquals(2, status.getStatusses().size());
 	}	
+
+	@Test
+	public final void testGetAssignmentStatusesWithSingleQuery()
+	{
+		ProjectAssignmentType type = new ProjectAssignmentType(EhourConstants.ASSIGNMENT_TIME_ALLOTTED_FIXED);
+
+		ProjectAssignment inAllotted = ProjectAssignmentObjectMother.createProjectAssignment(1);
+		inAllotted.setAssignmentType(type);
+		inAllotted.setAllottedHours(250f);
+
+		ProjectAssignment overAllotted = ProjectAssignmentObjectMother.createProjectAssignment(2);
+		overAllotted.setAssignmentType(type);
+		overAllotted.setAllottedHours(250f);
+
+		when(raDAO.getCumulatedHoursPerAssignmentForAssignments(Arrays.asList(1, 2)))
+				.thenReturn(Arrays.asList(new AssignmentAggregateReportElement(inAllotted, 25),
+										  new AssignmentAggregateReportElement(overAllotted, 260)));
+
+		Map<Integer, ProjectAssignmentStatus> statusses = util.getAssignmentStatuses(Arrays.asList(inAllotted, overAllotted), new DateRange());
+
+		assertTrue(statusses.get(1).getStatusses().contains(ProjectAssignmentStatus.Status.IN_ALLOTTED));
+		assertTrue(statusses.get(2).getStatusses().contains(ProjectAssignmentStatus.Status.OVER_ALLOTTED));
+		verify(raDAO, never()).getCumulatedHoursForAssignment(any(ProjectAssignment.class));
+	}
 }
@@ -18,6 +18,7 @@ package net.rrm.ehour.report.service;
 
 import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
@@ -29,17 +30,17 @@ import net.rrm.ehour.report.reports.ReportData;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElementMother;
 import net.rrm.ehour.timesheet.service.TimesheetLockService;
-import org.joda.time.Interval;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import scala.collection.convert.WrapAsScala$;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
@@ -68,10 +69,9 @@ public class AggregateReportServiceImplTest {
     
     @Before
     public void setUp() {
-        aggregateReportService = new AggregateReportServiceImpl(assignmentService, reportCriteriaService, projectDao, timesheetLockService, reportAggregatedDao);
+        aggregateReportService = new AggregateReportServiceImpl(assignmentService, reportCriteriaService, projectDao, timesheetLockService, reportAggregatedDao, new ReportQueryExecutor());
 
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class)))
-                .thenReturn(WrapAsScala$.MODULE$.asScalaBuffer(Lists.<Interval>newArrayList()));
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class))).thenReturn(LockedDays.NONE);
     }
 
     @Test
@@ -187,6 +187,23 @@ public class AggregateReportServiceImplTest {
 
     @Test
     public void should_create_pm_report() {
+        assertOnlyPmProjectsInReport();
+    }
+
+    @Test
+    public void should_create_pm_report_with_concurrent_queries() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            aggregateReportService = new AggregateReportServiceImpl(assignmentService, reportCriteriaService, projectDao, timesheetLockService, reportAggregatedDao, new ReportQueryExecutor(executor, null));
+
+            assertOnlyPmProjectsInReport();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertOnlyPmProjectsInReport() {
         UserSelectedCriteria userSelectedCriteria = new UserSelectedCriteria();
 
         User projectManager = new User(2);
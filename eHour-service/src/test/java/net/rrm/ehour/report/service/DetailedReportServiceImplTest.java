@@ -18,9 +18,11 @@ package net.rrm.ehour.report.service;
 
 import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.persistence.report.dao.DetailedReportDao;
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.criteria.UserSelectedCriteria;
@@ -29,11 +31,11 @@ import net.rrm.ehour.report.reports.element.FlatReportElement;
 import net.rrm.ehour.report.reports.element.FlatReportElementBuilder;
 import net.rrm.ehour.timesheet.service.TimesheetLockService;
 import org.joda.time.DateTime;
-import org.joda.time.Interval;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
-import scala.collection.convert.WrapAsScala$;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -74,12 +76,11 @@ public class DetailedReportServiceImplTest {
 
         reportAggregatedDao = mock(ReportAggregatedDao.class);
 
-        detailedReportService = new DetailedReportServiceImpl(reportCriteriaService, projectDao, timesheetLockService, detailedReportDao, reportAggregatedDao);
+        detailedReportService = new DetailedReportServiceImpl(reportCriteriaService, projectDao, timesheetLockService, detailedReportDao, reportAggregatedDao, new ReportQueryExecutor());
     }
 
     private void provideNoLocks() {
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class)))
-                .thenReturn(WrapAsScala$.MODULE$.asScalaBuffer(Lists.<Interval>newArrayList()));
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class))).thenReturn(LockedDays.NONE);
     }
 
     private void provideNoAssignmentsWithoutBookings() {
@@ -199,11 +200,10 @@ public class DetailedReportServiceImplTest {
     @Test
     public void should_add_locked_days_to_detailed_report() {
         DateTime dateTime = new DateTime(reportCriteria.getReportRange().getDateStart());
-        Interval interval = new Interval(dateTime, dateTime);
         provideNoAssignmentsWithoutBookings();
 
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class)))
-                .thenReturn(WrapAsScala$.MODULE$.asScalaBuffer(Lists.newArrayList(interval)));
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class)))
+                .thenReturn(LockedDays.fromDates(Arrays.asList(dateTime.toDate())));
 
         FlatReportElement reportElement = new FlatReportElement();
         reportElement.setDayDate(dateTime.toDate());
@@ -219,7 +219,7 @@ public class DetailedReportServiceImplTest {
         assertTrue(flat.getLockableDate().isLocked());
 
         verify(detailedReportDao).getHoursPerDay(any(DateRange.class));
-        verify(timesheetLockService).findLockedDatesInRange(any(Date.class), any(Date.class));
+        verify(timesheetLockService).findLockedDays(any(Date.class), any(Date.class));
     }
 
     protected void noFilteringOnUserOrProject() {
@@ -286,4 +286,39 @@ public class DetailedReportServiceImplTest {
         verify(detailedReportDao).getHoursPerDay(reportCriteria.getReportRange());
         verify(reportAggregatedDao).getAssignmentsWithoutBookings(reportCriteria.getReportRange());
     }
+
+    @Test
+    public void should_stream_assignments_without_bookings_before_locked_bookings() {
+        DateTime dateTime = new DateTime(reportCriteria.getReportRange().getDateStart());
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class)))
+                .thenReturn(LockedDays.fromDates(Arrays.asList(dateTime.toDate())));
+
+        when(reportAggregatedDao.getAssignmentsWithoutBookings(reportCriteria.getReportRange())).thenReturn(Arrays.asList(ProjectAssignmentObjectMother.createProjectAssignment(1)));
+        noFilteringOnUserOrProject();
+
+        final FlatReportElement booking = new FlatReportElement();
+        booking.setDayDate(dateTime.toDate());
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((FlatReportElementHandler) invocation.getArguments()[3]).handleElement(booking);
+                return null;
+            }
+        }).when(detailedReportDao).streamHoursPerDay(anyListOf(Integer.class), anyListOf(Integer.class), any(DateRange.class), any(FlatReportElementHandler.class));
+
+        final List<FlatReportElement> streamed = new ArrayList<>();
+
+        detailedReportService.streamDetailedReportData(reportCriteria, new FlatReportElementHandler() {
+            @Override
+            public void handleElement(FlatReportElement element) {
+                streamed.add(element);
+            }
+        });
+
+        assertEquals(2, streamed.size());
+        assertTrue(streamed.get(0).isEmptyEntry());
+        assertTrue(streamed.get(1).getLockableDate().isLocked());
+        verify(detailedReportDao, never()).getHoursPerDay(any(DateRange.class));
+    }
 }
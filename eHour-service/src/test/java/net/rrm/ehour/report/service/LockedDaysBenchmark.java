@@ -0,0 +1,133 @@
+package net.rrm.ehour.report.service;
+
+import net.rrm.ehour.data.LockedDays;
+import net.rrm.ehour.domain.TimesheetLock;
+import net.rrm.ehour.persistence.timesheetlock.dao.TimesheetLockDao;
+import net.rrm.ehour.timesheet.service.TimesheetLockService;
+import net.rrm.ehour.timesheet.service.TimesheetLockServiceSpringImpl;
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import scala.collection.JavaConversions;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Marks the locked days of a year-long detailed report of 50 users booking every day with 150 locked periods,
+ * comparing the LockedDays bitset with the list and set of locked dates it replaced.
+ * Run with the main method, it's not part of the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LockedDaysBenchmark {
+    private static final int USERS = 50;
+    private static final int DAYS = 365;
+    private static final int LOCKS = 150;
+
+    private TimesheetLockService lockService;
+    private Date reportStart;
+    private Date reportEnd;
+    private List<Date> bookedDays;
+
+    @Setup
+    public void setUp() {
+        LocalDate firstDay = new LocalDate(2014, 1, 1);
+        Random random = new Random(42);
+
+        List<TimesheetLock> locks = new ArrayList<>();
+
+        for (int i = 0; i < LOCKS; i++) {
+            LocalDate start = firstDay.plusDays(random.nextInt(DAYS));
+            locks.add(new TimesheetLock(start.toDate(), start.plusDays(random.nextInt(5)).toDate()));
+        }
+
+        TimesheetLockDao lockDao = mock(TimesheetLockDao.class);
+        when(lockDao.findAll()).thenReturn(locks);
+        lockService = new TimesheetLockServiceSpringImpl(lockDao, null);
+
+        reportStart = firstDay.toDate();
+        reportEnd = firstDay.plusDays(DAYS - 1).toDate();
+
+        bookedDays = new ArrayList<>(USERS * DAYS);
+
+        for (int user = 0; user < USERS; user++) {
+            for (int day = 0; day < DAYS; day++) {
+                bookedDays.add(firstDay.plusDays(day).toDate());
+            }
+        }
+    }
+
+    @Benchmark
+    public int lockedDays() {
+        LockedDays lockedDays = lockService.findLockedDays(reportStart, reportEnd);
+
+        int locked = 0;
+
+        for (Date bookedDay : bookedDays) {
+            if (lockedDays.isLocked(bookedDay)) {
+                locked++;
+            }
+        }
+
+        return locked;
+    }
+
+    @Benchmark
+    public int lockedDateList() {
+        List<Date> lockedDates = findLockedDates();
+
+        int locked = 0;
+
+        for (Date bookedDay : bookedDays) {
+            if (lockedDates.contains(bookedDay)) {
+                locked++;
+            }
+        }
+
+        return locked;
+    }
+
+    @Benchmark
+    public int lockedDateSet() {
+        Set<Date> lockedDates = new HashSet<>(findLockedDates());
+
+        int locked = 0;
+
+        for (Date bookedDay : bookedDays) {
+            if (lockedDates.contains(bookedDay)) {
+                locked++;
+            }
+        }
+
+        return locked;
+    }
+
+    private List<Date> findLockedDates() {
+        List<Date> lockedDates = new ArrayList<>();
+
+        for (Interval interval : JavaConversions.seqAsJavaList(lockService.findLockedDatesInRange(reportStart, reportEnd))) {
+            LocalDate end = interval.getEnd().toLocalDate();
+
+            for (LocalDate day = interval.getStart().toLocalDate(); !day.isAfter(end); day = day.plusDays(1)) {
+                lockedDates.add(day.toDate());
+            }
+        }
+
+        return lockedDates;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LockedDaysBenchmark.class.getSimpleName()).build()).run();
+    }
+}
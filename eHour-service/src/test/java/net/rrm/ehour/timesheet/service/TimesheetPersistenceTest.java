@@ -18,11 +18,13 @@ package net.rrm.ehour.timesheet.service;
 
 import com.google.common.collect.Lists;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.exception.OverBudgetException;
 import net.rrm.ehour.mail.service.ProjectManagerNotifierService;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
+import net.rrm.ehour.project.status.AssignmentBookedHoursCache;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus.Status;
 import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
@@ -36,10 +38,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.context.ApplicationContext;
-import scala.collection.JavaConversions;
-import scala.collection.mutable.Buffer;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -68,6 +69,9 @@ public class TimesheetPersistenceTest {
     @Mock
     private TimesheetCommentDao commentDao;
 
+    @Mock
+    private AssignmentBookedHoursCache bookedHoursCache;
+
     @Mock
     private ApplicationContext context;
 
@@ -79,7 +83,7 @@ public class TimesheetPersistenceTest {
 
     @Before
     public void setUp() {
-        persister = new TimesheetPersistence(timesheetDAO, commentDao, statusService, projectManagerNotifierService, timesheetLockService, context);
+        persister = new TimesheetPersistence(timesheetDAO, commentDao, statusService, projectManagerNotifierService, timesheetLockService, bookedHoursCache, context);
 
         initData();
     }
@@ -145,7 +149,7 @@ public class TimesheetPersistenceTest {
 
         okStatus();
 
-        persister.validateAndPersist(assignment, newEntries, dateRange, Lists.<Date>newArrayList());
+        persister.validateAndPersist(assignment, newEntries, dateRange, LockedDays.NONE);
 
         verify(statusService, times(2)).getAssignmentStatus(assignment);
         verify(timesheetDAO).persist(any(TimesheetEntry.class));
@@ -159,13 +163,26 @@ public class TimesheetPersistenceTest {
         withExistingEntries(dateRange);
         okStatus();
 
-        persister.validateAndPersist(assignment, newEntries, dateRange, Lists.<Date>newArrayList());
+        persister.validateAndPersist(assignment, newEntries, dateRange, LockedDays.NONE);
 
         verify(statusService, times(2)).getAssignmentStatus(assignment);
         verify(timesheetDAO).delete(any(TimesheetEntry.class));
         verify(timesheetDAO).merge(any(TimesheetEntry.class));
     }
 
+    @Test
+    public void should_keep_booked_hours_up_to_date() throws OverBudgetException {
+        DateRange dateRange = new DateRange();
+
+        withExistingEntries(dateRange);
+        okStatus();
+
+        persister.validateAndPersist(assignment, newEntries, dateRange, LockedDays.NONE);
+
+        verify(bookedHoursCache).adjust(assignment, 3f, false);
+        verify(bookedHoursCache).adjust(assignment, -5f, true);
+    }
+
     @Test
     public void should_not_persist_an_timesheet_that_went_overbudget() {
         DateRange dateRange = new DateRange();
@@ -184,7 +201,7 @@ public class TimesheetPersistenceTest {
         when(statusService.getAssignmentStatus(assignment)).thenReturn(validStatus, invalidStatus);
 
         try {
-            persister.validateAndPersist(assignment, newEntries, dateRange, Lists.<Date>newArrayList());
+            persister.validateAndPersist(assignment, newEntries, dateRange, LockedDays.NONE);
             fail();
         } catch (OverBudgetException e) {
             verify(timesheetDAO).merge(any(TimesheetEntry.class));
@@ -236,7 +253,7 @@ public class TimesheetPersistenceTest {
 
         when(statusService.getAssignmentStatus(assignment)).thenReturn(beforeStatus, afterStatus);
 
-        persister.validateAndPersist(assignment, newEntries, new DateRange(), Lists.<Date>newArrayList());
+        persister.validateAndPersist(assignment, newEntries, new DateRange(), LockedDays.NONE);
 
         verify(timesheetDAO).merge(any(TimesheetEntry.class));
     }
@@ -255,7 +272,7 @@ public class TimesheetPersistenceTest {
         when(statusService.getAssignmentStatus(assignment)).thenReturn(beforeStatus, afterStatus);
 
         try {
-            persister.validateAndPersist(assignment, newEntries, new DateRange(), Lists.<Date>newArrayList());
+            persister.validateAndPersist(assignment, newEntries, new DateRange(), LockedDays.NONE);
             fail();
         } catch (OverBudgetException ignored) {
 
@@ -280,7 +297,7 @@ public class TimesheetPersistenceTest {
 
         when(statusService.getAssignmentStatus(assignment)).thenReturn(beforeStatus, afterStatus);
 
-        persister.validateAndPersist(assignment, newEntries, new DateRange(), Lists.<Date>newArrayList());
+        persister.validateAndPersist(assignment, newEntries, new DateRange(), LockedDays.NONE);
 
         verify(timesheetDAO).delete(any(TimesheetEntry.class));
         verify(timesheetDAO).merge(any(TimesheetEntry.class));
@@ -388,7 +405,7 @@ public class TimesheetPersistenceTest {
         withExistingEntries(dateRange);
         okStatus();
 
-        persister.validateAndPersist(assignment, Lists.newArrayList(newEntries.get(0)), dateRange, Lists.<Date>newArrayList());
+        persister.validateAndPersist(assignment, Lists.newArrayList(newEntries.get(0)), dateRange, LockedDays.NONE);
 
         verify(statusService, times(2)).getAssignmentStatus(assignment);
         verify(timesheetDAO).delete(existingEntries.get(1));
@@ -399,15 +416,16 @@ public class TimesheetPersistenceTest {
         when(statusService.getAssignmentStatus(assignment)).thenReturn(new ProjectAssignmentStatus());
     }
 
-    private void withLock(Interval... lockedRange) {
-        Buffer<Interval> scalaBuffer = JavaConversions.asScalaBuffer(Lists.newArrayList(lockedRange));
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class), any(User.class))).thenReturn(scalaBuffer.toList());
+    private void withLock(Interval lockedRange) {
+        int firstDay = LockedDays.toEpochDay(lockedRange.getStart().toDate());
+
+        BitSet days = new BitSet();
+        days.set(0, LockedDays.toEpochDay(lockedRange.getEnd().toDate()) - firstDay + 1);
+
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class), any(User.class))).thenReturn(new LockedDays(firstDay, days));
     }
 
     private void noLocks() {
-        Buffer<Interval> scalaBuffer = JavaConversions.asScalaBuffer(Lists.<Interval>newArrayList());
-        scala.collection.immutable.List<Interval> intervals = scalaBuffer.toList();
-
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class), any(User.class))).thenReturn(intervals);
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class), any(User.class))).thenReturn(LockedDays.NONE);
     }
 }
@@ -18,6 +18,7 @@ package net.rrm.ehour.timesheet.service;
 
 import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
@@ -26,14 +27,12 @@ import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.service.AggregateReportService;
 import net.rrm.ehour.timesheet.dto.BookedDay;
 import net.rrm.ehour.util.DateUtil;
-import org.joda.time.Interval;
 import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import scala.collection.immutable.Vector;
 
 import java.util.*;
 
@@ -141,7 +140,7 @@ public class TimesheetServiceImplTest {
         when(timesheetCommentDAO.findById(new TimesheetCommentId(1, range.getDateStart()))).thenReturn(new TimesheetComment());
         when(projectAssignmentService.getProjectAssignmentsForUser(1, rangeB)).thenReturn(new ArrayList<ProjectAssignment>());
         when(config.getFirstDayOfWeek()).thenReturn(1);
-        when(timesheetLockService.findLockedDatesInRange(any(Date.class), any(Date.class), any(User.class))).thenReturn(new Vector<Interval>(0, 0, 1));
+        when(timesheetLockService.findLockedDays(any(Date.class), any(Date.class), any(User.class))).thenReturn(LockedDays.NONE);
 
         timesheetService.getWeekOverview(new User(1), new GregorianCalendar(2007, Calendar.JANUARY, 1));
 
@@ -149,6 +148,6 @@ public class TimesheetServiceImplTest {
         verify(timesheetCommentDAO).findById(new TimesheetCommentId(1, range.getDateStart()));
         verify(projectAssignmentService).getProjectAssignmentsForUser(1, rangeB);
         verify(config).getFirstDayOfWeek();
-        verify(timesheetLockService).findLockedDatesInRange(any(Date.class), any(Date.class), any(User.class));
+        verify(timesheetLockService).findLockedDays(any(Date.class), any(Date.class), any(User.class));
     }
 }
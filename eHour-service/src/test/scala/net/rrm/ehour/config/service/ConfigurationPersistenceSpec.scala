@@ -4,7 +4,6 @@ import com.google.common.collect.{Lists, Sets}
 import net.rrm.ehour.AbstractSpec
 import net.rrm.ehour.config.EhourConfigStub
 import net.rrm.ehour.domain.{UserObjectMother, UserRole}
-import net.rrm.ehour.reminder.IScheduleReminders
 import net.rrm.ehour.user.service.UserService
 import org.mockito.Mockito._
 
@@ -12,8 +11,7 @@ class ConfigurationPersistenceSpec extends AbstractSpec {
 
   val configService = mock[ConfigurationService]
   val userService = mock[UserService]
-  val scheduler = mock[IScheduleReminders]
-  val subject = new ConfigurationPersistence(configService, userService, scheduler)
+  val subject = new ConfigurationPersistence(configService, userService)
 
   override protected def beforeEach() = reset(configService, userService)
 
@@ -31,8 +29,7 @@ class ConfigurationPersistenceSpec extends AbstractSpec {
       user.getUserRoles.iterator().next() should be (UserRole.USER)
 
       verify(userService).persistEditedUser(user)
-
-      verify(scheduler).rescheduleReminders(config)
+      verify(configService).persistConfiguration(config)
     }
   }
 }
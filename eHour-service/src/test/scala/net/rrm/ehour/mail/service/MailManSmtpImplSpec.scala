@@ -0,0 +1,62 @@
+package net.rrm.ehour.mail.service
+
+import java.net.ServerSocket
+
+import net.rrm.ehour.AbstractSpec
+import net.rrm.ehour.appconfig.EhourSystemConfig
+import net.rrm.ehour.config.EhourConfigStub
+import net.rrm.ehour.domain.User
+import org.springframework.core.task.SyncTaskExecutor
+
+class MailManSmtpImplSpec extends AbstractSpec {
+  val subject = new MailManSmtpImpl
+  subject.taskExecutor = new SyncTaskExecutor
+  subject.systemConfig = new EhourSystemConfig
+
+  val mails = for (i <- 1 to MailManSmtpImpl.BatchSize + 1) yield {
+    val user = new User(i)
+    user.setEmail(s"user$i@example.com")
+    Mail(to = user, subject = s"subject $i", body = "body")
+  }
+
+  def configFor(port: Int) = {
+    val config = new EhourConfigStub
+    config.setMailSmtp("127.0.0.1")
+    config.setSmtpPort(port.toString)
+    config.setMailFrom("ehour@example.com")
+    config
+  }
+
+  "Mail Man SMTP impl" should {
+    "send a batch of mails over a single SMTP connection" in {
+      val smtp = new SmtpStandIn
+
+      try {
+        var batches = List[Seq[(Mail, Boolean)]]()
+
+        subject.deliverBatch(mails, deliveries => batches = batches :+ deliveries, configFor(smtp.port))
+
+        smtp.connections.get should be(1)
+        smtp.messages.size should be(mails.size)
+
+        batches.map(_.size) should be(List(MailManSmtpImpl.BatchSize, 1))
+        batches.flatten.forall(_._2) should be(true)
+      } finally {
+        smtp.stop()
+      }
+    }
+
+    "report all mails as failed when the SMTP server can't be reached" in {
+      val socket = new ServerSocket(0)
+      val unusedPort = socket.getLocalPort
+      socket.close()
+
+      var deliveries = List[(Mail, Boolean)]()
+
+      subject.deliverBatch(mails, batch => deliveries = deliveries ++ batch, configFor(unusedPort))
+
+      deliveries should have size mails.size
+      deliveries.exists(_._2) should be(false)
+    }
+  }
+}
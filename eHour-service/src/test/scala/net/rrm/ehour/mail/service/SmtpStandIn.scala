@@ -0,0 +1,94 @@
+package net.rrm.ehour.mail.service
+
+import java.io.{BufferedReader, InputStreamReader, OutputStreamWriter, PrintWriter}
+import java.net.{InetAddress, ServerSocket, Socket, SocketException}
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Minimal in-process SMTP server that accepts every message, handling one connection at a time
+ */
+class SmtpStandIn {
+  private val serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))
+
+  val connections = new AtomicInteger()
+  val messages = new CopyOnWriteArrayList[String]()
+
+  private val acceptor = new Thread(new Runnable {
+    override def run() {
+      try {
+        while (true) {
+          val socket = serverSocket.accept()
+          connections.incrementAndGet()
+          handle(socket)
+        }
+      } catch {
+        case e: SocketException => // closed
+      }
+    }
+  }, "smtp-stand-in")
+
+  acceptor.setDaemon(true)
+  acceptor.start()
+
+  def port: Int = serverSocket.getLocalPort
+
+  def stop() {
+    serverSocket.close()
+  }
+
+  private def handle(socket: Socket) {
+    val in = new BufferedReader(new InputStreamReader(socket.getInputStream, "US-ASCII"))
+    val out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream, "US-ASCII"))
+
+    def reply(line: String) {
+      out.print(line + "\r\n")
+      out.flush()
+    }
+
+    def readData(): String = {
+      val data = new StringBuilder
+      var line = in.readLine()
+
+      while (line != null && line != ".") {
+        data.append(line).append("\n")
+        line = in.readLine()
+      }
+
+      data.toString()
+    }
+
+    try {
+      reply("220 localhost SMTP stand-in")
+
+      var open = true
+
+      while (open) {
+        val line = in.readLine()
+
+        if (line == null) {
+          open = false
+        } else {
+          val command = line.toUpperCase
+
+          if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+            reply("250 localhost")
+          } else if (command.startsWith("DATA")) {
+            reply("354 End data with <CR><LF>.<CR><LF>")
+            messages.add(readData())
+            reply("250 OK")
+          } else if (command.startsWith("QUIT")) {
+            reply("221 Bye")
+            open = false
+          } else {
+            reply("250 OK")
+          }
+        }
+      }
+    } catch {
+      case e: SocketException => // client went away
+    } finally {
+      socket.close()
+    }
+  }
+}
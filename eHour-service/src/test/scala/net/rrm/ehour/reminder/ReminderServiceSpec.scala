@@ -2,12 +2,14 @@ package net.rrm.ehour.reminder
 
 import net.rrm.ehour.AbstractSpec
 import net.rrm.ehour.config.EhourConfigStub
-import net.rrm.ehour.domain.UserObjectMother
-import net.rrm.ehour.mail.service.MailMan
+import net.rrm.ehour.domain.{MailLog, UserObjectMother}
+import net.rrm.ehour.mail.service.{Mail, MailMan}
 import net.rrm.ehour.persistence.mail.dao.MailLogDao
 import org.mockito.ArgumentCaptor
 import org.mockito.Matchers._
 import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
 
 class ReminderServiceSpec extends AbstractSpec {
   val mailMan = mock[MailMan]
@@ -21,23 +23,46 @@ class ReminderServiceSpec extends AbstractSpec {
   
   val subject = new ReminderService(config, userFinder, mailMan, mailLogDao)
   
-  override protected def beforeEach() = reset(mailMan, userFinder)
+  override protected def beforeEach() = reset(mailMan, userFinder, mailLogDao)
   
   "Reminder Service" should {
     "mail users to remind" in {
       val user = UserObjectMother.createUser
       when(userFinder.findUsersWithoutSufficientHours(32, 8f)).thenReturn(List(user))
-      when(mailLogDao.find(any(), any())).thenReturn(List())
+      when(mailLogDao.findOnEvents(any())).thenReturn(List())
 
       subject.sendReminderMail()
-      verify(mailMan).deliver(any(), any(), any())
 
-      val mailEventCaptor = ArgumentCaptor.forClass(classOf[String])
-      val emailCaptor = ArgumentCaptor.forClass(classOf[String])
-      verify(mailLogDao).find(emailCaptor.capture(), mailEventCaptor.capture())
+      val mailsCaptor = ArgumentCaptor.forClass(classOf[Seq[Mail]])
+      verify(mailMan).deliverBatch(mailsCaptor.capture(), any(), any())
+      mailsCaptor.getValue.map(_.to) should be(Seq(user))
 
-      emailCaptor.getValue should equal(user.getEmail)
-      mailEventCaptor.getValue should startWith("1:Reminder for ")
+      val mailEventsCaptor = ArgumentCaptor.forClass(classOf[Seq[String]])
+      verify(mailLogDao).findOnEvents(mailEventsCaptor.capture())
+
+      mailEventsCaptor.getValue should have size 1
+      mailEventsCaptor.getValue.head should startWith("1:Reminder for ")
+    }
+
+    "not mail users that were already reminded" in {
+      val user = UserObjectMother.createUser
+      when(userFinder.findUsersWithoutSufficientHours(32, 8f)).thenReturn(List(user))
+
+      when(mailLogDao.findOnEvents(any())).thenAnswer(new Answer[List[MailLog]] {
+        override def answer(invocation: InvocationOnMock): List[MailLog] = {
+          val events = invocation.getArguments()(0).asInstanceOf[Seq[String]]
+          val mailLog = new MailLog
+          mailLog.setMailTo(user.getEmail)
+          mailLog.setMailEvent(events.head)
+          List(mailLog)
+        }
+      })
+
+      subject.sendReminderMail()
+
+      val mailsCaptor = ArgumentCaptor.forClass(classOf[Seq[Mail]])
+      verify(mailMan).deliverBatch(mailsCaptor.capture(), any(), any())
+      mailsCaptor.getValue should be('empty)
     }
 
     "replace $name with the user full name" in {
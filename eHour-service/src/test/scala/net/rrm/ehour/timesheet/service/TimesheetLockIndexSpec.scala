@@ -0,0 +1,55 @@
+package net.rrm.ehour.timesheet.service
+
+import com.google.common.collect.Lists
+import net.rrm.ehour.AbstractSpec
+import net.rrm.ehour.domain.{TimesheetLock, UserObjectMother}
+import org.joda.time.LocalDate
+
+import scala.util.Random
+
+class TimesheetLockIndexSpec extends AbstractSpec {
+  val firstDay = LocalDate.parse("2014-01-01")
+
+  def lock(from: Int, to: Int) = new TimesheetLock(firstDay.plusDays(from).toDate, firstDay.plusDays(to).toDate)
+
+  "Timesheet Lock Index" should {
+    "find the same locked days as checking every lock" in {
+      val random = new Random(42)
+      val locks = (1 to 200).map { _ =>
+        val start = random.nextInt(700)
+        lock(start, start + random.nextInt(20))
+      }
+
+      val index = TimesheetLockIndex(Lists.newArrayList(locks: _*))
+      val offset = TimesheetLockIndex.epochDay(firstDay)
+
+      for (_ <- 1 to 100) {
+        val start = random.nextInt(750)
+        val end = start + random.nextInt(60)
+
+        val lockedDays = index.lockedDays(offset + start, offset + end, null)
+
+        for (day <- start to end) {
+          val expected = locks.exists(l => TimesheetLockIndex.epochDay(l.getDateStart) <= offset + day && TimesheetLockIndex.epochDay(l.getDateEnd) >= offset + day)
+          lockedDays.get(day - start) should be(expected)
+        }
+      }
+    }
+
+    "skip locks the user is excluded from" in {
+      val user = UserObjectMother.createUser()
+      val excluded = new TimesheetLock(firstDay.toDate, firstDay.plusDays(3).toDate, Lists.newArrayList(user))
+
+      val index = TimesheetLockIndex(Lists.newArrayList(excluded, lock(2, 2)))
+      val offset = TimesheetLockIndex.epochDay(firstDay)
+
+      index.lockedDays(offset, offset + 3, user).cardinality() should be(1)
+      index.lockedDays(offset, offset + 3, null).cardinality() should be(4)
+    }
+
+    "convert dates to days since the epoch and back" in {
+      TimesheetLockIndex.epochDay(LocalDate.parse("1970-01-02")) should be(1)
+      TimesheetLockIndex.fromEpochDay(TimesheetLockIndex.epochDay(firstDay)) should be(firstDay)
+    }
+  }
+}
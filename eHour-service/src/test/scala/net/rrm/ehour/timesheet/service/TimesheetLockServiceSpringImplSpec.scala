@@ -12,13 +12,17 @@ import net.rrm.ehour.domain.{TimesheetEntryObjectMother, TimesheetLock, UserObje
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao
 import net.rrm.ehour.persistence.timesheetlock.dao.TimesheetLockDao
 import org.joda.time.LocalDate
+import org.mockito.ArgumentCaptor
+import org.mockito.Matchers.any
 import org.mockito.Mockito._
+import org.springframework.transaction.support.SimpleTransactionStatus
+import org.springframework.transaction.{PlatformTransactionManager, TransactionDefinition}
 
 class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
   val lockDao = mock[TimesheetLockDao]
   val timesheetDao = mock[TimesheetDao]
   
-  val service = new TimesheetLockServiceSpringImpl(lockDao, timesheetDao)
+  var service: TimesheetLockServiceSpringImpl = _
 
   val endDate = new LocalDate()
   val startDate = new LocalDate()
@@ -27,6 +31,7 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
 
   override def beforeEach() {
     reset(lockDao)
+    service = new TimesheetLockServiceSpringImpl(lockDao, timesheetDao)
   }
 
   "Timesheet Lock Service" should {
@@ -114,9 +119,9 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
       val endDate = LocalDate.parse("2013-01-08")
 
       def findLockedDatesInRange(response: ju.List[TimesheetLock]) = {
-        when(lockDao.findMatchingLock(startDate.toDate, endDate.toDate)).thenReturn(response)
+        when(lockDao.findAll()).thenReturn(response)
         val l = service.findLockedDatesInRange(startDate.toDate, endDate.toDate)
-        verify(lockDao).findMatchingLock(startDate.toDate, endDate.toDate)
+        verify(lockDao).findAll()
 
         l
       }
@@ -232,6 +237,7 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
         val userA = UserObjectMother.createUser()
         val userB = UserObjectMother.createUser()
         userB.setUsername("imanotheruser")
+        userB.setUserId(2)
 
         val start = startDate
         val end = startDate.plusDays(2)
@@ -239,7 +245,7 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
         val lockB = new TimesheetLock(startDate.toDate, startDate.plusDays(3).toDate, Lists.newArrayList(userB))
         val response = Lists.newArrayList(lockA, lockB)
 
-        when(lockDao.findMatchingLock(startDate.toDate, endDate.toDate)).thenReturn(response)
+        when(lockDao.findAll()).thenReturn(response)
 
         val locked = service.findLockedDatesInRange(startDate.toDate, endDate.toDate, userB)
 
@@ -249,10 +255,66 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
         locked(0).end.toLocalDate should be(end)
       }
 
+      "merge locks on consecutive days" in {
+        val response = Lists.newArrayList(new TimesheetLock(startDate.toDate, startDate.plusDays(1).toDate), new TimesheetLock(startDate.plusDays(2).toDate, startDate.plusDays(3).toDate))
+        val locked = findLockedDatesInRange(response)
+
+        locked should have size 1
+
+        locked(0).start.toLocalDate should be(startDate)
+        locked(0).end.toLocalDate should be(startDate + 3.days)
+      }
+
+      "find locked days without going to the database again" in {
+        when(lockDao.findAll()).thenReturn(Lists.newArrayList(new TimesheetLock(startDate.toDate, startDate.plusDays(2).toDate)))
+
+        service.findLockedDatesInRange(startDate.toDate, endDate.toDate)
+        service.findLockedDatesInRange(startDate.toDate, endDate.toDate, UserObjectMother.createUser())
+
+        verify(lockDao, times(1)).findAll()
+      }
+
+      "find locked days again after a lock is created" in {
+        when(lockDao.findAll()).thenReturn(Lists.newArrayList[TimesheetLock]())
+        service.findLockedDatesInRange(startDate.toDate, endDate.toDate) should be('empty)
+
+        val lock = service.createNew(None, startDate.toDate, startDate.toDate)
+        when(lockDao.findAll()).thenReturn(Lists.newArrayList(lock))
+
+        service.findLockedDatesInRange(startDate.toDate, endDate.toDate) should have size 1
+      }
+
+      "build the lock index in a new read-only transaction" in {
+        val transactionManager = mock[PlatformTransactionManager]
+        when(transactionManager.getTransaction(any(classOf[TransactionDefinition]))).thenReturn(new SimpleTransactionStatus())
+        when(lockDao.findAll()).thenReturn(Lists.newArrayList(new TimesheetLock(startDate.toDate, startDate.toDate)))
+
+        service = new TimesheetLockServiceSpringImpl(lockDao, timesheetDao, transactionManager)
+
+        service.findLockedDays(startDate.toDate, endDate.toDate).isLocked(startDate.toDate) should be(true)
+
+        val definition = ArgumentCaptor.forClass(classOf[TransactionDefinition])
+        verify(transactionManager).getTransaction(definition.capture())
+        definition.getValue.getPropagationBehavior should be(TransactionDefinition.PROPAGATION_REQUIRES_NEW)
+        definition.getValue.isReadOnly should be(true)
+      }
+
+      "find locked days as a bitset over the range" in {
+        when(lockDao.findAll()).thenReturn(Lists.newArrayList(new TimesheetLock(startDate.plusDays(1).toDate, startDate.plusDays(2).toDate)))
+
+        val locked = service.findLockedDays(startDate.toDate, endDate.toDate)
+
+        locked.isLocked(startDate.toDate) should be(false)
+        locked.isLocked(startDate.plusDays(2).toDateTimeAtStartOfDay.plusHours(13).toDate) should be(true)
+        locked.isAnyLocked(startDate.toDate, endDate.toDate) should be(true)
+        locked.isAllLocked(startDate.plusDays(1).toDate, startDate.plusDays(2).toDate) should be(true)
+        locked.isAllLocked(startDate.toDate, endDate.toDate) should be(false)
+      }
+
       "don't fail when there are no locks" in {
         val response = Lists.newArrayList[TimesheetLock]()
 
-        when(lockDao.findMatchingLock(startDate.toDate, endDate.toDate)).thenReturn(response)
+        when(lockDao.findAll()).thenReturn(response)
 
         val locked = service.findLockedDatesInRange(startDate.toDate, endDate.toDate, UserObjectMother.createUser())
 
@@ -264,14 +326,18 @@ class TimesheetLockServiceSpringImplSpec extends AbstractSpec {
       val s = startDate.toDate
       val e = endDate.plusWeeks(1).toDate
 
-      TimesheetLockService.isRangeLocked(s, e, Seq(new Interval(startDate.toDateTimeAtStartOfDay, endDate.plusWeeks(1).toDateTimeAtStartOfDay))) should be (true)
+      when(lockDao.findAll()).thenReturn(Lists.newArrayList(new TimesheetLock(s, e)))
+
+      service.isRangeLocked(s, e, UserObjectMother.createUser()) should be (true)
     }
 
     "check whether a week is not completely locked" in {
       val s = startDate.toDate
       val e = endDate.plusWeeks(1).toDate
 
-      TimesheetLockService.isRangeLocked(s, e, Seq(new Interval(startDate.toDateTimeAtStartOfDay, startDate.plusDays(5).toDateTimeAtStartOfDay))) should be (false)
+      when(lockDao.findAll()).thenReturn(Lists.newArrayList(new TimesheetLock(s, startDate.plusDays(5).toDate)))
+
+      service.isRangeLocked(s, e, UserObjectMother.createUser()) should be (false)
     }
   }
 }
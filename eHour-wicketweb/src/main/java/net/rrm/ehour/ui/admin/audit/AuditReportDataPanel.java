@@ -99,7 +99,7 @@ public class AuditReportDataPanel extends AbstractAjaxPanel<ReportCriteria> impl
         columns.add(new PropertyColumn<Audit, Date>(new ResourceModel("audit.report.column.type"), "auditActionType.value"));
 
 
-        AuditReportDataProvider dataProvider = new AuditReportDataProvider(getReportRequest(model));
+        final AuditReportDataProvider dataProvider = new AuditReportDataProvider(getReportRequest(model));
         DataTable<Audit, Date> table = new DataTable<Audit, Date>("data", columns, dataProvider, 20) {
             @Override
             protected Item<Audit> newRowItem(String id, int index, IModel<Audit> model) {
@@ -114,6 +114,13 @@ public class AuditReportDataPanel extends AbstractAjaxPanel<ReportCriteria> impl
 
         dataContainer.add(new HoverPagingNavigator("navigator", table));
 
+        dataContainer.add(new Label("moreAudits", new ResourceModel("audit.report.moreAudits")) {
+            @Override
+            public boolean isVisible() {
+                return dataProvider.hasMoreAudits();
+            }
+        });
+
         return dataContainer;
     }
 
@@ -26,16 +26,32 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.spring.injection.annot.SpringBean;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Pages through the audits by key: the last audit of every page served is remembered so the page after it is found
+ * through the (date, auditId) index instead of skipping an offset. Pages that weren't reached by paging, like a jump
+ * to the last page, fall back to the offset.
+ * The audits are only counted up to COUNT_AHEAD past the furthest page served, the pager then shows there's more
+ * rather than the exact number.
+ */
 public class AuditReportDataProvider extends SortableDataProvider<Audit, Date> {
     private static final long serialVersionUID = 8795552030531153903L;
 
+    static final int COUNT_AHEAD = 1000;
+
     @SpringBean
     private AuditService auditService;
 
     private AuditReportRequest request;
 
+    private final Map<Long, Audit> pageKeys = new HashMap<>();
+    private long furthestOffset = 0;
+    private boolean moreAudits;
+
     public AuditReportDataProvider(AuditReportRequest request) {
         WebUtils.springInjection(this);
 
@@ -44,11 +60,43 @@ public class AuditReportDataProvider extends SortableDataProvider<Audit, Date> {
 
     @Override
     public Iterator<Audit> iterator(long first, long count) {
-        return auditService.findAudits(request, (int)first, (int)count).iterator();
+        List<Audit> audits;
+
+        if (first == 0 || pageKeys.containsKey(first)) {
+            audits = auditService.findAuditsAfter(request, pageKeys.get(first), (int) count);
+        } else {
+            audits = auditService.findAudits(request, (int) first, (int) count);
+        }
+
+        if (!audits.isEmpty()) {
+            long next = first + audits.size();
+            pageKeys.put(next, keyOf(audits.get(audits.size() - 1)));
+            furthestOffset = Math.max(furthestOffset, next);
+        }
+
+        return audits.iterator();
     }
 
     public long size() {
-        return auditService.getAuditCount(request).intValue();
+        int limit = (int) furthestOffset + COUNT_AHEAD;
+        int count = auditService.getAuditCount(request, limit).intValue();
+
+        moreAudits = count >= limit;
+
+        return count;
+    }
+
+    /**
+     * @return whether there are more audits than the last size counted
+     */
+    public boolean hasMoreAudits() {
+        return moreAudits;
+    }
+
+    private static Audit keyOf(Audit audit) {
+        Audit key = new Audit().setDate(audit.getDate());
+        key.setAuditId(audit.getAuditId());
+        return key;
     }
 
     @Override
@@ -4,9 +4,11 @@ import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.request.IRequestCycle;
-import org.apache.wicket.request.handler.resource.ResourceStreamRequestHandler;
-import org.apache.wicket.request.resource.ContentDisposition;
-import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.request.IRequestHandler;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public abstract class AbstractDownloadBehavior extends AbstractAjaxBehavior {
 
@@ -26,14 +28,34 @@ public abstract class AbstractDownloadBehavior extends AbstractAjaxBehavior {
     }
 
     public void onRequest() {
-        ResourceStreamRequestHandler handler = new ResourceStreamRequestHandler(getResourceStream(), getFileName()) {
+        IRequestHandler handler = new IRequestHandler() {
             @Override
             public void respond(IRequestCycle requestCycle) {
-                super.respond(requestCycle);
-                model.setObject(Boolean.FALSE);
+                try {
+                    HttpServletResponse httpResponse = (HttpServletResponse) requestCycle.getResponse().getContainerResponse();
+                    httpResponse.setContentType(getContentType());
+
+                    String fileName = getFileName();
+
+                    if (fileName != null) {
+                        httpResponse.setHeader("Content-disposition", "attachment; filename=" + fileName);
+                    }
+
+                    OutputStream outputStream = httpResponse.getOutputStream();
+                    write(outputStream);
+                    outputStream.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    model.setObject(Boolean.FALSE);
+                }
+            }
+
+            @Override
+            public void detach(IRequestCycle requestCycle) {
             }
         };
-        handler.setContentDisposition(ContentDisposition.ATTACHMENT);
+
         getComponent().getRequestCycle().scheduleRequestHandlerAfterCurrent(handler);
     }
 
@@ -42,5 +64,12 @@ public abstract class AbstractDownloadBehavior extends AbstractAjaxBehavior {
         return null;
     }
 
-    protected abstract IResourceStream getResourceStream();
-}
\ No newline at end of file
+    protected String getContentType() {
+        return "application/octet-stream";
+    }
+
+    /**
+     * Write the download directly to the response, nothing is buffered in between
+     */
+    protected abstract void write(OutputStream outputStream) throws IOException;
+}
@@ -5,10 +5,8 @@ import net.rrm.ehour.ui.common.session.EhourWebSession;
 import net.rrm.ehour.ui.common.util.WebUtils;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.spring.injection.annot.SpringBean;
-import org.apache.wicket.util.resource.IResourceStream;
-import org.apache.wicket.util.resource.StringResourceStream;
 
-import java.io.UnsupportedEncodingException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -21,12 +19,15 @@ public class BackupDownloadBehavior extends AbstractDownloadBehavior {
     }
 
     @Override
-    protected IResourceStream getResourceStream() {
+    protected void write(OutputStream outputStream) {
+        boolean authorized = checkAuthorization();
+
+        if (authorized) {
+            WebUtils.springInjection(this);
 
-        try {
-            return new StringResourceStream(new String(getData(), "UTF-8"));
-        } catch (UnsupportedEncodingException e) {
-            throw new IllegalArgumentException(e);
+            databaseBackupService.exportDatabase(outputStream);
+        } else {
+            throw new IllegalArgumentException("You're not authorized");
         }
     }
 
@@ -36,16 +37,9 @@ public class BackupDownloadBehavior extends AbstractDownloadBehavior {
         return "eHour-xml-backup-" + format.format(new Date()) + ".xml";
     }
 
-    private byte[] getData() {
-        boolean authorized = checkAuthorization();
-
-        if (authorized) {
-            WebUtils.springInjection(this);
-
-            return databaseBackupService.exportDatabase();
-        }
-
-        throw new IllegalArgumentException("You're not authorized");
+    @Override
+    protected String getContentType() {
+        return "text/xml; charset=UTF-8";
     }
 
     private boolean checkAuthorization() {
@@ -16,6 +16,7 @@
 
 package net.rrm.ehour.ui.common.report;
 
+import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.ui.common.report.excel.CellFactory;
 import net.rrm.ehour.ui.common.report.excel.ExcelStyle;
@@ -34,7 +35,9 @@ import java.io.Serializable;
 import java.util.List;
 
 /**
- * Abstract aggregate excel report
+ * Abstract aggregate excel report. Rows are written to a streaming workbook which keeps a window of
+ * rows in memory and flushes the rest to disk, see AbstractStreamedExcelReport for reports that don't build
+ * the whole report first
  */
 public abstract class AbstractExcelReport implements ExcelReport {
     private static final long serialVersionUID = 1L;
@@ -49,20 +52,36 @@ public abstract class AbstractExcelReport implements ExcelReport {
 
     @Override
     public void write(OutputStream stream) throws IOException {
-        ExcelWorkbook workbook = createWorkbook(createReport(reportCriteriaModel.getObject()));
+        ExcelWorkbook workbook = createWorkbook(reportCriteriaModel.getObject());
         workbook.write(stream);
    }
 
+    protected ExcelWorkbook createWorkbook(ReportCriteria reportCriteria) {
+        return createWorkbook(createReport(reportCriteria));
+    }
+
     protected abstract Report createReport(ReportCriteria reportCriteria);
 
     /**
      * Create the workbook
      */
     protected ExcelWorkbook createWorkbook(Report treeReport) {
-        ExcelWorkbook wb = new ExcelWorkbook();
+        ExcelWorkbook wb = ExcelWorkbook.streaming(ExcelWorkbook.DEFAULT_ROW_WINDOW);
 
-        Sheet sheet = wb.createSheet(WorkbookUtil.createSafeSheetName(getExcelReportName().getObject()));
+        Sheet sheet = createReportSheet(wb);
         int rowNumber = 0;
+
+        rowNumber = createHeaders(rowNumber, sheet, treeReport, wb);
+
+        rowNumber = addColumnHeaders(rowNumber, sheet, wb);
+
+        fillReportSheet(treeReport, sheet, rowNumber, wb);
+
+        return wb;
+    }
+
+    protected Sheet createReportSheet(ExcelWorkbook wb) {
+        Sheet sheet = wb.createSheet(WorkbookUtil.createSafeSheetName(getExcelReportName().getObject()));
         short column;
 
         for (column = 0; column < 4; column++) {
@@ -73,20 +92,14 @@ public abstract class AbstractExcelReport implements ExcelReport {
             sheet.setColumnWidth(column, 3000);
         }
 
-        rowNumber = createHeaders(rowNumber, sheet, treeReport, wb);
-
-        rowNumber = addColumnHeaders(rowNumber, sheet, wb);
-
-        fillReportSheet(treeReport, sheet, rowNumber, wb);
-
-        return wb;
+        return sheet;
     }
 
     protected abstract IModel<String> getExcelReportName();
 
     protected abstract IModel<String> getHeaderReportName();
 
-    private int addColumnHeaders(int rowNumber, Sheet sheet, ExcelWorkbook workbook) {
+    protected int addColumnHeaders(int rowNumber, Sheet sheet, ExcelWorkbook workbook) {
         int cellNumber = 0;
         IModel<String> headerModel;
 
@@ -106,22 +119,22 @@ public abstract class AbstractExcelReport implements ExcelReport {
     @SuppressWarnings("unchecked")
     protected void fillReportSheet(Report reportData, Sheet sheet, int rowNumber, ExcelWorkbook workbook) {
         List<TreeReportElement> matrix = (List<TreeReportElement>) reportData.getReportData().getReportElements();
-        ReportColumn[] columnHeaders = reportConfig.getReportColumns();
         Row row;
 
         for (TreeReportElement element : matrix) {
             row = sheet.createRow(rowNumber++);
 
-            addColumns(workbook, columnHeaders, row, element);
+            addColumns(workbook, row, element.getRow());
         }
     }
 
-    private void addColumns(ExcelWorkbook workbook, ReportColumn[] columnHeaders, Row row, TreeReportElement element) {
+    protected void addColumns(ExcelWorkbook workbook, Row row, Serializable[] cellValues) {
+        ReportColumn[] columnHeaders = reportConfig.getReportColumns();
         int i = 0;
         int cellNumber = 0;
 
         // add cells for a row
-        for (Serializable cellValue : element.getRow()) {
+        for (Serializable cellValue : cellValues) {
             if (columnHeaders[i].isVisible()) {
                 if (cellValue != null) {
                     switch (columnHeaders[i].getColumnType()) {
@@ -155,6 +168,12 @@ public abstract class AbstractExcelReport implements ExcelReport {
 
 
     protected int createHeaders(int rowNumber, Sheet sheet, Report report, ExcelWorkbook workbook) {
+        DateRange reportRange = report.getReportRange() == null ? null : report.getReportCriteria().getReportRange();
+
+        return createHeaders(rowNumber, sheet, reportRange, workbook);
+    }
+
+    protected int createHeaders(int rowNumber, Sheet sheet, DateRange reportRange, ExcelWorkbook workbook) {
         Row row = sheet.createRow(rowNumber++);
         CellFactory.createCell(row, 0, getHeaderReportName(), workbook, ExcelStyle.BOLD_FONT);
         sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 1));
@@ -162,19 +181,18 @@ public abstract class AbstractExcelReport implements ExcelReport {
         row = sheet.createRow(rowNumber++);
         CellFactory.createCell(row, 0, new ResourceModel("report.dateStart"), workbook, ExcelStyle.BOLD_FONT);
 
-        if (report.getReportRange() == null ||
-                report.getReportRange().getDateStart() == null) {
+        if (reportRange == null || reportRange.getDateStart() == null) {
             CellFactory.createCell(row, 1, "--", workbook, ExcelStyle.BOLD_FONT);
         } else {
-            CellFactory.createCell(row, 1, report.getReportCriteria().getReportRange().getDateStart(), workbook, ExcelStyle.BOLD_DATE);
+            CellFactory.createCell(row, 1, reportRange.getDateStart(), workbook, ExcelStyle.BOLD_DATE);
         }
 
         CellFactory.createCell(row, 3, new ResourceModel("report.dateEnd"), workbook, ExcelStyle.BOLD_FONT);
 
-        if (report.getReportRange() == null || report.getReportRange().getDateEnd() == null) {
+        if (reportRange == null || reportRange.getDateEnd() == null) {
             CellFactory.createCell(row, 4, "--", workbook, ExcelStyle.BOLD_FONT);
         } else {
-            CellFactory.createCell(row, 4, report.getReportCriteria().getReportRange().getDateEnd(), workbook, ExcelStyle.BOLD_DATE);
+            CellFactory.createCell(row, 4, reportRange.getDateEnd(), workbook, ExcelStyle.BOLD_DATE);
         }
 
         rowNumber++;
@@ -0,0 +1,86 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.common.report;
+
+import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.ui.common.report.excel.ExcelWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.wicket.model.IModel;
+
+import java.io.Serializable;
+
+/**
+ * Excel report which, for the criteria it accepts, writes its rows one at a time instead of building the
+ * whole report first. Other criteria fall back to the report built in memory
+ */
+public abstract class AbstractStreamedExcelReport extends AbstractExcelReport {
+    private static final long serialVersionUID = 1L;
+
+    public AbstractStreamedExcelReport(ReportConfig reportConfig, IModel<ReportCriteria> reportCriteriaModel) {
+        super(reportConfig, reportCriteriaModel);
+    }
+
+    @Override
+    protected ExcelWorkbook createWorkbook(ReportCriteria reportCriteria) {
+        return isStreamable(reportCriteria) ? createStreamedWorkbook(reportCriteria) : super.createWorkbook(reportCriteria);
+    }
+
+    /**
+     * Can the rows be streamed with streamRows instead of building the whole report first
+     */
+    protected abstract boolean isStreamable(ReportCriteria reportCriteria);
+
+    /**
+     * Write the rows of the report one at a time in the order of the report built in memory,
+     * only called when isStreamable
+     */
+    protected abstract void streamRows(ReportCriteria reportCriteria, RowWriter rowWriter);
+
+    private ExcelWorkbook createStreamedWorkbook(ReportCriteria reportCriteria) {
+        ExcelWorkbook wb = ExcelWorkbook.streaming(ExcelWorkbook.DEFAULT_ROW_WINDOW);
+
+        Sheet sheet = createReportSheet(wb);
+        int rowNumber = 0;
+
+        rowNumber = createHeaders(rowNumber, sheet, reportCriteria.getReportRange(), wb);
+
+        rowNumber = addColumnHeaders(rowNumber, sheet, wb);
+
+        streamRows(reportCriteria, new RowWriter(sheet, rowNumber, wb));
+
+        return wb;
+    }
+
+    /**
+     * Appends rows below the column headers of a streamed report
+     */
+    protected final class RowWriter {
+        private final Sheet sheet;
+        private final ExcelWorkbook workbook;
+        private int rowNumber;
+
+        private RowWriter(Sheet sheet, int rowNumber, ExcelWorkbook workbook) {
+            this.sheet = sheet;
+            this.rowNumber = rowNumber;
+            this.workbook = workbook;
+        }
+
+        public void write(Serializable[] cellValues) {
+            addColumns(workbook, sheet.createRow(rowNumber++), cellValues);
+        }
+    }
+}
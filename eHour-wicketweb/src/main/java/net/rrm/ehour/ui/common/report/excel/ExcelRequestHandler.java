@@ -3,10 +3,17 @@ package net.rrm.ehour.ui.common.report.excel;
 import org.apache.wicket.request.IRequestCycle;
 import org.apache.wicket.request.IRequestHandler;
 
-import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
 
+/**
+ * Writes the workbook straight to the servlet output stream so the download starts while the workbook is
+ * still being written
+ */
 public class ExcelRequestHandler implements IRequestHandler {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public enum Format {
         XLS("application/vnd.ms-excel"),
         XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
@@ -43,9 +50,10 @@ public class ExcelRequestHandler implements IRequestHandler {
             HttpServletResponse httpResponse = (HttpServletResponse) requestCycle.getResponse().getContainerResponse();
             httpResponse.setContentType(format.mimetype);
             httpResponse.setHeader("Content-disposition", "attachment; filename=" + filename);
-            ServletOutputStream outputStream = httpResponse.getOutputStream();
+            OutputStream outputStream = new BufferedOutputStream(httpResponse.getOutputStream(), BUFFER_SIZE);
 
             byteWriter.write(outputStream);
+            outputStream.flush();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
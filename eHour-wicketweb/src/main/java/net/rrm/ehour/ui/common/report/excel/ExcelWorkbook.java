@@ -2,6 +2,7 @@ package net.rrm.ehour.ui.common.report.excel;
 
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.IOException;
@@ -12,19 +13,33 @@ import java.util.Map;
 public class ExcelWorkbook {
     private static final String FONT_NAME = "Arial";
 
+    public static final int DEFAULT_ROW_WINDOW = 100;
+
     private Map<ExcelStyle, CellStyle> pregeneratedStyles;
 
     private Workbook workbook;
 
     public ExcelWorkbook() {
-        init();
+        this(new XSSFWorkbook());
     }
 
-    private void init() {
-        workbook = new XSSFWorkbook();
+    private ExcelWorkbook(Workbook workbook) {
+        this.workbook = workbook;
 
         pregenerateStyles(workbook);
     }
+
+    /**
+     * Workbook keeping only the last rowWindow rows of each sheet in memory, older rows are flushed to a
+     * compressed temporary file. Rows have to be created in order and can't be read back once flushed.
+     */
+    public static ExcelWorkbook streaming(int rowWindow) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+
+        return new ExcelWorkbook(workbook);
+    }
+
     private void pregenerateStyles(Workbook workbook) {
         pregeneratedStyles = new HashMap<>();
 
@@ -56,7 +71,13 @@ public class ExcelWorkbook {
     }
 
     public void write(OutputStream output) throws IOException {
-        workbook.write(output);
+        try {
+            workbook.write(output);
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
     }
 
     public CreationHelper getCreationHelper() {
@@ -19,7 +19,6 @@ package net.rrm.ehour.ui.common.session;
 import com.google.common.base.Optional;
 import net.rrm.ehour.audit.service.AuditService;
 import net.rrm.ehour.config.EhourConfig;
-import net.rrm.ehour.config.EhourConfigCache;
 import net.rrm.ehour.domain.Audit;
 import net.rrm.ehour.domain.AuditActionType;
 import net.rrm.ehour.domain.User;
@@ -55,9 +54,10 @@ import java.util.Set;
  */
 
 public class EhourWebSession extends AuthenticatedWebSession {
+    /**
+     * The configuration shared by all sessions, replaced as a whole when the configuration is persisted
+     */
     @SpringBean
-    private EhourConfig unCachedEhourConfig;
-
     private EhourConfig ehourConfig;
 
     @SpringBean
@@ -91,8 +91,6 @@ public class EhourWebSession extends AuthenticatedWebSession {
     public final void reloadConfig() {
         WebUtils.springInjection(this);
 
-        ehourConfig = new EhourConfigCache(unCachedEhourConfig);
-
         if (!ehourConfig.isDontForceLanguage()) {
             setLocale(ehourConfig.getLanguageLocale());
         }
@@ -16,16 +16,39 @@
 
 package net.rrm.ehour.ui.report.detailed;
 
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler;
+import net.rrm.ehour.report.criteria.AggregateBy;
 import net.rrm.ehour.report.criteria.ReportCriteria;
-import net.rrm.ehour.ui.common.report.AbstractExcelReport;
+import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.element.FlatReportElement;
+import net.rrm.ehour.report.service.DetailedReportService;
+import net.rrm.ehour.ui.common.report.AbstractStreamedExcelReport;
 import net.rrm.ehour.ui.common.report.DetailedReportConfig;
 import net.rrm.ehour.ui.common.report.Report;
+import net.rrm.ehour.ui.common.util.WebUtils;
+import net.rrm.ehour.ui.report.model.ReportBuilder;
+import net.rrm.ehour.ui.report.model.ReportNode;
+import net.rrm.ehour.ui.report.model.ReportNodeFactory;
+import net.rrm.ehour.ui.report.model.TreeReportElement;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.ResourceModel;
+import org.apache.wicket.spring.injection.annot.SpringBean;
 
-public class DetailedReportExcel extends AbstractExcelReport {
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reports per day are streamed from the database in date and assignment order. The bookings of one day at a time
+ * are grouped in the report tree, so the rows come out in the same order as in the report built in memory.
+ * Aggregated reports are built in memory and sorted on date.
+ */
+public class DetailedReportExcel extends AbstractStreamedExcelReport {
     private static final long serialVersionUID = 7211392869328367507L;
 
+    @SpringBean(name = "detailedReportService")
+    private DetailedReportService detailedReportService;
+
     public DetailedReportExcel(IModel<ReportCriteria> reportCriteriaModel) {
         super(DetailedReportConfig.DETAILED_REPORT_BY_DAY, reportCriteriaModel);
     }
@@ -35,6 +58,54 @@ public class DetailedReportExcel extends AbstractExcelReport {
         return new DetailedReportModel(reportCriteria);
     }
 
+    @Override
+    protected boolean isStreamable(ReportCriteria reportCriteria) {
+        AggregateBy aggregateBy = reportCriteria.getUserSelectedCriteria().getAggregateBy();
+        return aggregateBy == null || aggregateBy == AggregateBy.DAY;
+    }
+
+    @Override
+    protected void streamRows(ReportCriteria reportCriteria, final RowWriter rowWriter) {
+        final ReportNodeFactory<FlatReportElement> nodeFactory = new DetailedReportModel(reportCriteria).getReportNodeFactory();
+        final List<FlatReportElement> day = new ArrayList<>();
+
+        getDetailedReportService().streamDetailedReportData(reportCriteria, new FlatReportElementHandler() {
+            @Override
+            public void handleElement(FlatReportElement element) {
+                if (!day.isEmpty() && !isSameDay(day.get(0).getDayDate(), element.getDayDate())) {
+                    writeDay(day, nodeFactory, rowWriter);
+                    day.clear();
+                }
+
+                day.add(element);
+            }
+        });
+
+        writeDay(day, nodeFactory, rowWriter);
+    }
+
+    private static boolean isSameDay(Date day, Date other) {
+        return day == null ? other == null : other != null && day.compareTo(other) == 0;
+    }
+
+    private static void writeDay(List<FlatReportElement> day, ReportNodeFactory<FlatReportElement> nodeFactory, RowWriter rowWriter) {
+        int matrixWidth = DetailedReportConfig.DETAILED_REPORT_BY_DAY.getReportColumns().length;
+
+        for (ReportNode dayNode : new ReportBuilder().createReport(new ReportData(day, null, null), nodeFactory)) {
+            for (TreeReportElement row : dayNode.getNodeMatrix(matrixWidth)) {
+                rowWriter.write(row.getRow());
+            }
+        }
+    }
+
+    private DetailedReportService getDetailedReportService() {
+        if (detailedReportService == null) {
+            WebUtils.springInjection(this);
+        }
+
+        return detailedReportService;
+    }
+
     @Override
     protected IModel<String> getExcelReportName() {
         return new ResourceModel("report.title.detailed");
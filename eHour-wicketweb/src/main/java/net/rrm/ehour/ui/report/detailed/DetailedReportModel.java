@@ -17,6 +17,7 @@
 package net.rrm.ehour.ui.report.detailed;
 
 import com.google.common.collect.Maps;
+import net.rrm.ehour.persistence.hibernate.DataVersion;
 import net.rrm.ehour.report.criteria.AggregateBy;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.reports.ReportData;
@@ -24,6 +25,7 @@ import net.rrm.ehour.report.reports.element.FlatReportElement;
 import net.rrm.ehour.report.service.DetailedReportService;
 import net.rrm.ehour.ui.common.report.DetailedReportConfig;
 import net.rrm.ehour.ui.common.util.WebUtils;
+import net.rrm.ehour.ui.report.cache.ReportCacheService;
 import net.rrm.ehour.ui.report.detailed.node.*;
 import net.rrm.ehour.ui.report.model.ReportNode;
 import net.rrm.ehour.ui.report.model.ReportNodeFactory;
@@ -31,10 +33,12 @@ import net.rrm.ehour.ui.report.model.TreeReportModel;
 import org.apache.wicket.spring.injection.annot.SpringBean;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Detailed report
@@ -55,13 +59,26 @@ public class DetailedReportModel extends TreeReportModel {
     @SpringBean(name = "detailedReportService")
     private DetailedReportService detailedReportService;
 
+    @SpringBean
+    private ReportCacheService reportCacheService;
+
+    private long dataVersion;
+
     public DetailedReportModel(ReportCriteria reportCriteria) {
         super(reportCriteria, DetailedReportConfig.DETAILED_REPORT_BY_DAY);
     }
 
     @Override
-    protected ReportData fetchReportData(ReportCriteria reportCriteria) {
-        return getDetailedReportService().getDetailedReportData(reportCriteria);
+    protected ReportData fetchReportData(final ReportCriteria reportCriteria) {
+        // read before querying, the report may be newer but never older than this version
+        dataVersion = DataVersion.current();
+
+        return getReportCacheService().fetchReportData("detailed", reportCriteria, new Callable<ReportData>() {
+            @Override
+            public ReportData call() {
+                return getDetailedReportService().getDetailedReportData(reportCriteria);
+            }
+        });
     }
 
     @SuppressWarnings("unchecked")
@@ -76,7 +93,8 @@ public class DetailedReportModel extends TreeReportModel {
             AggregateConverter aggregateFunction = AGGREGATE_MAP.get(aggregateBy);
             elements = DetailedReportAggregator.aggregate(originalElements, aggregateFunction);
         } else {
-            elements = originalElements;
+            // the original elements may be shared through the report cache, sort a copy
+            elements = new ArrayList<>(originalElements);
         }
 
         sortOnDate(elements);
@@ -84,22 +102,37 @@ public class DetailedReportModel extends TreeReportModel {
         return new ReportData(reportData.getLockedDays(), elements, reportData.getReportRange(), reportCriteria.getUserSelectedCriteria());
     }
 
+    /**
+     * Sort on date and then assignment, the order in which DetailedReportExcel streams the report
+     */
     private void sortOnDate(List<FlatReportElement> reportElements) {
         Collections.sort(reportElements, new Comparator<FlatReportElement>() {
             @Override
             public int compare(FlatReportElement o1, FlatReportElement o2) {
+                int dateOrder = compareNullsFirst(o1.getDayDate(), o2.getDayDate());
 
-                if (o1.getDayDate() == null) {
-                    return -1;
-                } else if (o2.getDayDate() == null) {
-                    return 1;
-                } else {
-                    return o1.getDayDate().compareTo(o2.getDayDate());
-                }
+                return dateOrder != 0 ? dateOrder : compareNullsFirst(o1.getAssignmentId(), o2.getAssignmentId());
             }
         });
     }
 
+    private static <T extends Comparable<? super T>> int compareNullsFirst(T o1, T o2) {
+        if (o1 == null) {
+            return o2 == null ? 0 : -1;
+        } else if (o2 == null) {
+            return 1;
+        } else {
+            return o1.compareTo(o2);
+        }
+    }
+
+    /**
+     * Data version of the report data last fetched
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
     private DetailedReportService getDetailedReportService() {
         if (detailedReportService == null) {
             WebUtils.springInjection(this);
@@ -108,6 +141,14 @@ public class DetailedReportModel extends TreeReportModel {
         return detailedReportService;
     }
 
+    private ReportCacheService getReportCacheService() {
+        if (reportCacheService == null) {
+            WebUtils.springInjection(this);
+        }
+
+        return reportCacheService;
+    }
+
     @Override
     public ReportNodeFactory<FlatReportElement> getReportNodeFactory() {
         return new ReportNodeFactory<FlatReportElement>() {
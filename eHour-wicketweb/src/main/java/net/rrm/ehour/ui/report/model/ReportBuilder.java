@@ -20,8 +20,11 @@ import net.rrm.ehour.report.reports.ReportData;
 import net.rrm.ehour.report.reports.element.ReportElement;
 import org.apache.log4j.Logger;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ReportBuilder
@@ -33,34 +36,38 @@ public class ReportBuilder {
     protected static final Logger logger = Logger.getLogger(ReportBuilder.class);
 
     /**
-     * Create report
+     * Create report. Root nodes are looked up by id in a hash index so building the tree is linear in the number of elements
      */
     @SuppressWarnings("unchecked")
     public List<ReportNode> createReport(ReportData reportData, ReportNodeFactory nodeFactory) {
         List<ReportNode> reportNodes = new ArrayList<>();
+        Map<Serializable, ReportNode> rootIndex = new HashMap<>();
 
         for (ReportElement reportElement : reportData.getReportElements()) {
-            if (!processElement(reportElement, nodeFactory, reportNodes)) {
-                ReportNode node = nodeFactory.createReportNode(reportElement, 0);
+            ReportNode node = findRootNode(reportElement, reportNodes, rootIndex);
+
+            if (node != null) {
+                node.processElement(reportElement, 0, nodeFactory);
+            } else {
+                node = nodeFactory.createReportNode(reportElement, 0);
                 node.processElement(reportElement, 0, nodeFactory);
                 reportNodes.add(node);
+
+                if (!rootIndex.containsKey(node.getId())) {
+                    rootIndex.put(node.getId(), node);
+                }
             }
         }
 
         return reportNodes;
     }
 
-    private boolean processElement(ReportElement element, ReportNodeFactory factory, List<ReportNode> reportNodes) {
-        boolean processed = false;
-
-        // check for each reportNode whether 
-        for (ReportNode reportNode : reportNodes) {
-            if (reportNode.processElement(element, 0, factory)) {
-                processed = true;
-                break;
-            }
+    private ReportNode findRootNode(ReportElement element, List<ReportNode> reportNodes, Map<Serializable, ReportNode> rootIndex) {
+        if (reportNodes.isEmpty()) {
+            return null;
         }
 
-        return processed;
+        // root nodes are all on the same hierarchy level and share the element id
+        return rootIndex.get(reportNodes.get(0).getElementId(element));
     }
 }
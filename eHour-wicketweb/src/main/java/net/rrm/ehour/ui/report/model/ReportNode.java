@@ -20,7 +20,9 @@ import net.rrm.ehour.report.reports.element.ReportElement;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Tree structure of abstract nodes for reporting purposes.
@@ -31,6 +33,9 @@ public abstract class ReportNode implements Serializable {
 
     protected Serializable[] columnValues;
     private List<ReportNode> reportNodes = new ArrayList<>();
+    private transient Map<Serializable, ReportNode> childIndex;
+    private float totalHours;
+    private float totalTurnover;
     private final Serializable id;
     private final boolean empty;
 
@@ -96,54 +101,101 @@ public abstract class ReportNode implements Serializable {
      * @param aggregate
      * @return
      */
-    @SuppressWarnings("unchecked")
     public boolean processElement(ReportElement reportElement,
                                   int hierarchyLevel,
                                   ReportNodeFactory nodeFactory) {
-        boolean processed = false;
+        if (shouldProcessElement(reportElement)) {
+            addElement(reportElement, hierarchyLevel, nodeFactory);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Add the element, which has the same id as this node, to the subtree of this node.
+     * Matching children are looked up in a hash index rather than scanned, and the hours and
+     * turnover of the leaf are added to the totals of every node on the way down.
+     *
+     * @return the leaf node that holds the element
+     */
+    @SuppressWarnings("unchecked")
+    private ReportNode addElement(ReportElement reportElement,
+                                  int hierarchyLevel,
+                                  ReportNodeFactory nodeFactory) {
+        ReportNode leaf = null;
+        ReportNode childNode = findChildNode(reportElement);
 
-        // first check if we need to add the aggregate to his node
-        if (shouldProcessElement(reportElement) && !(processed = processChildNodes(reportElement, hierarchyLevel + 1, nodeFactory))) {
+        if (childNode != null) {
+            leaf = childNode.addElement(reportElement, hierarchyLevel + 1, nodeFactory);
+        } else {
             // if not make a new child node for this aggregate
             ReportNode node = nodeFactory.createReportNode(reportElement, ++hierarchyLevel);
 
             // if the new node is not the last child, check whether one
             // of it's subschildren can process it
-            if (!node.isLeaf()) {
-                node.processElement(reportElement, hierarchyLevel, nodeFactory);
+            if (node.isLeaf()) {
+                leaf = node;
+            } else if (node.shouldProcessElement(reportElement)) {
+                leaf = node.addElement(reportElement, hierarchyLevel, nodeFactory);
             }
 
-            reportNodes.add(node);
-            processed = true;
+            addChildNode(node);
         }
 
-        return processed;
+        if (leaf != null) {
+            totalHours += asFloat(leaf.getHours());
+            totalTurnover += asFloat(leaf.getTurnover());
+        }
+
+        return leaf;
     }
 
     /**
-     * Is the aggregate processed by the childnodes?
-     *
-     * @param element
-     * @return
+     * Find the child node which should process the element. Leaf children never process
+     * another element, every element gets its own leaf
      */
-    private boolean processChildNodes(ReportElement element,
-                                      int hierarchyLevel,
-                                      ReportNodeFactory nodeFactory) {
-        boolean processed = false;
+    private ReportNode findChildNode(ReportElement element) {
+        if (reportNodes.isEmpty() || reportNodes.get(0).isLeaf()) {
+            return null;
+        }
 
-        for (ReportNode node : reportNodes) {
-            // if the children are last nodes don't bother checking
-            if (node.isLeaf()) {
-                break;
+        // all children are on the same hierarchy level so they share the same element id
+        Serializable elementId = reportNodes.get(0).getElementId(element);
+        return getChildIndex().get(elementId);
+    }
+
+    private void addChildNode(ReportNode node) {
+        reportNodes.add(node);
+
+        if (!node.isLeaf()) {
+            Map<Serializable, ReportNode> index = getChildIndex();
+
+            if (!index.containsKey(node.getId())) {
+                index.put(node.getId(), node);
             }
+        }
+    }
 
-            if (node.processElement(element, hierarchyLevel, nodeFactory)) {
-                processed = true;
-                break;
+    /**
+     * The index is not serialized with the node, rebuild it from the children when needed
+     */
+    private Map<Serializable, ReportNode> getChildIndex() {
+        if (childIndex == null) {
+            childIndex = new HashMap<>();
+
+            for (ReportNode reportNode : reportNodes) {
+                if (!reportNode.isLeaf() && !childIndex.containsKey(reportNode.getId())) {
+                    childIndex.put(reportNode.getId(), reportNode);
+                }
             }
         }
 
-        return processed;
+        return childIndex;
+    }
+
+    private static float asFloat(Number number) {
+        return number != null ? number.floatValue() : 0;
     }
 
     /**
@@ -175,40 +227,20 @@ public abstract class ReportNode implements Serializable {
     }
 
     /**
-     * Get hours
+     * Get hours, aggregated while the tree was built
      *
      * @return
      */
     public Number getHours() {
-        float totalHours = 0;
-
-        for (ReportNode reportNode : reportNodes) {
-            Number hours = reportNode.getHours();
-
-            if (hours != null) {
-                totalHours += hours.floatValue();
-            }
-        }
-
         return totalHours;
     }
 
     /**
-     * Get turnover
+     * Get turnover, aggregated while the tree was built
      *
      * @return
      */
     public Number getTurnover() {
-        float totalTurnover = 0;
-
-        for (ReportNode reportNode : reportNodes) {
-            Number turnOver = reportNode.getTurnover();
-
-            if (turnOver != null) {
-                totalTurnover += turnOver.floatValue();
-            }
-        }
-
         return totalTurnover;
     }
 
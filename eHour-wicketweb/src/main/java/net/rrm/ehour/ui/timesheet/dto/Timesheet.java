@@ -16,6 +16,7 @@
 
 package net.rrm.ehour.ui.timesheet.dto;
 
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 
@@ -35,34 +36,24 @@ public class Timesheet implements Serializable {
     private User user;
     private TimesheetComment comment;
     private float maxHoursPerDay;
-    private List<Date> lockedDays;
+    private LockedDays lockedDays;
 
+    /**
+     * The date sequence is a run of consecutive days so it's checked as one range
+     */
     public boolean isAnyLocked() {
-        for (int i = 0; i < dateSequence.length; i++) {
-            if (isLocked(i)) {
-                return true;
-            }
-        }
-
-        return false;
+        return dateSequence.length > 0 && lockedDays.isAnyLocked(dateSequence[0], dateSequence[dateSequence.length - 1]);
     }
 
     public boolean isAllLocked() {
-        boolean allLocked = true;
-
-        for (int i = 0; i < dateSequence.length; i++) {
-            allLocked &= isLocked(i);
-        }
-
-        return allLocked;
-
+        return dateSequence.length == 0 || lockedDays.isAllLocked(dateSequence[0], dateSequence[dateSequence.length - 1]);
     }
 
     public boolean isLocked(int seq) {
-        return lockedDays.contains(dateSequence[seq]);
+        return lockedDays.isLocked(dateSequence[seq]);
     }
 
-    public void setLockedDays(List<Date> lockedDays) {
+    public void setLockedDays(LockedDays lockedDays) {
         this.lockedDays = lockedDays;
     }
 
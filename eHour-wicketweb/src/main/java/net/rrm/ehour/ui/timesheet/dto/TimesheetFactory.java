@@ -16,8 +16,8 @@
 
 package net.rrm.ehour.ui.timesheet.dto;
 
-import com.google.common.collect.Lists;
 import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.Customer;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.TimesheetEntry;
@@ -65,16 +65,14 @@ public class TimesheetFactory {
         return timesheet;
     }
 
-    private List<TimesheetDate> createTimesheetDates(List<Date> dateSequence, Collection<Date> lockedDays) {
-        List<String> formattedLockedDays = formatLockedDays(lockedDays);
-
+    private List<TimesheetDate> createTimesheetDates(List<Date> dateSequence, LockedDays lockedDays) {
         List<TimesheetDate> dates = new ArrayList<>();
 
         for (Date date : dateSequence) {
             Calendar calendar = DateUtil.getCalendar(config);
             calendar.setTime(date);
             String formattedDate = weekOverview.formatter.format(date);
-            boolean locked = formattedLockedDays.contains(formattedDate);
+            boolean locked = lockedDays.isLocked(date);
 
             dates.add(new TimesheetDate(date, calendar.get(Calendar.DAY_OF_WEEK) - 1, formattedDate, locked));
         }
@@ -82,16 +80,6 @@ public class TimesheetFactory {
         return dates;
     }
 
-    private List<String> formatLockedDays(Collection<Date> lockedDays) {
-        List<String> formattedLockedDays = Lists.newArrayList();
-
-        for (Date lockedDay : lockedDays) {
-            formattedLockedDays.add(weekOverview.formatter.format(lockedDay));
-        }
-
-        return formattedLockedDays;
-    }
-
     private SortedMap<Customer, List<TimesheetRow>> structureRowsPerCustomer(List<TimesheetRow> rows) {
         SortedMap<Customer, List<TimesheetRow>> customerMap = new TreeMap<>();
 
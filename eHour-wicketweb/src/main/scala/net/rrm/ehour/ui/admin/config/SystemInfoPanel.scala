@@ -1,10 +1,12 @@
 package net.rrm.ehour.ui.admin.config
 
+import net.rrm.ehour.persistence.hibernate.CacheRegionStatistics
 import net.rrm.ehour.sysinfo.SystemInfoService
 import net.rrm.ehour.ui.EhourWebApplication
 import net.rrm.ehour.ui.common.panel.AbstractBasePanel
 import net.rrm.ehour.ui.common.session.EhourWebSession
 import org.apache.wicket.markup.html.basic.Label
+import org.apache.wicket.markup.html.list.{ListItem, ListView}
 import org.apache.wicket.spring.injection.annot.SpringBean
 
 class SystemInfoPanel(id: String) extends AbstractBasePanel(id) {
@@ -33,5 +35,22 @@ class SystemInfoPanel(id: String) extends AbstractBasePanel(id) {
     add(new Label("db.name", info.databaseName))
     add(new Label("db.driver", info.jdbcDriver))
     add(new Label("db.url", if (inDemoMode) "" else info.databaseUrl))
+
+    add(new ListView[CacheRegionStatistics]("cacheRegions", infoService.cacheStatistics) {
+      override def populateItem(item: ListItem[CacheRegionStatistics]) {
+        val region = item.getModelObject
+
+        item.add(new Label("name", region.getRegionName))
+        item.add(new Label("size", if (region.getMaxEntries > 0) s"${region.getElementCount} / ${region.getMaxEntries}" else region.getElementCount.toString))
+        item.add(new Label("hits", region.getHitCount.toString))
+        item.add(new Label("misses", region.getMissCount.toString))
+        item.add(new Label("hitRatio", s"${region.getHitRatio}%"))
+        item.add(new Label("evictions", region.getEvictionCount.toString))
+      }
+    })
+
+    val retries = infoService.retryStatistics
+    add(new Label("db.circuit", retries.circuit))
+    add(new Label("db.retries", s"${retries.retries} retries, ${retries.recovered} recovered, ${retries.givenUp} given up, ${retries.shortCircuited} rejected"))
   }
 }
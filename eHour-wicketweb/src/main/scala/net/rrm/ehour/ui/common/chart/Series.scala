@@ -1,7 +1,7 @@
 package net.rrm.ehour.ui.common.chart
 
 import org.joda.time.DateTime
-import collection.Seq
+import collection.{Seq, mutable}
 
 import scala.language.implicitConversions
 
@@ -30,25 +30,28 @@ case class SparseDateSeries(name: String = "",
                             dateEnd: DateTime,
                             yAxis: Option[Int] = None,
                             dateIncrease: DateTime => DateTime = _.plusDays(1)) extends AbstractSeries[DateFloatValue] {
-  override def preProcess(): Series[Float] = {
-    val groupedByDate = data groupBy (_.date)
+  override def preProcess(): Series[Float] = Series[Float](name, toFloatArray, yAxis)
 
-    val dateTuplesWithSummedValues = groupedByDate.keys.toSeq sortWith (_ isBefore _) map (k =>
-      (k, groupedByDate.getOrElse(k, Seq()).foldLeft(0f)(_ + _.value))
-      )
+  /**
+   * Sum the values per date into a primitive array with a slot for every date increment from dateStart up to dateEnd.
+   * Values outside that range are dropped.
+   */
+  def toFloatArray: Array[Float] = {
+    val slots = mutable.HashMap[DateTime, Int]()
 
-    val dateMappedValues = dateTuplesWithSummedValues.toMap
+    var date = dateStart
 
-    def padSeriesData(date: DateTime, paddedSeries: List[Float] = List()): Seq[Float] = {
-      if (date isAfter dateEnd) {
-        paddedSeries.reverse
-      } else {
-        padSeriesData(dateIncrease(date), dateMappedValues.getOrElse(date, 0f) :: paddedSeries)
-      }
+    while (!(date isAfter dateEnd)) {
+      slots.put(date, slots.size)
+      date = dateIncrease(date)
     }
 
-    val paddedSeriesData = padSeriesData(dateStart)
+    val values = new Array[Float](slots.size)
 
-    Series[Float](name, paddedSeriesData, yAxis)
+    for (value <- data; slot <- slots.get(value.date)) {
+      values(slot) += value.value
+    }
+
+    values
   }
 }
@@ -0,0 +1,56 @@
+package net.rrm.ehour.ui.report.cache
+
+import java.util.Date
+
+import net.rrm.ehour.domain.{Customer, Project, User, UserDepartment}
+import net.rrm.ehour.report.criteria.UserSelectedCriteria
+
+import scala.collection.convert.WrapAsScala
+
+/**
+ * Canonical form of the user selected criteria that determine the report data. Entities are reduced to their id and
+ * selections are sorted, so equal selections made in a different order give the same form. The aggregation only
+ * counts as far as it drops the comments, presentation settings like sort orders are left out.
+ */
+object CanonicalCriteria {
+  def apply(criteria: UserSelectedCriteria): String = {
+    val range = criteria.getReportRange
+
+    Seq(s"type=${criteria.getSelectedReportType}",
+      s"pm=${userId(criteria.getPm)}",
+      s"start=${time(if (range == null) null else range.getDateStart)}",
+      s"end=${time(if (range == null) null else range.getDateEnd)}",
+      s"infiniteStart=${criteria.isInfiniteStartDate}",
+      s"infiniteEnd=${criteria.isInfiniteEndDate}",
+      s"activeProjects=${criteria.isOnlyActiveProjects}",
+      s"activeCustomers=${criteria.isOnlyActiveCustomers}",
+      s"activeUsers=${criteria.isOnlyActiveUsers}",
+      s"billable=${criteria.isOnlyBillableProjects}",
+      s"zeroBookings=${criteria.isShowZeroBookings}",
+      s"project=${projectId(criteria.getProject)}",
+      s"users=${ids(criteria.getUsers)(userId)}",
+      s"projects=${ids(criteria.getProjects)(projectId)}",
+      s"customers=${ids(criteria.getCustomers)(customerId)}",
+      s"departments=${ids(criteria.getDepartments)(departmentId)}",
+      s"custom=${customParameters(criteria)}").mkString(";")
+  }
+
+  private def ids[T](entities: java.util.Collection[T])(id: T => String): String =
+    if (entities == null) "" else WrapAsScala.collectionAsScalaIterable(entities).map(id).toSeq.sorted.mkString(",")
+
+  private def customParameters(criteria: UserSelectedCriteria): String = {
+    val parameters = criteria.getCustomParameters
+
+    if (parameters == null) "" else WrapAsScala.mapAsScalaMap(parameters).map { case (k, v) => s"$k:$v"}.toSeq.sorted.mkString(",")
+  }
+
+  private def time(date: Date) = if (date == null) "" else date.getTime.toString
+
+  private def userId(user: User) = if (user == null) "" else String.valueOf(user.getUserId)
+
+  private def projectId(project: Project) = if (project == null) "" else String.valueOf(project.getProjectId)
+
+  private def customerId(customer: Customer) = if (customer == null) "" else String.valueOf(customer.getCustomerId)
+
+  private def departmentId(department: UserDepartment) = if (department == null) "" else String.valueOf(department.getDepartmentId)
+}
@@ -1,32 +1,137 @@
 package net.rrm.ehour.ui.report.cache
 
-import org.springframework.stereotype.Service
-import org.springframework.beans.factory.annotation.Autowired
+import java.security.SecureRandom
+import java.util.concurrent.{Callable, ConcurrentHashMap, ExecutionException, FutureTask}
+
+import com.google.common.base.Charsets
+import com.google.common.hash.Hashing
+import net.rrm.ehour.persistence.hibernate.DataVersion
+import net.rrm.ehour.report.criteria.{ReportCriteria, UserSelectedCriteria}
 import net.rrm.ehour.report.reports.ReportData
+import net.rrm.ehour.ui.report.detailed.DetailedReportCharts
+import net.sf.ehcache.Ehcache
+import org.apache.commons.lang.StringUtils
+import org.springframework.beans.factory.annotation.{Autowired, Value}
 import org.springframework.cache.ehcache.EhCacheCacheManager
-import java.util.UUID
+import org.springframework.stereotype.Service
 
 trait ReportCacheService {
+  /**
+   * Report data for the criteria as of the current data version, fetched when it isn't cached yet.
+   * Concurrent requests for the same report wait for a single fetch.
+   */
+  def fetchReportData(report: String, criteria: ReportCriteria, fetch: Callable[ReportData]): ReportData
+
   def storeReportData(reportData: ReportData): String
 
+  /**
+   * Store the chart series of a detailed report, the report data itself is already cached by fetchReportData.
+   *
+   * @param dataVersion the DataVersion read before the report was queried
+   */
+  def storeDetailedReportData(reportData: ReportData, dataVersion: Long): String
+
   def retrieveReportData(key: String): Option[ReportData]
+
+  def retrieveChartData(key: String): Option[DetailedReportCharts]
 }
 
+/**
+ * Keys are a hash of the canonical criteria and the data version, so equal criteria share an entry until data is
+ * written. The hash is salted per instance as the keys end up in chart urls. The cache is bounded in bytes,
+ * see report-ehcache.xml.
+ *
+ * The data version only counts writes made through Hibernate in this JVM. Reports are cached per node, so with
+ * several nodes on one database, or data changed outside of eHour, a node may serve reports missing those changes
+ * until the entries expire.
+ */
 @Service
-class ReportCacheServiceEhCacheImpl @Autowired() (cacheManager: EhCacheCacheManager) extends ReportCacheService {
+class ReportCacheServiceEhCacheImpl @Autowired() (cacheManager: EhCacheCacheManager,
+                                                  @Value("${ehour.report.cache.maxBytesLocalHeap:}") maxBytesLocalHeap: String) extends ReportCacheService {
+
+  def this(cacheManager: EhCacheCacheManager) = this(cacheManager, "")
 
   val cache = cacheManager.getCache("reportCache")
 
+  if (StringUtils.isNotBlank(maxBytesLocalHeap)) {
+    cache.getNativeCache.asInstanceOf[Ehcache].getCacheConfiguration.setMaxBytesLocalHeap(maxBytesLocalHeap)
+  }
+
+  private val salt = {
+    val bytes = new Array[Byte](16)
+    new SecureRandom().nextBytes(bytes)
+    bytes
+  }
+
+  private val fetches = new ConcurrentHashMap[String, FutureTask[ReportData]]()
+
+  override def fetchReportData(report: String, criteria: ReportCriteria, fetch: Callable[ReportData]): ReportData = {
+    // versioned before fetching so data written during the fetch is not cached under the new version
+    val key = keyFor(report, criteria.getUserSelectedCriteria)
+
+    retrieve[ReportData](key) getOrElse {
+      val task = new FutureTask[ReportData](fetch)
+      val running = fetches.putIfAbsent(key, task)
+
+      if (running == null) {
+        try {
+          task.run()
+          val reportData = await(task)
+          cache.put(key, reportData)
+          reportData
+        } finally {
+          fetches.remove(key, task)
+        }
+      } else {
+        await(running)
+      }
+    }
+  }
+
   override def storeReportData(reportData: ReportData): String = {
-    val key = UUID.randomUUID().toString
+    val key = keyFor("report", reportData.getCriteria)
+
+    if (retrieve[ReportData](key).isEmpty) {
+      cache.put(key, reportData)
+    }
+
+    key
+  }
+
+  override def storeDetailedReportData(reportData: ReportData, dataVersion: Long): String = {
+    val criteria = reportData.getCriteria
+    val key = keyFor(s"charts-${criteria.getAggregateBy}", criteria, dataVersion)
 
-    cache.put(key, reportData)
+    if (retrieve[DetailedReportCharts](key).isEmpty) {
+      cache.put(key, DetailedReportCharts(reportData))
+    }
 
     key
   }
 
-  override def retrieveReportData(key: String): Option[ReportData] = {
+  override def retrieveReportData(key: String): Option[ReportData] = retrieve[ReportData](key)
+
+  override def retrieveChartData(key: String): Option[DetailedReportCharts] = retrieve[DetailedReportCharts](key)
+
+  private def keyFor(report: String, criteria: UserSelectedCriteria, dataVersion: Long = DataVersion.current()): String = {
+    val hash = Hashing.sha256().newHasher()
+      .putBytes(salt)
+      .putBytes(CanonicalCriteria(criteria).getBytes(Charsets.UTF_8))
+      .hash()
+
+    s"$report-$hash-$dataVersion"
+  }
+
+  // report data and chart series have keys of their own, a key never holds the other type
+  private def retrieve[T](key: String): Option[T] = {
     val value = cache.get(key)
-    if (value == null) None else Some(value.get().asInstanceOf[ReportData])
+    if (value == null) None else Some(value.get().asInstanceOf[T])
   }
+
+  private def await(task: FutureTask[ReportData]): ReportData =
+    try {
+      task.get()
+    } catch {
+      case e: ExecutionException => throw e.getCause
+    }
 }
@@ -0,0 +1,29 @@
+package net.rrm.ehour.ui.report.detailed
+
+import java.util
+import java.util.Date
+
+import net.rrm.ehour.report.criteria.AggregateBy
+import net.rrm.ehour.report.reports.ReportData
+import net.rrm.ehour.ui.common.chart.SparseDateSeries
+import net.rrm.ehour.util._
+
+/**
+ * Chart series of a detailed report, padded and summed when the report is cached so chart redraws
+ * don't have to regenerate them from the report elements.
+ */
+case class DetailedReportCharts(aggregateBy: AggregateBy,
+                                startDate: Date,
+                                hours: util.List[JSparseDateSeries],
+                                turnover: util.List[JSparseDateSeries])
+
+object DetailedReportCharts {
+  def apply(reportData: ReportData): DetailedReportCharts = {
+    def process(series: List[SparseDateSeries]) = toJava(series.map(JSparseDateSeries(_)))
+
+    DetailedReportCharts(aggregateBy = reportData.getCriteria.getAggregateBy,
+                         startDate = reportData.getReportRange.getDateStart,
+                         hours = process(DetailedReportChartGenerator.generateHourBasedDetailedChartData(reportData)),
+                         turnover = process(DetailedReportChartGenerator.generateTurnoverBasedDetailedChartData(reportData)))
+  }
+}
@@ -70,7 +70,8 @@ class DetailedReportPanel(id: String, report: DetailedReportModel) extends Abstr
     treeReportData.getRawReportData
   }
 
-  private def storeReportData(data: ReportData) = reportCacheService.storeReportData(data)
+  // after rawReportData, which fetches the report and reads the data version it's fetched at
+  private def storeReportData(data: ReportData) = reportCacheService.storeDetailedReportData(data, report.getDataVersion)
 
   override def onEvent(event: IEvent[_]) = {
     event.getPayload match {
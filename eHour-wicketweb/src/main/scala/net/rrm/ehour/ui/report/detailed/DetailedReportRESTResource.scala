@@ -1,6 +1,6 @@
 package net.rrm.ehour.ui.report.detailed
 
-import java.util
+import javax.servlet.http.HttpServletResponse
 
 import net.rrm.ehour.ui.common.chart.{GsonSerializer, SparseDateSeries}
 import net.rrm.ehour.ui.common.session.EhourWebSession
@@ -9,6 +9,8 @@ import net.rrm.ehour.ui.report.cache.ReportCacheService
 import net.rrm.ehour.util._
 import org.apache.log4j.Logger
 import org.apache.wicket.model.StringResourceModel
+import org.apache.wicket.request.cycle.RequestCycle
+import org.apache.wicket.request.http.{WebRequest, WebResponse}
 import org.apache.wicket.spring.injection.annot.SpringBean
 import org.wicketstuff.rest.annotations.MethodMapping
 import org.wicketstuff.rest.contenthandling.IWebSerialDeserial
@@ -16,8 +18,6 @@ import org.wicketstuff.rest.contenthandling.json.objserialdeserial.GsonObjectSer
 import org.wicketstuff.rest.contenthandling.json.webserialdeserial.JsonWebSerialDeserial
 import org.wicketstuff.rest.resource.AbstractRestResource
 
-import scala.collection.convert.WrapAsJava
-
 object DetailedReportRESTResource {
   def apply: DetailedReportRESTResource = new DetailedReportRESTResource(new JsonWebSerialDeserial(new GsonObjectSerialDeserial(GsonSerializer.create)))
 
@@ -31,42 +31,51 @@ class DetailedReportRESTResource(serializer: IWebSerialDeserial) extends Abstrac
   implicit def weekStartsAt: Int = DateUtil.fromCalendarToJodaTimeDayInWeek(EhourWebSession.getEhourConfig.getFirstDayOfWeek)
 
   @MethodMapping("/hour/{cacheKey}")
-  def getHourlyData(cacheKey: String): DetailedReportResponse = {
-    cacheService.retrieveReportData(cacheKey) match {
-      case Some(data) =>
-        val aggregateBy = data.getCriteria.getAggregateBy
-        val reportRange = data.getReportRange
-        val unprocessedSeries = DetailedReportChartGenerator.generateHourBasedDetailedChartData(data)
-
-        DetailedReportResponse(aggregateBy = aggregateBy,
-                                startDate = reportRange.getDateStart,
-                                aggregateByLabel =  aggregateBy.name().toLowerCase,
-                                yAxis = "Hours",
-                                series = toJava(unprocessedSeries.map(JSparseDateSeries(_))),
-                                hasReportRole =  EhourWebSession.getSession.isReporter)
-      case None =>
-        val errorMsg = s"no data found for key $cacheKey"
-        DetailedReportRESTResource.LOG.warn(errorMsg)
-        throw new IllegalArgumentException(errorMsg)
+  def getHourlyData(cacheKey: String): DetailedReportResponse =
+    respond(cacheKey, "hour") { charts =>
+      DetailedReportResponse(aggregateBy = charts.aggregateBy,
+                              startDate = charts.startDate,
+                              aggregateByLabel =  charts.aggregateBy.name().toLowerCase,
+                              yAxis = "Hours",
+                              series = charts.hours,
+                              hasReportRole =  EhourWebSession.getSession.isReporter)
     }
-  }
 
   @MethodMapping("/turnover/{cacheKey}")
-  def getTurnoverData(cacheKey: String): DetailedReportResponse = {
-    cacheService.retrieveReportData(cacheKey) match {
-      case Some(data) =>
-        val aggregateBy = data.getCriteria.getAggregateBy
-        val reportRange = data.getReportRange
-        val unprocessedSeries = DetailedReportChartGenerator.generateTurnoverBasedDetailedChartData(data)
-
-        val model = new StringResourceModel("userReport.report." + aggregateBy.name().toLowerCase, null)
-
-        DetailedReportResponse(aggregateBy = aggregateBy,
-                              startDate = reportRange.getDateStart,
-                              aggregateByLabel = model.getString.toLowerCase,
-                              yAxis = "Turnover",
-                              series = toJava(unprocessedSeries.map(JSparseDateSeries(_))),
-                              hasReportRole =  EhourWebSession.getSession.isReporter)
+  def getTurnoverData(cacheKey: String): DetailedReportResponse =
+    respond(cacheKey, "turnover") { charts =>
+      val model = new StringResourceModel("userReport.report." + charts.aggregateBy.name().toLowerCase, null)
+
+      DetailedReportResponse(aggregateBy = charts.aggregateBy,
+                            startDate = charts.startDate,
+                            aggregateByLabel = model.getString.toLowerCase,
+                            yAxis = "Turnover",
+                            series = charts.turnover,
+                            hasReportRole =  EhourWebSession.getSession.isReporter)
+    }
+
+  /**
+   * Cached reports never change, so the cache key identifies the chart. Answers with a 304 and no body
+   * when the client already has it.
+   */
+  private def respond(cacheKey: String, chart: String)(toResponse: DetailedReportCharts => DetailedReportResponse): DetailedReportResponse = {
+    cacheService.retrieveChartData(cacheKey) match {
+      case Some(charts) =>
+        val eTag = "\"%s-%s-%s\"".format(cacheKey, chart, EhourWebSession.getSession.getLocale)
+
+        val requestCycle = RequestCycle.get
+        val response = requestCycle.getResponse.asInstanceOf[WebResponse]
+        response.setHeader("ETag", eTag)
+        response.setHeader("Cache-Control", "private, no-cache")
+
+        val ifNoneMatch = requestCycle.getRequest.asInstanceOf[WebRequest].getHeader("If-None-Match")
+
+        if (ifNoneMatch != null && ifNoneMatch.split(",").exists(tag => tag.trim == eTag || tag.trim == "*")) {
+          response.setStatus(HttpServletResponse.SC_NOT_MODIFIED)
+          null
+        } else {
+          toResponse(charts)
+        }
       case None =>
         val errorMsg = s"no data found for key $cacheKey"
         DetailedReportRESTResource.LOG.warn(errorMsg)
@@ -82,16 +91,14 @@ class DetailedReportRESTResource(serializer: IWebSerialDeserial) extends Abstrac
 }
 
 case class JSparseDateSeries(name: String,
-                             data: util.List[Float],
+                             data: Array[Float],
                              yAxis: Integer = null)
 
 object JSparseDateSeries {
   def apply(series: SparseDateSeries): JSparseDateSeries = {
-    val processedSeries = series.preProcess()
-
-    processedSeries.yAxis match {
-      case Some(axis) => JSparseDateSeries(processedSeries.name, WrapAsJava.bufferAsJavaList(processedSeries.data.toBuffer), axis)
-      case None => JSparseDateSeries(processedSeries.name, WrapAsJava.bufferAsJavaList(processedSeries.data.toBuffer))
+    series.yAxis match {
+      case Some(axis) => JSparseDateSeries(series.name, series.toFloatArray, axis)
+      case None => JSparseDateSeries(series.name, series.toFloatArray)
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package net.rrm.ehour.ui.report.export
+
+import java.io.{BufferedWriter, OutputStreamWriter}
+import java.text.{ParseException, SimpleDateFormat}
+import java.util.Date
+import javax.servlet.http.HttpServletResponse
+
+import net.rrm.ehour.data.DateRange
+import net.rrm.ehour.domain.{Project, User}
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler
+import net.rrm.ehour.report.criteria.{ReportCriteria, UserSelectedCriteria}
+import net.rrm.ehour.report.reports.element.{AssignmentAggregateReportElement, FlatReportElement}
+import net.rrm.ehour.report.service.{AggregateReportService, DetailedReportService}
+import net.rrm.ehour.ui.common.session.EhourWebSession
+import net.rrm.ehour.ui.common.util.WebUtils
+import org.apache.wicket.request.mapper.parameter.PageParameters
+import org.apache.wicket.request.resource.AbstractResource.{ResourceResponse, WriteCallback}
+import org.apache.wicket.request.resource.{AbstractResource, ContentDisposition, IResource}
+import org.apache.wicket.spring.injection.annot.SpringBean
+import org.apache.wicket.util.time.Duration
+
+import scala.collection.JavaConversions._
+
+/**
+ * Exports the detailed or aggregate report as CSV or newline delimited JSON for data pipelines.
+ * Mounted on /rest/report/export/{detailed|aggregate}/{csv|ndjson} with the parameters
+ * start and end (yyyy-MM-dd, inclusive) and optionally userId, projectId (both repeatable) and zeroBookings.
+ *
+ * Detailed rows are written while they are paged from the database, without a content length so
+ * the response is sent chunked. Reporters export all hours, project managers the hours on their projects.
+ */
+class ReportExportResource extends AbstractResource {
+  @SpringBean(name = "detailedReportService")
+  var detailedReportService: DetailedReportService = _
+
+  @SpringBean(name = "aggregateReportService")
+  var aggregateReportService: AggregateReportService = _
+
+  override def newResourceResponse(attributes: IResource.Attributes): ResourceResponse = {
+    val response = new ResourceResponse
+    val session = EhourWebSession.getSession
+
+    if (!session.isReporter && !session.isProjectManager) {
+      response.setError(HttpServletResponse.SC_FORBIDDEN)
+      return response
+    }
+
+    val parameters = attributes.getParameters
+
+    (ReportExport.find(parameters.get("report").toString), ExportFormat.find(parameters.get("format").toString), parseCriteria(parameters)) match {
+      case (Some(export), Some(format), Right(criteria)) =>
+        if (!session.isReporter) {
+          val userSelectedCriteria = criteria.getUserSelectedCriteria
+          val users = new java.util.ArrayList(userSelectedCriteria.getUsers)
+
+          userSelectedCriteria.setReportTypeToPM(EhourWebSession.getUser)
+          userSelectedCriteria.setUsers(users)
+        }
+
+        response.setContentType(format.contentType)
+        response.setTextEncoding("UTF-8")
+        response.setContentDisposition(ContentDisposition.ATTACHMENT)
+        response.setFileName(s"${export.name}.${format.extension}")
+        response.setCacheDuration(Duration.NONE)
+
+        response.setWriteCallback(new WriteCallback {
+          override def writeData(attributes: IResource.Attributes) {
+            val out = new BufferedWriter(new OutputStreamWriter(attributes.getResponse.getOutputStream, "UTF-8"), ReportExportResource.BufferSize)
+            val rows = format.createWriter(out)
+
+            rows.header(export.columns)
+            export.write(criteria, rows, ReportExportResource.this)
+            out.flush()
+          }
+        })
+      case (None, _, _) => response.setError(HttpServletResponse.SC_NOT_FOUND, "unknown report, use detailed or aggregate")
+      case (_, None, _) => response.setError(HttpServletResponse.SC_NOT_FOUND, "unknown format, use csv or ndjson")
+      case (_, _, Left(error)) => response.setError(HttpServletResponse.SC_BAD_REQUEST, error)
+    }
+
+    response
+  }
+
+  private def parseCriteria(parameters: PageParameters): Either[String, ReportCriteria] = {
+    def parseDate(name: String): Either[String, Date] = {
+      val value = parameters.get(name)
+
+      if (value.isEmpty) {
+        Left(s"$name is required")
+      } else {
+        val format = new SimpleDateFormat("yyyy-MM-dd")
+        format.setLenient(false)
+
+        try {
+          Right(format.parse(value.toString))
+        } catch {
+          case e: ParseException => Left(s"$name should be formatted as yyyy-MM-dd")
+        }
+      }
+    }
+
+    def parseIds(name: String): Either[String, Seq[Integer]] = try {
+      Right(parameters.getValues(name).map(v => Integer.valueOf(v.toString)))
+    } catch {
+      case e: NumberFormatException => Left(s"$name should be numeric")
+    }
+
+    for {
+      start <- parseDate("start").right
+      end <- parseDate("end").right
+      userIds <- parseIds("userId").right
+      projectIds <- parseIds("projectId").right
+    } yield {
+      val criteria = new UserSelectedCriteria
+      criteria.setReportTypeToGlobal()
+      criteria.setReportRange(new DateRange(start, end))
+      criteria.setUsers(userIds.map(new User(_)))
+      criteria.setProjects(projectIds.map(new Project(_)))
+      criteria.setShowZeroBookings(parameters.get("zeroBookings").toBoolean(false))
+
+      new ReportCriteria(criteria)
+    }
+  }
+
+  private[export] def detailedService = {
+    if (detailedReportService == null) WebUtils.springInjection(this)
+
+    detailedReportService
+  }
+
+  private[export] def aggregateService = {
+    if (aggregateReportService == null) WebUtils.springInjection(this)
+
+    aggregateReportService
+  }
+}
+
+object ReportExportResource {
+  private final val BufferSize = 64 * 1024
+}
+
+sealed abstract class ExportFormat(val extension: String, val contentType: String) {
+  def createWriter(out: java.io.Writer): ReportRowWriter
+}
+
+object ExportFormat {
+  case object Csv extends ExportFormat("csv", "text/csv") {
+    override def createWriter(out: java.io.Writer) = new CsvRowWriter(out)
+  }
+
+  case object Ndjson extends ExportFormat("ndjson", "application/x-ndjson") {
+    override def createWriter(out: java.io.Writer) = new NdjsonRowWriter(out)
+  }
+
+  def find(extension: String): Option[ExportFormat] = Seq(Csv, Ndjson).find(_.extension == extension)
+}
+
+sealed abstract class ReportExport(val name: String, val columns: Seq[String]) {
+  def write(criteria: ReportCriteria, rows: ReportRowWriter, resource: ReportExportResource)
+}
+
+object ReportExport {
+  case object Detailed extends ReportExport("detailed", Seq("date", "customerCode", "customerName", "projectCode", "projectName",
+    "userId", "userFirstName", "userLastName", "role", "comment", "rate", "hours", "turnover")) {
+
+    override def write(criteria: ReportCriteria, rows: ReportRowWriter, resource: ReportExportResource) {
+      resource.detailedService.streamDetailedReportData(criteria, new FlatReportElementHandler {
+        override def handleElement(e: FlatReportElement) {
+          rows.row(Seq(e.getDayDate, e.getCustomerCode, e.getCustomerName, e.getProjectCode, e.getProjectName,
+            e.getUserId, e.getUserFirstName, e.getUserLastName, e.getRole, e.getComment, e.getRate, e.getTotalHours, e.getTotalTurnOver))
+        }
+      })
+    }
+  }
+
+  case object Aggregate extends ReportExport("aggregate", Seq("customerCode", "customerName", "projectCode", "projectName",
+    "userId", "userFirstName", "userLastName", "role", "rate", "hours", "turnover")) {
+
+    override def write(criteria: ReportCriteria, rows: ReportRowWriter, resource: ReportExportResource) {
+      val elements = resource.aggregateService.getAggregateReportData(criteria).getReportElements
+
+      for (element <- elements) {
+        val e = element.asInstanceOf[AssignmentAggregateReportElement]
+        val assignment = e.getProjectAssignment
+        val project = assignment.getProject
+        val user = assignment.getUser
+
+        rows.row(Seq(project.getCustomer.getCode, project.getCustomer.getName, project.getProjectCode, project.getName,
+          user.getUserId, user.getFirstName, user.getLastName, assignment.getRole, assignment.getHourlyRate, e.getHours, e.getTurnOver))
+      }
+    }
+  }
+
+  def find(name: String): Option[ReportExport] = Seq(Detailed, Aggregate).find(_.name == name)
+}
@@ -0,0 +1,107 @@
+package net.rrm.ehour.ui.report.export
+
+import java.io.Writer
+import java.text.SimpleDateFormat
+import java.util.Date
+
+/**
+ * Writes report rows as they come in, one line per row
+ */
+trait ReportRowWriter {
+  def header(columns: Seq[String])
+
+  def row(values: Seq[Any])
+}
+
+object ReportRowWriter {
+  private[export] def format(value: Any, dateFormat: SimpleDateFormat): String = value match {
+    case date: Date => dateFormat.format(date)
+    case other => other.toString
+  }
+}
+
+/**
+ * RFC 4180 CSV, fields with a separator, quote or line break are quoted
+ */
+class CsvRowWriter(out: Writer) extends ReportRowWriter {
+  private val dateFormat = new SimpleDateFormat("yyyy-MM-dd")
+
+  override def header(columns: Seq[String]) {
+    row(columns)
+  }
+
+  override def row(values: Seq[Any]) {
+    var first = true
+
+    for (value <- values) {
+      if (!first) out.write(',')
+      first = false
+
+      if (value != null) {
+        writeField(ReportRowWriter.format(value, dateFormat))
+      }
+    }
+
+    out.write("\r\n")
+  }
+
+  private def writeField(field: String) {
+    if (field.exists(c => c == ',' || c == '"' || c == '\n' || c == '\r')) {
+      out.write('"')
+      out.write(field.replace("\"", "\"\""))
+      out.write('"')
+    } else {
+      out.write(field)
+    }
+  }
+}
+
+/**
+ * Newline delimited JSON, one object per row keyed on the column names
+ */
+class NdjsonRowWriter(out: Writer) extends ReportRowWriter {
+  private val dateFormat = new SimpleDateFormat("yyyy-MM-dd")
+  private var columns: Seq[String] = Seq()
+
+  override def header(columns: Seq[String]) {
+    this.columns = columns
+  }
+
+  override def row(values: Seq[Any]) {
+    out.write('{')
+
+    for (((column, value), index) <- columns.zip(values).zipWithIndex) {
+      if (index > 0) out.write(',')
+
+      writeString(column)
+      out.write(':')
+
+      value match {
+        case null => out.write("null")
+        case number: Number => out.write(number.toString)
+        case bool: java.lang.Boolean => out.write(bool.toString)
+        case other => writeString(ReportRowWriter.format(other, dateFormat))
+      }
+    }
+
+    out.write("}\n")
+  }
+
+  private def writeString(s: String) {
+    out.write('"')
+
+    for (c <- s) {
+      c match {
+        case '"' => out.write("\\\"")
+        case '\\' => out.write("\\\\")
+        case '\n' => out.write("\\n")
+        case '\r' => out.write("\\r")
+        case '\t' => out.write("\\t")
+        case _ if c < ' ' => out.write(f"\\u${c.toInt}%04x")
+        case _ => out.write(c)
+      }
+    }
+
+    out.write('"')
+  }
+}
@@ -0,0 +1,67 @@
+package net.rrm.ehour.ui.admin.audit;
+
+import com.google.common.collect.Lists;
+import net.rrm.ehour.data.AuditReportRequest;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.ui.common.BaseSpringWebAppTester;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AuditReportDataProviderTest extends BaseSpringWebAppTester {
+    private AuditReportRequest request;
+    private AuditReportDataProvider provider;
+
+    @Before
+    public void before() throws Exception {
+        request = new AuditReportRequest();
+        provider = new AuditReportDataProvider(request);
+    }
+
+    @Test
+    public void shouldPageByLastAuditOfPreviousPage() {
+        when(getAuditService().findAuditsAfter(eq(request), any(Audit.class), eq(2)))
+                .thenReturn(Lists.newArrayList(audit(1), audit(2)), Lists.newArrayList(audit(3)));
+
+        provider.iterator(0, 2);
+        provider.iterator(2, 2);
+
+        ArgumentCaptor<Audit> after = ArgumentCaptor.forClass(Audit.class);
+        verify(getAuditService(), times(2)).findAuditsAfter(eq(request), after.capture(), eq(2));
+
+        assertNull(after.getAllValues().get(0));
+        assertEquals(2, after.getAllValues().get(1).getAuditId().intValue());
+        verify(getAuditService(), never()).findAudits(any(AuditReportRequest.class), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    public void shouldFallBackToOffsetForUnvisitedPage() {
+        provider.iterator(40, 20);
+
+        verify(getAuditService()).findAudits(request, 40, 20);
+    }
+
+    @Test
+    public void shouldCountAheadOfFurthestPage() {
+        when(getAuditService().findAuditsAfter(eq(request), any(Audit.class), eq(2))).thenReturn(Lists.newArrayList(audit(1), audit(2)));
+        when(getAuditService().getAuditCount(request, AuditReportDataProvider.COUNT_AHEAD + 2)).thenReturn(AuditReportDataProvider.COUNT_AHEAD + 2);
+
+        provider.iterator(0, 2);
+
+        assertEquals(AuditReportDataProvider.COUNT_AHEAD + 2, provider.size());
+        assertTrue(provider.hasMoreAudits());
+    }
+
+    private Audit audit(int id) {
+        Audit audit = new Audit().setDate(new Date(id * 1000L));
+        audit.setAuditId(id);
+        return audit;
+    }
+}
@@ -33,10 +33,10 @@ public class AuditReportPageTest extends BaseSpringWebAppTester
 {
 	@Before
 	public void before() throws Exception {
-        when(getAuditService().getAuditCount(any(AuditReportRequest.class))).thenReturn(5);
+        when(getAuditService().getAuditCount(any(AuditReportRequest.class), any(Integer.class))).thenReturn(5);
 
         Audit audit = new Audit(UserObjectMother.createUser(), new Date());
-        when(getAuditService().findAudits(any(AuditReportRequest.class), any(Integer.class), any(Integer.class))).thenReturn(Lists.newArrayList(audit));
+        when(getAuditService().findAuditsAfter(any(AuditReportRequest.class), any(Audit.class), any(Integer.class))).thenReturn(Lists.newArrayList(audit));
     }
 
     @Test
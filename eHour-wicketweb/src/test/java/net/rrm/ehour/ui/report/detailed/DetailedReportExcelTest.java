@@ -1,39 +1,123 @@
 package net.rrm.ehour.ui.report.detailed;
 
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler;
+import net.rrm.ehour.report.criteria.AggregateBy;
 import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.element.FlatReportElement;
 import net.rrm.ehour.report.service.DetailedReportService;
 import net.rrm.ehour.ui.common.BaseSpringWebAppTester;
 import net.rrm.ehour.ui.common.wicket.Model;
+import net.rrm.ehour.ui.report.cache.ReportCacheService;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
 
 public class DetailedReportExcelTest extends BaseSpringWebAppTester {
     @Mock
     private DetailedReportService detailedReportService;
 
+    @Mock
+    private ReportCacheService reportCacheService;
+
     @Before
     public void set_up() {
         MockitoAnnotations.initMocks(this);
 
         getMockContext().putBean("detailedReportService", detailedReportService);
+        getMockContext().putBean("reportCacheService", reportCacheService);
     }
 
     @Test
     public void should_generate() throws Exception {
         ReportCriteria criteria = DetailedReportDataObjectMother.getReportCriteria();
+        criteria.getUserSelectedCriteria().setAggregateBy(AggregateBy.WEEK);
 
         when(detailedReportService.getDetailedReportData(criteria)).thenReturn(DetailedReportDataObjectMother.getFlatReportData());
+        fetchThroughCache(reportCacheService);
 
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         new DetailedReportExcel(new Model<ReportCriteria>(criteria)).write(stream);
         byte[] excelData = stream.toByteArray();
         assertTrue(excelData.length > 0);
     }
+
+    @Test
+    public void should_stream_daily_report_rows() throws Exception {
+        ReportCriteria criteria = DetailedReportDataObjectMother.getReportCriteria();
+        List<FlatReportElement> elements = DetailedReportDataObjectMother.getFlatReportElements();
+
+        Sheet sheet = streamToSheet(criteria, elements);
+
+        // report name, date range, empty row and the column headers precede the data
+        assertEquals(3 + elements.size(), sheet.getLastRowNum());
+        assertEquals("A Company", sheet.getRow(4).getCell(1).getStringCellValue());
+        verify(detailedReportService, never()).getDetailedReportData(any(ReportCriteria.class));
+    }
+
+    @Test
+    public void should_group_the_streamed_rows_of_a_day_like_the_report_tree() throws Exception {
+        ReportCriteria criteria = DetailedReportDataObjectMother.getReportCriteria();
+        List<FlatReportElement> elements = DetailedReportDataObjectMother.getFlatReportElements().subList(0, 3);
+
+        for (FlatReportElement element : elements) {
+            element.setDayDate(elements.get(0).getDayDate());
+        }
+
+        elements.get(1).setCustomerId(2);
+        elements.get(1).setCustomerName("B Company");
+
+        Sheet sheet = streamToSheet(criteria, elements);
+
+        assertEquals("A Company", sheet.getRow(4).getCell(1).getStringCellValue());
+        assertEquals("A Company", sheet.getRow(5).getCell(1).getStringCellValue());
+        assertEquals("B Company", sheet.getRow(6).getCell(1).getStringCellValue());
+    }
+
+    private Sheet streamToSheet(ReportCriteria criteria, final List<FlatReportElement> elements) throws Exception {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                FlatReportElementHandler handler = (FlatReportElementHandler) invocation.getArguments()[1];
+
+                for (FlatReportElement element : elements) {
+                    handler.handleElement(element);
+                }
+
+                return null;
+            }
+        }).when(detailedReportService).streamDetailedReportData(eq(criteria), any(FlatReportElementHandler.class));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new DetailedReportExcel(new Model<ReportCriteria>(criteria)).write(stream);
+
+        return new XSSFWorkbook(new ByteArrayInputStream(stream.toByteArray())).getSheetAt(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void fetchThroughCache(ReportCacheService reportCacheService) {
+        when(reportCacheService.fetchReportData(anyString(), any(ReportCriteria.class), any(Callable.class))).thenAnswer(new Answer<ReportData>() {
+            @Override
+            public ReportData answer(InvocationOnMock invocation) throws Throwable {
+                return ((Callable<ReportData>) invocation.getArguments()[2]).call();
+            }
+        });
+    }
 }
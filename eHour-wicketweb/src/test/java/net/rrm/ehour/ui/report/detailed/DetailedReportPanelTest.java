@@ -17,14 +17,20 @@
 package net.rrm.ehour.ui.report.detailed;
 
 import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.reports.ReportData;
 import net.rrm.ehour.report.service.DetailedReportService;
 import net.rrm.ehour.ui.common.BaseSpringWebAppTester;
 import net.rrm.ehour.ui.report.cache.ReportCacheService;
 import org.apache.wicket.markup.html.basic.Label;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.Callable;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -36,12 +42,20 @@ public class DetailedReportPanelTest extends BaseSpringWebAppTester {
     private DetailedReportService detailedReportService;
 
     @Before
+    @SuppressWarnings("unchecked")
     public void setup() {
         detailedReportService = mock(DetailedReportService.class);
         getMockContext().putBean("detailedReportService", detailedReportService);
 
         ReportCacheService reportCacheService = mock(ReportCacheService.class);
         getMockContext().putBean("reportCacheService", reportCacheService);
+
+        when(reportCacheService.fetchReportData(anyString(), any(ReportCriteria.class), any(Callable.class))).thenAnswer(new Answer<ReportData>() {
+            @Override
+            public ReportData answer(InvocationOnMock invocation) throws Throwable {
+                return ((Callable<ReportData>) invocation.getArguments()[2]).call();
+            }
+        });
     }
 
     @Test
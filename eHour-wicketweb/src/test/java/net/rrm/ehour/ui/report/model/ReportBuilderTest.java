@@ -0,0 +1,124 @@
+package net.rrm.ehour.ui.report.model;
+
+import com.google.common.collect.Lists;
+import net.rrm.ehour.report.criteria.UserSelectedCriteria;
+import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.element.ReportElement;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportBuilderTest {
+    @Test
+    public void shouldGroupElementsPerLevelAndAggregateTotals() {
+        List<TestElement> elements = Lists.newArrayList(
+                new TestElement(1, 10, 2f),
+                new TestElement(2, 20, 3f),
+                new TestElement(1, 11, 4f),
+                new TestElement(1, 10, 5f));
+
+        List<ReportNode> nodes = new ReportBuilder().createReport(new ReportData(elements, null, new UserSelectedCriteria()), new TestNodeFactory());
+
+        assertEquals(2, nodes.size());
+
+        ReportNode first = nodes.get(0);
+        assertEquals(1, first.getId());
+        assertEquals(11f, first.getHours().floatValue(), 0.001f);
+        assertEquals(22f, first.getTurnover().floatValue(), 0.001f);
+
+        // two level 1 nodes (10 and 11), each element gets its own leaf
+        assertEquals(3, first.getNodeMatrix(3).size());
+
+        ReportNode second = nodes.get(1);
+        assertEquals(3f, second.getHours().floatValue(), 0.001f);
+        assertEquals(1, second.getNodeMatrix(3).size());
+    }
+
+    private static class TestElement implements ReportElement {
+        final Integer rootId;
+        final Integer childId;
+        final float hours;
+
+        TestElement(Integer rootId, Integer childId, float hours) {
+            this.rootId = rootId;
+            this.childId = childId;
+            this.hours = hours;
+        }
+    }
+
+    private static class TestNodeFactory implements ReportNodeFactory<TestElement> {
+        @Override
+        public ReportNode createReportNode(TestElement element, int hierarchyLevel) {
+            switch (hierarchyLevel) {
+                case 0:
+                    return new RootNode(element);
+                case 1:
+                    return new ChildNode(element);
+                default:
+                    return new LeafNode(element);
+            }
+        }
+
+        @Override
+        public Serializable getElementId(TestElement element) {
+            return element.rootId;
+        }
+    }
+
+    private static class RootNode extends ReportNode {
+        RootNode(TestElement element) {
+            super(element.rootId);
+            columnValues = new Serializable[]{element.rootId};
+        }
+
+        @Override
+        protected Serializable getElementId(ReportElement element) {
+            return ((TestElement) element).rootId;
+        }
+    }
+
+    private static class ChildNode extends ReportNode {
+        ChildNode(TestElement element) {
+            super(element.childId);
+            columnValues = new Serializable[]{element.childId};
+        }
+
+        @Override
+        protected Serializable getElementId(ReportElement element) {
+            return ((TestElement) element).childId;
+        }
+    }
+
+    private static class LeafNode extends ReportNode {
+        private final float hours;
+
+        LeafNode(TestElement element) {
+            super(element.hours);
+            hours = element.hours;
+            columnValues = new Serializable[]{element.hours};
+        }
+
+        @Override
+        protected Serializable getElementId(ReportElement element) {
+            return ((TestElement) element).hours;
+        }
+
+        @Override
+        public Number getHours() {
+            return hours;
+        }
+
+        @Override
+        public Number getTurnover() {
+            return hours * 2;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return true;
+        }
+    }
+}
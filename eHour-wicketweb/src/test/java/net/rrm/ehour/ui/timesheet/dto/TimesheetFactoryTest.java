@@ -1,8 +1,8 @@
 package net.rrm.ehour.ui.timesheet.dto;
 
-import com.google.common.collect.Lists;
 import net.rrm.ehour.config.EhourConfigStub;
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.data.LockedDays;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.timesheet.dto.WeekOverview;
 import net.rrm.ehour.util.DateUtil;
@@ -28,7 +28,7 @@ public class TimesheetFactoryTest {
         // given
         ProjectAssignment assignment = ProjectAssignmentObjectMother.createProjectAssignment(1);
 
-        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment), RANGE, null, Lists.<Date>newArrayList());
+        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment), RANGE, null, LockedDays.NONE);
 
 
         // when
@@ -52,7 +52,7 @@ public class TimesheetFactoryTest {
         assignment02.setAssignmentId(2);
         assignment02.setRole("role");
 
-        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment01, assignment02), RANGE, null, Lists.<Date>newArrayList());
+        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment01, assignment02), RANGE, null, LockedDays.NONE);
 
         // when
         Timesheet timesheet = new TimesheetFactory(config, weekOverview).createTimesheet();
@@ -76,7 +76,7 @@ public class TimesheetFactoryTest {
         assignment02.setAssignmentId(2);
         assignment02.setRole("role");
 
-        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment01, assignment02), RANGE, null, Lists.<Date>newArrayList());
+        WeekOverview weekOverview = new WeekOverview(Collections.<TimesheetEntry>emptyList(), null, Arrays.asList(assignment01, assignment02), RANGE, null, LockedDays.NONE);
 
         // when
         Timesheet timesheet = new TimesheetFactory(config, weekOverview).createTimesheet();
@@ -106,7 +106,7 @@ public class TimesheetFactoryTest {
         assignment02.getProject().setActive(false);
 
         TimesheetEntry entry = new TimesheetEntry(new TimesheetEntryId(new Date(), assignment02), 5f);
-        WeekOverview weekOverview = new WeekOverview(Collections.singletonList(entry), null, Collections.singletonList(assignment01), RANGE, null, Lists.<Date>newArrayList());
+        WeekOverview weekOverview = new WeekOverview(Collections.singletonList(entry), null, Collections.singletonList(assignment01), RANGE, null, LockedDays.NONE);
 
         // when
         Timesheet timesheet = new TimesheetFactory(config, weekOverview).createTimesheet();
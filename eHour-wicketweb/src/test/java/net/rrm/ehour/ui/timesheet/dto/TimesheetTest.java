@@ -1,10 +1,14 @@
 package net.rrm.ehour.ui.timesheet.dto;
 
+import net.rrm.ehour.data.LockedDays;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class TimesheetTest {
@@ -13,8 +17,24 @@ public class TimesheetTest {
         Timesheet timesheet = new Timesheet();
 
         Date date = new Date();
-        timesheet.setLockedDays(Arrays.asList(date));
+        timesheet.setLockedDays(LockedDays.fromDates(Arrays.asList(date)));
         timesheet.setDateSequence(new Date[]{date});
         assertTrue(timesheet.isLocked(0));
     }
+
+    @Test
+    public void should_check_whole_sequence_for_locks() {
+        Timesheet timesheet = new Timesheet();
+
+        Date monday = new GregorianCalendar(2015, Calendar.JANUARY, 5).getTime();
+        Date tuesday = new GregorianCalendar(2015, Calendar.JANUARY, 6).getTime();
+        timesheet.setDateSequence(new Date[]{monday, tuesday});
+
+        timesheet.setLockedDays(LockedDays.fromDates(Arrays.asList(tuesday)));
+        assertTrue(timesheet.isAnyLocked());
+        assertFalse(timesheet.isAllLocked());
+
+        timesheet.setLockedDays(LockedDays.fromDates(Arrays.asList(monday, tuesday)));
+        assertTrue(timesheet.isAllLocked());
+    }
 }
@@ -2,12 +2,11 @@ package net.rrm.ehour.report.reports
 
 import element.{AssignmentAggregateReportElementMother, AssignmentAggregateReportElement}
 import net.rrm.ehour.domain._
-import net.rrm.ehour.data.DateRange
+import net.rrm.ehour.data.{DateRange, LockedDays}
 import net.rrm.ehour.util.DateUtil
 import java.util.Calendar
 import scala.collection.convert.WrapAsJava
 import scala.collection.mutable
-import com.google.common.collect.Lists
 import net.rrm.ehour.report.criteria.UserSelectedCriteria
 
 object AggregateReportDataObjectMother {
@@ -34,7 +33,7 @@ object AggregateReportDataObjectMother {
     val reportElementF = new AssignmentAggregateReportElement(new ProjectAssignment(userT, projectB, 35), 10)
 
     val elements = mutable.Buffer(reportElementA, reportElementB, reportElementC, reportElementD, reportElementE, reportElementF)
-    new ReportData(Lists.newArrayList(), WrapAsJava.bufferAsJavaList(elements), DateUtil.getDateRangeForMonth(Calendar.getInstance()), new UserSelectedCriteria())
+    new ReportData(LockedDays.NONE, WrapAsJava.bufferAsJavaList(elements), DateUtil.getDateRangeForMonth(Calendar.getInstance()), new UserSelectedCriteria())
   }
 
   def getAssignmentAggregateReportElements = {
@@ -54,5 +53,5 @@ object AggregateReportDataObjectMother {
     WrapAsJava.bufferAsJavaList(mutable.Buffer(pagE, pagD, pagB, pagC, pagA, pagF))
   }
 
-  def getAssignmentReportData: ReportData = new ReportData(Lists.newArrayList(), getAssignmentAggregateReportElements, new DateRange, new UserSelectedCriteria())
+  def getAssignmentReportData: ReportData = new ReportData(LockedDays.NONE, getAssignmentAggregateReportElements, new DateRange, new UserSelectedCriteria())
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package net.rrm.ehour.ui.admin.config
 
+import java.util
+
 import net.rrm.ehour.AbstractSpringWebAppSpec
+import net.rrm.ehour.persistence.hibernate.CacheRegionStatistics
+import net.rrm.ehour.persistence.retry.RetryStatistics
 import net.rrm.ehour.sysinfo.{SystemInfo, SystemInfoService}
 import org.mockito.Mockito._
 
@@ -9,6 +13,7 @@ class SystemInfoPanelSpec extends AbstractSpringWebAppSpec {
   "System Info Panel"  should {
     val sysInfoService = mock[SystemInfoService]
     springTester.getMockContext.putBean(sysInfoService)
+    when(sysInfoService.retryStatistics).thenReturn(RetryStatistics(100, 4, 3, 1, 2, 0, "Closed"))
 
     "render" in {
       when(sysInfoService.info).thenReturn(SystemInfo("mysql", "..", "jdbc.Driver"))
@@ -16,6 +21,28 @@ class SystemInfoPanelSpec extends AbstractSpringWebAppSpec {
       tester.startComponentInPage(new SystemInfoPanel("id"))
       tester.assertNoErrorMessage()
     }
+
+    "render cache region statistics" in {
+      when(sysInfoService.info).thenReturn(SystemInfo("mysql", "..", "jdbc.Driver"))
+      when(sysInfoService.cacheStatistics).thenReturn(util.Arrays.asList(new CacheRegionStatistics("query.User", 10, 100, 30, 10, 12, 2)))
+
+      tester.startComponentInPage(new SystemInfoPanel("id"))
+      tester.assertNoErrorMessage()
+
+      tester.assertLabel("id:cacheRegions:0:name", "query.User")
+      tester.assertLabel("id:cacheRegions:0:size", "10 / 100")
+      tester.assertLabel("id:cacheRegions:0:hitRatio", "75%")
+    }
+
+    "render database retry statistics" in {
+      when(sysInfoService.info).thenReturn(SystemInfo("mysql", "..", "jdbc.Driver"))
+
+      tester.startComponentInPage(new SystemInfoPanel("id"))
+      tester.assertNoErrorMessage()
+
+      tester.assertLabel("id:db.circuit", "Closed")
+      tester.assertLabel("id:db.retries", "4 retries, 3 recovered, 1 given up, 0 rejected")
+    }
   }
 
 }
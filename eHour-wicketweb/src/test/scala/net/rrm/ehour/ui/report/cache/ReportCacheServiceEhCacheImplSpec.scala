@@ -1,9 +1,18 @@
 package net.rrm.ehour.ui.report.cache
 
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{Callable, CountDownLatch, Executors, TimeUnit}
+
+import com.google.common.collect.Lists
 import net.rrm.ehour.AbstractSpec
+import net.rrm.ehour.domain.User
+import net.rrm.ehour.persistence.hibernate.DataVersion
+import net.rrm.ehour.report.criteria.{ReportCriteria, UserSelectedCriteria}
+import net.rrm.ehour.report.reports.ReportData
 import org.mockito.Mockito._
 import org.springframework.cache.ehcache.{EhCacheCache, EhCacheCacheManager}
 import net.rrm.ehour.report.reports.AggregateReportDataObjectMother
+import net.rrm.ehour.ui.report.detailed.DetailedReportDataObjectMother
 import net.sf.ehcache.CacheManager
 
 class ReportCacheServiceEhCacheImplSpec extends AbstractSpec {
@@ -35,5 +44,103 @@ class ReportCacheServiceEhCacheImplSpec extends AbstractSpec {
 
       reportData should equal(retrievedData.get)
     }
+
+    "not have chart data for reports stored without it" in {
+      val key = cacheService.storeReportData(AggregateReportDataObjectMother.generateReportData)
+
+      cacheService.retrieveChartData(key) should be(None)
+    }
+
+    "compute the chart series when storing a detailed report" in {
+      val reportData = DetailedReportDataObjectMother.getFlatReportData
+
+      val key = cacheService.storeDetailedReportData(reportData, DataVersion.current())
+
+      cacheService.retrieveReportData(key) should be(None)
+
+      val charts = cacheService.retrieveChartData(key).get
+      charts.hours.get(0).data.sum should be(34.25f)
+      charts.turnover.get(0).data.sum should be(84f)
+    }
+
+    "key the chart series on the data version the report was queried at" in {
+      val reportData = DetailedReportDataObjectMother.getFlatReportData
+      val queriedAt = DataVersion.current()
+
+      DataVersion.increment()
+
+      cacheService.storeDetailedReportData(reportData, queriedAt) should not equal cacheService.storeDetailedReportData(reportData, DataVersion.current())
+    }
+
+    "share an entry between equal criteria regardless of selection order" in {
+      val key = cacheService.storeReportData(reportDataFor(new User(1), new User(2)))
+
+      cacheService.storeReportData(reportDataFor(new User(2), new User(1))) should equal(key)
+      cacheService.storeReportData(reportDataFor(new User(3))) should not equal key
+    }
+
+    "fetch report data once per data version" in {
+      val fetches = new AtomicInteger()
+      val criteria = new ReportCriteria(new UserSelectedCriteria)
+      val fetch = new Callable[ReportData] {
+        override def call(): ReportData = {
+          fetches.incrementAndGet()
+          AggregateReportDataObjectMother.generateReportData
+        }
+      }
+
+      val reportData = cacheService.fetchReportData("aggregate", criteria, fetch)
+      cacheService.fetchReportData("aggregate", criteria, fetch) should be theSameInstanceAs reportData
+      fetches.get should be(1)
+
+      DataVersion.increment()
+
+      cacheService.fetchReportData("aggregate", criteria, fetch) should not be theSameInstanceAs(reportData)
+      fetches.get should be(2)
+    }
+
+    "let concurrent requests for the same report wait for a single fetch" in {
+      val fetches = new AtomicInteger()
+      val started = new CountDownLatch(1)
+      val release = new CountDownLatch(1)
+      val criteria = new ReportCriteria(new UserSelectedCriteria)
+
+      val fetch = new Callable[ReportData] {
+        override def call(): ReportData = {
+          fetches.incrementAndGet()
+          started.countDown()
+          release.await(5, TimeUnit.SECONDS)
+          AggregateReportDataObjectMother.generateReportData
+        }
+      }
+
+      val executor = Executors.newFixedThreadPool(2)
+
+      try {
+        val first = executor.submit(new Callable[ReportData] {
+          override def call(): ReportData = cacheService.fetchReportData("aggregate", criteria, fetch)
+        })
+
+        started.await(5, TimeUnit.SECONDS)
+
+        val second = executor.submit(new Callable[ReportData] {
+          override def call(): ReportData = cacheService.fetchReportData("aggregate", criteria, fetch)
+        })
+
+        release.countDown()
+
+        second.get(5, TimeUnit.SECONDS) should be theSameInstanceAs first.get(5, TimeUnit.SECONDS)
+        fetches.get should be(1)
+      } finally {
+        executor.shutdownNow()
+      }
+    }
+  }
+
+  private def reportDataFor(users: User*) = {
+    val criteria = new UserSelectedCriteria
+    criteria.setUsers(Lists.newArrayList(users: _*))
+
+    new ReportData(Lists.newArrayList(), criteria.getReportRange, criteria)
   }
 }
@@ -28,4 +28,13 @@ class DetailedReportChartGeneratorTest extends FunSuite with Matchers with Befor
     series.data.head.value should be(15.0)
   }
 
+  test("should pad series into one value per day of the report range") {
+    val seriesList = DetailedReportChartGenerator.generateHourBasedDetailedChartData(reportData)
+
+    val values = seriesList.head.toFloatArray
+
+    values.length should be(6)
+    values(1) should be(16.25f)
+    values(4) should be(5f)
+  }
 }
\ No newline at end of file
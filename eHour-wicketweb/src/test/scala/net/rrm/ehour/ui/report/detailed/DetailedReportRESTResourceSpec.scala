@@ -11,7 +11,7 @@ class DetailedReportRESTResourceSpec extends AbstractSpringWebAppSpec {
      before {
       reset(cacheService)
 
-       when(cacheService.retrieveReportData("123")).thenReturn(Some(DetailedReportDataObjectMother.getFlatReportData))
+       when(cacheService.retrieveChartData("123")).thenReturn(Some(DetailedReportCharts(DetailedReportDataObjectMother.getFlatReportData)))
      }
 
     "properly serialize date value values" in {
@@ -22,5 +22,31 @@ class DetailedReportRESTResourceSpec extends AbstractSpringWebAppSpec {
 
       response should not include "{}"
     }
+
+    "answer with not modified when the client has the current chart" in {
+      tester.getRequest.setMethod("GET")
+      tester.executeUrl("./rest/report/detailed/hour/123")
+
+      val eTag = tester.getLastResponse.getHeader("ETag")
+      eTag should not be null
+
+      tester.getRequest.setMethod("GET")
+      tester.getRequest.setHeader("If-None-Match", eTag)
+      tester.executeUrl("./rest/report/detailed/hour/123")
+
+      tester.getLastResponse.getStatus should be(304)
+      tester.getLastResponseAsString should be("")
+    }
+
+    "use a different entity tag for the turnover chart" in {
+      tester.getRequest.setMethod("GET")
+      tester.executeUrl("./rest/report/detailed/hour/123")
+      val hourTag = tester.getLastResponse.getHeader("ETag")
+
+      tester.getRequest.setMethod("GET")
+      tester.executeUrl("./rest/report/detailed/turnover/123")
+
+      tester.getLastResponse.getHeader("ETag") should not equal hourTag
+    }
   }
 }
@@ -0,0 +1,108 @@
+package net.rrm.ehour.ui.report.export
+
+import net.rrm.ehour.AbstractSpringWebAppSpec
+import net.rrm.ehour.domain.UserRole
+import net.rrm.ehour.persistence.report.dao.FlatReportElementHandler
+import net.rrm.ehour.report.criteria.ReportCriteria
+import net.rrm.ehour.report.reports.AggregateReportDataObjectMother
+import net.rrm.ehour.report.service.{AggregateReportService, DetailedReportService}
+import net.rrm.ehour.ui.report.detailed.DetailedReportDataObjectMother
+import org.apache.wicket.authroles.authorization.strategies.role.Roles
+import org.mockito.ArgumentCaptor
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+
+import scala.collection.JavaConversions._
+
+class ReportExportResourceSpec extends AbstractSpringWebAppSpec {
+  "Report export resource" should {
+    val detailedReportService = mock[DetailedReportService]
+    val aggregateReportService = mock[AggregateReportService]
+
+    before {
+      reset(detailedReportService, aggregateReportService)
+
+      springTester.getMockContext.putBean("detailedReportService", detailedReportService)
+      springTester.getMockContext.putBean("aggregateReportService", aggregateReportService)
+
+      doAnswer(new Answer[Unit] {
+        override def answer(invocation: InvocationOnMock) {
+          val handler = invocation.getArguments()(1).asInstanceOf[FlatReportElementHandler]
+          DetailedReportDataObjectMother.getFlatReportElements.foreach(handler.handleElement)
+        }
+      }).when(detailedReportService).streamDetailedReportData(any(classOf[ReportCriteria]), any(classOf[FlatReportElementHandler]))
+    }
+
+    "stream the detailed report as csv" in {
+      tester.executeUrl("./rest/report/export/detailed/csv?start=2007-12-01&end=2007-12-31")
+
+      val lines = tester.getLastResponseAsString.split("\r\n")
+
+      lines.head should startWith("date,customerCode,customerName")
+      lines should have size (1 + DetailedReportDataObjectMother.getFlatReportElements.size)
+      lines(1) should startWith("2007-12-31,AA,A Company,PRJ,PRJ,5")
+    }
+
+    "stream the detailed report as newline delimited json" in {
+      tester.executeUrl("./rest/report/export/detailed/ndjson?start=2007-12-01&end=2007-12-31")
+
+      val lines = tester.getLastResponseAsString.split("\n")
+
+      lines should have size DetailedReportDataObjectMother.getFlatReportElements.size
+      lines(0) should include("\"date\":\"2007-12-31\"")
+      lines(0) should include("\"hours\":5")
+    }
+
+    "export the aggregate report" in {
+      when(aggregateReportService.getAggregateReportData(any(classOf[ReportCriteria]))).thenReturn(AggregateReportDataObjectMother.getAssignmentReportData)
+
+      tester.executeUrl("./rest/report/export/aggregate/csv?start=2007-12-01&end=2007-12-31&userId=1&userId=2")
+
+      val lines = tester.getLastResponseAsString.split("\r\n")
+      lines should have size (1 + AggregateReportDataObjectMother.getAssignmentAggregateReportElements.size)
+    }
+
+    "reject requests without a date range" in {
+      tester.executeUrl("./rest/report/export/detailed/csv?end=2007-12-31")
+
+      tester.getLastResponse.getStatus should be(400)
+      verify(detailedReportService, never()).streamDetailedReportData(any(classOf[ReportCriteria]), any(classOf[FlatReportElementHandler]))
+    }
+
+    "forbid users that are neither reporter nor project manager" in {
+      startTester(new Roles(UserRole.ROLE_USER))
+
+      tester.executeUrl("./rest/report/export/detailed/csv?start=2007-12-01&end=2007-12-31")
+
+      tester.getLastResponse.getStatus should be(403)
+      verify(detailedReportService, never()).streamDetailedReportData(any(classOf[ReportCriteria]), any(classOf[FlatReportElementHandler]))
+    }
+
+    "restrict project managers to the hours on their projects" in {
+      startTester(new Roles(s"${UserRole.ROLE_USER},${UserRole.ROLE_PROJECTMANAGER}"))
+
+      tester.executeUrl("./rest/report/export/detailed/csv?start=2007-12-01&end=2007-12-31&userId=1")
+
+      tester.getLastResponse.getStatus should be(200)
+
+      val captor = ArgumentCaptor.forClass(classOf[ReportCriteria])
+      verify(detailedReportService).streamDetailedReportData(captor.capture(), any(classOf[FlatReportElementHandler]))
+
+      val criteria = captor.getValue.getUserSelectedCriteria
+      criteria.isForPm should be(true)
+      criteria.getPm.getUserId should be(4)
+      criteria.getUsers.map(_.getUserId) should be(Seq(1))
+    }
+  }
+
+  "Csv row writer" should {
+    "quote fields with separators and quotes" in {
+      val out = new java.io.StringWriter()
+      new CsvRowWriter(out).row(Seq("a,b", "say \"hi\"", null, 1.5f))
+
+      out.toString should be("\"a,b\",\"say \"\"hi\"\"\",,1.5\r\n")
+    }
+  }
+}